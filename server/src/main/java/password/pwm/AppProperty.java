@@ -36,6 +36,10 @@ public enum AppProperty
     APPLICATION_READ_APP_LOCK_MAX_WAIT_MS           ( "application.readAppLock.maxWaitMs" ),
     APPLICATION_RESTART_MAX_REQUEST_WAIT_MS         ( "application.restart.maxRequestWaitMs" ),
     APPLICATION_WORDLIST_RETRY_SECONDS              ( "application.wordlistRetryImportSeconds" ),
+
+    /** Maximum number of services initialized concurrently during startup, one initializes services serially. */
+    APPLICATION_SERVICE_INIT_MAX_THREADS            ( "application.serviceInit.maxThreads" ),
+
     AUDIT_EVENTS_EMAILFROM                          ( "audit.events.emailFrom" ),
     AUDIT_EVENTS_EMAILSUBJECT                       ( "audit.events.emailSubject" ),
     AUDIT_EVENTS_LOCALDB_MAX_BULK_REMOVALS          ( "audit.events.localdb.maxBulkRemovals" ),
@@ -52,6 +56,7 @@ public enum AppProperty
     BACKUP_LOCALDB_COUNT                            ( "backup.localdb.count" ),
     CACHE_ENABLE                                    ( "cache.enable" ),
     CACHE_MEMORY_MAX_ITEMS                          ( "cache.memory.maxItems" ),
+    CACHE_REFRESH_AHEAD_PERCENT                     ( "cache.refreshAheadPercent" ),
     CACHE_PWRULECHECK_LIFETIME_MS                   ( "cache.pwRuleCheckLifetimeMS" ),
     CACHE_FORM_UNIQUE_VALUE_LIFETIME_MS             ( "cache.uniqueFormValueLifetimeMS" ),
     CLIENT_ACTIVITY_MAX_EPS_RATE                    ( "client.ajax.activityMaxEpsRate" ),
@@ -170,6 +175,9 @@ public enum AppProperty
     HTTP_PARAM_OAUTH_GRANT_TYPE                     ( "http.parameter.oauth.grantType" ),
     HTTP_DOWNLOAD_BUFFER_SIZE                       ( "http.download.buffer.size" ),
     HTTP_SESSION_RECYCLE_AT_AUTH                    ( "http.session.recycleAtAuth" ),
+    HTTP_SESSION_PERMISSION_CACHE_ENABLE            ( "http.session.permissionCache.enable" ),
+    HTTP_SESSION_PERMISSION_CACHE_MAX_ENTRIES       ( "http.session.permissionCache.maxEntries" ),
+    HTTP_SESSION_PERMISSION_CACHE_OTHER_USER_LIFETIME_MS ( "http.session.permissionCache.otherUserLifetimeMs" ),
     HTTP_SERVLET_ENABLE_POST_REDIRECT_GET           ( "http.servlet.enablePostRedirectGet" ),
     L10N_RTL_REGEX                                  ( "l10n.rtl.regex" ),
     LOCALDB_AGGRESSIVE_COMPACT_ENABLED              ( "localdb.aggressiveCompact.enabled" ),
@@ -179,6 +187,8 @@ public enum AppProperty
     LOCALDB_LOGWRITER_BUFFER_SIZE                   ( "localdb.logWriter.bufferSize" ),
     LOCALDB_LOGWRITER_MAX_BUFFER_WAIT_MS            ( "localdb.logWriter.maxBufferWaitMs" ),
     LOCALDB_LOGWRITER_MAX_TRIM_SIZE                 ( "localdb.logWriter.maxTrimSize" ),
+    LOCALDB_QUEUE_BATCH_SIZE                        ( "localdb.queue.batchSize" ),
+    LOCALDB_QUEUE_DURABILITY_WINDOW_MS              ( "localdb.queue.durabilityWindowMs" ),
     LOCALDB_RELOAD_WHEN_APP_RESTARTED               ( "localdb.reloadWhenAppRestarted" ),
     MACRO_RANDOM_CHAR_MAX_LENGTH                    ( "macro.randomChar.maxLength" ),
     MACRO_LDAP_ATTR_CHAR_MAX_LENGTH                 ( "macro.ldapAttr.maxLength" ),
@@ -189,6 +199,16 @@ public enum AppProperty
 
     /** How often to cleanup the intruder table. */
     INTRUDER_CLEANUP_FREQUENCY_MS                   ( "intruder.cleanupFrequencyMS" ),
+
+    /** Maximum intruder records held in memory; zero disables the in-memory tier. */
+    INTRUDER_CACHE_MAX_ENTRIES                      ( "intruder.cache.maxEntries" ),
+
+    /** Maximum time an intruder record is held in memory, bounds staleness when storage is shared by several nodes. */
+    INTRUDER_CACHE_LIFETIME_MS                      ( "intruder.cache.lifetimeMS" ),
+
+    /** How often changed in-memory intruder records are written to storage. */
+    INTRUDER_CACHE_FLUSH_FREQUENCY_MS               ( "intruder.cache.flushFrequencyMS" ),
+
     INTRUDER_MIN_DELAY_PENALTY_MS                   ( "intruder.minimumDelayPenaltyMS" ),
     INTRUDER_MAX_DELAY_PENALTY_MS                   ( "intruder.maximumDelayPenaltyMS" ),
     INTRUDER_DELAY_PER_COUNT_MS                     ( "intruder.delayPerCountMS" ),
@@ -237,9 +257,30 @@ public enum AppProperty
     LDAP_BROWSER_MAX_ENTRIES                        ( "ldap.browser.maxEntries" ),
     LDAP_SEARCH_PAGING_ENABLE                       ( "ldap.search.paging.enable" ),
     LDAP_SEARCH_PAGING_SIZE                         ( "ldap.search.paging.size" ),
+    LDAP_SEARCH_STREAM_PAGE_SIZE                    ( "ldap.search.stream.pageSize" ),
+    LDAP_SEARCH_STREAM_SHARD_ATTRIBUTES             ( "ldap.search.stream.shardAttributes" ),
     LDAP_SEARCH_PARALLEL_ENABLE                     ( "ldap.search.parallel.enable" ),
     LDAP_SEARCH_PARALLEL_FACTOR                     ( "ldap.search.parallel.factor" ),
     LDAP_SEARCH_PARALLEL_THREAD_MAX                 ( "ldap.search.parallel.threadMax" ),
+    LDAP_USER_INFO_PREFETCH_ENABLE                  ( "ldap.userInfo.prefetch.enable" ),
+    LDAP_USER_INFO_PREFETCH_MAX_LEARNED             ( "ldap.userInfo.prefetch.maxLearnedAttributes" ),
+    LDAP_USER_INFO_PREFETCH_LEARNED_LIFETIME        ( "ldap.userInfo.prefetch.learnedAttributeLifetimeSeconds" ),
+    LDAP_PERMISSION_LOCAL_EVAL_ENABLE               ( "ldap.permission.localEval.enable" ),
+    LDAP_PERMISSION_LOCAL_EVAL_MAX_ENTRIES          ( "ldap.permission.localEval.maxEntries" ),
+
+    /**
+     * Time a user's attribute values are kept for local permission evaluation.  Changes made outside this node, such as
+     * removing the user from a group, are not seen by permission checks until the values expire.
+     */
+    LDAP_PERMISSION_LOCAL_EVAL_LIFETIME_MS          ( "ldap.permission.localEval.lifetimeMs" ),
+
+    /** Time kept attribute values are trusted for administrator and helpdesk permission checks; zero always reads them again. */
+    LDAP_PERMISSION_LOCAL_EVAL_PRIVILEGED_LIFETIME_MS ( "ldap.permission.localEval.privilegedLifetimeMs" ),
+
+    LDAP_PERMISSION_LOCAL_EVAL_DN_ATTRIBUTES        ( "ldap.permission.localEval.dnAttributes" ),
+    LDAP_PERMISSION_LOCAL_EVAL_CASE_IGNORE_ATTRIBUTES ( "ldap.permission.localEval.caseIgnoreAttributes" ),
+    LDAP_PERMISSION_LOCAL_EVAL_INTEGER_ATTRIBUTES   ( "ldap.permission.localEval.integerAttributes" ),
+    LDAP_PERMISSION_LOCAL_EVAL_DIRECTORY_ATTRIBUTES ( "ldap.permission.localEval.directoryOnlyAttributes" ),
     LDAP_ORACLE_POST_TEMPPW_USE_CURRENT_TIME        ( "ldap.oracle.postTempPasswordUseCurrentTime" ),
     LOGGING_OUTPUT_CONFIGURATION                    ( "logging.outputConfiguration" ),
     LOGGING_PATTERN                                 ( "logging.pattern" ),
@@ -283,6 +324,7 @@ public enum AppProperty
     PASSWORD_RANDOMGEN_MAX_ATTEMPTS                 ( "password.randomGenerator.maxAttempts" ),
     PASSWORD_RANDOMGEN_MAX_LENGTH                   ( "password.randomGenerator.maxLength" ),
     PASSWORD_RANDOMGEN_JITTER_COUNT                 ( "password.randomGenerator.jitter.count" ),
+    PASSWORD_RANDOMGEN_COMPOSE_ENABLE               ( "password.randomGenerator.compose.enable" ),
 
     /* Strength thresholds, introduced by the addition of the zxcvbn strength meter library (since it has 5 levels) */
     PASSWORD_STRENGTH_THRESHOLD_VERY_STRONG         ( "password.strength.threshold.veryStrong" ),
@@ -312,8 +354,10 @@ public enum AppProperty
     QUEUE_EMAIL_MAX_THREADS                         ( "queue.email.maxThreads" ),
     QUEUE_EMAIL_MAX_ITEMS_PER_CONNECTION            ( "queue.email.maxItemsPerConnection" ),
     QUEUE_EMAIL_MAX_SECONDS_PER_CONNECTION          ( "queue.email.maxSecondsPerConnection" ),
+    QUEUE_EMAIL_WORKER_THREADS                      ( "queue.email.workerThreads" ),
     QUEUE_SMS_RETRY_TIMEOUT_MS                      ( "queue.sms.retryTimeoutMs" ),
     QUEUE_SMS_MAX_COUNT                             ( "queue.sms.maxCount" ),
+    QUEUE_SMS_WORKER_THREADS                        ( "queue.sms.workerThreads" ),
     QUEUE_SYSLOG_RETRY_TIMEOUT_MS                   ( "queue.syslog.retryTimeoutMs" ),
     QUEUE_SYSLOG_MAX_AGE_MS                         ( "queue.syslog.maxAgeMs" ),
     QUEUE_SYSLOG_MAX_COUNT                          ( "queue.syslog.maxCount" ),
@@ -380,19 +424,29 @@ public enum AppProperty
     WORDLIST_CHAR_LENGTH_MIN                        ( "wordlist.minCharLength" ),
     WORDLIST_BUCKET_CHECK_WARNING_TIMEOUT_MS        ( "wordlist.bucketCheckLogWarningTimeoutMs" ),
     WORDLIST_WARMUP_COUNT                           ( "wordlist.warmup.count" ),
+    WORDLIST_FILTER_BITS_PER_WORD                   ( "wordlist.filter.bitsPerWord" ),
+    WORDLIST_SORTED_FILE_ENABLE                     ( "wordlist.sortedFile.enable" ),
     WORDLIST_IMPORT_AUTO_IMPORT_RECHECK_SECONDS     ( "wordlist.import.autoImportRecheckSeconds" ),
+    WORDLIST_IMPORT_BATCH_LINES                     ( "wordlist.import.batchLines" ),
     WORDLIST_IMPORT_DURATION_GOAL_MS                ( "wordlist.import.durationGoalMS" ),
     WORDLIST_IMPORT_MIN_FREE_SPACE                  ( "wordlist.import.minFreeSpace" ),
     WORDLIST_IMPORT_MIN_TRANSACTIONS                ( "wordlist.import.minTransactions" ),
     WORDLIST_IMPORT_MAX_TRANSACTIONS                ( "wordlist.import.maxTransactions" ),
     WORDLIST_IMPORT_MAX_CHARS_TRANSACTIONS          ( "wordlist.import.maxCharsTransactions" ),
+    WORDLIST_IMPORT_NORMALIZE_THREADS               ( "wordlist.import.normalizeThreads" ),
     WORDLIST_IMPORT_LINE_COMMENTS                   ( "wordlist.import.lineComments" ),
     WORDLIST_IMPORT_PAUSE_DURATION_MS               ( "wordlist.import.pauseDurationMs" ),
     WORDLIST_IMPORT_PAUSE_FREQUENCY_MS              ( "wordlist.import.pauseFrequencyMs" ),
     WORDLIST_INSPECTOR_FREQUENCY_SECONDS            ( "wordlist.inspector.frequencySeconds" ),
     WORDLIST_TEST_MODE                              ( "wordlist.testMode" ),
+    WORDLIST_VERDICT_CACHE_MAX_ENTRIES              ( "wordlist.verdictCache.maxEntries" ),
+    WORDLIST_VERDICT_CACHE_LIFETIME_MS              ( "wordlist.verdictCache.lifetimeMs" ),
     WORDLIST_BUCKET_CHECK_TIME_WARNING_MS           ( "wordlist.bucket.checkTimeWarningMs" ),
     WS_REST_CLIENT_PWRULE_HALTONERROR               ( "ws.restClient.pwRule.haltOnError" ),
+    WS_REST_SERVER_BATCH_MAX_ITEMS                  ( "ws.restServer.batch.maxItems" ),
+    WS_REST_SERVER_AUTH_CACHE_MAX_ENTRIES           ( "ws.restServer.authCache.maxEntries" ),
+    WS_REST_SERVER_AUTH_CACHE_LIFETIME_MS           ( "ws.restServer.authCache.lifetimeMs" ),
+    WS_REST_SERVER_AUTH_CACHE_HASH_ITERATIONS       ( "ws.restServer.authCache.hashIterations" ),
     WS_REST_SERVER_SIGNING_FORM_TIMEOUT_SECONDS     ( "ws.restServer.signing.form.timeoutSeconds" ),
     WS_REST_SERVER_STATISTICS_DEFAULT_HISTORY       ( "ws.restServer.statistics.defaultHistoryDays" ),
     WS_REST_SERVER_STATISTICS_DEFAULT_VERSION       ( "ws.restServer.statistics.defaultVersion" ),
@@ -81,6 +81,7 @@ import password.pwm.util.logging.PwmLogger;
 import password.pwm.util.macro.MacroRequest;
 import password.pwm.util.secure.HttpsServerCertificateManager;
 import password.pwm.util.secure.PwmRandom;
+import password.pwm.util.secure.SecureEngine;
 import password.pwm.util.secure.X509Utils;
 
 import java.io.ByteArrayOutputStream;
@@ -501,6 +502,8 @@ public class PwmApplication
 
         pwmScheduler.shutdown();
 
+        SecureEngine.clearCachedPrimitives();
+
         LOGGER.info( () -> PwmConstants.PWM_APP_NAME + " " + PwmConstants.SERVLET_VERSION
                 + " closed for bidness, cya!", () -> TimeDuration.fromCurrent( startTime ) );
     }
@@ -908,6 +911,19 @@ public class PwmApplication
         return Collections.unmodifiableMap( pwmServices );
     }
 
+    public Map<DomainID, Map<PwmServiceEnum, TimeDuration>> getAppAndDomainServiceInitDurations( )
+    {
+        final Map<DomainID, Map<PwmServiceEnum, TimeDuration>> initDurations = new LinkedHashMap<>();
+        initDurations.put( DomainID.systemId(), pwmServiceManager.getServiceInitDurations() );
+
+        for ( final PwmDomain pwmDomain : domains().values() )
+        {
+            initDurations.put( pwmDomain.getDomainID(), pwmDomain.getServiceInitDurations() );
+        }
+
+        return Collections.unmodifiableMap( initDurations );
+    }
+
     public WordlistService getWordlistService( )
     {
         return ( WordlistService ) pwmServiceManager.getService( PwmServiceEnum.WordlistService );
@@ -33,6 +33,7 @@ import password.pwm.http.servlet.peoplesearch.PeopleSearchService;
 import password.pwm.http.servlet.resource.ResourceServletService;
 import password.pwm.http.state.SessionStateService;
 import password.pwm.ldap.LdapConnectionService;
+import password.pwm.ldap.permission.LdapFilterEvaluator;
 import password.pwm.ldap.search.UserSearchEngine;
 import password.pwm.svc.PwmService;
 import password.pwm.svc.PwmServiceEnum;
@@ -52,11 +53,13 @@ import password.pwm.util.DailySummaryJob;
 import password.pwm.util.PwmScheduler;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
+import password.pwm.ws.server.RestCredentialCache;
 import password.pwm.svc.cr.CrService;
 import password.pwm.svc.otp.OtpService;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 
@@ -74,6 +77,8 @@ public class PwmDomain
     private final DomainID domainID;
 
     private final PwmServiceManager pwmServiceManager;
+    private final RestCredentialCache restCredentialCache;
+    private final LdapFilterEvaluator ldapFilterEvaluator;
 
     public PwmDomain( final PwmApplication pwmApplication, final DomainID domainID )
     {
@@ -82,6 +87,8 @@ public class PwmDomain
 
         final SessionLabel sessionLabel = SessionLabel.builder().domain( domainID.stringValue() ).build();
         this.pwmServiceManager = new PwmServiceManager( sessionLabel, pwmApplication, domainID, PwmServiceEnum.forScope( PwmSettingScope.DOMAIN ) );
+        this.restCredentialCache = new RestCredentialCache( this );
+        this.ldapFilterEvaluator = new LdapFilterEvaluator( this );
     }
 
     public void initialize()
@@ -191,6 +198,11 @@ public class PwmDomain
         return pwmServiceManager.getRunningServices();
     }
 
+    public Map<PwmServiceEnum, TimeDuration> getServiceInitDurations( )
+    {
+        return pwmServiceManager.getServiceInitDurations();
+    }
+
     public UserSearchEngine getUserSearchEngine()
     {
         return ( UserSearchEngine ) pwmServiceManager.getService( PwmServiceEnum.UserSearchEngine );
@@ -206,6 +218,16 @@ public class PwmDomain
         return ( IntruderDomainService ) pwmServiceManager.getService( PwmServiceEnum.IntruderDomainService );
     }
 
+    public RestCredentialCache getRestCredentialCache()
+    {
+        return restCredentialCache;
+    }
+
+    public LdapFilterEvaluator getLdapFilterEvaluator()
+    {
+        return ldapFilterEvaluator;
+    }
+
     public TokenService getTokenService()
     {
         return ( TokenService ) pwmServiceManager.getService( PwmServiceEnum.TokenService );
@@ -37,6 +37,7 @@ import password.pwm.error.PwmError;
 import password.pwm.error.PwmInternalException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.i18n.PwmLocaleBundle;
+import password.pwm.util.IPRangeMatcher;
 import password.pwm.util.PasswordData;
 import password.pwm.util.i18n.LocaleHelper;
 import password.pwm.util.java.CollectionUtil;
@@ -63,6 +64,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -78,7 +80,11 @@ public class AppConfig implements SettingReader
 
     private final PwmSecurityKey applicationSecurityKey;
     private final Map<AppProperty, String> appPropertyOverrides;
+    private final String[] appPropertyValues;
+    private final AtomicReferenceArray<Object> parsedAppPropertyValues = new AtomicReferenceArray<>( AppProperty.values().length );
     private final Map<Locale, String> localeFlagMap;
+    private final Supplier<IPRangeMatcher> permittedNetworkMatcher = new LazySupplier<>(
+            () -> IPRangeMatcher.compile( readSettingAsStringArray( PwmSetting.IP_PERMITTED_RANGE ) ) );
 
     private static final Supplier<AppConfig> DEFAULT_CONFIG = new LazySupplier<>( AppConfig::makeDefaultConfig );
 
@@ -105,6 +111,9 @@ public class AppConfig implements SettingReader
         this.settingReader = new StoredSettingReader( storedConfiguration, null, DomainID.systemId() );
 
         this.appPropertyOverrides = makeAppPropertyOverrides( settingReader );
+        this.appPropertyValues = EnumSet.allOf( AppProperty.class ).stream()
+                .map( appProperty -> appPropertyOverrides.getOrDefault( appProperty, appProperty.getDefaultValue() ) )
+                .toArray( String[]::new );
 
         this.applicationSecurityKey = makeAppSecurityKey( this );
 
@@ -153,32 +162,62 @@ public class AppConfig implements SettingReader
 
     public String readAppProperty( final AppProperty property )
     {
-        return appPropertyOverrides.getOrDefault( property, property.getDefaultValue() );
+        return appPropertyValues[property.ordinal()];
     }
 
     public boolean readBooleanAppProperty( final AppProperty appProperty )
     {
-        return Boolean.parseBoolean( readAppProperty( appProperty ) );
+        return readParsedAppProperty( appProperty, Boolean.class, Boolean::parseBoolean );
+    }
+
+    public int readIntAppProperty( final AppProperty appProperty )
+    {
+        return readParsedAppProperty( appProperty, Integer.class, Integer::parseInt );
+    }
+
+    public long readLongAppProperty( final AppProperty appProperty )
+    {
+        return readParsedAppProperty( appProperty, Long.class, Long::parseLong );
     }
 
     public TimeDuration readDurationAppProperty( final AppProperty appProperty )
     {
-        final TimeDuration.Unit unit;
-        final String lcasePropName = appProperty.getKey().toLowerCase( PwmConstants.DEFAULT_LOCALE );
-        if ( lcasePropName.endsWith( "ms" ) )
+        return readParsedAppProperty( appProperty, TimeDuration.class, value ->
         {
-            unit = TimeDuration.Unit.MILLISECONDS;
-        }
-        else if ( lcasePropName.endsWith( "seconds" ) )
-        {
-            unit = TimeDuration.Unit.SECONDS;
-        }
-        else
+            final TimeDuration.Unit unit;
+            final String lcasePropName = appProperty.getKey().toLowerCase( PwmConstants.DEFAULT_LOCALE );
+            if ( lcasePropName.endsWith( "ms" ) )
+            {
+                unit = TimeDuration.Unit.MILLISECONDS;
+            }
+            else if ( lcasePropName.endsWith( "seconds" ) )
+            {
+                unit = TimeDuration.Unit.SECONDS;
+            }
+            else
+            {
+                throw new IllegalStateException( "can't read appProperty '" + appProperty.getKey() + "' as duration, unknown time unit" );
+            }
+
+            return TimeDuration.of( Long.parseLong( value ), unit );
+        } );
+    }
+
+    /**
+     * App property values never change for a given configuration, so each value is parsed once and the parsed value is
+     * kept for later reads as the same type.
+     */
+    private <T> T readParsedAppProperty( final AppProperty appProperty, final Class<T> type, final Function<String, T> parser )
+    {
+        final Object cachedValue = parsedAppPropertyValues.get( appProperty.ordinal() );
+        if ( type.isInstance( cachedValue ) )
         {
-            throw new IllegalStateException( "can't read appProperty '" + appProperty.getKey() + "' as duration, unknown time unit" );
+            return type.cast( cachedValue );
         }
 
-        return TimeDuration.of( Long.parseLong( readAppProperty( appProperty ) ), unit );
+        final T value = parser.apply( readAppProperty( appProperty ) );
+        parsedAppPropertyValues.set( appProperty.ordinal(), value );
+        return value;
     }
 
     public Map<AppProperty, String> readAllNonDefaultAppProperties( )
@@ -201,6 +240,11 @@ public class AppConfig implements SettingReader
         return storedConfiguration;
     }
 
+    public IPRangeMatcher getPermittedNetworkMatcher()
+    {
+        return permittedNetworkMatcher.get();
+    }
+
     public PwmSecurityKey getSecurityKey() throws PwmUnrecoverableException
     {
         return applicationSecurityKey;
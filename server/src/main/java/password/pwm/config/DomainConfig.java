@@ -287,6 +287,16 @@ public class DomainConfig implements SettingReader
         return appConfig.readAppProperty( property );
     }
 
+    public int readIntAppProperty( final AppProperty property )
+    {
+        return appConfig.readIntAppProperty( property );
+    }
+
+    public long readLongAppProperty( final AppProperty property )
+    {
+        return appConfig.readLongAppProperty( property );
+    }
+
     public DomainID getDomainID()
     {
         return domainID;
@@ -46,6 +46,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -70,6 +71,8 @@ public class PwmSettingMetaDataReader
     private final Supplier<String> defaultLocaleLabel = new LazySupplier<>( () -> InternalReader.readLabel( getPwmSetting(), PwmConstants.DEFAULT_LOCALE ) );
     private final Supplier<String> defaultLocaleDescription = new LazySupplier<>( () -> InternalReader.readDescription( getPwmSetting(), PwmConstants.DEFAULT_LOCALE ) );
     private final Supplier<String> defaultMenuLocation = new LazySupplier<>( () -> InternalReader.readMenuLocationDebugDefault( getPwmSetting() ) );
+    private final Map<Locale, String> localizedLabels = new ConcurrentHashMap<>();
+    private final Map<Locale, String> localizedDescriptions = new ConcurrentHashMap<>();
 
     public PwmSettingMetaDataReader( final PwmSetting pwmSetting )
     {
@@ -104,7 +107,12 @@ public class PwmSettingMetaDataReader
             return defaultLocaleLabel.get();
         }
 
-        return InternalReader.readLabel( pwmSetting, locale );
+        if ( locale == null )
+        {
+            return InternalReader.readLabel( pwmSetting, null );
+        }
+
+        return localizedLabels.computeIfAbsent( locale, l -> InternalReader.readLabel( pwmSetting, l ) );
     }
 
     public String getDescription( final Locale locale )
@@ -114,7 +122,12 @@ public class PwmSettingMetaDataReader
             return defaultLocaleDescription.get();
         }
 
-        return InternalReader.readDescription( pwmSetting, locale );
+        if ( locale == null )
+        {
+            return InternalReader.readDescription( pwmSetting, null );
+        }
+
+        return localizedDescriptions.computeIfAbsent( locale, l -> InternalReader.readDescription( pwmSetting, l ) );
     }
 
     public String getExample( final PwmSettingTemplateSet template )
@@ -20,6 +20,7 @@
 
 package password.pwm.config;
 
+import lombok.Value;
 import org.jrivard.xmlchai.AccessMode;
 import org.jrivard.xmlchai.XmlChai;
 import org.jrivard.xmlchai.XmlDocument;
@@ -33,7 +34,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -63,7 +67,11 @@ public class PwmSettingXml
 
     private static final PwmLogger LOGGER = PwmLogger.forClass( PwmSettingXml.class );
 
-    private static final LazySoftReference<XmlDocument> XML_DOC_CACHE = new LazySoftReference<>( PwmSettingXml::readXml );
+    private static final String XML_ELEMENT_SETTING = "setting";
+    private static final String XML_ELEMENT_CATEGORY = "category";
+    private static final String XML_ELEMENT_TEMPLATE = "template";
+
+    private static final LazySoftReference<XmlIndex> XML_INDEX_CACHE = new LazySoftReference<>( PwmSettingXml::readIndex );
     private static final AtomicInteger LOAD_COUNTER = new AtomicInteger( 0 );
 
     private static XmlDocument readXml( )
@@ -82,6 +90,32 @@ public class PwmSettingXml
         }
     }
 
+    /**
+     * Index the top level setting, category and template elements by key in a single pass over the document, so lookups
+     * are map reads instead of an XPath evaluation over the whole document.
+     */
+    private static XmlIndex readIndex( )
+    {
+        final XmlDocument xmlDocument = readXml();
+        final Instant startTime = Instant.now();
+
+        final Map<String, Map<String, XmlElement>> elementsByName = new HashMap<>();
+        for ( final XmlElement element : xmlDocument.getRootElement().getChildren() )
+        {
+            element.getAttribute( XML_ATTRIBUTE_KEY ).ifPresent( key -> elementsByName
+                    .computeIfAbsent( element.getName(), k -> new HashMap<>() )
+                    .putIfAbsent( key, element ) );
+        }
+
+        final XmlIndex xmlIndex = new XmlIndex(
+                elementsByName.getOrDefault( XML_ELEMENT_SETTING, Collections.emptyMap() ),
+                elementsByName.getOrDefault( XML_ELEMENT_CATEGORY, Collections.emptyMap() ),
+                elementsByName.getOrDefault( XML_ELEMENT_TEMPLATE, Collections.emptyMap() ) );
+
+        LOGGER.trace( () -> "indexed PwmSettingXml", () -> TimeDuration.fromCurrent( startTime ) );
+        return xmlIndex;
+    }
+
     /*
     private static void validateXmlSchema( )
     {
@@ -104,22 +138,19 @@ public class PwmSettingXml
 
     static XmlElement readSettingXml( final PwmSetting setting )
     {
-        final String expression = "/settings/setting[@key=\"" + setting.getKey() + "\"]";
-        return XML_DOC_CACHE.get().evaluateXpathToElement( expression )
+        return Optional.ofNullable( XML_INDEX_CACHE.get().getSettings().get( setting.getKey() ) )
                 .orElseThrow( () -> new IllegalStateException( "PwmSetting.xml is missing setting for key '" + setting.getKey() + "'" ) );
     }
 
     static XmlElement readCategoryXml( final PwmSettingCategory category )
     {
-        final String expression = "/settings/category[@key=\"" + category.toString() + "\"]";
-        return XML_DOC_CACHE.get().evaluateXpathToElement( expression )
+        return Optional.ofNullable( XML_INDEX_CACHE.get().getCategories().get( category.toString() ) )
                 .orElseThrow( () -> new IllegalStateException( "PwmSetting.xml is missing category for key '" + category.getKey() + "'" ) );
     }
 
     static XmlElement readTemplateXml( final PwmSettingTemplate template )
     {
-        final String expression = "/settings/template[@key=\"" + template.toString() + "\"]";
-        return XML_DOC_CACHE.get().evaluateXpathToElement( expression )
+        return Optional.ofNullable( XML_INDEX_CACHE.get().getTemplates().get( template.toString() ) )
                 .orElseThrow( () -> new IllegalStateException( "PwmSetting.xml is missing template for key '" + template.toString() + "'" ) );
     }
 
@@ -142,5 +173,12 @@ public class PwmSettingXml
         }
         return Collections.unmodifiableSet( definedTemplates );
     }
-}
 
+    @Value
+    private static class XmlIndex
+    {
+        private Map<String, XmlElement> settings;
+        private Map<String, XmlElement> categories;
+        private Map<String, XmlElement> templates;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.config;
+
+import password.pwm.config.value.StoredValue;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Converted setting values of a single {@link StoredSettingReader}.  Stored configurations are immutable, so each
+ * setting value is read and converted at most once per reader (apart from benign races) and later reads are array
+ * lookups by setting and conversion ordinal.  Values are shared between callers exactly as the underlying
+ * {@link StoredValue} native objects already are.
+ */
+class SettingValueCache
+{
+    private static final Object NULL_VALUE = new Object();
+
+    private final Function<PwmSetting, StoredValue> valueLoader;
+    private final AtomicReferenceArray<CachedSetting> settings = new AtomicReferenceArray<>( PwmSetting.values().length );
+
+    enum Conversion
+    {
+        STRING,
+        STRING_ARRAY,
+        BOOLEAN,
+        LONG,
+        PASSWORD,
+        USER_PERMISSION,
+        FORM,
+        ACTION,
+        REMOTE_WEB_SERVICE,
+        NAMED_PASSWORD,
+        STORAGE_LOCATIONS,
+        ENUM,
+        OPTION_LIST,
+        LOCALIZED_STRING,
+        LOCALIZED_STRING_ARRAY,
+        CHALLENGE_ITEMS,
+        EMAIL,
+    }
+
+    private static final int CONVERSION_COUNT = Conversion.values().length;
+
+    SettingValueCache( final Function<PwmSetting, StoredValue> valueLoader )
+    {
+        this.valueLoader = Objects.requireNonNull( valueLoader );
+    }
+
+    StoredValue storedValue( final PwmSetting setting )
+    {
+        return cachedSetting( setting ).storedValue;
+    }
+
+    <T> T read( final PwmSetting setting, final Conversion conversion, final Function<StoredValue, T> converter )
+    {
+        final CachedSetting cachedSetting = cachedSetting( setting );
+        final Object cachedValue = cachedSetting.values.get( conversion.ordinal() );
+        if ( cachedValue != null )
+        {
+            return unwrap( cachedValue );
+        }
+
+        final T value = converter.apply( cachedSetting.storedValue );
+        cachedSetting.values.set( conversion.ordinal(), wrap( value ) );
+        return value;
+    }
+
+    /**
+     * Read a value whose conversion depends on a type parameter, such as an enum class.  Settings are read with a single
+     * type in practice; a read with a different type is converted but not cached.
+     */
+    <T> T readTyped( final PwmSetting setting, final Conversion conversion, final Class<?> type, final Function<StoredValue, T> converter )
+    {
+        final CachedSetting cachedSetting = cachedSetting( setting );
+        final Object cachedValue = cachedSetting.values.get( conversion.ordinal() );
+        if ( cachedValue instanceof TypedValue && ( ( TypedValue ) cachedValue ).type == type )
+        {
+            return unwrap( ( ( TypedValue ) cachedValue ).value );
+        }
+
+        final T value = converter.apply( cachedSetting.storedValue );
+        if ( cachedValue == null )
+        {
+            cachedSetting.values.set( conversion.ordinal(), new TypedValue( type, wrap( value ) ) );
+        }
+        return value;
+    }
+
+    <T> T readLocalized( final PwmSetting setting, final Conversion conversion, final Locale locale, final Function<StoredValue, T> converter )
+    {
+        final CachedSetting cachedSetting = cachedSetting( setting );
+        if ( locale == null )
+        {
+            return converter.apply( cachedSetting.storedValue );
+        }
+
+        Object localeMap = cachedSetting.values.get( conversion.ordinal() );
+        if ( localeMap == null )
+        {
+            cachedSetting.values.compareAndSet( conversion.ordinal(), null, new ConcurrentHashMap<Locale, Object>() );
+            localeMap = cachedSetting.values.get( conversion.ordinal() );
+        }
+
+        final Map<Locale, Object> values = ( Map<Locale, Object> ) localeMap;
+        final Object cachedValue = values.get( locale );
+        if ( cachedValue != null )
+        {
+            return unwrap( cachedValue );
+        }
+
+        final T value = converter.apply( cachedSetting.storedValue );
+        values.put( locale, wrap( value ) );
+        return value;
+    }
+
+    private CachedSetting cachedSetting( final PwmSetting setting )
+    {
+        final CachedSetting cachedSetting = settings.get( setting.ordinal() );
+        if ( cachedSetting != null )
+        {
+            return cachedSetting;
+        }
+
+        final CachedSetting newCachedSetting = new CachedSetting( valueLoader.apply( setting ) );
+        settings.compareAndSet( setting.ordinal(), null, newCachedSetting );
+        return settings.get( setting.ordinal() );
+    }
+
+    private static Object wrap( final Object value )
+    {
+        return value == null ? NULL_VALUE : value;
+    }
+
+    private static <T> T unwrap( final Object value )
+    {
+        return value == NULL_VALUE ? null : ( T ) value;
+    }
+
+    private static class CachedSetting
+    {
+        private final StoredValue storedValue;
+        private final AtomicReferenceArray<Object> values = new AtomicReferenceArray<>( CONVERSION_COUNT );
+
+        CachedSetting( final StoredValue storedValue )
+        {
+            this.storedValue = storedValue;
+        }
+    }
+
+    private static class TypedValue
+    {
+        private final Class<?> type;
+        private final Object value;
+
+        TypedValue( final Class<?> type, final Object value )
+        {
+            this.type = type;
+            this.value = value;
+        }
+    }
+}
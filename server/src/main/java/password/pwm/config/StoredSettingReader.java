@@ -74,6 +74,7 @@ public class StoredSettingReader implements SettingReader
     private final DomainID domainID;
 
     private final Map<ProfileDefinition, Map> profileCache;
+    private final SettingValueCache valueCache = new SettingValueCache( this::loadSetting );
 
     public StoredSettingReader( final StoredConfiguration storedConfiguration, final String profileID, final DomainID domainID )
     {
@@ -88,23 +89,24 @@ public class StoredSettingReader implements SettingReader
     @Override
     public List<UserPermission> readSettingAsUserPermission( final PwmSetting setting )
     {
-        return ValueTypeConverter.valueToUserPermissions( readSetting( setting ) );
+        return valueCache.read( setting, SettingValueCache.Conversion.USER_PERMISSION, ValueTypeConverter::valueToUserPermissions );
     }
 
     @Override
     public String readSettingAsString( final PwmSetting setting )
     {
-        return ValueTypeConverter.valueToString( readSetting( setting ) );
+        return valueCache.read( setting, SettingValueCache.Conversion.STRING, ValueTypeConverter::valueToString );
     }
 
     public List<String> readSettingAsStringArray( final PwmSetting setting )
     {
-        return ValueTypeConverter.valueToStringArray( readSetting( setting ) );
+        return valueCache.read( setting, SettingValueCache.Conversion.STRING_ARRAY, ValueTypeConverter::valueToStringArray );
     }
 
     public List<String> readSettingAsLocalizedStringArray( final PwmSetting setting, final Locale locale )
     {
-        return ValueTypeConverter.valueToLocalizedStringArray( readSetting( setting ), locale );
+        return valueCache.readLocalized( setting, SettingValueCache.Conversion.LOCALIZED_STRING_ARRAY, locale,
+                value -> ValueTypeConverter.valueToLocalizedStringArray( value, locale ) );
     }
 
     public Map<FileValue.FileInformation, FileValue.FileContent> readSettingAsFile( final PwmSetting pwmSetting )
@@ -114,36 +116,41 @@ public class StoredSettingReader implements SettingReader
 
     public List<ChallengeItemConfiguration> readSettingAsChallengeItems( final PwmSetting setting, final Locale locale )
     {
-        final Map<String, List<ChallengeItemConfiguration>> storedValues = ValueTypeConverter.valueToChallengeItems ( readSetting( setting ) );
-        final Map<Locale, List<ChallengeItemConfiguration>> availableLocaleMap = storedValues.entrySet().stream()
-                .collect( Collectors.toUnmodifiableMap(
-                        entry -> LocaleHelper.parseLocaleString( entry.getKey() ),
-                        Map.Entry::getValue
-                ) );
+        return valueCache.readLocalized( setting, SettingValueCache.Conversion.CHALLENGE_ITEMS, locale, value ->
+        {
+            final Map<String, List<ChallengeItemConfiguration>> storedValues = ValueTypeConverter.valueToChallengeItems( value );
+            final Map<Locale, List<ChallengeItemConfiguration>> availableLocaleMap = storedValues.entrySet().stream()
+                    .collect( Collectors.toUnmodifiableMap(
+                            entry -> LocaleHelper.parseLocaleString( entry.getKey() ),
+                            Map.Entry::getValue
+                    ) );
 
-        final Locale matchedLocale = LocaleHelper.localeResolver( locale, availableLocaleMap.keySet() );
+            final Locale matchedLocale = LocaleHelper.localeResolver( locale, availableLocaleMap.keySet() );
 
-        return availableLocaleMap.get( matchedLocale );
+            return availableLocaleMap.get( matchedLocale );
+        } );
     }
 
     public List<FormConfiguration> readSettingAsForm( final PwmSetting setting )
     {
-        return ValueTypeConverter.valueToForm( readSetting( setting ) );
+        return valueCache.read( setting, SettingValueCache.Conversion.FORM, ValueTypeConverter::valueToForm );
     }
 
     public <E extends Enum<E>> Set<E> readSettingAsOptionList( final PwmSetting setting, final Class<E> enumClass )
     {
-        return ValueTypeConverter.valueToOptionList( setting, readSetting( setting ), enumClass );
+        return valueCache.readTyped( setting, SettingValueCache.Conversion.OPTION_LIST, enumClass,
+                value -> ValueTypeConverter.valueToOptionList( setting, value, enumClass ) );
     }
 
     public <E extends Enum<E>> E readSettingAsEnum( final PwmSetting setting, final Class<E> enumClass )
     {
-        return ValueTypeConverter.valueToEnum( setting, readSetting( setting ), enumClass );
+        return valueCache.readTyped( setting, SettingValueCache.Conversion.ENUM, enumClass,
+                value -> ValueTypeConverter.valueToEnum( setting, value, enumClass ) );
     }
 
     public List<ActionConfiguration> readSettingAsAction( final PwmSetting setting )
     {
-        return ValueTypeConverter.valueToAction( setting, readSetting( setting ) );
+        return valueCache.read( setting, SettingValueCache.Conversion.ACTION, value -> ValueTypeConverter.valueToAction( setting, value ) );
     }
 
     public List<X509Certificate> readSettingAsCertificate( final PwmSetting setting )
@@ -153,43 +160,47 @@ public class StoredSettingReader implements SettingReader
 
     public boolean readSettingAsBoolean( final PwmSetting setting )
     {
-        return ValueTypeConverter.valueToBoolean( readSetting( setting ) );
+        return valueCache.read( setting, SettingValueCache.Conversion.BOOLEAN, ValueTypeConverter::valueToBoolean );
     }
 
     public long readSettingAsLong( final PwmSetting setting )
     {
-        return ValueTypeConverter.valueToLong( readSetting( setting ) );
+        return valueCache.read( setting, SettingValueCache.Conversion.LONG, ValueTypeConverter::valueToLong );
     }
 
     @Override
     public String readSettingAsLocalizedString( final PwmSetting setting, final Locale locale )
     {
-        return ValueTypeConverter.valueToLocalizedString( readSetting( setting ), locale );
+        return valueCache.readLocalized( setting, SettingValueCache.Conversion.LOCALIZED_STRING, locale,
+                value -> ValueTypeConverter.valueToLocalizedString( value, locale ) );
     }
 
     public PasswordData readSettingAsPassword( final PwmSetting setting )
     {
-        return ValueTypeConverter.valueToPassword( readSetting( setting ) );
+        return valueCache.read( setting, SettingValueCache.Conversion.PASSWORD, ValueTypeConverter::valueToPassword );
     }
 
     public List<RemoteWebServiceConfiguration> readSettingAsRemoteWebService( final PwmSetting pwmSetting )
     {
-        return ValueTypeConverter.valueToRemoteWebServiceConfiguration( readSetting( pwmSetting ) );
+        return valueCache.read( pwmSetting, SettingValueCache.Conversion.REMOTE_WEB_SERVICE, ValueTypeConverter::valueToRemoteWebServiceConfiguration );
     }
 
     public Map<String, NamedSecretData> readSettingAsNamedPasswords( final PwmSetting setting )
     {
-        return ValueTypeConverter.valueToNamedPassword( readSetting( setting ) );
+        return valueCache.read( setting, SettingValueCache.Conversion.NAMED_PASSWORD, ValueTypeConverter::valueToNamedPassword );
     }
 
     public List<DataStorageMethod> readGenericStorageLocations( final PwmSetting setting )
     {
-        final String input = readSettingAsString( setting );
+        return valueCache.read( setting, SettingValueCache.Conversion.STORAGE_LOCATIONS, value ->
+        {
+            final String input = ValueTypeConverter.valueToString( value );
 
-        return Arrays.stream( input.split( "-" ) )
-                .map( s ->  JavaHelper.readEnumFromString( DataStorageMethod.class, s ) )
-                .flatMap( Optional::stream )
-                .collect( Collectors.toUnmodifiableList() );
+            return Arrays.stream( input.split( "-" ) )
+                    .map( s ->  JavaHelper.readEnumFromString( DataStorageMethod.class, s ) )
+                    .flatMap( Optional::stream )
+                    .collect( Collectors.toUnmodifiableList() );
+        } );
     }
 
     public PrivateKeyCertificate readSettingAsPrivateKey( final PwmSetting setting )
@@ -206,9 +217,12 @@ public class StoredSettingReader implements SettingReader
 
     public EmailItemBean readSettingAsEmail( final PwmSetting setting, final Locale locale )
     {
-        final Map<Locale, EmailItemBean> availableLocaleMap = ValueTypeConverter.valueToLocalizedEmail( setting, readSetting( setting ) );
-        final Locale matchedLocale = LocaleHelper.localeResolver( locale, availableLocaleMap.keySet() );
-        return availableLocaleMap.get( matchedLocale );
+        return valueCache.readLocalized( setting, SettingValueCache.Conversion.EMAIL, locale, value ->
+        {
+            final Map<Locale, EmailItemBean> availableLocaleMap = ValueTypeConverter.valueToLocalizedEmail( setting, value );
+            final Locale matchedLocale = LocaleHelper.localeResolver( locale, availableLocaleMap.keySet() );
+            return availableLocaleMap.get( matchedLocale );
+        } );
     }
 
     public VerificationMethodValue.VerificationMethodSettings readVerificationMethods( final PwmSetting setting )
@@ -294,6 +308,11 @@ public class StoredSettingReader implements SettingReader
     }
 
     private StoredValue readSetting( final PwmSetting setting )
+    {
+        return valueCache.storedValue( setting );
+    }
+
+    private StoredValue loadSetting( final PwmSetting setting )
     {
         if ( DomainID.systemId().equals( domainID ) )
         {
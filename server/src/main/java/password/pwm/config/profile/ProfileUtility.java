@@ -35,6 +35,7 @@ import password.pwm.config.value.ValueTypeConverter;
 import password.pwm.config.value.data.UserPermission;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.http.PwmRequest;
 import password.pwm.http.PwmRequestContext;
 import password.pwm.ldap.permission.UserPermissionUtility;
 import password.pwm.util.java.StringUtil;
@@ -62,6 +63,27 @@ public class ProfileUtility
         return discoverProfileIDForUser( pwmRequestContext.getPwmDomain(), pwmRequestContext.getSessionLabel(), userIdentity, profileDefinition );
     }
 
+    public static Optional<String> discoverProfileIDForUser(
+            final PwmRequest pwmRequest,
+            final UserIdentity userIdentity,
+            final ProfileDefinition profileDefinition
+    )
+            throws PwmUnrecoverableException
+    {
+        final PwmDomain pwmDomain = pwmRequest.getPwmDomain();
+        final Map<String, Profile> profileMap = pwmDomain.getConfig().getProfileMap( profileDefinition );
+        for ( final Profile profile : profileMap.values() )
+        {
+            final List<UserPermission> queryMatches = profile.profilePermissions();
+            final boolean match = UserPermissionUtility.testUserPermission( pwmRequest, userIdentity, queryMatches );
+            if ( match )
+            {
+                return Optional.of( profile.getIdentifier() );
+            }
+        }
+        return Optional.empty();
+    }
+
     public static <T extends Profile> T profileForUser(
             final PwmRequestContext pwmRequestContext,
             final UserIdentity userIdentity,
@@ -67,7 +67,7 @@ public class IdleTimeoutCalculator
         {
             if ( pwmDomain.getApplicationMode() == PwmApplicationMode.NEW )
             {
-                final long configGuideIdleTimeout = Long.parseLong( domainConfig.readAppProperty( AppProperty.CONFIG_GUIDE_IDLE_TIMEOUT ) );
+                final long configGuideIdleTimeout = domainConfig.readLongAppProperty( AppProperty.CONFIG_GUIDE_IDLE_TIMEOUT );
                 results.add( new MaxIdleTimeoutResult(
                         () -> "Configuration Guide Idle Timeout",
                         TimeDuration.of( configGuideIdleTimeout, TimeDuration.Unit.SECONDS ) ) );
@@ -147,7 +147,7 @@ public class IdleTimeoutCalculator
 
         if ( userIsAdmin )
         {
-            final long configEditorIdleTimeout = Long.parseLong( domainConfig.readAppProperty( AppProperty.CONFIG_EDITOR_IDLE_TIMEOUT ) );
+            final long configEditorIdleTimeout = domainConfig.readLongAppProperty( AppProperty.CONFIG_EDITOR_IDLE_TIMEOUT );
             results.add( new MaxIdleTimeoutResult(
                     () -> "Config Editor Idle Timeout",
                     TimeDuration.of( configEditorIdleTimeout, TimeDuration.Unit.SECONDS ) ) );
@@ -233,7 +233,7 @@ public class IdleTimeoutCalculator
         {
             if ( pwmRequest.getPwmApplication().getApplicationMode() == PwmApplicationMode.NEW )
             {
-                final long configGuideIdleTimeout = Long.parseLong( pwmRequest.getDomainConfig().readAppProperty( AppProperty.CONFIG_GUIDE_IDLE_TIMEOUT ) );
+                final long configGuideIdleTimeout = pwmRequest.getDomainConfig().readLongAppProperty( AppProperty.CONFIG_GUIDE_IDLE_TIMEOUT );
                 if ( configGuideIdleTimeout > 0 )
                 {
                     return Optional.of( TimeDuration.of( configGuideIdleTimeout, TimeDuration.Unit.SECONDS ) );
@@ -254,7 +254,7 @@ public class IdleTimeoutCalculator
         @Override
         public Optional<TimeDuration> calculate( final PwmRequest pwmRequest ) throws PwmUnrecoverableException
         {
-            final long configEditorIdleTimeout = Long.parseLong( pwmRequest.getDomainConfig().readAppProperty( AppProperty.CONFIG_EDITOR_IDLE_TIMEOUT ) );
+            final long configEditorIdleTimeout = pwmRequest.getDomainConfig().readLongAppProperty( AppProperty.CONFIG_EDITOR_IDLE_TIMEOUT );
             if ( configEditorIdleTimeout > 0 )
             {
                 return Optional.of( TimeDuration.of( configEditorIdleTimeout, TimeDuration.Unit.SECONDS ) );
@@ -97,7 +97,7 @@ public class PwmHttpRequestWrapper
     public String readRequestBodyAsString( )
             throws IOException, PwmUnrecoverableException
     {
-        final int maxChars = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_BODY_MAXREAD_LENGTH ) );
+        final int maxChars = appConfig.readIntAppProperty( AppProperty.HTTP_BODY_MAXREAD_LENGTH );
         return readRequestBodyAsString( maxChars );
     }
 
@@ -116,7 +116,7 @@ public class PwmHttpRequestWrapper
 
         final boolean trim = Boolean.parseBoolean( appConfig.readAppProperty( AppProperty.SECURITY_INPUT_TRIM ) );
         final boolean passwordTrim = Boolean.parseBoolean( appConfig.readAppProperty( AppProperty.SECURITY_INPUT_PASSWORD_TRIM ) );
-        final int maxLength = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        final int maxLength = appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH );
 
         final Map<String, String> outputMap = new LinkedHashMap<>();
         if ( inputMap != null )
@@ -152,7 +152,7 @@ public class PwmHttpRequestWrapper
 
         final boolean trim = Boolean.parseBoolean( appConfig.readAppProperty( AppProperty.SECURITY_INPUT_TRIM ) );
         final boolean passwordTrim = Boolean.parseBoolean( appConfig.readAppProperty( AppProperty.SECURITY_INPUT_PASSWORD_TRIM ) );
-        final int maxLength = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        final int maxLength = appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH );
 
         final Map<String, Object> outputMap = new LinkedHashMap<>();
         if ( inputMap != null )
@@ -190,7 +190,7 @@ public class PwmHttpRequestWrapper
     public Optional<PasswordData> readParameterAsPassword( final String name )
             throws PwmUnrecoverableException
     {
-        final int maxLength = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        final int maxLength = appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH );
         final boolean trim = Boolean.parseBoolean( appConfig.readAppProperty( AppProperty.SECURITY_INPUT_PASSWORD_TRIM ) );
 
         final String rawValue = httpServletRequest.getParameter( name );
@@ -222,7 +222,7 @@ public class PwmHttpRequestWrapper
     public String readParameterAsString( final String name, final String valueIfNotPresent )
             throws PwmUnrecoverableException
     {
-        final int maxLength = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        final int maxLength = appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH );
         final String returnValue = readParameterAsString( name, maxLength );
         return returnValue == null || returnValue.isEmpty() ? valueIfNotPresent : returnValue;
     }
@@ -236,7 +236,7 @@ public class PwmHttpRequestWrapper
     public String readParameterAsString( final String name, final Flag... flags )
             throws PwmUnrecoverableException
     {
-        final int maxLength = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        final int maxLength = appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH );
         return readParameterAsString( name, maxLength, flags );
     }
 
@@ -308,7 +308,7 @@ public class PwmHttpRequestWrapper
 
     public String readHeaderValueAsString( final String headerName )
     {
-        final int maxChars = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        final int maxChars = appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH );
         final HttpServletRequest req = this.getHttpServletRequest();
         final String rawValue = req.getHeader( headerName );
         final String sanitizedInputValue = Validator.sanitizeInputValue( appConfig, rawValue, maxChars );
@@ -317,7 +317,7 @@ public class PwmHttpRequestWrapper
 
     public List<String> readHeaderValuesAsString( final String headerName )
     {
-        final int maxChars = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        final int maxChars = appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH );
         final List<String> valueList = new ArrayList<>();
         for ( final Enumeration<String> headerValueEnum = this.getHttpServletRequest().getHeaders( headerName ); headerValueEnum.hasMoreElements(); )
         {
@@ -349,7 +349,7 @@ public class PwmHttpRequestWrapper
 
     public List<String> headerNames( )
     {
-        final int maxChars = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        final int maxChars = appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH );
 
         return CollectionUtil.iteratorToStream( getHttpServletRequest().getHeaderNames().asIterator() )
                 .map( s -> Validator.sanitizeInputValue( appConfig, s, maxChars ) )
@@ -359,7 +359,7 @@ public class PwmHttpRequestWrapper
 
     public List<String> parameterNames( )
     {
-        final int maxChars = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        final int maxChars = appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH );
 
         return CollectionUtil.iteratorToStream( getHttpServletRequest().getParameterNames().asIterator() )
                 .map( s -> Validator.sanitizeInputValue( appConfig, s, maxChars ) )
@@ -384,7 +384,7 @@ public class PwmHttpRequestWrapper
     public Map<String, List<String>> readMultiParametersAsMap( )
             throws PwmUnrecoverableException
     {
-        final int maxLength = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        final int maxLength = appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH );
 
         final List<String> parameterNames = parameterNames();
 
@@ -400,7 +400,7 @@ public class PwmHttpRequestWrapper
 
     public Optional<String> readCookie( final String cookieName )
     {
-        final int maxChars = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_COOKIE_MAX_READ_LENGTH ) );
+        final int maxChars = appConfig.readIntAppProperty( AppProperty.HTTP_COOKIE_MAX_READ_LENGTH );
         final Cookie[] cookies = this.getHttpServletRequest().getCookies();
         if ( cookies != null )
         {
@@ -517,7 +517,7 @@ public class PwmRequest extends PwmHttpRequestWrapper
         {
             if ( getAttribute( PwmRequestAttribute.CspNonce ) == null )
             {
-                final int nonceLength = Integer.parseInt( getDomainConfig().readAppProperty( AppProperty.HTTP_HEADER_CSP_NONCE_BYTES ) );
+                final int nonceLength = getDomainConfig().readIntAppProperty( AppProperty.HTTP_HEADER_CSP_NONCE_BYTES );
                 final byte[] cspNonce = getPwmDomain().getSecureService().pwmRandom().newBytes( nonceLength );
                 final String cspString = StringUtil.base64Encode( cspNonce );
                 setAttribute( PwmRequestAttribute.CspNonce, cspString );
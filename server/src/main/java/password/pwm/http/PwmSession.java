@@ -39,6 +39,7 @@ import password.pwm.ldap.UserInfo;
 import password.pwm.ldap.UserInfoBean;
 import password.pwm.ldap.UserInfoFactory;
 import password.pwm.ldap.auth.AuthenticationType;
+import password.pwm.ldap.permission.UserPermissionUtility;
 import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.stats.StatisticsClient;
 import password.pwm.util.i18n.LocaleHelper;
@@ -151,6 +152,9 @@ public class PwmSession implements Serializable
         final UserInfo oldUserInfoBean = getUserInfo();
         final PwmDomain pwmDomain = pwmRequest.getPwmDomain();
 
+        // user info is reloaded after pwm modifies the user, so previous permission decisions may no longer hold
+        UserPermissionUtility.invalidatePermissionDecisions( pwmRequest, oldUserInfoBean.getUserIdentity() );
+
         final UserInfo userInfo;
         if ( getLoginInfoBean().getAuthFlags().contains( AuthenticationType.AUTH_BIND_INHIBIT ) )
         {
@@ -225,7 +225,7 @@ public class SessionManager
             {
                 final PwmSetting setting = permission.getPwmSetting();
                 final List<UserPermission> userPermission = pwmDomain.getConfig().readSettingAsUserPermission( setting );
-                final boolean result = UserPermissionUtility.testUserPermission( pwmDomain, pwmSession.getLabel(), pwmSession.getUserInfo().getUserIdentity(), userPermission );
+                final boolean result = UserPermissionUtility.testUserPermission( pwmDomain, pwmSession, pwmSession.getUserInfo().getUserIdentity(), userPermission );
                 status = result ? Permission.PermissionStatus.GRANTED : Permission.PermissionStatus.DENIED;
             }
 
@@ -148,7 +148,7 @@ public abstract class HttpAuthenticationUtilities
             return;
         }
 
-        final int cookieAgeSeconds = Integer.parseInt( pwmRequest.getDomainConfig().readAppProperty( AppProperty.HTTP_COOKIE_AUTHRECORD_AGE ) );
+        final int cookieAgeSeconds = pwmRequest.getDomainConfig().readIntAppProperty( AppProperty.HTTP_COOKIE_AUTHRECORD_AGE );
         if ( cookieAgeSeconds < 1 )
         {
             LOGGER.debug( pwmRequest, () -> "skipping auth record cookie set, cookie age parameter is less than 1" );
@@ -20,20 +20,38 @@
 
 package password.pwm.http.bean;
 
+import lombok.Value;
 import password.pwm.Permission;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.value.data.UserPermission;
+import password.pwm.util.java.TimeDuration;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public class UserSessionDataCacheBean implements Serializable
 {
     private final Map<Permission, Permission.PermissionStatus> permissions = new EnumMap<>( Permission.class );
 
+    /**
+     * Held in access order, so the least recently used decision is the first entry.  Access is synchronized on the map.
+     */
+    private final Map<PermissionDecisionKey, PermissionDecision> permissionDecisions = new LinkedHashMap<>( 16, 0.75f, true );
+
     public void clearPermissions( )
     {
         permissions.clear();
+        synchronized ( permissionDecisions )
+        {
+            permissionDecisions.clear();
+        }
     }
 
     public Permission.PermissionStatus getPermission( final Permission permission )
@@ -60,4 +78,97 @@ public class UserSessionDataCacheBean implements Serializable
         this.permissions.clear();
         this.permissions.putAll( permissions );
     }
+
+    public Optional<Boolean> readPermissionDecision( final PermissionDecisionKey permissionDecisionKey )
+    {
+        synchronized ( permissionDecisions )
+        {
+            final PermissionDecision permissionDecision = permissionDecisions.get( permissionDecisionKey );
+            if ( permissionDecision == null )
+            {
+                return Optional.empty();
+            }
+            if ( permissionDecision.isExpired() )
+            {
+                permissionDecisions.remove( permissionDecisionKey );
+                return Optional.empty();
+            }
+            return Optional.of( permissionDecision.isDecision() );
+        }
+    }
+
+    /**
+     * Store a permission decision, discarding the least recently used decisions beyond {@code maxEntries}.
+     *
+     * @param permissionDecisionKey decision key
+     * @param decision decision value
+     * @param maxEntries maximum number of decisions held by the session
+     * @param lifetime how long the decision may be reused, or {@code null} to keep it until it is cleared or evicted
+     */
+    public void writePermissionDecision(
+            final PermissionDecisionKey permissionDecisionKey,
+            final boolean decision,
+            final int maxEntries,
+            final TimeDuration lifetime
+    )
+    {
+        if ( maxEntries <= 0 )
+        {
+            return;
+        }
+
+        final Instant expiration = lifetime == null ? null : lifetime.incrementFromInstant( Instant.now() );
+
+        synchronized ( permissionDecisions )
+        {
+            permissionDecisions.put( permissionDecisionKey, new PermissionDecision( decision, expiration ) );
+
+            final Iterator<PermissionDecisionKey> iterator = permissionDecisions.keySet().iterator();
+            while ( permissionDecisions.size() > maxEntries && iterator.hasNext() )
+            {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Discard cached permission decisions for a user, both the per-{@link Permission} status and the
+     * per-permission-list decisions.  Called when the user's ldap entry has been modified.
+     *
+     * @param userIdentity user whose decisions are discarded
+     */
+    public void clearPermissionDecisions( final UserIdentity userIdentity )
+    {
+        permissions.clear();
+        synchronized ( permissionDecisions )
+        {
+            permissionDecisions.keySet().removeIf( key -> key.getUserIdentity().equals( userIdentity ) );
+        }
+    }
+
+    /**
+     * Identifies a single permission decision.  The permission list is held in its sorted form so equivalent
+     * lists share a decision, and the configuration modify time ensures a decision does not outlive the
+     * configuration it was made against.
+     */
+    @Value
+    public static class PermissionDecisionKey implements Serializable
+    {
+        private final UserIdentity userIdentity;
+        private final Instant configEpoch;
+        private final List<UserPermission> userPermissions;
+    }
+
+    @Value
+    private static class PermissionDecision implements Serializable
+    {
+        private final boolean decision;
+        private final Instant expiration;
+
+        boolean isExpired()
+        {
+            return expiration != null && !Instant.now().isBefore( expiration );
+        }
+    }
 }
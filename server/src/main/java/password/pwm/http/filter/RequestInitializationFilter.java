@@ -36,7 +36,6 @@ import password.pwm.http.ContextManager;
 import password.pwm.http.HttpHeader;
 import password.pwm.http.IdleTimeoutCalculator;
 import password.pwm.http.JspUrl;
-import password.pwm.http.PwmHttpRequestWrapper;
 import password.pwm.http.PwmRequest;
 import password.pwm.http.PwmRequestAttribute;
 import password.pwm.http.PwmResponse;
@@ -49,12 +48,12 @@ import password.pwm.svc.stats.EpsStatistic;
 import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.stats.StatisticsService;
 import password.pwm.util.IPMatcher;
+import password.pwm.util.IPRangeMatcher;
 import password.pwm.util.i18n.LocaleHelper;
 import password.pwm.util.java.StringUtil;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
 import password.pwm.util.macro.MacroRequest;
-import password.pwm.util.secure.PwmRandom;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -362,13 +361,13 @@ public class RequestInitializationFilter implements Filter
             return;
         }
 
-        final boolean includeXSessionID = Boolean.parseBoolean( config.readAppProperty( AppProperty.HTTP_HEADER_SEND_XSESSIONID ) );
+        final boolean includeXSessionID = config.readBooleanAppProperty( AppProperty.HTTP_HEADER_SEND_XSESSIONID );
         if ( includeXSessionID && pwmSession != null )
         {
             resp.setHeader( HttpHeader.XSessionID, pwmSession.getSessionStateBean().getSessionID() );
         }
 
-        final boolean includeContentLanguage = Boolean.parseBoolean( config.readAppProperty( AppProperty.HTTP_HEADER_SEND_CONTENT_LANGUAGE ) );
+        final boolean includeContentLanguage = config.readBooleanAppProperty( AppProperty.HTTP_HEADER_SEND_CONTENT_LANGUAGE );
         if ( includeContentLanguage )
         {
             resp.setHeader( HttpHeader.ContentLanguage, pwmRequest.getLocale().toLanguageTag() );
@@ -405,69 +404,7 @@ public class RequestInitializationFilter implements Filter
     )
             throws PwmUnrecoverableException
     {
-        final AppConfig config = pwmApplication.getConfig();
-
-        final String serverHeader = config.readAppProperty( AppProperty.HTTP_HEADER_SERVER );
-        final boolean includeXInstance = Boolean.parseBoolean( config.readAppProperty( AppProperty.HTTP_HEADER_SEND_XINSTANCE ) );
-        final boolean includeXVersion = Boolean.parseBoolean( config.readAppProperty( AppProperty.HTTP_HEADER_SEND_XVERSION ) );
-        final boolean includeXContentTypeOptions = Boolean.parseBoolean( config.readAppProperty( AppProperty.HTTP_HEADER_SEND_XCONTENTTYPEOPTIONS ) );
-        final boolean includeXXSSProtection = Boolean.parseBoolean( config.readAppProperty( AppProperty.HTTP_HEADER_SEND_XXSSPROTECTION ) );
-        final boolean includeXFrameDeny = config.readSettingAsBoolean( PwmSetting.SECURITY_PREVENT_FRAMING );
-        final boolean includeXAmb = Boolean.parseBoolean( config.readAppProperty( AppProperty.HTTP_HEADER_SEND_XAMB ) );
-        final boolean includeDomain = Boolean.parseBoolean( config.readAppProperty( AppProperty.HTTP_HEADER_SEND_XDOMAIN ) );
-
-        makeNoiseHeader( pwmApplication, config ).ifPresent( noiseHeader -> resp.setHeader( HttpHeader.XNoise.getHttpName(), noiseHeader ) );
-
-        if ( includeXVersion )
-        {
-            resp.setHeader( HttpHeader.XVersion.getHttpName(), PwmConstants.SERVLET_VERSION );
-        }
-
-        if ( includeXContentTypeOptions )
-        {
-            resp.setHeader( HttpHeader.XContentTypeOptions.getHttpName(), "nosniff" );
-        }
-
-        if ( includeXXSSProtection )
-        {
-            resp.setHeader( HttpHeader.XXSSProtection.getHttpName(), "1" );
-        }
-
-        if ( includeXInstance )
-        {
-            resp.setHeader( HttpHeader.XInstance.getHttpName(), String.valueOf( pwmApplication.getInstanceID() ) );
-        }
-
-        if ( serverHeader != null && !serverHeader.isEmpty() )
-        {
-            final String value = MacroRequest.forNonUserSpecific( pwmApplication, null ).expandMacros( serverHeader );
-            resp.setHeader( HttpHeader.Server.getHttpName(), value );
-        }
-
-        if ( includeXFrameDeny )
-        {
-            resp.setHeader( HttpHeader.XFrameOptions.getHttpName(), "DENY" );
-        }
-
-        if ( includeXAmb )
-        {
-            resp.setHeader( HttpHeader.XAmb.getHttpName(), PwmConstants.X_AMB_HEADER.get(
-                    pwmApplication.getSecureService().pwmRandom().nextInt( PwmConstants.X_AMB_HEADER.size() )
-            ) );
-        }
-
-        if ( includeDomain && pwmApplication.isMultiDomain() )
-        {
-            resp.setHeader( HttpHeader.XDomain.getHttpName(), PwmHttpRequestWrapper.readDomainIdFromRequest( req ).stringValue() );
-        }
-
-        {
-            final String cacheControl = pwmApplication.getConfig().readAppProperty( AppProperty.HTTP_HEADER_CACHE_CONTROL );
-            if ( StringUtil.notEmpty( cacheControl ) )
-            {
-                resp.setHeader( HttpHeader.CacheControl.getHttpName(), cacheControl );
-            }
-        }
+        StaticResponseHeaders.forApplication( pwmApplication ).apply( req, resp );
     }
 
 
@@ -728,33 +665,21 @@ public class RequestInitializationFilter implements Filter
     private static void checkSourceNetworkAddress( final PwmRequest pwmRequest )
             throws PwmUnrecoverableException
     {
-        final List<String> requiredHeaders = pwmRequest.getAppConfig().readSettingAsStringArray( PwmSetting.IP_PERMITTED_RANGE );
-        if ( requiredHeaders != null && !requiredHeaders.isEmpty() )
+        final IPRangeMatcher permittedNetworkMatcher = pwmRequest.getAppConfig().getPermittedNetworkMatcher();
+        if ( permittedNetworkMatcher.isConfigured() )
         {
             final String requestAddress = pwmRequest.getHttpServletRequest().getRemoteAddr();
-            for ( final String ipMatchString : requiredHeaders )
+            try
             {
-                try
+                if ( permittedNetworkMatcher.match( requestAddress ) )
                 {
-                    final IPMatcher ipMatcher = new IPMatcher( ipMatchString );
-                    try
-                    {
-                        if ( ipMatcher.match( requestAddress ) )
-                        {
-                            return;
-
-                        }
-                    }
-                    catch ( final IPMatcher.IPMatcherException e )
-                    {
-                        LOGGER.error( () -> "error while attempting to match permitted address range '" + ipMatchString + "', error: " + e );
-                    }
-                }
-                catch ( final IPMatcher.IPMatcherException e )
-                {
-                    LOGGER.error( () -> "error parsing permitted address range '" + ipMatchString + "', error: " + e );
+                    return;
                 }
             }
+            catch ( final IPMatcher.IPMatcherException e )
+            {
+                LOGGER.error( () -> "error while attempting to match permitted address ranges for '" + requestAddress + "', error: " + e );
+            }
 
             final String errorMsg = "request network address '" + requestAddress + "' does not match any configured permitted source address";
             final ErrorInformation errorInformation = new ErrorInformation( PwmError.ERROR_SECURITY_VIOLATION, errorMsg );
@@ -878,18 +803,4 @@ public class RequestInitializationFilter implements Filter
 
         return StringUtil.mapToString( values );
     }
-
-    private static Optional<String> makeNoiseHeader( final PwmApplication pwmApplication, final AppConfig appConfig )
-    {
-        final boolean sendNoise = Boolean.parseBoolean( appConfig.readAppProperty( AppProperty.HTTP_HEADER_SEND_XNOISE ) );
-
-        if ( sendNoise )
-        {
-            final int noiseLength = Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_HEADER_NOISE_LENGTH ) );
-            final PwmRandom pwmRandom = pwmApplication.getSecureService().pwmRandom();
-            return Optional.of( pwmRandom.alphaNumericString( pwmRandom.nextInt( noiseLength ) + 11 ) );
-        }
-
-        return Optional.empty();
-    }
 }
@@ -411,7 +411,7 @@ public class SessionFilter extends AbstractPwmFilter
                         }
                         else
                         {
-                            final int maxAge = Integer.parseInt( config.readAppProperty( AppProperty.HTTP_COOKIE_THEME_AGE ) );
+                            final int maxAge = config.readIntAppProperty( AppProperty.HTTP_COOKIE_THEME_AGE );
                             pwmRequest.getPwmResponse().writeCookie( themeCookieName, themeReqParameter, maxAge, PwmCookiePath.Domain );
                         }
                     }
@@ -0,0 +1,198 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.filter;
+
+import password.pwm.AppProperty;
+import password.pwm.PwmApplication;
+import password.pwm.PwmConstants;
+import password.pwm.config.AppConfig;
+import password.pwm.config.PwmSetting;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.http.HttpHeader;
+import password.pwm.http.PwmHttpRequestWrapper;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.macro.MacroMachine;
+import password.pwm.util.macro.MacroRequest;
+import password.pwm.util.secure.PwmRandom;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Response headers added to every response.  Headers whose values depend only on the application and its
+ * configuration are computed once, only the X-Noise, X-Amb and X-Domain headers, and a Server header using
+ * macros that change per expansion, are computed per response.
+ */
+class StaticResponseHeaders
+{
+    private static final AtomicReference<StaticResponseHeaders> CACHED_HEADERS = new AtomicReference<>();
+
+    private final PwmApplication pwmApplication;
+    private final AppConfig appConfig;
+    private final List<Map.Entry<String, String>> staticHeaders;
+    private final boolean includeXNoise;
+    private final int noiseLength;
+    private final boolean includeXAmb;
+    private final boolean includeXDomain;
+    private final String dynamicServerHeader;
+
+    private StaticResponseHeaders( final PwmApplication pwmApplication )
+    {
+        this.pwmApplication = pwmApplication;
+        this.appConfig = pwmApplication.getConfig();
+        this.staticHeaders = makeStaticHeaders( pwmApplication, appConfig );
+        this.includeXNoise = appConfig.readBooleanAppProperty( AppProperty.HTTP_HEADER_SEND_XNOISE );
+        this.noiseLength = appConfig.readIntAppProperty( AppProperty.HTTP_HEADER_NOISE_LENGTH );
+        this.includeXAmb = appConfig.readBooleanAppProperty( AppProperty.HTTP_HEADER_SEND_XAMB );
+        this.includeXDomain = appConfig.readBooleanAppProperty( AppProperty.HTTP_HEADER_SEND_XDOMAIN ) && appConfig.isMultiDomain();
+
+        final String serverHeader = appConfig.readAppProperty( AppProperty.HTTP_HEADER_SERVER );
+        this.dynamicServerHeader = StringUtil.notEmpty( serverHeader ) && !MacroMachine.isStaticExpansion( serverHeader )
+                ? serverHeader
+                : null;
+    }
+
+    /**
+     * Compile the header set for an application.  Most callers should use {@link #forApplication(PwmApplication)}.
+     *
+     * @param pwmApplication application to compile the headers for
+     * @return compiled header set
+     */
+    static StaticResponseHeaders compile( final PwmApplication pwmApplication )
+    {
+        return new StaticResponseHeaders( pwmApplication );
+    }
+
+    /**
+     * Returns the header set of the application, compiling it if the application or its configuration
+     * has changed since the last call.
+     *
+     * @param pwmApplication application to read the headers for
+     * @return compiled header set
+     */
+    static StaticResponseHeaders forApplication( final PwmApplication pwmApplication )
+    {
+        final StaticResponseHeaders cachedHeaders = CACHED_HEADERS.get();
+        if ( cachedHeaders != null
+                && cachedHeaders.pwmApplication == pwmApplication
+                && cachedHeaders.appConfig == pwmApplication.getConfig() )
+        {
+            return cachedHeaders;
+        }
+
+        final StaticResponseHeaders compiledHeaders = compile( pwmApplication );
+        CACHED_HEADERS.set( compiledHeaders );
+        return compiledHeaders;
+    }
+
+    void apply( final HttpServletRequest req, final HttpServletResponse resp )
+            throws PwmUnrecoverableException
+    {
+        if ( includeXNoise )
+        {
+            final PwmRandom pwmRandom = pwmApplication.getSecureService().pwmRandom();
+            resp.setHeader( HttpHeader.XNoise.getHttpName(), pwmRandom.alphaNumericString( pwmRandom.nextInt( noiseLength ) + 11 ) );
+        }
+
+        for ( final Map.Entry<String, String> header : staticHeaders )
+        {
+            resp.setHeader( header.getKey(), header.getValue() );
+        }
+
+        if ( dynamicServerHeader != null )
+        {
+            final String value = MacroRequest.forNonUserSpecific( pwmApplication, null ).expandMacros( dynamicServerHeader );
+            resp.setHeader( HttpHeader.Server.getHttpName(), value );
+        }
+
+        if ( includeXAmb )
+        {
+            resp.setHeader( HttpHeader.XAmb.getHttpName(), PwmConstants.X_AMB_HEADER.get(
+                    pwmApplication.getSecureService().pwmRandom().nextInt( PwmConstants.X_AMB_HEADER.size() )
+            ) );
+        }
+
+        if ( includeXDomain )
+        {
+            resp.setHeader( HttpHeader.XDomain.getHttpName(), PwmHttpRequestWrapper.readDomainIdFromRequest( req ).stringValue() );
+        }
+    }
+
+    List<Map.Entry<String, String>> getStaticHeaders()
+    {
+        return staticHeaders;
+    }
+
+    private static List<Map.Entry<String, String>> makeStaticHeaders( final PwmApplication pwmApplication, final AppConfig config )
+    {
+        final List<Map.Entry<String, String>> headers = new ArrayList<>();
+
+        if ( config.readBooleanAppProperty( AppProperty.HTTP_HEADER_SEND_XVERSION ) )
+        {
+            headers.add( Map.entry( HttpHeader.XVersion.getHttpName(), PwmConstants.SERVLET_VERSION ) );
+        }
+
+        if ( config.readBooleanAppProperty( AppProperty.HTTP_HEADER_SEND_XCONTENTTYPEOPTIONS ) )
+        {
+            headers.add( Map.entry( HttpHeader.XContentTypeOptions.getHttpName(), "nosniff" ) );
+        }
+
+        if ( config.readBooleanAppProperty( AppProperty.HTTP_HEADER_SEND_XXSSPROTECTION ) )
+        {
+            headers.add( Map.entry( HttpHeader.XXSSProtection.getHttpName(), "1" ) );
+        }
+
+        if ( config.readBooleanAppProperty( AppProperty.HTTP_HEADER_SEND_XINSTANCE ) )
+        {
+            headers.add( Map.entry( HttpHeader.XInstance.getHttpName(), String.valueOf( pwmApplication.getInstanceID() ) ) );
+        }
+
+        {
+            // only static macros are expanded here, others are expanded per response by apply()
+            final String serverHeader = config.readAppProperty( AppProperty.HTTP_HEADER_SERVER );
+            if ( StringUtil.notEmpty( serverHeader ) && MacroMachine.isStaticExpansion( serverHeader ) )
+            {
+                final String value = MacroRequest.forStatic().expandMacros( serverHeader );
+                headers.add( Map.entry( HttpHeader.Server.getHttpName(), value ) );
+            }
+        }
+
+        if ( config.readSettingAsBoolean( PwmSetting.SECURITY_PREVENT_FRAMING ) )
+        {
+            headers.add( Map.entry( HttpHeader.XFrameOptions.getHttpName(), "DENY" ) );
+        }
+
+        {
+            final String cacheControl = config.readAppProperty( AppProperty.HTTP_HEADER_CACHE_CONTROL );
+            if ( StringUtil.notEmpty( cacheControl ) )
+            {
+                headers.add( Map.entry( HttpHeader.CacheControl.getHttpName(), cacheControl ) );
+            }
+        }
+
+        return Collections.unmodifiableList( headers );
+    }
+}
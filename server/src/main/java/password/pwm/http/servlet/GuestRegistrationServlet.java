@@ -242,6 +242,7 @@ public class GuestRegistrationServlet extends ControlledPwmServlet
             {
                 theGuest.writeDateAttribute( expirationAttribute, expirationDate );
             }
+            pwmDomain.getLdapFilterEvaluator().invalidate( guestRegistrationBean.getUpdateUserIdentity() );
 
             // send email.
             final UserInfo guestUserInfoBean = UserInfoFactory.newUserInfo(
@@ -190,7 +190,7 @@ public class ShortcutServlet extends AbstractPwmServlet
                         .build();
 
                 final boolean queryMatch = UserPermissionUtility.testUserPermission(
-                        pwmRequest.getPwmRequestContext(),
+                        pwmRequest,
                         pwmRequest.getPwmSession().getUserInfo().getUserIdentity(),
                         userPermission
                 );
@@ -37,9 +37,13 @@ import password.pwm.i18n.Admin;
 import password.pwm.i18n.Display;
 import password.pwm.ldap.LdapConnectionService;
 import password.pwm.svc.PwmService;
+import password.pwm.svc.PwmServiceEnum;
 import password.pwm.svc.node.NodeInfo;
 import password.pwm.svc.node.NodeService;
 import password.pwm.svc.sessiontrack.SessionTrackService;
+import password.pwm.svc.stats.AvgStatistic;
+import password.pwm.svc.stats.StatisticsBundle;
+import password.pwm.svc.stats.StatisticsService;
 import password.pwm.util.i18n.LocaleHelper;
 import password.pwm.util.java.CollectionUtil;
 import password.pwm.util.java.FileSystemUtility;
@@ -114,6 +118,7 @@ public class AppDashboardData implements Serializable
         private Collection<DataStorageMethod> storageMethod;
         private List<HealthRecord> health;
         private Map<String, String> debugData;
+        private String initDuration;
 
         @Override
         public int compareTo( final ServiceData otherServiceData )
@@ -141,6 +146,17 @@ public class AppDashboardData implements Serializable
         private boolean configMatch;
     }
 
+    @Value
+    public static class LatencyData implements Serializable
+    {
+        private String name;
+        private String label;
+        private String count;
+        private String p50;
+        private String p95;
+        private String p99;
+    }
+
     public enum Flag
     {
         IncludeLocalDbTableSizes,
@@ -154,6 +170,7 @@ public class AppDashboardData implements Serializable
     private List<ThreadData> threads;
     private Map<LocalDB.DB, String> localDbSizes;
     private List<NodeData> nodeData;
+    private List<LatencyData> latencyData;
     private String nodeSummary;
     private DataStorageMethod nodeStorageMethod;
     private long ldapConnectionCount;
@@ -196,6 +213,7 @@ public class AppDashboardData implements Serializable
         }
 
         builder.nodeData = makeNodeData( pwmDomain, locale );
+        builder.latencyData( makeLatencyData( pwmDomain, locale ) );
         builder.nodeSummary = pwmDomain.getPwmApplication().getNodeService().isMaster()
                 ? "This node is the current master"
                 : "This node is not the current master";
@@ -282,6 +300,7 @@ public class AppDashboardData implements Serializable
             throws PwmUnrecoverableException
     {
         final List<ServiceData> returnData = new ArrayList<>();
+        final Map<DomainID, Map<PwmServiceEnum, TimeDuration>> initDurations = pwmApplication.getAppAndDomainServiceInitDurations();
         for ( final Map.Entry<DomainID, List<PwmService>> domainIDListEntry : pwmApplication.getAppAndDomainPwmServices().entrySet() )
         {
             final DomainID domainID = domainIDListEntry.getKey();
@@ -302,6 +321,12 @@ public class AppDashboardData implements Serializable
 
                 final String guid = pwmApplication.getSecureService().hash( domainID + pwmService.getClass().getSimpleName() );
 
+                final String initDuration = initDurations.getOrDefault( domainID, Collections.emptyMap() ).entrySet().stream()
+                        .filter( entry -> entry.getKey().getPwmServiceClass() == pwmService.getClass() )
+                        .map( entry -> entry.getValue().asCompactString() )
+                        .findFirst()
+                        .orElse( null );
+
                 returnData.add( new ServiceData(
                         guid,
                         domainID,
@@ -309,7 +334,8 @@ public class AppDashboardData implements Serializable
                         pwmService.status(),
                         storageMethods,
                         pwmService.healthCheck(),
-                        debugData
+                        debugData,
+                        initDuration
                 ) );
             }
         }
@@ -529,6 +555,31 @@ public class AppDashboardData implements Serializable
         return Collections.unmodifiableList( javaInfo );
     }
 
+    private static List<LatencyData> makeLatencyData( final PwmDomain pwmDomain, final Locale locale )
+    {
+        final StatisticsBundle bundle = pwmDomain.getStatisticsManager().getStatBundleForKey( StatisticsService.KEY_CURRENT );
+        if ( bundle == null )
+        {
+            return Collections.emptyList();
+        }
+
+        final PwmNumberFormat numberFormat = PwmNumberFormat.forLocale( locale );
+        final List<LatencyData> returnData = new ArrayList<>();
+        for ( final AvgStatistic statistic : AvgStatistic.values() )
+        {
+            final String unit = StringUtil.isEmpty( statistic.getUnit() ) ? "" : " " + statistic.getUnit();
+            returnData.add( new LatencyData(
+                    statistic.name(),
+                    statistic.getLabel( locale ),
+                    numberFormat.format( bundle.getLatencyCount( statistic ) ),
+                    numberFormat.format( bundle.getPercentile( statistic, 50 ) ) + unit,
+                    numberFormat.format( bundle.getPercentile( statistic, 95 ) ) + unit,
+                    numberFormat.format( bundle.getPercentile( statistic, 99 ) ) + unit
+            ) );
+        }
+        return Collections.unmodifiableList( returnData );
+    }
+
     private static List<ThreadData> makeThreadInfo( )
     {
         final Map<Long, ThreadData> returnData = new TreeMap<>();
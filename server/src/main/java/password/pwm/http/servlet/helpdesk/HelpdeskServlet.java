@@ -64,6 +64,7 @@ import password.pwm.ldap.LdapOperationsHelper;
 import password.pwm.ldap.PhotoDataBean;
 import password.pwm.ldap.UserInfo;
 import password.pwm.ldap.UserInfoFactory;
+import password.pwm.ldap.permission.UserPermissionUtility;
 import password.pwm.ldap.search.SearchConfiguration;
 import password.pwm.ldap.search.UserSearchEngine;
 import password.pwm.ldap.search.UserSearchResults;
@@ -289,6 +290,7 @@ public class HelpdeskServlet extends ControlledPwmServlet
                     .createActionExecutor();
 
             actionExecutor.executeAction( action, pwmRequest.getLabel() );
+            UserPermissionUtility.invalidatePermissionDecisions( pwmRequest, targetUserIdentity );
 
             // mark the event log
             {
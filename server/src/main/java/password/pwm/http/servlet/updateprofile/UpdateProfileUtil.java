@@ -368,6 +368,7 @@ public class UpdateProfileUtil
         LOGGER.info( sessionLabel, () -> "updating profile for " + userInfo.getUserIdentity() );
 
         LdapOperationsHelper.writeFormValuesToLdap( theUser, formMap, macroRequest, false );
+        pwmDomain.getLdapFilterEvaluator().invalidate( userInfo.getUserIdentity() );
 
         postUpdateActionsAndEmail( pwmDomain, sessionLabel, locale, userInfo.getUserIdentity(), updateProfileProfile );
 
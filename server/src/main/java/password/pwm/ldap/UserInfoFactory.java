@@ -50,17 +50,7 @@ public class UserInfoFactory
     )
             throws PwmUnrecoverableException
     {
-        final PwmDomain pwmDomain = pwmApplication.domains().get( userIdentity.getDomainID() );
-        final String userLdapProfile = userIdentity.getLdapProfileID();
-        final ChaiProvider provider = pwmDomain.getProxyChaiProvider( sessionLabel, userLdapProfile );
-        return newUserInfo(
-                pwmApplication,
-                sessionLabel,
-                locale,
-                userIdentity,
-                provider,
-                currentPassword
-        );
+        return newProxyUserInfo( pwmApplication, sessionLabel, locale, userIdentity, currentPassword );
     }
 
     public static UserInfo newUserInfoUsingProxyForOfflineUser(
@@ -72,8 +62,7 @@ public class UserInfoFactory
     {
         final PwmDomain pwmDomain = pwmApplication.domains().get( userIdentity.getDomainID() );
         final Locale ldapLocale = LdapOperationsHelper.readLdapStoredLanguage( sessionLabel, pwmDomain, userIdentity );
-        final ChaiProvider provider = pwmDomain.getProxyChaiProvider( sessionLabel, userIdentity.getLdapProfileID() );
-        return newUserInfo( pwmApplication, sessionLabel, ldapLocale, userIdentity, provider, null );
+        return newProxyUserInfo( pwmApplication, sessionLabel, ldapLocale, userIdentity, null );
     }
 
     public static UserInfo newUserInfoUsingProxy(
@@ -82,9 +71,7 @@ public class UserInfoFactory
     )
             throws PwmUnrecoverableException
     {
-        final SessionLabel sessionLabel = pwmRequestContext.getSessionLabel();
-        final ChaiProvider provider = pwmRequestContext.getPwmDomain().getProxyChaiProvider( sessionLabel, userIdentity.getLdapProfileID() );
-        return newUserInfo( pwmRequestContext.getPwmApplication(), pwmRequestContext.getSessionLabel(), pwmRequestContext.getLocale(), userIdentity, provider, null );
+        return newProxyUserInfo( pwmRequestContext.getPwmApplication(), pwmRequestContext.getSessionLabel(), pwmRequestContext.getLocale(), userIdentity, null );
     }
 
     public static UserInfo newUserInfoUsingProxy(
@@ -95,9 +82,7 @@ public class UserInfoFactory
     )
             throws PwmUnrecoverableException
     {
-        final PwmDomain pwmDomain = pwmApplication.domains().get( userIdentity.getDomainID() );
-        final ChaiProvider provider = pwmDomain.getProxyChaiProvider( sessionLabel, userIdentity.getLdapProfileID() );
-        return newUserInfo( pwmApplication, sessionLabel, userLocale, userIdentity, provider, null );
+        return newProxyUserInfo( pwmApplication, sessionLabel, userLocale, userIdentity, null );
     }
 
     public static UserInfo newUserInfo(
@@ -111,7 +96,7 @@ public class UserInfoFactory
     {
         try
         {
-            return makeUserInfoImpl( pwmApplication, sessionLabel, userLocale, userIdentity, provider, null );
+            return makeUserInfoImpl( pwmApplication, sessionLabel, userLocale, userIdentity, provider, null, false );
         }
         catch ( final ChaiUnavailableException e )
         {
@@ -131,7 +116,28 @@ public class UserInfoFactory
     {
         try
         {
-            return makeUserInfoImpl( pwmApplication, sessionLabel, userLocale, userIdentity, provider, currentPassword );
+            return makeUserInfoImpl( pwmApplication, sessionLabel, userLocale, userIdentity, provider, currentPassword, false );
+        }
+        catch ( final ChaiUnavailableException e )
+        {
+            throw new PwmUnrecoverableException( new ErrorInformation( PwmError.ERROR_DIRECTORY_UNAVAILABLE, e.getMessage() ) );
+        }
+    }
+
+    private static UserInfo newProxyUserInfo(
+            final PwmApplication pwmApplication,
+            final SessionLabel sessionLabel,
+            final Locale userLocale,
+            final UserIdentity userIdentity,
+            final PasswordData currentPassword
+    )
+            throws PwmUnrecoverableException
+    {
+        final PwmDomain pwmDomain = pwmApplication.domains().get( userIdentity.getDomainID() );
+        final ChaiProvider provider = pwmDomain.getProxyChaiProvider( sessionLabel, userIdentity.getLdapProfileID() );
+        try
+        {
+            return makeUserInfoImpl( pwmApplication, sessionLabel, userLocale, userIdentity, provider, currentPassword, true );
         }
         catch ( final ChaiUnavailableException e )
         {
@@ -145,11 +151,14 @@ public class UserInfoFactory
             final Locale userLocale,
             final UserIdentity userIdentity,
             final ChaiProvider provider,
-            final PasswordData currentPassword
+            final PasswordData currentPassword,
+            final boolean proxyProvider
     )
             throws PwmUnrecoverableException, ChaiUnavailableException
     {
-        return UserInfoReader.create( userIdentity, currentPassword, sessionLabel, userLocale, pwmApplication, provider );
+        final PwmDomain pwmDomain = pwmApplication.domains().get( userIdentity.getDomainID() );
+        final UserInfoPrefetchPlan prefetchPlan = UserInfoPrefetchPlan.forUser( pwmDomain, userIdentity );
+        return UserInfoReader.create( userIdentity, currentPassword, sessionLabel, userLocale, pwmApplication, provider, prefetchPlan, proxyProvider );
     }
 
 
@@ -0,0 +1,169 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import password.pwm.AppProperty;
+import password.pwm.PwmDomain;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.AppConfig;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.profile.LdapProfile;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.java.TimeDuration;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-{@link LdapProfile} set of user attributes that {@link UserInfoReader} fetches in its first LDAP search.  The
+ * plan starts with the attributes named by the profile configuration (username, email, sms and cached attributes)
+ * and learns any other attribute that a reader later has to fetch on its own, so subsequent readers for the same
+ * profile get it in the first round trip as well.
+ *
+ * <p>Learned attributes that no reader has asked for within the learned attribute lifetime are dropped from the
+ * plan.  When the plan holds its maximum number of learned attributes, the least recently used one is replaced.</p>
+ */
+class UserInfoPrefetchPlan
+{
+    private static final Map<LdapProfile, UserInfoPrefetchPlan> PLANS = Collections.synchronizedMap( new WeakHashMap<>() );
+
+    private static final List<PwmSetting> ATTRIBUTE_SETTINGS = List.of(
+            PwmSetting.EMAIL_USER_MAIL_ATTRIBUTE,
+            PwmSetting.EMAIL_USER_MAIL_ATTRIBUTE_2,
+            PwmSetting.EMAIL_USER_MAIL_ATTRIBUTE_3,
+            PwmSetting.SMS_USER_PHONE_ATTRIBUTE,
+            PwmSetting.SMS_USER_PHONE_ATTRIBUTE_2,
+            PwmSetting.SMS_USER_PHONE_ATTRIBUTE_3 );
+
+    private final Set<String> configuredAttributes;
+
+    // learned attribute name to the time it was last requested by a reader, in milliseconds from the clock.
+    private final Map<String, Long> learnedAttributes = new ConcurrentHashMap<>();
+    private final int maxLearnedAttributes;
+    private final long learnedLifetimeMs;
+    private final LongSupplier clock;
+
+    UserInfoPrefetchPlan(
+            final Set<String> configuredAttributes,
+            final int maxLearnedAttributes,
+            final TimeDuration learnedLifetime,
+            final LongSupplier clock
+    )
+    {
+        this.configuredAttributes = Collections.unmodifiableSet( new LinkedHashSet<>( configuredAttributes ) );
+        this.maxLearnedAttributes = maxLearnedAttributes;
+        this.learnedLifetimeMs = learnedLifetime.asMillis();
+        this.clock = clock;
+    }
+
+    static UserInfoPrefetchPlan forUser( final PwmDomain pwmDomain, final UserIdentity userIdentity )
+    {
+        final AppConfig appConfig = pwmDomain.getPwmApplication().getConfig();
+        if ( !appConfig.readBooleanAppProperty( AppProperty.LDAP_USER_INFO_PREFETCH_ENABLE ) )
+        {
+            return null;
+        }
+
+        final int maxLearnedAttributes = appConfig.readIntAppProperty( AppProperty.LDAP_USER_INFO_PREFETCH_MAX_LEARNED );
+        final TimeDuration learnedLifetime = appConfig.readDurationAppProperty( AppProperty.LDAP_USER_INFO_PREFETCH_LEARNED_LIFETIME );
+        final LdapProfile ldapProfile = userIdentity.getLdapProfile( appConfig );
+        return PLANS.computeIfAbsent( ldapProfile, profile -> new UserInfoPrefetchPlan(
+                figureConfiguredAttributes( profile ),
+                maxLearnedAttributes,
+                learnedLifetime,
+                System::currentTimeMillis ) );
+    }
+
+    Set<String> attributes()
+    {
+        if ( learnedAttributes.isEmpty() )
+        {
+            return configuredAttributes;
+        }
+
+        final long expiredBefore = clock.getAsLong() - learnedLifetimeMs;
+        learnedAttributes.values().removeIf( lastUsed -> lastUsed < expiredBefore );
+
+        final Set<String> returnSet = new LinkedHashSet<>( configuredAttributes );
+        returnSet.addAll( learnedAttributes.keySet() );
+        return returnSet;
+    }
+
+    /**
+     * Record the attributes requested by a reader.  Attributes already learned are marked as recently used, and
+     * attributes the reader had to fetch on its own are learned.
+     *
+     * @param requestedAttributes attributes requested by the reader
+     * @param uncachedAttributes subset of the requested attributes the reader did not already have
+     */
+    void learn( final Collection<String> requestedAttributes, final Collection<String> uncachedAttributes )
+    {
+        if ( maxLearnedAttributes <= 0 )
+        {
+            return;
+        }
+
+        final long now = clock.getAsLong();
+        for ( final String attribute : requestedAttributes )
+        {
+            learnedAttributes.computeIfPresent( attribute, ( key, lastUsed ) -> now );
+        }
+
+        for ( final String attribute : uncachedAttributes )
+        {
+            if ( !configuredAttributes.contains( attribute ) && !learnedAttributes.containsKey( attribute ) )
+            {
+                if ( learnedAttributes.size() >= maxLearnedAttributes )
+                {
+                    removeLeastRecentlyUsed();
+                }
+                learnedAttributes.put( attribute, now );
+            }
+        }
+    }
+
+    private void removeLeastRecentlyUsed()
+    {
+        learnedAttributes.entrySet().stream()
+                .min( Map.Entry.comparingByValue() )
+                .ifPresent( entry -> learnedAttributes.remove( entry.getKey(), entry.getValue() ) );
+    }
+
+    private static Set<String> figureConfiguredAttributes( final LdapProfile ldapProfile )
+    {
+        final Set<String> attributes = new LinkedHashSet<>();
+        attributes.add( ldapProfile.getUsernameAttribute() );
+        for ( final PwmSetting setting : ATTRIBUTE_SETTINGS )
+        {
+            attributes.add( ldapProfile.readSettingAsString( setting ) );
+        }
+        attributes.addAll( ldapProfile.readSettingAsStringArray( PwmSetting.CACHED_USER_ATTRIBUTES ) );
+        attributes.removeIf( StringUtil::isEmpty );
+        return attributes;
+    }
+}
@@ -55,6 +55,8 @@ import password.pwm.svc.cr.CrService;
 import password.pwm.svc.otp.OTPUserRecord;
 import password.pwm.svc.otp.OtpService;
 import password.pwm.svc.pwnotify.PwNotifyUserStatus;
+import password.pwm.svc.stats.Statistic;
+import password.pwm.svc.stats.StatisticsClient;
 import password.pwm.util.PasswordData;
 import password.pwm.util.form.FormUtility;
 import password.pwm.util.i18n.LocaleHelper;
@@ -89,6 +91,11 @@ public class UserInfoReader implements UserInfo
     private final ChaiUser chaiUser;
     private final SessionLabel sessionLabel;
     private final PwmDomain pwmDomain;
+    private final UserInfoPrefetchPlan prefetchPlan;
+    private final boolean proxyProvider;
+
+    private boolean prefetchComplete;
+    private int attributeReadCount;
 
     /**
      * A reference to this object, but with memorized (cached) method implementations.  In most cases references to 'this'
@@ -96,13 +103,16 @@ public class UserInfoReader implements UserInfo
      */
     private UserInfo selfCachedReference;
 
+    @SuppressWarnings( "checkstyle:ParameterNumber" )
     private UserInfoReader(
             final UserIdentity userIdentity,
             final PasswordData currentPassword,
             final SessionLabel sessionLabel,
             final Locale locale,
             final PwmApplication pwmApplication,
-            final ChaiProvider chaiProvider
+            final ChaiProvider chaiProvider,
+            final UserInfoPrefetchPlan prefetchPlan,
+            final boolean proxyProvider
     )
             throws ChaiUnavailableException
     {
@@ -111,25 +121,34 @@ public class UserInfoReader implements UserInfo
         this.pwmDomain = pwmApplication.domains().get( userIdentity.getDomainID() );
         this.locale = locale;
         this.sessionLabel = sessionLabel;
+        this.prefetchPlan = prefetchPlan;
+        this.proxyProvider = proxyProvider;
 
         final ChaiProvider cachingProvider = CachingProxyWrapper.create( ChaiProvider.class, chaiProvider );
         this.chaiUser = cachingProvider.getEntryFactory().newChaiUser( userIdentity.getUserDN() );
     }
 
+    /**
+     * Create a user info reader.  When {@code proxyProvider} is true, attributes referenced by permission filters are
+     * added to the first read and handed to the domain's {@link password.pwm.ldap.permission.LdapFilterEvaluator}.
+     */
+    @SuppressWarnings( "checkstyle:ParameterNumber" )
     static UserInfo create(
             final UserIdentity userIdentity,
             final PasswordData currentPassword,
             final SessionLabel sessionLabel,
             final Locale locale,
             final PwmApplication pwmApplication,
-            final ChaiProvider chaiProvider
+            final ChaiProvider chaiProvider,
+            final UserInfoPrefetchPlan prefetchPlan,
+            final boolean proxyProvider
     )
             throws ChaiUnavailableException, PwmUnrecoverableException
     {
         final PwmDomain pwmDomain = pwmApplication.domains().get( userIdentity.getDomainID() );
         LdapOperationsHelper.addConfiguredUserObjectClass( sessionLabel, userIdentity, pwmDomain );
 
-        final UserInfoReader userInfo = new UserInfoReader( userIdentity, currentPassword, sessionLabel, locale, pwmApplication, chaiProvider );
+        final UserInfoReader userInfo = new UserInfoReader( userIdentity, currentPassword, sessionLabel, locale, pwmApplication, chaiProvider, prefetchPlan, proxyProvider );
         final UserInfo selfCachedReference = CachingProxyWrapper.create( UserInfo.class, userInfo );
         userInfo.selfCachedReference = selfCachedReference;
         return selfCachedReference;
@@ -781,16 +800,44 @@ public class UserInfoReader implements UserInfo
         final Set<String> uncachedAttributes = new HashSet<>( attributes );
         uncachedAttributes.removeAll( cacheMap.keySet() );
 
+        if ( prefetchPlan != null )
+        {
+            prefetchPlan.learn( attributes, uncachedAttributes );
+        }
+
         // read uncached attributes into cache
         if ( !uncachedAttributes.isEmpty() )
         {
+            final Set<String> searchAttributes = new HashSet<>( uncachedAttributes );
+            final boolean firstRead = !prefetchComplete;
+            if ( firstRead )
+            {
+                // the first read also fetches everything the profile plan expects this user info to need, and the
+                // attributes needed to evaluate permission filters
+                if ( prefetchPlan != null )
+                {
+                    searchAttributes.addAll( prefetchPlan.attributes() );
+                }
+                if ( proxyProvider )
+                {
+                    searchAttributes.addAll( pwmDomain.getLdapFilterEvaluator().filterAttributes() );
+                }
+                searchAttributes.removeAll( cacheMap.keySet() );
+                prefetchComplete = true;
+            }
+
+            final int readCount = ++attributeReadCount;
+            StatisticsClient.incrementStat( pwmDomain, Statistic.LDAP_USER_ATTRIBUTE_READS );
+            LOGGER.trace( sessionLabel, () -> "reading " + searchAttributes.size() + " attributes for " + userIdentity.toDisplayString()
+                    + " (attribute read #" + readCount + ")" );
+
             final Map<String, Map<String, List<String>>> results;
             try
             {
                 results = chaiUser.getChaiProvider().searchMultiValues(
                         chaiUser.getEntryDN(),
                         "(objectclass=*)",
-                        uncachedAttributes,
+                        searchAttributes,
                         SearchScope.BASE
                 );
             }
@@ -815,7 +862,11 @@ public class UserInfoReader implements UserInfo
             }
 
             final Map<String, List<String>> allAttributeValues = results.values().iterator().next();
-            for ( final String attribute : uncachedAttributes )
+            if ( firstRead && proxyProvider )
+            {
+                pwmDomain.getLdapFilterEvaluator().seed( userIdentity, searchAttributes, allAttributeValues );
+            }
+            for ( final String attribute : searchAttributes )
             {
                 final List<String> attributeValues = allAttributeValues.get( attribute );
                 if ( attributeValues == null )
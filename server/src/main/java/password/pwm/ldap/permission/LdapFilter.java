@@ -0,0 +1,813 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap.permission;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Parsed RFC 4515 search filter that can be evaluated against an already-read set of entry attribute values.
+ *
+ * <p>Values are only compared locally for attributes whose equality matching rule is known to the caller, see
+ * {@link MatchingRule}.  Assertions on other attributes, on attributes that were not returned for the entry (which
+ * may be absent or just not readable), extensible and approximate matches, attribute options, and any other
+ * comparison that can not be decided locally evaluate to {@link Result#UNKNOWN} so the caller can defer to the
+ * directory.</p>
+ */
+final class LdapFilter
+{
+    enum Result
+    {
+        TRUE,
+        FALSE,
+        UNKNOWN,;
+
+        static Result of( final boolean value )
+        {
+            return value ? TRUE : FALSE;
+        }
+    }
+
+    /**
+     * Matching rules that can be applied locally.
+     */
+    enum MatchingRule
+    {
+        /** caseIgnoreMatch and similar: case is ignored and insignificant spaces are removed. */
+        CASE_IGNORE,
+
+        /** distinguishedNameMatch: values are compared as normalized DNs.  There is no substring rule. */
+        DISTINGUISHED_NAME,
+
+        /** integerMatch and integerOrderingMatch.  There is no substring rule. */
+        INTEGER,
+    }
+
+    private final Node rootNode;
+    private final Set<String> attributeNames;
+    private final boolean locallyEvaluable;
+
+    private LdapFilter( final Node rootNode )
+    {
+        this.rootNode = rootNode;
+
+        final Set<String> names = new HashSet<>();
+        rootNode.collectAttributes( names );
+        this.attributeNames = Collections.unmodifiableSet( names );
+        this.locallyEvaluable = rootNode.locallyEvaluable();
+    }
+
+    /**
+     * Parse a filter string.  A filter missing its enclosing parenthesis is accepted the same as the directory
+     * search would.
+     *
+     * @param filter filter string
+     * @return the parsed filter, or empty if the value is not a valid filter
+     */
+    static Optional<LdapFilter> parse( final String filter )
+    {
+        if ( filter == null || filter.trim().isEmpty() )
+        {
+            return Optional.empty();
+        }
+
+        final String trimmed = filter.trim();
+        final String input = trimmed.startsWith( "(" ) ? trimmed : "(" + trimmed + ")";
+
+        try
+        {
+            final Parser parser = new Parser( input );
+            final Node node = parser.readFilter();
+            if ( !parser.atEnd() )
+            {
+                return Optional.empty();
+            }
+            return Optional.of( new LdapFilter( node ) );
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Lower-case names of every attribute referenced by the filter.
+     */
+    Set<String> getAttributeNames()
+    {
+        return attributeNames;
+    }
+
+    /**
+     * False if the filter contains constructs that are never evaluated locally.
+     */
+    boolean isLocallyEvaluable()
+    {
+        return locallyEvaluable;
+    }
+
+    /**
+     * Evaluate the filter.
+     *
+     * @param attributeValues entry values keyed by lower-case attribute name; attributes not returned for the entry map to an empty list or are missing
+     * @param matchingRules equality matching rule keyed by lower-case attribute name, for attributes that may be compared locally
+     * @return the filter result
+     */
+    Result evaluate( final Map<String, List<String>> attributeValues, final Map<String, MatchingRule> matchingRules )
+    {
+        return rootNode.evaluate( new EvaluationContext( attributeValues, matchingRules ) );
+    }
+
+    static String normalizeValue( final String value )
+    {
+        final StringBuilder sb = new StringBuilder( value.length() );
+        boolean pendingSpace = false;
+        for ( final char c : value.trim().toCharArray() )
+        {
+            if ( Character.isWhitespace( c ) )
+            {
+                pendingSpace = true;
+            }
+            else
+            {
+                if ( pendingSpace )
+                {
+                    sb.append( ' ' );
+                    pendingSpace = false;
+                }
+                sb.append( Character.toLowerCase( c ) );
+            }
+        }
+        return sb.toString();
+    }
+
+    static String normalizeDn( final String value )
+    {
+        final StringBuilder sb = new StringBuilder( value.length() );
+        final String lowerValue = value.trim().toLowerCase( Locale.ROOT );
+        boolean escaped = false;
+        boolean skipSpaces = false;
+        for ( final char c : lowerValue.toCharArray() )
+        {
+            if ( skipSpaces && c == ' ' )
+            {
+                continue;
+            }
+            skipSpaces = false;
+
+            if ( !escaped && ( c == ',' || c == '=' || c == '+' ) )
+            {
+                trimTrailingSpaces( sb );
+                skipSpaces = true;
+            }
+            sb.append( c );
+            escaped = !escaped && c == '\\';
+        }
+        return sb.toString();
+    }
+
+    private static Optional<Long> parseInteger( final String value )
+    {
+        try
+        {
+            return Optional.of( Long.parseLong( value.trim() ) );
+        }
+        catch ( final NumberFormatException e )
+        {
+            return Optional.empty();
+        }
+    }
+
+    private static void trimTrailingSpaces( final StringBuilder sb )
+    {
+        while ( sb.length() > 0 && sb.charAt( sb.length() - 1 ) == ' ' && ( sb.length() < 2 || sb.charAt( sb.length() - 2 ) != '\\' ) )
+        {
+            sb.setLength( sb.length() - 1 );
+        }
+    }
+
+    private static class EvaluationContext
+    {
+        private final Map<String, List<String>> attributeValues;
+        private final Map<String, MatchingRule> matchingRules;
+
+        EvaluationContext( final Map<String, List<String>> attributeValues, final Map<String, MatchingRule> matchingRules )
+        {
+            this.attributeValues = attributeValues;
+            this.matchingRules = matchingRules;
+        }
+
+        /**
+         * Values of the attribute, or empty if none were returned.  The directory does not tell an absent attribute
+         * apart from one the reading connection may not see, so no values is never taken as a non-match.
+         */
+        Optional<List<String>> values( final String attributeName )
+        {
+            final List<String> values = attributeValues.get( attributeName );
+            return values == null || values.isEmpty() ? Optional.empty() : Optional.of( values );
+        }
+
+        Optional<MatchingRule> matchingRule( final String attributeName )
+        {
+            return Optional.ofNullable( matchingRules.get( attributeName ) );
+        }
+    }
+
+    private interface Node
+    {
+        Result evaluate( EvaluationContext context );
+
+        void collectAttributes( Set<String> names );
+
+        boolean locallyEvaluable();
+    }
+
+    private static class AndNode implements Node
+    {
+        private final List<Node> children;
+
+        AndNode( final List<Node> children )
+        {
+            this.children = children;
+        }
+
+        @Override
+        public Result evaluate( final EvaluationContext context )
+        {
+            Result result = Result.TRUE;
+            for ( final Node child : children )
+            {
+                final Result childResult = child.evaluate( context );
+                if ( childResult == Result.FALSE )
+                {
+                    return Result.FALSE;
+                }
+                if ( childResult == Result.UNKNOWN )
+                {
+                    result = Result.UNKNOWN;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void collectAttributes( final Set<String> names )
+        {
+            children.forEach( child -> child.collectAttributes( names ) );
+        }
+
+        @Override
+        public boolean locallyEvaluable()
+        {
+            return children.stream().allMatch( Node::locallyEvaluable );
+        }
+    }
+
+    private static class OrNode implements Node
+    {
+        private final List<Node> children;
+
+        OrNode( final List<Node> children )
+        {
+            this.children = children;
+        }
+
+        @Override
+        public Result evaluate( final EvaluationContext context )
+        {
+            Result result = Result.FALSE;
+            for ( final Node child : children )
+            {
+                final Result childResult = child.evaluate( context );
+                if ( childResult == Result.TRUE )
+                {
+                    return Result.TRUE;
+                }
+                if ( childResult == Result.UNKNOWN )
+                {
+                    result = Result.UNKNOWN;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void collectAttributes( final Set<String> names )
+        {
+            children.forEach( child -> child.collectAttributes( names ) );
+        }
+
+        @Override
+        public boolean locallyEvaluable()
+        {
+            return children.stream().allMatch( Node::locallyEvaluable );
+        }
+    }
+
+    private static class NotNode implements Node
+    {
+        private final Node child;
+
+        NotNode( final Node child )
+        {
+            this.child = child;
+        }
+
+        @Override
+        public Result evaluate( final EvaluationContext context )
+        {
+            final Result childResult = child.evaluate( context );
+            if ( childResult == Result.UNKNOWN )
+            {
+                return Result.UNKNOWN;
+            }
+            return Result.of( childResult == Result.FALSE );
+        }
+
+        @Override
+        public void collectAttributes( final Set<String> names )
+        {
+            child.collectAttributes( names );
+        }
+
+        @Override
+        public boolean locallyEvaluable()
+        {
+            return child.locallyEvaluable();
+        }
+    }
+
+    private static class PresentNode implements Node
+    {
+        private final String attributeName;
+
+        PresentNode( final String attributeName )
+        {
+            this.attributeName = attributeName;
+        }
+
+        @Override
+        public Result evaluate( final EvaluationContext context )
+        {
+            if ( "objectclass".equals( attributeName ) || context.values( attributeName ).isPresent() )
+            {
+                return Result.TRUE;
+            }
+            return Result.UNKNOWN;
+        }
+
+        @Override
+        public void collectAttributes( final Set<String> names )
+        {
+            names.add( attributeName );
+        }
+
+        @Override
+        public boolean locallyEvaluable()
+        {
+            return true;
+        }
+    }
+
+    private static class EqualityNode implements Node
+    {
+        private final String attributeName;
+        private final String assertionValue;
+
+        EqualityNode( final String attributeName, final String assertionValue )
+        {
+            this.attributeName = attributeName;
+            this.assertionValue = assertionValue;
+        }
+
+        @Override
+        public Result evaluate( final EvaluationContext context )
+        {
+            final Optional<List<String>> values = context.values( attributeName );
+            final Optional<MatchingRule> matchingRule = context.matchingRule( attributeName );
+            if ( values.isEmpty() || matchingRule.isEmpty() )
+            {
+                return Result.UNKNOWN;
+            }
+
+            final Optional<String> normalizedAssertion = normalize( matchingRule.get(), assertionValue );
+            if ( normalizedAssertion.isEmpty() )
+            {
+                return Result.UNKNOWN;
+            }
+
+            for ( final String value : values.get() )
+            {
+                final Optional<String> normalizedValue = normalize( matchingRule.get(), value );
+                if ( normalizedValue.isEmpty() )
+                {
+                    return Result.UNKNOWN;
+                }
+                if ( normalizedAssertion.get().equals( normalizedValue.get() ) )
+                {
+                    return Result.TRUE;
+                }
+            }
+            return Result.FALSE;
+        }
+
+        private static Optional<String> normalize( final MatchingRule matchingRule, final String value )
+        {
+            switch ( matchingRule )
+            {
+                case CASE_IGNORE:
+                    return Optional.of( normalizeValue( value ) );
+
+                case DISTINGUISHED_NAME:
+                    return Optional.of( normalizeDn( value ) );
+
+                case INTEGER:
+                    return parseInteger( value ).map( String::valueOf );
+
+                default:
+                    return Optional.empty();
+            }
+        }
+
+        @Override
+        public void collectAttributes( final Set<String> names )
+        {
+            names.add( attributeName );
+        }
+
+        @Override
+        public boolean locallyEvaluable()
+        {
+            return true;
+        }
+    }
+
+    private static class OrderingNode implements Node
+    {
+        private final String attributeName;
+        private final String assertionValue;
+        private final boolean greaterOrEqual;
+
+        OrderingNode( final String attributeName, final String assertionValue, final boolean greaterOrEqual )
+        {
+            this.attributeName = attributeName;
+            this.assertionValue = assertionValue;
+            this.greaterOrEqual = greaterOrEqual;
+        }
+
+        @Override
+        public Result evaluate( final EvaluationContext context )
+        {
+            final Optional<List<String>> values = context.values( attributeName );
+            if ( values.isEmpty() || context.matchingRule( attributeName ).orElse( null ) != MatchingRule.INTEGER )
+            {
+                return Result.UNKNOWN;
+            }
+
+            final Optional<Long> assertionNumber = parseInteger( assertionValue );
+            if ( assertionNumber.isEmpty() )
+            {
+                return Result.UNKNOWN;
+            }
+
+            for ( final String value : values.get() )
+            {
+                final Optional<Long> valueNumber = parseInteger( value );
+                if ( valueNumber.isEmpty() )
+                {
+                    return Result.UNKNOWN;
+                }
+
+                final int comparison = Long.compare( valueNumber.get(), assertionNumber.get() );
+                if ( greaterOrEqual ? comparison >= 0 : comparison <= 0 )
+                {
+                    return Result.TRUE;
+                }
+            }
+            return Result.FALSE;
+        }
+
+        @Override
+        public void collectAttributes( final Set<String> names )
+        {
+            names.add( attributeName );
+        }
+
+        @Override
+        public boolean locallyEvaluable()
+        {
+            return true;
+        }
+    }
+
+    private static class SubstringNode implements Node
+    {
+        private final String attributeName;
+        private final String initial;
+        private final List<String> any;
+        private final String terminal;
+
+        SubstringNode( final String attributeName, final String initial, final List<String> any, final String terminal )
+        {
+            this.attributeName = attributeName;
+            this.initial = initial == null ? null : normalizeValue( initial );
+            this.any = new ArrayList<>();
+            for ( final String anyValue : any )
+            {
+                this.any.add( normalizeValue( anyValue ) );
+            }
+            this.terminal = terminal == null ? null : normalizeValue( terminal );
+        }
+
+        @Override
+        public Result evaluate( final EvaluationContext context )
+        {
+            // only the case-ignore rules have a substring counterpart that can be applied locally
+            final Optional<List<String>> values = context.values( attributeName );
+            if ( values.isEmpty() || context.matchingRule( attributeName ).orElse( null ) != MatchingRule.CASE_IGNORE )
+            {
+                return Result.UNKNOWN;
+            }
+
+            for ( final String value : values.get() )
+            {
+                if ( matches( normalizeValue( value ) ) )
+                {
+                    return Result.TRUE;
+                }
+            }
+            return Result.FALSE;
+        }
+
+        private boolean matches( final String value )
+        {
+            int position = 0;
+            if ( initial != null )
+            {
+                if ( !value.startsWith( initial ) )
+                {
+                    return false;
+                }
+                position = initial.length();
+            }
+
+            for ( final String anyValue : any )
+            {
+                final int index = value.indexOf( anyValue, position );
+                if ( index < 0 )
+                {
+                    return false;
+                }
+                position = index + anyValue.length();
+            }
+
+            return terminal == null || ( value.length() - terminal.length() >= position && value.endsWith( terminal ) );
+        }
+
+        @Override
+        public void collectAttributes( final Set<String> names )
+        {
+            names.add( attributeName );
+        }
+
+        @Override
+        public boolean locallyEvaluable()
+        {
+            return true;
+        }
+    }
+
+    /**
+     * Extensible, approximate and attribute-option assertions, which are always evaluated by the directory.
+     */
+    private static class DirectoryOnlyNode implements Node
+    {
+        @Override
+        public Result evaluate( final EvaluationContext context )
+        {
+            return Result.UNKNOWN;
+        }
+
+        @Override
+        public void collectAttributes( final Set<String> names )
+        {
+        }
+
+        @Override
+        public boolean locallyEvaluable()
+        {
+            return false;
+        }
+    }
+
+    private static class Parser
+    {
+        private final String input;
+        private int position;
+
+        Parser( final String input )
+        {
+            this.input = input;
+        }
+
+        boolean atEnd()
+        {
+            return position >= input.length();
+        }
+
+        Node readFilter()
+        {
+            expect( '(' );
+            final Node node;
+            switch ( peek() )
+            {
+                case '&':
+                    position++;
+                    node = new AndNode( readFilterList() );
+                    break;
+
+                case '|':
+                    position++;
+                    node = new OrNode( readFilterList() );
+                    break;
+
+                case '!':
+                    position++;
+                    node = new NotNode( readFilter() );
+                    break;
+
+                default:
+                    node = readItem();
+                    break;
+            }
+            expect( ')' );
+            return node;
+        }
+
+        private List<Node> readFilterList()
+        {
+            final List<Node> nodes = new ArrayList<>();
+            while ( peek() == '(' )
+            {
+                nodes.add( readFilter() );
+            }
+            return nodes;
+        }
+
+        private Node readItem()
+        {
+            final int end = input.indexOf( ')', position );
+            if ( end < 0 )
+            {
+                throw new IllegalArgumentException( "unterminated filter item" );
+            }
+
+            final String item = input.substring( position, end );
+            position = end;
+
+            final int equalsIndex = item.indexOf( '=' );
+            if ( equalsIndex < 1 )
+            {
+                throw new IllegalArgumentException( "filter item missing attribute or operator" );
+            }
+
+            final char operator = item.charAt( equalsIndex - 1 );
+            final boolean compoundOperator = operator == '~' || operator == '>' || operator == '<' || operator == ':';
+            final String attribute = item.substring( 0, compoundOperator ? equalsIndex - 1 : equalsIndex ).trim();
+            final String value = item.substring( equalsIndex + 1 );
+
+            if ( operator == ':' || attribute.indexOf( ':' ) >= 0 )
+            {
+                return new DirectoryOnlyNode();
+            }
+
+            validateAttribute( attribute );
+            if ( attribute.indexOf( ';' ) >= 0 || operator == '~' )
+            {
+                return new DirectoryOnlyNode();
+            }
+
+            final String attributeName = attribute.toLowerCase( Locale.ROOT );
+            if ( operator == '>' || operator == '<' )
+            {
+                return new OrderingNode( attributeName, unescape( value ), operator == '>' );
+            }
+
+            if ( "*".equals( value ) )
+            {
+                return new PresentNode( attributeName );
+            }
+
+            if ( value.indexOf( '*' ) >= 0 )
+            {
+                final List<String> parts = new ArrayList<>();
+                int start = 0;
+                int star;
+                while ( ( star = value.indexOf( '*', start ) ) >= 0 )
+                {
+                    parts.add( value.substring( start, star ) );
+                    start = star + 1;
+                }
+                parts.add( value.substring( start ) );
+
+                final String initial = parts.get( 0 ).isEmpty() ? null : unescape( parts.get( 0 ) );
+                final String terminal = parts.get( parts.size() - 1 ).isEmpty() ? null : unescape( parts.get( parts.size() - 1 ) );
+                final List<String> any = new ArrayList<>();
+                for ( final String part : parts.subList( 1, parts.size() - 1 ) )
+                {
+                    if ( part.isEmpty() )
+                    {
+                        throw new IllegalArgumentException( "empty substring component" );
+                    }
+                    any.add( unescape( part ) );
+                }
+                return new SubstringNode( attributeName, initial, any, terminal );
+            }
+
+            return new EqualityNode( attributeName, unescape( value ) );
+        }
+
+        private static void validateAttribute( final String attribute )
+        {
+            if ( attribute.isEmpty() )
+            {
+                throw new IllegalArgumentException( "empty attribute description" );
+            }
+            for ( final char c : attribute.toCharArray() )
+            {
+                if ( !( Character.isLetterOrDigit( c ) || c == '-' || c == '.' || c == ';' ) )
+                {
+                    throw new IllegalArgumentException( "invalid attribute description character" );
+                }
+            }
+        }
+
+        private static String unescape( final String value )
+        {
+            if ( value.indexOf( '\\' ) < 0 )
+            {
+                return value;
+            }
+
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            int position = 0;
+            int escapeIndex;
+            while ( ( escapeIndex = value.indexOf( '\\', position ) ) >= 0 )
+            {
+                if ( escapeIndex + 2 >= value.length() )
+                {
+                    throw new IllegalArgumentException( "truncated escape sequence" );
+                }
+                bytes.writeBytes( value.substring( position, escapeIndex ).getBytes( StandardCharsets.UTF_8 ) );
+                bytes.write( Integer.parseInt( value.substring( escapeIndex + 1, escapeIndex + 3 ), 16 ) );
+                position = escapeIndex + 3;
+            }
+            bytes.writeBytes( value.substring( position ).getBytes( StandardCharsets.UTF_8 ) );
+            return new String( bytes.toByteArray(), StandardCharsets.UTF_8 );
+        }
+
+        private char peek()
+        {
+            if ( atEnd() )
+            {
+                throw new IllegalArgumentException( "unexpected end of filter" );
+            }
+            return input.charAt( position );
+        }
+
+        private void expect( final char expected )
+        {
+            if ( peek() != expected )
+            {
+                throw new IllegalArgumentException( "expected '" + expected + "' at position " + position );
+            }
+            position++;
+        }
+    }
+}
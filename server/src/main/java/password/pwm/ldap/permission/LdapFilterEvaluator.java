@@ -0,0 +1,376 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap.permission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.novell.ldapchai.ChaiUser;
+import com.novell.ldapchai.exception.ChaiException;
+import com.novell.ldapchai.provider.SearchScope;
+import lombok.Value;
+import password.pwm.AppProperty;
+import password.pwm.PwmDomain;
+import password.pwm.bean.SessionLabel;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.AppConfig;
+import password.pwm.config.DomainConfig;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.profile.LdapProfile;
+import password.pwm.config.value.data.UserPermission;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.svc.stats.Statistic;
+import password.pwm.svc.stats.StatisticsClient;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates permission filters against a user's attribute values in-process instead of issuing a base-scope LDAP
+ * search per filter.  The attributes referenced by a filter are read from the directory once and kept for a short
+ * time, so subsequent permission checks for the same user are answered without a round trip.  Filters using
+ * constructs that can not be evaluated locally, or referencing operational attributes, are left to the directory.
+ * Values are only compared locally for attributes configured with a known matching rule
+ * ({@link AppProperty#LDAP_PERMISSION_LOCAL_EVAL_CASE_IGNORE_ATTRIBUTES} and similar).
+ *
+ * <p>Attributes referenced by filters seen so far are added to the first attribute read of {@link password.pwm.ldap.UserInfo}
+ * and handed over with {@link #seed(UserIdentity, Collection, Map)}, so the first check for a user normally uses the
+ * values already fetched for the user.</p>
+ *
+ * <p>Kept values may be stale: changes made outside this application, or on another node, are not seen until the
+ * values expire ({@link AppProperty#LDAP_PERMISSION_LOCAL_EVAL_LIFETIME_MS}).  Writes made by this application call
+ * {@link #invalidate(UserIdentity)}.  Filters of the administrator and helpdesk permissions use the shorter
+ * {@link AppProperty#LDAP_PERMISSION_LOCAL_EVAL_PRIVILEGED_LIFETIME_MS}.</p>
+ *
+ * <p>Checks resolved without a round trip are counted as {@link Statistic#LDAP_PERMISSION_LOCAL_CHECKS}, all others
+ * as {@link Statistic#LDAP_PERMISSION_DIRECTORY_CHECKS}.</p>
+ */
+public class LdapFilterEvaluator
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( LdapFilterEvaluator.class );
+
+    private static final String READ_FILTER = "(objectClass=*)";
+
+    private final PwmDomain pwmDomain;
+    private final boolean enabled;
+    private final Map<String, LdapFilter.MatchingRule> matchingRules;
+    private final Set<String> directoryOnlyAttributes;
+    private final TimeDuration lifetime;
+    private final TimeDuration privilegedLifetime;
+    private final Set<String> privilegedFilters;
+    private final Set<String> filterAttributes = ConcurrentHashMap.newKeySet();
+    private final Cache<String, Optional<LdapFilter>> parsedFilters;
+    private final Cache<UserIdentity, CachedAttributes> userAttributes;
+
+    public LdapFilterEvaluator( final PwmDomain pwmDomain )
+    {
+        this.pwmDomain = pwmDomain;
+
+        final AppConfig appConfig = pwmDomain.getPwmApplication().getConfig();
+        final int maxEntries = appConfig.readIntAppProperty( AppProperty.LDAP_PERMISSION_LOCAL_EVAL_MAX_ENTRIES );
+        this.lifetime = appConfig.readDurationAppProperty( AppProperty.LDAP_PERMISSION_LOCAL_EVAL_LIFETIME_MS );
+        this.privilegedLifetime = appConfig.readDurationAppProperty( AppProperty.LDAP_PERMISSION_LOCAL_EVAL_PRIVILEGED_LIFETIME_MS );
+        this.enabled = appConfig.readBooleanAppProperty( AppProperty.LDAP_PERMISSION_LOCAL_EVAL_ENABLE )
+                && maxEntries > 0
+                && lifetime.asMillis() > 0;
+        this.matchingRules = readMatchingRules( appConfig );
+        this.directoryOnlyAttributes = readAttributeList( appConfig, AppProperty.LDAP_PERMISSION_LOCAL_EVAL_DIRECTORY_ATTRIBUTES );
+        this.privilegedFilters = enabled ? readPrivilegedFilters( pwmDomain.getConfig() ) : Collections.emptySet();
+
+        this.parsedFilters = Caffeine.newBuilder()
+                .maximumSize( 1000 )
+                .build();
+        this.userAttributes = Caffeine.newBuilder()
+                .maximumSize( Math.max( maxEntries, 1 ) )
+                .expireAfterWrite( lifetime.asDuration() )
+                .build();
+    }
+
+    /**
+     * Evaluate {@code filter} for the user.
+     *
+     * @param sessionLabel session label for logging
+     * @param userIdentity user to evaluate
+     * @param filter ldap search filter
+     * @return the match result, or empty if the filter must be evaluated by the directory
+     * @throws PwmUnrecoverableException if the user's ldap profile can not be read
+     */
+    Optional<Boolean> evaluate(
+            final SessionLabel sessionLabel,
+            final UserIdentity userIdentity,
+            final String filter
+    )
+            throws PwmUnrecoverableException
+    {
+        final Optional<LdapFilter> ldapFilter = enabled
+                ? parsedFilters.get( filter, LdapFilter::parse )
+                : Optional.empty();
+
+        if ( ldapFilter.isEmpty()
+                || !ldapFilter.get().isLocallyEvaluable()
+                || !Collections.disjoint( ldapFilter.get().getAttributeNames(), directoryOnlyAttributes ) )
+        {
+            StatisticsClient.incrementStat( pwmDomain, Statistic.LDAP_PERMISSION_DIRECTORY_CHECKS );
+            return Optional.empty();
+        }
+
+        final Set<String> requiredAttributes = ldapFilter.get().getAttributeNames();
+        filterAttributes.addAll( requiredAttributes );
+
+        final TimeDuration maxAge = privilegedFilters.contains( filter ) ? privilegedLifetime : lifetime;
+        final CachedAttributes cachedAttributes = userAttributes.getIfPresent( userIdentity );
+        final Map<String, List<String>> attributeValues;
+        if ( cachedAttributes != null && cachedAttributes.isUsable( requiredAttributes, maxAge ) )
+        {
+            attributeValues = cachedAttributes.getValues();
+            StatisticsClient.incrementStat( pwmDomain, Statistic.LDAP_PERMISSION_LOCAL_CHECKS );
+        }
+        else
+        {
+            StatisticsClient.incrementStat( pwmDomain, Statistic.LDAP_PERMISSION_DIRECTORY_CHECKS );
+            final Set<String> readAttributes = new HashSet<>( requiredAttributes );
+            if ( cachedAttributes != null )
+            {
+                readAttributes.addAll( cachedAttributes.getValues().keySet() );
+            }
+
+            final Optional<Map<String, List<String>>> readValues = readAttributeValues( sessionLabel, userIdentity, readAttributes );
+            if ( readValues.isEmpty() )
+            {
+                return Optional.empty();
+            }
+            attributeValues = readValues.get();
+            userAttributes.put( userIdentity, new CachedAttributes( Instant.now(), attributeValues ) );
+        }
+
+        final LdapFilter.Result result = ldapFilter.get().evaluate( attributeValues, matchingRulesForUser( userIdentity ) );
+        LOGGER.trace( sessionLabel, () -> "local evaluation of filter '" + filter + "' for " + userIdentity.toDisplayString() + " is " + result );
+        return result == LdapFilter.Result.UNKNOWN
+                ? Optional.empty()
+                : Optional.of( result == LdapFilter.Result.TRUE );
+    }
+
+    /**
+     * Lower-case names of the attributes referenced by the locally evaluable filters checked so far.  Readers of a
+     * user's entry may include these in their read and pass the values to {@link #seed(UserIdentity, Collection, Map)}.
+     *
+     * @return attribute names, empty if local evaluation is disabled
+     */
+    public Set<String> filterAttributes()
+    {
+        return enabled ? Set.copyOf( filterAttributes ) : Collections.emptySet();
+    }
+
+    /**
+     * Keep attribute values just read for a user by the proxy user, so the next permission checks for the user do not
+     * read them again.  Only the attributes returned by {@link #filterAttributes()} are kept.
+     *
+     * @param userIdentity user whose entry was read
+     * @param requestedAttributes attribute names requested by the read
+     * @param entryValues values returned by the read, keyed by attribute name
+     */
+    public void seed(
+            final UserIdentity userIdentity,
+            final Collection<String> requestedAttributes,
+            final Map<String, List<String>> entryValues
+    )
+    {
+        if ( !enabled || userIdentity == null || requestedAttributes == null || entryValues == null )
+        {
+            return;
+        }
+
+        final Set<String> attributes = requestedAttributes.stream()
+                .map( attribute -> attribute.toLowerCase( Locale.ROOT ) )
+                .filter( filterAttributes::contains )
+                .collect( Collectors.toSet() );
+        if ( attributes.isEmpty() )
+        {
+            return;
+        }
+
+        final Set<String> allRequested = requestedAttributes.stream()
+                .map( attribute -> attribute.toLowerCase( Locale.ROOT ) )
+                .collect( Collectors.toSet() );
+        toAttributeValues( allRequested, entryValues ).ifPresent( values ->
+        {
+            final Map<String, List<String>> keptValues = new HashMap<>( values );
+            keptValues.keySet().retainAll( attributes );
+            userAttributes.put( userIdentity, new CachedAttributes( Instant.now(), Collections.unmodifiableMap( keptValues ) ) );
+        } );
+    }
+
+    /**
+     * Discard the attribute values held for a user, for example after the user's entry has been modified.
+     *
+     * @param userIdentity user to discard
+     */
+    public void invalidate( final UserIdentity userIdentity )
+    {
+        if ( userIdentity != null )
+        {
+            userAttributes.invalidate( userIdentity );
+        }
+    }
+
+    private Optional<Map<String, List<String>>> readAttributeValues(
+            final SessionLabel sessionLabel,
+            final UserIdentity userIdentity,
+            final Set<String> attributes
+    )
+            throws PwmUnrecoverableException
+    {
+        try
+        {
+            final ChaiUser theUser = pwmDomain.getProxiedChaiUser( sessionLabel, userIdentity );
+            final Map<String, Map<String, List<String>>> results = theUser.getChaiProvider().searchMultiValues(
+                    theUser.getEntryDN(),
+                    READ_FILTER,
+                    attributes,
+                    SearchScope.BASE );
+
+            if ( results.size() != 1 )
+            {
+                return Optional.empty();
+            }
+
+            return toAttributeValues( attributes, results.values().iterator().next() );
+        }
+        catch ( final ChaiException e )
+        {
+            LOGGER.debug( sessionLabel, () -> "unable to read attributes for local filter evaluation of " + userIdentity + ": " + e.getMessage() );
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Values keyed by lower-case attribute name, with an empty list for each requested attribute the entry has no
+     * value for.  Empty if the entry returned an attribute under a different name than requested (an alias), since
+     * then absent values can not be trusted.
+     */
+    private static Optional<Map<String, List<String>>> toAttributeValues(
+            final Set<String> attributes,
+            final Map<String, List<String>> entryValues
+    )
+    {
+        final Map<String, List<String>> values = new HashMap<>();
+        for ( final String attribute : attributes )
+        {
+            values.put( attribute, Collections.emptyList() );
+        }
+        for ( final Map.Entry<String, List<String>> entry : entryValues.entrySet() )
+        {
+            final String attributeName = entry.getKey().toLowerCase( Locale.ROOT );
+            if ( !attributes.contains( attributeName ) )
+            {
+                return Optional.empty();
+            }
+            values.put( attributeName, entry.getValue() == null ? Collections.emptyList() : List.copyOf( entry.getValue() ) );
+        }
+        return Optional.of( Collections.unmodifiableMap( values ) );
+    }
+
+    /**
+     * Filters of the administrator and helpdesk permissions, as passed to {@link #evaluate(SessionLabel, UserIdentity, String)}.
+     */
+    private static Set<String> readPrivilegedFilters( final DomainConfig domainConfig )
+    {
+        final List<UserPermission> permissions = new ArrayList<>( domainConfig.readSettingAsUserPermission( PwmSetting.QUERY_MATCH_PWM_ADMIN ) );
+        domainConfig.getHelpdeskProfiles().values().forEach( profile -> permissions.addAll( profile.profilePermissions() ) );
+
+        final Set<String> filters = new HashSet<>();
+        for ( final UserPermission permission : permissions )
+        {
+            if ( permission.getType() == UserPermissionType.ldapQuery && StringUtil.notEmpty( permission.getLdapQuery() ) )
+            {
+                filters.add( permission.getLdapQuery() );
+            }
+            else if ( permission.getType() == UserPermissionType.ldapGroup && StringUtil.notEmpty( permission.getLdapBase() ) )
+            {
+                for ( final LdapProfile ldapProfile : domainConfig.getLdapProfiles().values() )
+                {
+                    filters.add( LdapGroupTypeHelper.groupFilter( ldapProfile, permission.getLdapBase() ) );
+                }
+            }
+        }
+        return Collections.unmodifiableSet( filters );
+    }
+
+    private Map<String, LdapFilter.MatchingRule> matchingRulesForUser( final UserIdentity userIdentity )
+    {
+        final String groupAttribute = userIdentity.getLdapProfile( pwmDomain.getPwmApplication().getConfig() )
+                .readSettingAsString( PwmSetting.LDAP_USER_GROUP_ATTRIBUTE );
+        if ( StringUtil.isEmpty( groupAttribute ) || matchingRules.containsKey( groupAttribute.toLowerCase( Locale.ROOT ) ) )
+        {
+            return matchingRules;
+        }
+
+        final Map<String, LdapFilter.MatchingRule> returnMap = new HashMap<>( matchingRules );
+        returnMap.put( groupAttribute.toLowerCase( Locale.ROOT ), LdapFilter.MatchingRule.DISTINGUISHED_NAME );
+        return returnMap;
+    }
+
+    private static Map<String, LdapFilter.MatchingRule> readMatchingRules( final AppConfig appConfig )
+    {
+        final Map<String, LdapFilter.MatchingRule> returnMap = new HashMap<>();
+        readAttributeList( appConfig, AppProperty.LDAP_PERMISSION_LOCAL_EVAL_CASE_IGNORE_ATTRIBUTES )
+                .forEach( attribute -> returnMap.put( attribute, LdapFilter.MatchingRule.CASE_IGNORE ) );
+        readAttributeList( appConfig, AppProperty.LDAP_PERMISSION_LOCAL_EVAL_INTEGER_ATTRIBUTES )
+                .forEach( attribute -> returnMap.put( attribute, LdapFilter.MatchingRule.INTEGER ) );
+        readAttributeList( appConfig, AppProperty.LDAP_PERMISSION_LOCAL_EVAL_DN_ATTRIBUTES )
+                .forEach( attribute -> returnMap.put( attribute, LdapFilter.MatchingRule.DISTINGUISHED_NAME ) );
+        return Collections.unmodifiableMap( returnMap );
+    }
+
+    private static Set<String> readAttributeList( final AppConfig appConfig, final AppProperty appProperty )
+    {
+        return StringUtil.splitAndTrim( appConfig.readAppProperty( appProperty ), "," ).stream()
+                .filter( StringUtil::notEmpty )
+                .map( value -> value.toLowerCase( Locale.ROOT ) )
+                .collect( Collectors.toUnmodifiableSet() );
+    }
+
+    @Value
+    private static class CachedAttributes
+    {
+        private final Instant readTime;
+        private final Map<String, List<String>> values;
+
+        boolean isUsable( final Set<String> requiredAttributes, final TimeDuration maxAge )
+        {
+            return values.keySet().containsAll( requiredAttributes )
+                    && TimeDuration.fromCurrent( readTime ).isShorterThan( maxAge );
+        }
+    }
+}
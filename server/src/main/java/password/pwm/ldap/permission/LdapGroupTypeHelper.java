@@ -66,9 +66,9 @@ class LdapGroupTypeHelper implements PermissionTypeHelper
         else
         {
             final LdapProfile ldapProfile = userIdentity.getLdapProfile( pwmDomain.getPwmApplication().getConfig() );
-            final String filterString = "(" + ldapProfile.readSettingAsString( PwmSetting.LDAP_USER_GROUP_ATTRIBUTE ) + "=" + groupDN + ")";
+            final String filterString = groupFilter( ldapProfile, groupDN );
             LOGGER.trace( sessionLabel, () -> "checking ldap to see if " + userIdentity + " matches group '" + groupDN + "' using filter '" + filterString + "'" );
-            result = LdapQueryHelper.selfUserSearch( pwmDomain, sessionLabel, userIdentity, filterString );
+            result = LdapQueryHelper.selfUserMatch( pwmDomain, sessionLabel, userIdentity, filterString );
 
         }
 
@@ -83,6 +83,11 @@ class LdapGroupTypeHelper implements PermissionTypeHelper
         return result;
     }
 
+    static String groupFilter( final LdapProfile ldapProfile, final String groupDN )
+    {
+        return "(" + ldapProfile.readSettingAsString( PwmSetting.LDAP_USER_GROUP_ATTRIBUTE ) + "=" + groupDN + ")";
+    }
+
     @Override
     public SearchConfiguration searchConfigurationFromPermission( final UserPermission userPermission )
             throws PwmUnrecoverableException
@@ -36,6 +36,7 @@ import password.pwm.util.logging.PwmLogger;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.Optional;
 
 class LdapQueryHelper implements PermissionTypeHelper
 {
@@ -82,8 +83,25 @@ class LdapQueryHelper implements PermissionTypeHelper
             return true;
         }
 
-        LOGGER.trace( sessionLabel, () -> "checking ldap to see if " + userIdentity + " matches '" + filterString + "'" );
-        return selfUserSearch( pwmDomain, sessionLabel, userIdentity, filterString );
+        return selfUserMatch( pwmDomain, sessionLabel, userIdentity, filterString );
+    }
+
+    static boolean selfUserMatch(
+            final PwmDomain pwmDomain,
+            final SessionLabel sessionLabel,
+            final UserIdentity userIdentity,
+            final String searchFilter
+    )
+            throws PwmUnrecoverableException
+    {
+        final Optional<Boolean> localResult = pwmDomain.getLdapFilterEvaluator().evaluate( sessionLabel, userIdentity, searchFilter );
+        if ( localResult.isPresent() )
+        {
+            return localResult.get();
+        }
+
+        LOGGER.trace( sessionLabel, () -> "checking ldap to see if " + userIdentity + " matches '" + searchFilter + "'" );
+        return selfUserSearch( pwmDomain, sessionLabel, userIdentity, searchFilter );
     }
 
     static boolean selfUserSearch(
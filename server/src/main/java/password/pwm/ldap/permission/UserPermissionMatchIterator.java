@@ -0,0 +1,506 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap.permission;
+
+import password.pwm.AppProperty;
+import password.pwm.PwmDomain;
+import password.pwm.bean.SessionLabel;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.profile.LdapProfile;
+import password.pwm.config.value.data.UserPermission;
+import password.pwm.error.PwmInternalException;
+import password.pwm.error.PwmOperationalException;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.ldap.search.NamingAttributeShard;
+import password.pwm.ldap.search.SearchConfiguration;
+import password.pwm.ldap.search.UserSearchEngine;
+import password.pwm.util.java.ClosableIterator;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBException;
+import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.secure.PwmHashAlgorithm;
+import password.pwm.util.secure.PwmRandom;
+import password.pwm.util.secure.SecureEngine;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the users matching a list of permissions.  Each permission's search is only executed once the
+ * results of the previous permission have been consumed.  Results are not sorted.
+ *
+ * <p>The ldap layer returns each search result as a whole, so a search that returns more than the configured page
+ * size ({@link AppProperty#LDAP_SEARCH_STREAM_PAGE_SIZE}) is discarded and re-run as a series of smaller searches,
+ * each restricted to a {@link NamingAttributeShard} of the naming attribute values.  Shards are split again while
+ * they exceed the page size, down to {@link #MAX_SHARD_DEPTH} characters.  Sharding is only used when the naming
+ * attribute of every ldap profile is listed in {@link AppProperty#LDAP_SEARCH_STREAM_SHARD_ATTRIBUTES}, otherwise
+ * the permission is read with a single unsharded search.  When results are combined from more than one search,
+ * users already returned are remembered in the {@link LocalDB.DB#TEMP} database rather than on the heap.</p>
+ *
+ * <p>Search errors after the first search are thrown as {@link PwmInternalException} wrapping the
+ * original {@link PwmOperationalException}.</p>
+ */
+class UserPermissionMatchIterator implements ClosableIterator<UserIdentity>
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( UserPermissionMatchIterator.class );
+
+    private static final int CHUNK_SIZE = 1000;
+
+    static final int MAX_SHARD_DEPTH = 3;
+
+    private final UserSearcher userSearcher;
+    private final SessionLabel sessionLabel;
+    private final int maxResultSize;
+    private final int pageSize;
+    private final LocalDB localDB;
+    private final Iterator<UserPermission> permissionIterator;
+    private final Deque<NamingAttributeShard> pendingShards = new ArrayDeque<>();
+    private final Deque<UserIdentity> readyQueue = new ArrayDeque<>();
+    private final Instant startTime = Instant.now();
+
+    private SeenUserSet seenUsers;
+    private UserPermission currentPermission;
+    private boolean currentPermissionShardable;
+    private Iterator<UserIdentity> searchResults = Collections.emptyIterator();
+    private int returnedCount;
+    private int strippedCount;
+    private int searchCount;
+    private boolean closed;
+
+    /**
+     * Searches the directory for the users matching a permission.
+     */
+    interface UserSearcher
+    {
+        Collection<UserIdentity> search( UserPermission userPermission, NamingAttributeShard shard, int maxResults )
+                throws PwmOperationalException;
+
+        boolean isWithinConfiguredUserContexts( UserIdentity userIdentity );
+
+        /**
+         * Indicates if the search for a permission can be split into {@link NamingAttributeShard}s.
+         */
+        boolean isShardable( UserPermission userPermission );
+    }
+
+    UserPermissionMatchIterator(
+            final PwmDomain pwmDomain,
+            final List<UserPermission> userPermissions,
+            final SessionLabel sessionLabel,
+            final int maxResultSize,
+            final TimeDuration maxSearchTime
+    )
+            throws PwmOperationalException
+    {
+        this(
+                new DomainUserSearcher( pwmDomain, sessionLabel, maxSearchTime ),
+                userPermissions,
+                sessionLabel,
+                maxResultSize,
+                pwmDomain.getConfig().readIntAppProperty( AppProperty.LDAP_SEARCH_STREAM_PAGE_SIZE ),
+                pwmDomain.getPwmApplication().getLocalDB() );
+    }
+
+    UserPermissionMatchIterator(
+            final UserSearcher userSearcher,
+            final List<UserPermission> userPermissions,
+            final SessionLabel sessionLabel,
+            final int maxResultSize,
+            final int pageSize,
+            final LocalDB localDB
+    )
+            throws PwmOperationalException
+    {
+        this.userSearcher = userSearcher;
+        this.sessionLabel = sessionLabel;
+        this.maxResultSize = maxResultSize;
+        this.pageSize = Math.max( 1, pageSize );
+        this.localDB = localDB;
+
+        final List<UserPermission> sortedPermissions = new ArrayList<>( userPermissions );
+        Collections.sort( sortedPermissions );
+        this.permissionIterator = sortedPermissions.iterator();
+
+        // a single search never returns duplicate identities, so only track seen users when results are combined
+        if ( sortedPermissions.size() > 1 )
+        {
+            this.seenUsers = SeenUserSet.create( localDB );
+        }
+
+        // run the first search now so that startup errors are reported to the caller directly
+        if ( permissionIterator.hasNext() && maxResultSize > 0 )
+        {
+            startNextPermission();
+            searchNextShard();
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if ( closed || returnedCount >= maxResultSize )
+        {
+            return false;
+        }
+
+        try
+        {
+            while ( readyQueue.isEmpty() )
+            {
+                if ( searchResults.hasNext() )
+                {
+                    readyQueue.addAll( readNextChunk() );
+                }
+                else if ( !pendingShards.isEmpty() )
+                {
+                    searchNextShard();
+                }
+                else if ( permissionIterator.hasNext() )
+                {
+                    startNextPermission();
+                }
+                else
+                {
+                    return false;
+                }
+            }
+        }
+        catch ( final PwmOperationalException e )
+        {
+            throw PwmInternalException.fromPwmException( "error reading matching users", e );
+        }
+
+        return true;
+    }
+
+    @Override
+    public UserIdentity next()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+
+        returnedCount++;
+        return readyQueue.poll();
+    }
+
+    @Override
+    public void close()
+    {
+        if ( closed )
+        {
+            return;
+        }
+        closed = true;
+        readyQueue.clear();
+        pendingShards.clear();
+        searchResults = Collections.emptyIterator();
+
+        if ( seenUsers != null )
+        {
+            seenUsers.close();
+        }
+
+        LOGGER.debug( sessionLabel, () -> "completed streaming " + returnedCount + " permission matches using " + searchCount + " searches"
+                        + ( strippedCount > 0 ? ", stripped " + strippedCount + " user(s) outside of configured user contexts" : "" ),
+                () -> TimeDuration.fromCurrent( startTime ) );
+    }
+
+    private void startNextPermission()
+    {
+        currentPermission = permissionIterator.next();
+        currentPermissionShardable = userSearcher.isShardable( currentPermission );
+        pendingShards.clear();
+        pendingShards.add( NamingAttributeShard.root() );
+    }
+
+    private void searchNextShard()
+            throws PwmOperationalException
+    {
+        final NamingAttributeShard shard = pendingShards.poll();
+        final int remainingResults = maxResultSize - returnedCount;
+        final boolean splittable = currentPermissionShardable && shard.isSplittable() && shard.depth() < MAX_SHARD_DEPTH;
+        final int searchLimit = splittable
+                ? Math.min( pageSize + 1, remainingResults )
+                : remainingResults;
+
+        searchCount++;
+        final Collection<UserIdentity> results = userSearcher.search( currentPermission, shard, searchLimit );
+
+        if ( splittable && results.size() > pageSize )
+        {
+            LOGGER.trace( sessionLabel, () -> "search for " + currentPermission + " shard '" + shard.getPrefix()
+                    + "' exceeded page size " + pageSize + ", splitting search" );
+
+            // shards may overlap for multi-valued naming attributes, so from here on remember returned users
+            if ( seenUsers == null )
+            {
+                seenUsers = SeenUserSet.create( localDB );
+            }
+
+            final List<NamingAttributeShard> childShards = shard.split();
+            for ( int i = childShards.size() - 1; i >= 0; i-- )
+            {
+                pendingShards.addFirst( childShards.get( i ) );
+            }
+            searchResults = Collections.emptyIterator();
+            return;
+        }
+
+        searchResults = results.iterator();
+    }
+
+    private List<UserIdentity> readNextChunk()
+            throws PwmOperationalException
+    {
+        final List<UserIdentity> chunk = new ArrayList<>( CHUNK_SIZE );
+        while ( searchResults.hasNext() && chunk.size() < CHUNK_SIZE )
+        {
+            final UserIdentity userIdentity = searchResults.next();
+            if ( userSearcher.isWithinConfiguredUserContexts( userIdentity ) )
+            {
+                chunk.add( userIdentity );
+            }
+            else
+            {
+                strippedCount++;
+            }
+        }
+
+        return seenUsers == null
+                ? chunk
+                : seenUsers.addNewUsers( chunk );
+    }
+
+    private static class DomainUserSearcher implements UserSearcher
+    {
+        private final PwmDomain pwmDomain;
+        private final SessionLabel sessionLabel;
+        private final TimeDuration maxSearchTime;
+
+        DomainUserSearcher( final PwmDomain pwmDomain, final SessionLabel sessionLabel, final TimeDuration maxSearchTime )
+        {
+            this.pwmDomain = pwmDomain;
+            this.sessionLabel = sessionLabel;
+            this.maxSearchTime = maxSearchTime;
+        }
+
+        @Override
+        public Collection<UserIdentity> search( final UserPermission userPermission, final NamingAttributeShard shard, final int maxResults )
+                throws PwmOperationalException
+        {
+            final PermissionTypeHelper permissionTypeHelper = userPermission.getType().getPermissionTypeTester();
+            final UserSearchEngine userSearchEngine = pwmDomain.getUserSearchEngine();
+
+            try
+            {
+                final SearchConfiguration searchConfiguration = permissionTypeHelper.searchConfigurationFromPermission( userPermission )
+                        .toBuilder()
+                        .searchTimeout( maxSearchTime )
+                        .namingAttributeShard( shard )
+                        .build();
+
+                return userSearchEngine.performMultiUserSearch(
+                        searchConfiguration,
+                        maxResults,
+                        Collections.emptyList(),
+                        sessionLabel
+                ).keySet();
+            }
+            catch ( final PwmUnrecoverableException e )
+            {
+                LOGGER.error( () -> "error reading matching users: " + e.getMessage() );
+                throw new PwmOperationalException( e.getErrorInformation() );
+            }
+        }
+
+        @Override
+        public boolean isWithinConfiguredUserContexts( final UserIdentity userIdentity )
+        {
+            return UserPermissionUtility.testUserWithinConfiguredUserContexts( sessionLabel, pwmDomain.getPwmApplication(), userIdentity );
+        }
+
+        @Override
+        public boolean isShardable( final UserPermission userPermission )
+        {
+            final Set<String> shardAttributes = StringUtil.splitAndTrim(
+                    pwmDomain.getConfig().readAppProperty( AppProperty.LDAP_SEARCH_STREAM_SHARD_ATTRIBUTES ), "," ).stream()
+                    .map( value -> value.toLowerCase( Locale.ROOT ) )
+                    .collect( Collectors.toSet() );
+
+            for ( final LdapProfile ldapProfile : pwmDomain.getConfig().getLdapProfiles().values() )
+            {
+                final String namingAttribute = ldapProfile.readSettingAsString( PwmSetting.LDAP_NAMING_ATTRIBUTE );
+                if ( StringUtil.isEmpty( namingAttribute ) || !shardAttributes.contains( namingAttribute.toLowerCase( Locale.ROOT ) ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private abstract static class SeenUserSet
+    {
+        static SeenUserSet create( final LocalDB localDB )
+        {
+            if ( localDB != null && localDB.status() == LocalDB.Status.OPEN )
+            {
+                return new LocalDBSeenUserSet( localDB );
+            }
+            return new MemorySeenUserSet();
+        }
+
+        /**
+         * Record the users and return the ones not seen before, in their original order.
+         */
+        abstract List<UserIdentity> addNewUsers( List<UserIdentity> userIdentities )
+                throws PwmOperationalException;
+
+        abstract void close();
+    }
+
+    private static class MemorySeenUserSet extends SeenUserSet
+    {
+        private final Set<UserIdentity> seenUsers = new HashSet<>();
+
+        @Override
+        List<UserIdentity> addNewUsers( final List<UserIdentity> userIdentities )
+        {
+            final List<UserIdentity> returnList = new ArrayList<>( userIdentities.size() );
+            for ( final UserIdentity userIdentity : userIdentities )
+            {
+                if ( seenUsers.add( userIdentity ) )
+                {
+                    returnList.add( userIdentity );
+                }
+            }
+            return returnList;
+        }
+
+        @Override
+        void close()
+        {
+            seenUsers.clear();
+        }
+    }
+
+    /**
+     * Seen users are stored as one {@link LocalDB.DB#TEMP} key per user.  The keys added by each call are also listed
+     * in a numbered index record, so cleanup reads the index records in order instead of scanning the database.
+     */
+    private static class LocalDBSeenUserSet extends SeenUserSet
+    {
+        private static final String KEY_VALUE = "1";
+        private static final String INDEX_DELIMITER = "\n";
+
+        private final LocalDB localDB;
+        private final String keyPrefix = "userMatch-" + PwmRandom.getInstance().alphaNumericString( 10 ) + "-";
+        private int indexCount;
+
+        LocalDBSeenUserSet( final LocalDB localDB )
+        {
+            this.localDB = localDB;
+        }
+
+        @Override
+        List<UserIdentity> addNewUsers( final List<UserIdentity> userIdentities )
+                throws PwmOperationalException
+        {
+            try
+            {
+                final Map<String, UserIdentity> chunkKeys = new LinkedHashMap<>( userIdentities.size() );
+                for ( final UserIdentity userIdentity : userIdentities )
+                {
+                    chunkKeys.putIfAbsent( keyPrefix + "u-" + SecureEngine.hash( userIdentity.toDelimitedKey(), PwmHashAlgorithm.SHA256 ), userIdentity );
+                }
+
+                final Map<String, String> newKeys = new LinkedHashMap<>( chunkKeys.size() + 1 );
+                final List<UserIdentity> returnList = new ArrayList<>( chunkKeys.size() );
+                for ( final Map.Entry<String, UserIdentity> entry : chunkKeys.entrySet() )
+                {
+                    if ( !localDB.contains( LocalDB.DB.TEMP, entry.getKey() ) )
+                    {
+                        newKeys.put( entry.getKey(), KEY_VALUE );
+                        returnList.add( entry.getValue() );
+                    }
+                }
+
+                if ( !newKeys.isEmpty() )
+                {
+                    newKeys.put( indexKey( indexCount ), String.join( INDEX_DELIMITER, newKeys.keySet() ) );
+                    localDB.putAll( LocalDB.DB.TEMP, newKeys );
+                    indexCount++;
+                }
+                return returnList;
+            }
+            catch ( final PwmUnrecoverableException e )
+            {
+                throw new PwmOperationalException( e.getErrorInformation() );
+            }
+        }
+
+        @Override
+        void close()
+        {
+            try
+            {
+                for ( int i = 0; i < indexCount; i++ )
+                {
+                    final String indexKey = indexKey( i );
+                    final Optional<String> indexValue = localDB.get( LocalDB.DB.TEMP, indexKey );
+                    final List<String> removalKeys = new ArrayList<>();
+                    indexValue.ifPresent( value -> removalKeys.addAll( StringUtil.splitAndTrim( value, INDEX_DELIMITER ) ) );
+                    removalKeys.add( indexKey );
+                    localDB.removeAll( LocalDB.DB.TEMP, removalKeys );
+                }
+                indexCount = 0;
+            }
+            catch ( final LocalDBException e )
+            {
+                LOGGER.debug( () -> "error removing seen user keys from LocalDB: " + e.getMessage() );
+            }
+        }
+
+        private String indexKey( final int index )
+        {
+            return keyPrefix + "i-" + index;
+        }
+    }
+}
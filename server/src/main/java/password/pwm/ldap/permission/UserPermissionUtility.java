@@ -20,19 +20,27 @@
 
 package password.pwm.ldap.permission;
 
+import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
 import password.pwm.PwmConstants;
 import password.pwm.PwmDomain;
 import password.pwm.bean.SessionLabel;
 import password.pwm.bean.UserIdentity;
+import password.pwm.config.AppConfig;
 import password.pwm.config.profile.LdapProfile;
 import password.pwm.config.value.data.UserPermission;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmOperationalException;
 import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.http.PwmRequest;
 import password.pwm.http.PwmRequestContext;
+import password.pwm.http.PwmSession;
+import password.pwm.http.bean.UserSessionDataCacheBean;
 import password.pwm.ldap.search.SearchConfiguration;
 import password.pwm.ldap.search.UserSearchEngine;
+import password.pwm.svc.stats.Statistic;
+import password.pwm.svc.stats.StatisticsClient;
+import password.pwm.util.java.ClosableIterator;
 import password.pwm.util.java.StringUtil;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
@@ -65,6 +73,106 @@ public class UserPermissionUtility
                 Collections.singletonList( userPermissions ) );
     }
 
+    public static boolean testUserPermission(
+            final PwmRequest pwmRequest,
+            final UserIdentity userIdentity,
+            final UserPermission userPermissions
+    )
+            throws PwmUnrecoverableException
+    {
+        return testUserPermission( pwmRequest, userIdentity, Collections.singletonList( userPermissions ) );
+    }
+
+    public static boolean testUserPermission(
+            final PwmRequest pwmRequest,
+            final UserIdentity userIdentity,
+            final List<UserPermission> userPermissions
+    )
+            throws PwmUnrecoverableException
+    {
+        return testUserPermission( pwmRequest.getPwmDomain(), pwmRequest.getPwmSession(), userIdentity, userPermissions );
+    }
+
+    /**
+     * Test a user against a permission list, consulting the decisions already made during the session.  Decisions
+     * are keyed by user, the sorted permission list and the configuration modify time, and are discarded by
+     * {@link UserSessionDataCacheBean#clearPermissionDecisions(UserIdentity)} when the user's entry is modified.
+     * Decisions about users other than the session's own user are only reused for
+     * {@link AppProperty#HTTP_SESSION_PERMISSION_CACHE_OTHER_USER_LIFETIME_MS}, since changes made to those users
+     * elsewhere are not seen by this session.
+     *
+     * @param pwmDomain domain of the permissions
+     * @param pwmSession session holding previous decisions
+     * @param userIdentity user to test
+     * @param userPermissions permissions to test
+     * @return true if the user matches any of the permissions
+     * @throws PwmUnrecoverableException if the permission test fails
+     */
+    public static boolean testUserPermission(
+            final PwmDomain pwmDomain,
+            final PwmSession pwmSession,
+            final UserIdentity userIdentity,
+            final List<UserPermission> userPermissions
+    )
+            throws PwmUnrecoverableException
+    {
+        final AppConfig appConfig = pwmDomain.getConfig().getAppConfig();
+        if ( userPermissions == null
+                || userIdentity == null
+                || !appConfig.readBooleanAppProperty( AppProperty.HTTP_SESSION_PERMISSION_CACHE_ENABLE ) )
+        {
+            return testUserPermission( pwmDomain, pwmSession.getLabel(), userIdentity, userPermissions );
+        }
+
+        final List<UserPermission> sortedList = new ArrayList<>( userPermissions );
+        Collections.sort( sortedList );
+
+        final UserSessionDataCacheBean.PermissionDecisionKey decisionKey = new UserSessionDataCacheBean.PermissionDecisionKey(
+                userIdentity,
+                appConfig.getStoredConfiguration().modifyTime(),
+                Collections.unmodifiableList( sortedList ) );
+
+        final UserSessionDataCacheBean cacheBean = pwmSession.getUserSessionDataCacheBean();
+        final Optional<Boolean> cachedDecision = cacheBean.readPermissionDecision( decisionKey );
+        if ( cachedDecision.isPresent() )
+        {
+            StatisticsClient.incrementStat( pwmDomain, Statistic.PERMISSION_SESSION_CACHE_HITS );
+            LOGGER.trace( pwmSession.getLabel(), () -> "using session cached permission decision for "
+                    + userIdentity.toDisplayString() + ": " + cachedDecision.get() );
+            return cachedDecision.get();
+        }
+
+        final boolean decision = testUserPermission( pwmDomain, pwmSession.getLabel(), userIdentity, sortedList );
+        final boolean sessionUser = pwmSession.isAuthenticated() && userIdentity.equals( pwmSession.getUserInfo().getUserIdentity() );
+        cacheBean.writePermissionDecision(
+                decisionKey,
+                decision,
+                appConfig.readIntAppProperty( AppProperty.HTTP_SESSION_PERMISSION_CACHE_MAX_ENTRIES ),
+                sessionUser ? null : appConfig.readDurationAppProperty( AppProperty.HTTP_SESSION_PERMISSION_CACHE_OTHER_USER_LIFETIME_MS ) );
+        return decision;
+    }
+
+    /**
+     * Discard session and domain cached data used to evaluate permissions for a user.  Should be called after
+     * the user's ldap entry has been modified.
+     *
+     * @param pwmRequest request whose session cache is cleared
+     * @param userIdentity modified user
+     */
+    public static void invalidatePermissionDecisions(
+            final PwmRequest pwmRequest,
+            final UserIdentity userIdentity
+    )
+    {
+        if ( userIdentity == null )
+        {
+            return;
+        }
+
+        pwmRequest.getPwmDomain().getLdapFilterEvaluator().invalidate( userIdentity );
+        pwmRequest.getPwmSession().getUserSessionDataCacheBean().clearPermissionDecisions( userIdentity );
+    }
+
     public static boolean testUserPermission(
             final PwmDomain pwmDomain,
             final SessionLabel sessionLabel,
@@ -186,6 +294,37 @@ public class UserPermissionUtility
                 .iterator();
     }
 
+    /**
+     * Streaming variant of {@link #discoverMatchingUsers(PwmDomain, List, SessionLabel, int, TimeDuration)} for large result sets.  Matches
+     * are returned as each permission's search completes, unsorted, and duplicates across permissions are tracked in LocalDB rather
+     * than on the heap.  The returned iterator must be closed.  Search errors encountered after the first permission are thrown
+     * from the iterator as a {@link password.pwm.error.PwmInternalException} wrapping the {@link PwmOperationalException}.
+     *
+     * @param pwmDomain domain to search
+     * @param userPermissions permissions to match
+     * @param sessionLabel session label for logging
+     * @param maxResultSize maximum number of users to return
+     * @param maxSearchTime maximum time for each ldap search
+     * @return closable iterator of matching users
+     * @throws PwmOperationalException if the first search fails
+     */
+    public static ClosableIterator<UserIdentity> streamMatchingUsers(
+            final PwmDomain pwmDomain,
+            final List<UserPermission> userPermissions,
+            final SessionLabel sessionLabel,
+            final int maxResultSize,
+            final TimeDuration maxSearchTime
+    )
+            throws PwmOperationalException
+    {
+        return new UserPermissionMatchIterator(
+                pwmDomain,
+                userPermissions == null ? Collections.emptyList() : userPermissions,
+                sessionLabel,
+                maxResultSize,
+                maxSearchTime );
+    }
+
     static Optional<String> profileIdForPermission( final UserPermission userPermission )
     {
         if ( userPermission.getLdapProfileID() != null
@@ -0,0 +1,141 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap.search;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A slice of a user search, selected by the leading characters of the ldap profile's naming attribute.  A search
+ * whose result is too large to hold at once can be {@link #split()} into slices that together match every entry
+ * of the original search, so the results can be read one bounded slice at a time.  Splitting the root slice also
+ * yields a slice for entries that have no naming attribute value at all.
+ *
+ * <p>Entries with a multi-valued naming attribute may match more than one slice.  Prefix matching relies on the
+ * naming attribute supporting substring matches, as is the case for {@code cn} and {@code uid}.  An attribute that
+ * compares case-exact still works, its values starting with an upper case letter are all read with the remainder
+ * slice.  An attribute without a substring matching rule makes every prefix and remainder filter undefined, so such
+ * an attribute must not be used for sharding at all.</p>
+ */
+@Value
+public class NamingAttributeShard implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final String PREFIX_CHARACTERS = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    private static final NamingAttributeShard ROOT = new NamingAttributeShard( "", ShardType.PREFIX );
+
+    public enum ShardType
+    {
+        /** Values starting with the prefix. */
+        PREFIX,
+
+        /** Values that start with the prefix, but are not followed by any of the prefix characters. */
+        REMAINDER,
+
+        /** Entries without a naming attribute value. */
+        ABSENT,
+    }
+
+    private final String prefix;
+    private final ShardType type;
+
+    public static NamingAttributeShard root()
+    {
+        return ROOT;
+    }
+
+    public int depth()
+    {
+        return prefix.length();
+    }
+
+    public boolean isSplittable()
+    {
+        return type == ShardType.PREFIX;
+    }
+
+    /**
+     * Split this shard into one shard per prefix character and a remainder shard for all other values.  The root
+     * shard additionally yields an {@link ShardType#ABSENT} shard.
+     *
+     * @return shards that together cover this shard
+     */
+    public List<NamingAttributeShard> split()
+    {
+        if ( !isSplittable() )
+        {
+            throw new IllegalStateException( type + " shard can not be split" );
+        }
+
+        final List<NamingAttributeShard> shards = new ArrayList<>( PREFIX_CHARACTERS.length() + 2 );
+        for ( final char prefixCharacter : PREFIX_CHARACTERS.toCharArray() )
+        {
+            shards.add( new NamingAttributeShard( prefix + prefixCharacter, ShardType.PREFIX ) );
+        }
+        shards.add( new NamingAttributeShard( prefix, ShardType.REMAINDER ) );
+        if ( prefix.isEmpty() )
+        {
+            shards.add( new NamingAttributeShard( prefix, ShardType.ABSENT ) );
+        }
+        return Collections.unmodifiableList( shards );
+    }
+
+    /**
+     * Filter clause selecting this shard, or {@code null} for the root shard which selects every entry.
+     *
+     * @param namingAttribute naming attribute of the ldap profile being searched
+     * @return ldap filter clause
+     */
+    String toFilter( final String namingAttribute )
+    {
+        switch ( type )
+        {
+            case PREFIX:
+                return prefix.isEmpty()
+                        ? null
+                        : "(" + namingAttribute + "=" + prefix + "*)";
+
+            case ABSENT:
+                return "(!(" + namingAttribute + "=*))";
+
+            case REMAINDER:
+            {
+                final StringBuilder filter = new StringBuilder();
+                filter.append( "(&(" ).append( namingAttribute ).append( '=' ).append( prefix ).append( "*)(!(|" );
+                for ( final char prefixCharacter : PREFIX_CHARACTERS.toCharArray() )
+                {
+                    filter.append( '(' ).append( namingAttribute ).append( '=' ).append( prefix ).append( prefixCharacter ).append( "*)" );
+                }
+                filter.append( ")))" );
+                return filter.toString();
+            }
+
+            default:
+                throw new IllegalStateException( "unexpected shard type " + type );
+        }
+    }
+}
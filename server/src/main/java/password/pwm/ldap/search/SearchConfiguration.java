@@ -45,6 +45,11 @@ public class SearchConfiguration implements Serializable
     private transient ChaiProvider chaiProvider;
     private TimeDuration searchTimeout;
 
+    /**
+     * Restricts the search to a slice of the naming attribute values, {@code null} searches without restriction.
+     */
+    private NamingAttributeShard namingAttributeShard;
+
     @Builder.Default
     private boolean ignoreOperationalErrors = false;
 
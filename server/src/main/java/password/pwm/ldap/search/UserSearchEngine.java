@@ -512,6 +512,18 @@ public class UserSearchEngine extends AbstractPwmService implements PwmService
         {
             searchFilter = inputSearchFilter;
         }
+
+        if ( searchConfiguration.getNamingAttributeShard() != null )
+        {
+            final String namingAttribute = ldapProfile.readSettingAsString( PwmSetting.LDAP_NAMING_ATTRIBUTE );
+            final String shardFilter = searchConfiguration.getNamingAttributeShard().toFilter( namingAttribute );
+            if ( shardFilter != null )
+            {
+                final String baseFilter = searchFilter.startsWith( "(" ) ? searchFilter : "(" + searchFilter + ")";
+                return "(&" + baseFilter + shardFilter + ")";
+            }
+        }
+
         return searchFilter;
     }
 
@@ -36,7 +36,11 @@ import password.pwm.util.java.CollectionUtil;
 import password.pwm.svc.sms.SmsQueueService;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -76,6 +80,13 @@ public enum PwmServiceEnum
     ResourceServletService( password.pwm.http.servlet.resource.ResourceServletService.class, PwmSettingScope.DOMAIN ),;
 
 
+    /**
+     * Services that must complete initialization before a service is initialized.  Dependencies are always declared
+     * earlier than the dependent service; dependencies on services of a broader scope are satisfied by the time any
+     * service of a narrower scope is initialized.
+     */
+    private static final Map<PwmServiceEnum, Set<PwmServiceEnum>> DEPENDENCIES = makeDependencyMap();
+
     private final Class<? extends PwmService> clazz;
     private final PwmSettingScope pwmSettingScope;
     private final Set<Flag> flags;
@@ -97,6 +108,16 @@ public enum PwmServiceEnum
         return this.flags.contains( Flag.StartDuringRuntimeInstance );
     }
 
+    public Set<PwmServiceEnum> getDependencies( )
+    {
+        return DEPENDENCIES.getOrDefault( this, Collections.emptySet() );
+    }
+
+    public PwmSettingScope getPwmSettingScope( )
+    {
+        return pwmSettingScope;
+    }
+
     public static List<PwmServiceEnum> forScope( final PwmSettingScope pwmSettingScope )
     {
         return Arrays.stream( values() )
@@ -115,4 +136,42 @@ public enum PwmServiceEnum
                 + ( domainID.isSystem() ? "" : "/" + domainID.stringValue() )
                 + "]";
     }
+
+    private static Map<PwmServiceEnum, Set<PwmServiceEnum>> makeDependencyMap()
+    {
+        final Map<PwmServiceEnum, Set<PwmServiceEnum>> map = new EnumMap<>( PwmServiceEnum.class );
+
+        map.put( SystemSecureService, EnumSet.of( LocalDBService ) );
+        map.put( HttpClientService, EnumSet.of( SystemSecureService ) );
+        map.put( DatabaseService, EnumSet.of( LocalDBService, SystemSecureService, HttpClientService ) );
+        map.put( SharedHistoryManager, EnumSet.of( LocalDBService, SystemSecureService ) );
+        map.put( AuditService, EnumSet.of( LocalDBService, SystemSecureService, HttpClientService ) );
+        map.put( StatisticsService, EnumSet.of( LocalDBService ) );
+        map.put( WordlistService, EnumSet.of( LocalDBService, SystemSecureService, HttpClientService, StatisticsService ) );
+        map.put( SeedlistService, EnumSet.of( LocalDBService, SystemSecureService, HttpClientService, StatisticsService ) );
+        map.put( IntruderSystemService, EnumSet.of( LocalDBService, SystemSecureService, DatabaseService, StatisticsService ) );
+        map.put( EmailService, EnumSet.of( LocalDBService, SystemSecureService, StatisticsService ) );
+        map.put( SmsQueueManager, EnumSet.of( LocalDBService, SystemSecureService, HttpClientService, StatisticsService ) );
+        map.put( UrlShortenerService, EnumSet.of( HttpClientService ) );
+        map.put( HealthMonitor, EnumSet.of( LocalDBService, SystemSecureService, StatisticsService ) );
+        map.put( ReportService, EnumSet.of( LocalDBService, SystemSecureService, StatisticsService, CacheService ) );
+        map.put( SessionTrackService, EnumSet.of( SystemSecureService ) );
+        map.put( SessionStateSvc, EnumSet.of( SystemSecureService ) );
+        map.put( TelemetryService, EnumSet.of( LocalDBService, SystemSecureService, HttpClientService, StatisticsService ) );
+        map.put( NodeService, EnumSet.of( LocalDBService, SystemSecureService, DatabaseService ) );
+
+        map.put( LdapConnectionService, EnumSet.of( DomainSecureService ) );
+        map.put( CrService, EnumSet.of( DomainSecureService, LdapConnectionService ) );
+        map.put( OtpService, EnumSet.of( DomainSecureService, LdapConnectionService ) );
+        map.put( IntruderDomainService, EnumSet.of( DomainSecureService ) );
+        map.put( UserSearchEngine, EnumSet.of( DomainSecureService, LdapConnectionService ) );
+        map.put( TokenService, EnumSet.of( DomainSecureService, LdapConnectionService ) );
+        map.put( UserHistoryService, EnumSet.of( DomainSecureService, LdapConnectionService ) );
+        map.put( PeopleSearchService, EnumSet.of( DomainSecureService, LdapConnectionService, UserSearchEngine ) );
+        map.put( PwExpiryNotifyService, EnumSet.of( DomainSecureService, LdapConnectionService, UserSearchEngine ) );
+        map.put( ResourceServletService, EnumSet.of( DomainSecureService ) );
+
+        map.replaceAll( ( service, dependencies ) -> Collections.unmodifiableSet( dependencies ) );
+        return Collections.unmodifiableMap( map );
+    }
 }
@@ -20,6 +20,7 @@
 
 package password.pwm.svc;
 
+import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
 import password.pwm.PwmEnvironment;
 import password.pwm.bean.DomainID;
@@ -28,6 +29,7 @@ import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmException;
 import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.PwmScheduler;
 import password.pwm.util.java.StatisticCounterBundle;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
@@ -35,10 +37,16 @@ import password.pwm.util.logging.PwmLogger;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 public class PwmServiceManager
 {
@@ -47,6 +55,7 @@ public class PwmServiceManager
     private final DomainID domainID;
     private final PwmApplication pwmApplication;
     private final Map<PwmServiceEnum, PwmService> runningServices = new ConcurrentHashMap<>();
+    private final Map<PwmServiceEnum, TimeDuration> initDurations = new ConcurrentHashMap<>();
     private final List<PwmServiceEnum> availableServices;
     private final SessionLabel sessionLabel;
 
@@ -89,6 +98,7 @@ public class PwmServiceManager
         final StatisticCounterBundle<InitializationStats> statCounter = new StatisticCounterBundle<>( InitializationStats.class );
         LOGGER.trace( sessionLabel, () -> "beginning service " + logVerb + " process" );
 
+        final List<PwmServiceEnum> servicesToStart = new ArrayList<>();
         for ( final PwmServiceEnum serviceClassEnum : availableServices )
         {
             boolean serviceShouldBeRunning = true;
@@ -99,32 +109,133 @@ public class PwmServiceManager
 
             if ( serviceShouldBeRunning )
             {
-                if ( runningServices.containsKey( serviceClassEnum ) )
-                {
-                    shutDownService( serviceClassEnum, runningServices.get( serviceClassEnum ) );
-                    statCounter.increment( InitializationStats.restarts );
-                }
-                else
-                {
-                    statCounter.increment( InitializationStats.starts );
-                }
-
-                final PwmService newServiceInstance = initService( serviceClassEnum );
-                runningServices.put( serviceClassEnum, newServiceInstance );
+                statCounter.increment( runningServices.containsKey( serviceClassEnum )
+                        ? InitializationStats.restarts
+                        : InitializationStats.starts );
+                servicesToStart.add( serviceClassEnum );
             }
             else
             {
                 if ( runningServices.containsKey( serviceClassEnum ) )
                 {
                     shutDownService( serviceClassEnum, runningServices.get( serviceClassEnum ) );
+                    initDurations.remove( serviceClassEnum );
                     statCounter.increment( InitializationStats.stops );
                 }
             }
         }
 
+        final int maxThreads = Math.min( servicesToStart.size(), Integer.parseInt(
+                pwmApplication.getConfig().readAppProperty( AppProperty.APPLICATION_SERVICE_INIT_MAX_THREADS ) ) );
+        if ( maxThreads > 1 )
+        {
+            startServicesConcurrently( servicesToStart, maxThreads );
+        }
+        else
+        {
+            for ( final PwmServiceEnum serviceClassEnum : servicesToStart )
+            {
+                startService( serviceClassEnum );
+            }
+        }
+
         initialized = true;
 
-        LOGGER.trace( sessionLabel, () -> logVerb + "ed services, " + statCounter.debugStats(), () -> TimeDuration.fromCurrent( startTime ) );
+        LOGGER.trace( sessionLabel, () -> logVerb + "ed services, " + statCounter.debugStats()
+                + ", slowest: " + slowestServicesDebugString(), () -> TimeDuration.fromCurrent( startTime ) );
+    }
+
+    /**
+     * Start services on a bounded pool, each service starting as soon as all of its dependencies have started.  Services
+     * are submitted in declaration order, so the futures of all dependencies exist when a dependent is submitted.
+     */
+    private void startServicesConcurrently( final List<PwmServiceEnum> servicesToStart, final int maxThreads )
+            throws PwmUnrecoverableException
+    {
+        final ExecutorService executorService = Executors.newFixedThreadPool( maxThreads, PwmScheduler.makePwmThreadFactory(
+                PwmScheduler.makeThreadName( pwmApplication, PwmServiceManager.class ) + "-" + domainID.stringValue() + "-", true ) );
+
+        try
+        {
+            final Map<PwmServiceEnum, CompletableFuture<Void>> futures = new EnumMap<>( PwmServiceEnum.class );
+            for ( final PwmServiceEnum serviceClassEnum : servicesToStart )
+            {
+                final CompletableFuture<?>[] dependencyFutures = serviceClassEnum.getDependencies().stream()
+                        .map( futures::get )
+                        .filter( Objects::nonNull )
+                        .toArray( CompletableFuture<?>[]::new );
+
+                futures.put( serviceClassEnum, CompletableFuture.allOf( dependencyFutures ).thenRunAsync( () ->
+                {
+                    try
+                    {
+                        startService( serviceClassEnum );
+                    }
+                    catch ( final PwmUnrecoverableException e )
+                    {
+                        throw new CompletionException( e );
+                    }
+                }, executorService ) );
+            }
+
+            CompletableFuture.allOf( futures.values().toArray( new CompletableFuture<?>[0] ) ).join();
+        }
+        catch ( final CompletionException e )
+        {
+            Throwable cause = e;
+            while ( cause instanceof CompletionException && cause.getCause() != null )
+            {
+                cause = cause.getCause();
+            }
+
+            if ( cause instanceof PwmUnrecoverableException )
+            {
+                throw ( PwmUnrecoverableException ) cause;
+            }
+
+            final String errorMsg = "unexpected error starting services: " + cause.getMessage();
+            throw new PwmUnrecoverableException( new ErrorInformation( PwmError.ERROR_STARTUP_ERROR, errorMsg ) );
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+
+    private void startService( final PwmServiceEnum serviceClassEnum )
+            throws PwmUnrecoverableException
+    {
+        final PwmService existingService = runningServices.get( serviceClassEnum );
+        if ( existingService != null )
+        {
+            shutDownService( serviceClassEnum, existingService );
+        }
+
+        final Instant startTime = Instant.now();
+        final PwmService newServiceInstance = initService( serviceClassEnum );
+        initDurations.put( serviceClassEnum, TimeDuration.fromCurrent( startTime ) );
+        runningServices.put( serviceClassEnum, newServiceInstance );
+    }
+
+    private String slowestServicesDebugString()
+    {
+        return initDurations.entrySet().stream()
+                .sorted( Map.Entry.<PwmServiceEnum, TimeDuration>comparingByValue().reversed() )
+                .limit( 3 )
+                .map( entry -> entry.getKey().serviceName( domainID ) + "=" + entry.getValue().asCompactString() )
+                .collect( Collectors.joining( ", " ) );
+    }
+
+    /**
+     * Initialization time of each service as of the most recent start or restart.
+     *
+     * @return service initialization durations, in service declaration order
+     */
+    public Map<PwmServiceEnum, TimeDuration> getServiceInitDurations()
+    {
+        final Map<PwmServiceEnum, TimeDuration> returnMap = new EnumMap<>( PwmServiceEnum.class );
+        returnMap.putAll( initDurations );
+        return Collections.unmodifiableMap( returnMap );
     }
 
     private PwmService initService( final PwmServiceEnum pwmServiceEnum )
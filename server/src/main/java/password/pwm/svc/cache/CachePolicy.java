@@ -28,6 +28,7 @@ import java.time.Instant;
 public class CachePolicy implements Serializable
 {
     private Instant expiration;
+    private boolean immutableValue;
 
     CachePolicy( )
     {
@@ -38,6 +39,23 @@ public class CachePolicy implements Serializable
         return expiration;
     }
 
+    public boolean isImmutableValue( )
+    {
+        return immutableValue;
+    }
+
+    /**
+     * Store values cached with this policy by reference instead of as a json copy.  Only use this for immutable
+     * value types, the stored instance is shared by every caller that reads it.
+     *
+     * @return this policy
+     */
+    public CachePolicy withImmutableValue( )
+    {
+        this.immutableValue = true;
+        return this;
+    }
+
     public static CachePolicy makePolicyWithExpirationMS( final long expirationMs )
     {
         final CachePolicy policy = new CachePolicy();
@@ -72,7 +72,8 @@ public class CacheService extends AbstractPwmService implements PwmService
         }
 
         final int maxMemItems = Integer.parseInt( pwmApplication.getConfig().readAppProperty( AppProperty.CACHE_MEMORY_MAX_ITEMS ) );
-        memoryCacheStore = new MemoryCacheStore( maxMemItems );
+        final int refreshAheadPercent = Integer.parseInt( pwmApplication.getConfig().readAppProperty( AppProperty.CACHE_REFRESH_AHEAD_PERCENT ) );
+        memoryCacheStore = new MemoryCacheStore( maxMemItems, refreshAheadPercent );
         this.traceDebugOutputter = ConditionalTaskExecutor.forPeriodicTask(
                 this::outputTraceInfo,
                 TimeDuration.MINUTE.asDuration() );
@@ -130,7 +131,7 @@ public class CacheService extends AbstractPwmService implements PwmService
         Objects.requireNonNull( payload );
 
         final Instant expirationDate = cachePolicy.getExpiration();
-        memoryCacheStore.store( cacheKey, expirationDate, payload );
+        memoryCacheStore.store( cacheKey, expirationDate, cachePolicy.isImmutableValue(), payload );
 
         traceDebugOutputter.conditionallyExecuteTask();
     }
@@ -172,7 +173,7 @@ public class CacheService extends AbstractPwmService implements PwmService
         traceDebugOutputter.conditionallyExecuteTask();
 
         final Instant expirationDate = cachePolicy.getExpiration();
-        return memoryCacheStore.readAndStore( cacheKey, expirationDate, classOfT, cacheLoader );
+        return memoryCacheStore.readAndStore( cacheKey, expirationDate, cachePolicy.isImmutableValue(), classOfT, cacheLoader );
     }
 
     private void outputTraceInfo( )
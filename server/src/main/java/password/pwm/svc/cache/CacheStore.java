@@ -29,9 +29,15 @@ import java.util.List;
 
 public interface CacheStore
 {
-    void store( CacheKey cacheKey, Instant expirationDate, Serializable data ) throws PwmUnrecoverableException;
-
-    <T extends Serializable> T readAndStore( CacheKey cacheKey, Instant expirationDate, Class<T> classOfT, CacheLoader<T> cacheLoader )
+    void store( CacheKey cacheKey, Instant expirationDate, boolean immutableValue, Serializable data ) throws PwmUnrecoverableException;
+
+    <T extends Serializable> T readAndStore(
+            CacheKey cacheKey,
+            Instant expirationDate,
+            boolean immutableValue,
+            Class<T> classOfT,
+            CacheLoader<T> cacheLoader
+    )
             throws PwmUnrecoverableException;
 
     <T extends Serializable> T read( CacheKey cacheKey, Class<T> classOfT ) throws PwmUnrecoverableException;
@@ -50,5 +56,8 @@ public interface CacheStore
         readCount,
         hitCount,
         missCount,
+        coalescedLoadCount,
+        loadWaitMs,
+        refreshAheadCount,
     }
 }
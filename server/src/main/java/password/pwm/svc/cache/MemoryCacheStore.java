@@ -24,9 +24,11 @@ import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.Value;
 import password.pwm.bean.UserIdentity;
+import password.pwm.error.PwmError;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.util.json.JsonFactory;
 import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
 
 import java.io.Serializable;
@@ -36,67 +38,195 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 class MemoryCacheStore implements CacheStore
 {
     private static final PwmLogger LOGGER = PwmLogger.forClass( MemoryCacheStore.class );
+
+    /**
+     * Maximum time to wait for a concurrent load of the same key, after which the waiting caller loads the value itself.
+     */
+    private static final TimeDuration LOAD_WAIT_TIMEOUT = TimeDuration.of( 30, TimeDuration.Unit.SECONDS );
+
     private final Cache<CacheKey, CacheValueWrapper> memoryStore;
+    private final Map<CacheKey, CompletableFuture<CacheValueWrapper>> pendingLoads = new ConcurrentHashMap<>();
     private final StatisticCounterBundle<DebugKey> cacheStoreInfo = new StatisticCounterBundle<>( DebugKey.class );
+    private final int refreshAheadPercent;
 
-    MemoryCacheStore( final int maxItems )
+    MemoryCacheStore( final int maxItems, final int refreshAheadPercent )
     {
         memoryStore = Caffeine.newBuilder()
                 .maximumSize( maxItems )
                 .build();
+        this.refreshAheadPercent = refreshAheadPercent;
     }
 
     @Override
-    public void store( final CacheKey cacheKey, final Instant expirationDate, final Serializable data )
+    public void store( final CacheKey cacheKey, final Instant expirationDate, final boolean immutableValue, final Serializable data )
             throws PwmUnrecoverableException
     {
         cacheStoreInfo.increment( DebugKey.storeCount );
-        final String jsonData = JsonFactory.get().serialize( data );
-        memoryStore.put( cacheKey, new CacheValueWrapper( cacheKey, expirationDate, jsonData ) );
+        memoryStore.put( cacheKey, CacheValueWrapper.create( cacheKey, expirationDate, immutableValue, data ) );
     }
 
     @Override
-    public <T extends Serializable> T readAndStore( final CacheKey cacheKey, final Instant expirationDate, final Class<T> classOfT, final CacheLoader<T> cacheLoader )
+    public <T extends Serializable> T readAndStore(
+            final CacheKey cacheKey,
+            final Instant expirationDate,
+            final boolean immutableValue,
+            final Class<T> classOfT,
+            final CacheLoader<T> cacheLoader
+    )
             throws PwmUnrecoverableException
     {
         cacheStoreInfo.increment( DebugKey.readCount );
         {
             final CacheValueWrapper valueWrapper = memoryStore.getIfPresent( cacheKey );
-            final T extractedValue = extractValue( classOfT, valueWrapper, cacheKey );
-            if ( extractedValue != null )
+            if ( isValid( valueWrapper, cacheKey ) )
             {
-                return extractedValue;
+                cacheStoreInfo.increment( DebugKey.hitCount );
+
+                // refresh entries close to expiration using the calling thread, other callers continue to receive
+                // the current value until the refresh completes.
+                if ( isRefreshAheadDue( valueWrapper ) && !pendingLoads.containsKey( cacheKey ) )
+                {
+                    final CompletableFuture<CacheValueWrapper> refreshLoad = new CompletableFuture<>();
+                    if ( pendingLoads.putIfAbsent( cacheKey, refreshLoad ) == null )
+                    {
+                        cacheStoreInfo.increment( DebugKey.refreshAheadCount );
+                        try
+                        {
+                            return executeLoad( cacheKey, expirationDate, immutableValue, cacheLoader, refreshLoad );
+                        }
+                        catch ( final PwmUnrecoverableException e )
+                        {
+                            LOGGER.debug( () -> "error during refresh-ahead load of cache key " + cacheKey + ", returning current value: " + e.getMessage() );
+                        }
+                    }
+                }
+
+                return valueWrapper.extractValue( classOfT );
             }
         }
 
-        final T data = cacheLoader.read();
-        final String jsonIfiedData = JsonFactory.get().serialize( data );
         cacheStoreInfo.increment( DebugKey.missCount );
-        memoryStore.put( cacheKey, new CacheValueWrapper( cacheKey, expirationDate, jsonIfiedData ) );
-        return data;
+
+        final CompletableFuture<CacheValueWrapper> newLoad = new CompletableFuture<>();
+        final CompletableFuture<CacheValueWrapper> existingLoad = pendingLoads.putIfAbsent( cacheKey, newLoad );
+        if ( existingLoad == null )
+        {
+            return executeLoad( cacheKey, expirationDate, immutableValue, cacheLoader, newLoad );
+        }
+
+        cacheStoreInfo.increment( DebugKey.coalescedLoadCount );
+        final Optional<CacheValueWrapper> loadedValue = awaitLoad( cacheKey, existingLoad );
+        if ( loadedValue.isPresent() )
+        {
+            return loadedValue.get().extractValue( classOfT );
+        }
+
+        // the concurrent load did not finish in time, load without coalescing rather than wait any longer
+        return executeLoad( cacheKey, expirationDate, immutableValue, cacheLoader, new CompletableFuture<>() );
     }
 
-    private <T extends Serializable> T extractValue( final Class<T> classOfT, final CacheValueWrapper valueWrapper, final CacheKey cacheKey )
+    private <T extends Serializable> T executeLoad(
+            final CacheKey cacheKey,
+            final Instant expirationDate,
+            final boolean immutableValue,
+            final CacheLoader<T> cacheLoader,
+            final CompletableFuture<CacheValueWrapper> pendingLoad
+    )
+            throws PwmUnrecoverableException
     {
-        if ( valueWrapper != null )
+        Throwable loadError = null;
+        try
+        {
+            final T data = cacheLoader.read();
+            final CacheValueWrapper valueWrapper = CacheValueWrapper.create( cacheKey, expirationDate, immutableValue, data );
+            memoryStore.put( cacheKey, valueWrapper );
+            pendingLoad.complete( valueWrapper );
+            return data;
+        }
+        catch ( final Throwable t )
         {
-            if ( cacheKey.equals( valueWrapper.getCacheKey() ) )
+            loadError = t;
+            throw t;
+        }
+        finally
+        {
+            // waiters must always be released, including when the loader fails with an Error
+            if ( !pendingLoad.isDone() )
             {
-                if ( valueWrapper.getExpirationDate().isAfter( Instant.now() ) )
-                {
-                    cacheStoreInfo.increment( DebugKey.hitCount );
-                    final String jsonValue  = valueWrapper.getPayload();
-                    return JsonFactory.get().deserialize( jsonValue, classOfT );
-                }
+                pendingLoad.completeExceptionally( loadError == null
+                        ? new IllegalStateException( "cache load of " + cacheKey + " did not complete" )
+                        : loadError );
             }
+            pendingLoads.remove( cacheKey, pendingLoad );
         }
+    }
 
-        return null;
+    private Optional<CacheValueWrapper> awaitLoad( final CacheKey cacheKey, final CompletableFuture<CacheValueWrapper> pendingLoad )
+            throws PwmUnrecoverableException
+    {
+        final Instant startTime = Instant.now();
+        try
+        {
+            return Optional.of( pendingLoad.get( LOAD_WAIT_TIMEOUT.asMillis(), TimeUnit.MILLISECONDS ) );
+        }
+        catch ( final TimeoutException e )
+        {
+            LOGGER.debug( () -> "timed out after " + LOAD_WAIT_TIMEOUT.asCompactString() + " waiting for concurrent load of cache key " + cacheKey );
+            return Optional.empty();
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, "interrupted while waiting for cache load of " + cacheKey );
+        }
+        catch ( final ExecutionException e )
+        {
+            if ( e.getCause() instanceof PwmUnrecoverableException )
+            {
+                throw ( PwmUnrecoverableException ) e.getCause();
+            }
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw ( RuntimeException ) e.getCause();
+            }
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, "error during cache load of " + cacheKey + ": " + e.getMessage() );
+        }
+        finally
+        {
+            final long waitMs = Duration.between( startTime, Instant.now() ).toMillis();
+            cacheStoreInfo.increment( DebugKey.loadWaitMs, waitMs );
+            LOGGER.trace( () -> "waited " + waitMs + "ms for concurrent load of cache key " + cacheKey );
+        }
+    }
+
+    private static boolean isValid( final CacheValueWrapper valueWrapper, final CacheKey cacheKey )
+    {
+        return valueWrapper != null
+                && cacheKey.equals( valueWrapper.getCacheKey() )
+                && valueWrapper.getExpirationDate().isAfter( Instant.now() );
+    }
+
+    private boolean isRefreshAheadDue( final CacheValueWrapper valueWrapper )
+    {
+        if ( refreshAheadPercent <= 0 )
+        {
+            return false;
+        }
+
+        final long lifetimeMs = Duration.between( valueWrapper.getStoreDate(), valueWrapper.getExpirationDate() ).toMillis();
+        final long remainingMs = Duration.between( Instant.now(), valueWrapper.getExpirationDate() ).toMillis();
+        return remainingMs * 100 < lifetimeMs * refreshAheadPercent;
     }
 
     @Override
@@ -104,10 +234,14 @@ class MemoryCacheStore implements CacheStore
     {
         cacheStoreInfo.increment( DebugKey.readCount );
         final CacheValueWrapper valueWrapper = memoryStore.getIfPresent( cacheKey );
-        final T extractedValue = extractValue( classOfT, valueWrapper, cacheKey );
-        if ( extractedValue != null )
+        if ( isValid( valueWrapper, cacheKey ) )
         {
-            return extractedValue;
+            final T extractedValue = valueWrapper.extractValue( classOfT );
+            if ( extractedValue != null )
+            {
+                cacheStoreInfo.increment( DebugKey.hitCount );
+                return extractedValue;
+            }
         }
 
         memoryStore.invalidate( cacheKey );
@@ -137,7 +271,7 @@ class MemoryCacheStore implements CacheStore
             final CacheValueWrapper cacheValueWrapper = entry.getValue();
             final Instant storeDate = cacheValueWrapper.getExpirationDate();
             final String age = Duration.between( storeDate, Instant.now() ).toString();
-            final int chars = cacheValueWrapper.getPayload().length();
+            final int chars = cacheValueWrapper.payloadLength();
             final String keyClass = cacheKey.getSrcClass() == null ? "null" : cacheKey.getSrcClass().getName();
             final String keyUserID = cacheKey.getUserIdentity() == null ? "null" : cacheKey.getUserIdentity().toDisplayString();
             final String keyValue = cacheKey.getValueID() == null ? "null" : cacheKey.getValueID();
@@ -159,11 +293,42 @@ class MemoryCacheStore implements CacheStore
     private static class CacheValueWrapper implements Serializable
     {
         private final CacheKey cacheKey;
+        private final Instant storeDate;
         private final Instant expirationDate;
 
         // serialize to json even though stored in memory, this prevents object-reuse because we don't know
         // if the object is immutable.  Thus an effective clone is made for each store/read.
         private final String payload;
+
+        // values stored with an immutable value cache policy are stored directly and shared between readers.
+        private final Serializable immutableValue;
+
+        static CacheValueWrapper create( final CacheKey cacheKey, final Instant expirationDate, final boolean immutableValue, final Serializable data )
+        {
+            if ( immutableValue && data != null )
+            {
+                return new CacheValueWrapper( cacheKey, Instant.now(), expirationDate, null, data );
+            }
+            return new CacheValueWrapper( cacheKey, Instant.now(), expirationDate, JsonFactory.get().serialize( data ), null );
+        }
+
+        <T extends Serializable> T extractValue( final Class<T> classOfT )
+        {
+            if ( immutableValue != null )
+            {
+                return classOfT.isInstance( immutableValue ) ? classOfT.cast( immutableValue ) : null;
+            }
+            return JsonFactory.get().deserialize( payload, classOfT );
+        }
+
+        int payloadLength()
+        {
+            if ( payload != null )
+            {
+                return payload.length();
+            }
+            return immutableValue == null ? 0 : immutableValue.toString().length();
+        }
     }
 
     Map<String, Integer> storedClassHistogram( final String prefix )
@@ -192,7 +357,7 @@ class MemoryCacheStore implements CacheStore
             final String valueID = cacheKey.getValueID();
             byteCount += valueID == null ? 0 : cacheKey.getValueID().length();
             final CacheValueWrapper cacheValueWrapper = entry.getValue();
-            byteCount += cacheValueWrapper.payload.length();
+            byteCount += cacheValueWrapper.payloadLength();
         }
         return byteCount;
     }
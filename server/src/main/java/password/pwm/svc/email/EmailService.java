@@ -126,6 +126,7 @@ public class EmailService extends AbstractPwmService implements PwmService
                 .retryDiscardAge( emailServiceSettings.getQueueDiscardAge() )
                 .retryInterval( emailServiceSettings.getQueueRetryTimeout() )
                 .preThreads( emailServiceSettings.getMaxThreads() )
+                .workerThreads( emailServiceSettings.getWorkerThreads() )
                 .build();
         final LocalDBStoredQueue localDBStoredQueue = LocalDBStoredQueue.createLocalDBStoredQueue(
                 this.getPwmApplication(), this.getPwmApplication().getLocalDB(), LocalDB.DB.EMAIL_QUEUE );
@@ -244,6 +245,12 @@ public class EmailService extends AbstractPwmService implements PwmService
         {
             return emailItemBean.toDebugString();
         }
+
+        @Override
+        public String partitionKey( final EmailItemBean emailItemBean )
+        {
+            return emailItemBean.getTo();
+        }
     }
 
     private void logStats()
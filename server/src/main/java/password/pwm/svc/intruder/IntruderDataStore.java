@@ -39,6 +39,7 @@ import java.time.Instant;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 class IntruderDataStore implements IntruderRecordStore
@@ -128,6 +129,23 @@ class IntruderDataStore implements IntruderRecordStore
         stats.increment( DebugKeys.writes );
     }
 
+    @Override
+    public synchronized Optional<IntruderRecord> update(
+            final String key,
+            final Function<Optional<IntruderRecord>, Optional<IntruderRecord>> updateFunction
+    )
+            throws PwmOperationalException, PwmUnrecoverableException
+    {
+        final Optional<IntruderRecord> existingRecord = read( key );
+        final Optional<IntruderRecord> newRecord = updateFunction.apply( existingRecord );
+        if ( newRecord.isPresent() )
+        {
+            write( key, newRecord.get() );
+            return newRecord;
+        }
+        return existingRecord;
+    }
+
     @Override
     public ClosableIterator<IntruderRecord> iterator()
             throws PwmOperationalException, PwmUnrecoverableException
@@ -51,6 +51,7 @@ import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.stats.StatisticsClient;
 import password.pwm.util.DataStore;
 import password.pwm.util.DataStoreFactory;
+import password.pwm.util.IPRangeMatcher;
 import password.pwm.util.i18n.LocaleHelper;
 import password.pwm.util.java.MiscUtil;
 import password.pwm.util.java.StringUtil;
@@ -62,7 +63,6 @@ import password.pwm.util.logging.PwmLogger;
 import password.pwm.util.macro.MacroRequest;
 import password.pwm.util.secure.PwmRandom;
 
-import java.net.InetAddress;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
@@ -77,6 +77,10 @@ public class IntruderDomainService extends AbstractPwmService implements PwmServ
 {
     private static final PwmLogger LOGGER = PwmLogger.forClass( IntruderDomainService.class );
 
+    // any-local, loopback and link-local addresses
+    private static final IPRangeMatcher LOCAL_ADDRESS_MATCHER = IPRangeMatcher.compile( List.of(
+            "0.0.0.0/32", "127.0.0.0/8", "169.254.0.0/16", "::/128", "::1/128", "fe80::/10" ) );
+
     private PwmDomain pwmDomain;
 
     private final Map<IntruderRecordType, IntruderRecordManager> recordManagers = new EnumMap<>( IntruderRecordType.class );
@@ -274,8 +278,7 @@ public class IntruderDomainService extends AbstractPwmService implements PwmServ
         {
             try
             {
-                final InetAddress inetAddress = InetAddress.getByName( subject );
-                if ( inetAddress.isAnyLocalAddress() || inetAddress.isLoopbackAddress() || inetAddress.isLinkLocalAddress() )
+                if ( LOCAL_ADDRESS_MATCHER.match( subject ) )
                 {
                     LOGGER.debug( sessionLabel, () -> "disregarding local address intruder attempt from: " + subject );
                     return;
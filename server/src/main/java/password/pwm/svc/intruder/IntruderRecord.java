@@ -53,6 +53,15 @@ public class IntruderRecord implements Serializable
         this.subject = subject;
     }
 
+    IntruderRecord copy( )
+    {
+        final IntruderRecord copy = new IntruderRecord( domainID, type, subject );
+        copy.timeStamp = timeStamp;
+        copy.attemptCount = attemptCount;
+        copy.alerted = alerted;
+        return copy;
+    }
+
     void incrementAttemptCount( )
     {
         timeStamp = Instant.now();
@@ -0,0 +1,327 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.intruder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.Value;
+import password.pwm.error.PwmException;
+import password.pwm.error.PwmInternalException;
+import password.pwm.error.PwmOperationalException;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.java.ClosableIterator;
+import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.localdb.LocalDBException;
+import password.pwm.util.logging.PwmLogger;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * In-memory tier in front of an {@link IntruderRecordStore}.  Reads and updates of recently used records are served
+ * from a concurrent cache, updates of a single record are atomic, and changes are written to the backing store
+ * in batches by {@link #flush()}, and when a changed record is evicted from the cache.  Request threads only wait
+ * on store I/O when loading a record, or when updating a record while that record is being written.
+ *
+ * <p>Loading a record and writing its pending change hold the record's cache mapping, so a load never reads the
+ * stored record while a pending change is on its way to the store, and every change is counted exactly once.</p>
+ *
+ * <p>The backing store may be shared with other nodes (for example when intruder records are kept in a database),
+ * so a flush does not overwrite the stored record.  Attempts counted since the last flush are added to the stored
+ * record, and the cached record is refreshed from the result, so a node counting attempts against a record sees the
+ * other nodes' attempts within one flush interval.  An update that lowers the attempt count (a cleared record)
+ * replaces the stored record.  The read-modify-write of the stored record is only atomic within one node, so two
+ * nodes flushing the same record at the same moment can still lose one node's attempts; merging narrows that window
+ * to the duration of a single store update rather than closing it.</p>
+ */
+class IntruderRecordCache implements IntruderRecordStore
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( IntruderRecordCache.class );
+
+    private final IntruderRecordStore backingStore;
+    private final Cache<String, CacheEntry> cache;
+    private final Map<String, PendingChange> pendingChanges = new ConcurrentHashMap<>();
+
+    IntruderRecordCache( final IntruderRecordStore backingStore, final long maxEntries, final TimeDuration lifetime )
+    {
+        this.backingStore = backingStore;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize( maxEntries )
+                .expireAfterWrite( lifetime.asDuration() )
+                .removalListener( ( String key, CacheEntry entry, RemovalCause cause ) ->
+                {
+                    if ( key != null && cause.wasEvicted() && pendingChanges.containsKey( key ) )
+                    {
+                        flushKey( key );
+                    }
+                } )
+                .build();
+    }
+
+    @Override
+    public StatisticCounterBundle<DebugKeys> getStats()
+    {
+        return backingStore.getStats();
+    }
+
+    @Override
+    public Optional<IntruderRecord> read( final String key )
+            throws PwmUnrecoverableException
+    {
+        return readEntry( key ).copyOfRecord();
+    }
+
+    @Override
+    public void write( final String key, final IntruderRecord record )
+    {
+        cache.asMap().compute( key, ( k, existingEntry ) ->
+        {
+            final IntruderRecord newRecord = record.copy();
+            pendingChanges.put( key, new PendingChange( newRecord, 0, true ) );
+            return new CacheEntry( newRecord );
+        } );
+    }
+
+    @Override
+    public Optional<IntruderRecord> update(
+            final String key,
+            final Function<Optional<IntruderRecord>, Optional<IntruderRecord>> updateFunction
+    )
+            throws PwmUnrecoverableException
+    {
+        final CacheEntry loadedEntry = readEntry( key );
+
+        final CacheEntry updatedEntry = cache.asMap().compute( key, ( k, existingEntry ) ->
+        {
+            final CacheEntry currentEntry = existingEntry == null ? loadedEntry : existingEntry;
+            final Optional<IntruderRecord> newRecord = updateFunction.apply( currentEntry.copyOfRecord() );
+            if ( newRecord.isPresent() )
+            {
+                recordChange( key, currentEntry.getRecord(), newRecord.get() );
+                return new CacheEntry( newRecord.get() );
+            }
+            return currentEntry;
+        } );
+
+        return updatedEntry.copyOfRecord();
+    }
+
+    @Override
+    public ClosableIterator<IntruderRecord> iterator()
+            throws PwmOperationalException, PwmUnrecoverableException
+    {
+        flush();
+        return backingStore.iterator();
+    }
+
+    @Override
+    public void cleanup( final TimeDuration maxRecordAge )
+            throws LocalDBException
+    {
+        flush();
+        backingStore.cleanup( maxRecordAge );
+    }
+
+    /**
+     * Write all pending changes to the backing store.  Changes that fail to write remain pending and are
+     * retried on the next flush.
+     */
+    void flush()
+    {
+        int flushedRecords = 0;
+        for ( final String key : pendingChanges.keySet() )
+        {
+            if ( flushKey( key ) )
+            {
+                flushedRecords++;
+            }
+        }
+
+        if ( flushedRecords > 0 )
+        {
+            getStats().increment( DebugKeys.writeBehindFlushes );
+            getStats().increment( DebugKeys.writeBehindRecords, flushedRecords );
+        }
+    }
+
+    /**
+     * Write the pending change of a key while holding its cache mapping.  No change can be recorded, and the key
+     * can not be loaded, until the write has completed, so the stored result is the current record.
+     */
+    private boolean flushKey( final String key )
+    {
+        final AtomicBoolean written = new AtomicBoolean( false );
+        cache.asMap().compute( key, ( k, existingEntry ) ->
+        {
+            final PendingChange pendingChange = pendingChanges.remove( k );
+            if ( pendingChange == null )
+            {
+                return existingEntry;
+            }
+
+            try
+            {
+                final Optional<IntruderRecord> storedRecord = backingStore.update( k, existingRecord ->
+                        Optional.of( pendingChange.applyTo( existingRecord.orElse( null ) ) ) );
+                written.set( true );
+
+                // refresh the cached record with changes made by other nodes
+                return existingEntry == null || storedRecord.isEmpty()
+                        ? existingEntry
+                        : new CacheEntry( storedRecord.get().copy() );
+            }
+            catch ( final PwmException e )
+            {
+                LOGGER.warn( () -> "unable to write intruder record to storage, will retry; error: " + e.getMessage() );
+                pendingChanges.put( k, pendingChange );
+                return existingEntry;
+            }
+        } );
+        return written.get();
+    }
+
+    private CacheEntry readEntry( final String key )
+            throws PwmUnrecoverableException
+    {
+        final CacheEntry cachedEntry = cache.getIfPresent( key );
+        if ( cachedEntry != null )
+        {
+            getStats().increment( DebugKeys.cacheHits );
+            return cachedEntry;
+        }
+
+        try
+        {
+            // an update may have raced this load, in which case the updated entry wins
+            return cache.asMap().computeIfAbsent( key, this::loadEntry );
+        }
+        catch ( final PwmInternalException e )
+        {
+            if ( e.getCause() instanceof PwmUnrecoverableException )
+            {
+                throw ( PwmUnrecoverableException ) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Called while holding the cache mapping for {@code key}, so the key's pending change can not be written
+     * concurrently and is applied to the stored record exactly once.
+     */
+    private CacheEntry loadEntry( final String key )
+    {
+        getStats().increment( DebugKeys.cacheMisses );
+        try
+        {
+            final Optional<IntruderRecord> storedRecord = backingStore.read( key );
+            return new CacheEntry( applyPendingChange( key, storedRecord.orElse( null ) ) );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            throw PwmInternalException.fromPwmException( e );
+        }
+    }
+
+    /**
+     * Called while holding the cache entry for {@code key}, so pending changes of a key are only modified in order.
+     */
+    private void recordChange( final String key, final IntruderRecord oldRecord, final IntruderRecord newRecord )
+    {
+        final int oldCount = oldRecord == null ? 0 : oldRecord.getAttemptCount();
+        final boolean replace = newRecord.getAttemptCount() < oldCount;
+        final int addedAttempts = replace ? 0 : newRecord.getAttemptCount() - oldCount;
+
+        pendingChanges.compute( key, ( k, existingChange ) ->
+        {
+            if ( replace || existingChange == null )
+            {
+                return new PendingChange( newRecord, addedAttempts, replace );
+            }
+            return new PendingChange( newRecord, existingChange.getAddedAttempts() + addedAttempts, existingChange.isReplace() );
+        } );
+    }
+
+    private IntruderRecord applyPendingChange( final String key, final IntruderRecord storedRecord )
+    {
+        final PendingChange pendingChange = pendingChanges.get( key );
+        return pendingChange == null
+                ? storedRecord
+                : pendingChange.applyTo( storedRecord );
+    }
+
+    /**
+     * Records held by an entry are never modified after the entry is created; updates replace the entry.
+     */
+    private static class CacheEntry
+    {
+        private final IntruderRecord record;
+
+        CacheEntry( final IntruderRecord record )
+        {
+            this.record = record;
+        }
+
+        IntruderRecord getRecord()
+        {
+            return record;
+        }
+
+        Optional<IntruderRecord> copyOfRecord()
+        {
+            return record == null ? Optional.empty() : Optional.of( record.copy() );
+        }
+    }
+
+    /**
+     * Changes to a record not yet written to the backing store: the attempts added locally since the last flush
+     * and the latest local record, or a record that replaces the stored record entirely.
+     */
+    @Value
+    private static class PendingChange
+    {
+        private final IntruderRecord record;
+        private final int addedAttempts;
+        private final boolean replace;
+
+        IntruderRecord applyTo( final IntruderRecord storedRecord )
+        {
+            if ( replace || storedRecord == null )
+            {
+                return record.copy();
+            }
+
+            final IntruderRecord mergedRecord = storedRecord.copy();
+            mergedRecord.setAttemptCount( storedRecord.getAttemptCount() + addedAttempts );
+            mergedRecord.setAlerted( storedRecord.isAlerted() || record.isAlerted() );
+            if ( record.getTimeStamp().isAfter( storedRecord.getTimeStamp() ) )
+            {
+                mergedRecord.setTimeStamp( record.getTimeStamp() );
+            }
+            return mergedRecord;
+        }
+    }
+}
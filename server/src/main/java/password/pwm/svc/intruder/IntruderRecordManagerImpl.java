@@ -36,6 +36,7 @@ import password.pwm.util.logging.PwmLogger;
 import password.pwm.util.secure.PwmHashAlgorithm;
 
 import java.util.Optional;
+import java.util.function.Function;
 
 class IntruderRecordManagerImpl implements IntruderRecordManager
 {
@@ -97,37 +98,36 @@ class IntruderRecordManagerImpl implements IntruderRecordManager
             throw new IllegalArgumentException( "subject is required value" );
         }
 
-        IntruderRecord record = readIntruderRecord( subject ).orElseGet( () -> new IntruderRecord( domainID, recordType, subject ) );
-
-        final TimeDuration age = TimeDuration.fromCurrent( record.getTimeStamp() );
-        if ( age.isLongerThan( settings.getCheckDuration() ) )
+        updateIntruderRecord( subject, existingRecord ->
         {
-            final IntruderRecord finalRecord = record;
-            LOGGER.debug( () -> "re-setting existing outdated record=" + JsonFactory.get().serialize( finalRecord ) + " (" + age.asCompactString() + ")" );
-            record = new IntruderRecord( domainID, recordType, subject );
-        }
+            IntruderRecord record = existingRecord.orElseGet( () -> new IntruderRecord( domainID, recordType, subject ) );
 
-        record.incrementAttemptCount();
+            final TimeDuration age = TimeDuration.fromCurrent( record.getTimeStamp() );
+            if ( age.isLongerThan( settings.getCheckDuration() ) )
+            {
+                final IntruderRecord finalRecord = record;
+                LOGGER.debug( () -> "re-setting existing outdated record=" + JsonFactory.get().serialize( finalRecord ) + " (" + age.asCompactString() + ")" );
+                record = new IntruderRecord( domainID, recordType, subject );
+            }
 
-        writeIntruderRecord( record );
+            record.incrementAttemptCount();
+            return Optional.of( record );
+        } );
     }
 
     @Override
     public void clearSubject( final String subject )
     {
-        final Optional<IntruderRecord> record = readIntruderRecord( subject );
-        if ( record.isEmpty() )
-        {
-            return;
-        }
-
-        if ( record.get().getAttemptCount() == 0 )
+        updateIntruderRecord( subject, existingRecord ->
         {
-            return;
-        }
+            if ( existingRecord.isEmpty() || existingRecord.get().getAttemptCount() == 0 )
+            {
+                return Optional.empty();
+            }
 
-        record.get().clearAttemptCount();
-        writeIntruderRecord( record.get() );
+            existingRecord.get().clearAttemptCount();
+            return existingRecord;
+        } );
     }
 
     @Override
@@ -140,13 +140,16 @@ class IntruderRecordManagerImpl implements IntruderRecordManager
     @Override
     public void markAlerted( final String subject )
     {
-        final Optional<IntruderRecord> record = readIntruderRecord( subject );
-        if ( record.isEmpty() || record.get().isAlerted() )
+        updateIntruderRecord( subject, existingRecord ->
         {
-            return;
-        }
-        record.get().setAlerted( true );
-        writeIntruderRecord( record.get() );
+            if ( existingRecord.isEmpty() || existingRecord.get().isAlerted() )
+            {
+                return Optional.empty();
+            }
+
+            existingRecord.get().setAlerted( true );
+            return existingRecord;
+        } );
     }
 
     @Override
@@ -163,15 +166,18 @@ class IntruderRecordManagerImpl implements IntruderRecordManager
         return Optional.empty();
     }
 
-    private void writeIntruderRecord( final IntruderRecord intruderRecord )
+    private void updateIntruderRecord(
+            final String subject,
+            final Function<Optional<IntruderRecord>, Optional<IntruderRecord>> updateFunction
+    )
     {
         try
         {
-            recordStore.write( makeKey( intruderRecord.getSubject() ), intruderRecord );
+            recordStore.update( makeKey( subject ), updateFunction );
         }
         catch ( final PwmException e )
         {
-            LOGGER.warn( () -> "unexpected error attempting to write intruder record " + JsonFactory.get().serialize( intruderRecord ) + ", error: " + e.getMessage() );
+            LOGGER.warn( () -> "unexpected error attempting to update intruder record for subject " + subject + ", error: " + e.getMessage() );
         }
     }
 
@@ -28,6 +28,7 @@ import password.pwm.util.java.TimeDuration;
 import password.pwm.util.localdb.LocalDBException;
 
 import java.util.Optional;
+import java.util.function.Function;
 
 interface IntruderRecordStore
 {
@@ -37,6 +38,21 @@ interface IntruderRecordStore
 
     void write( String key, IntruderRecord record ) throws PwmOperationalException, PwmUnrecoverableException;
 
+    /**
+     * Read-modify-write of a single record.  The update function receives a copy of the current record (if any) and
+     * returns the record to store, or an empty value to leave the stored record unchanged.  Updates are only atomic
+     * with respect to other updates made through this node; a store shared by several nodes offers no atomicity
+     * between them.
+     *
+     * @param key record key
+     * @param updateFunction function computing the new record
+     * @return the stored record after the update
+     * @throws PwmOperationalException if the record can not be written
+     * @throws PwmUnrecoverableException if the record can not be read
+     */
+    Optional<IntruderRecord> update( String key, Function<Optional<IntruderRecord>, Optional<IntruderRecord>> updateFunction )
+            throws PwmOperationalException, PwmUnrecoverableException;
+
     ClosableIterator<IntruderRecord> iterator( ) throws PwmOperationalException, PwmUnrecoverableException;
 
     void cleanup( TimeDuration maxRecordAge ) throws LocalDBException;
@@ -48,5 +64,9 @@ interface IntruderRecordStore
         cleanupCycles,
         cleanupExamines,
         cleanupRemoves,
+        cacheHits,
+        cacheMisses,
+        writeBehindFlushes,
+        writeBehindRecords,
     }
 }
@@ -111,6 +111,7 @@ public class IntruderServiceClient
         if ( userIdentity != null )
         {
             final String subject = userIdentity.toDelimitedKey();
+            pwmDomain.getRestCredentialCache().invalidate( userIdentity );
             intruderService.mark( IntruderRecordType.USER_ID, subject, sessionLabel );
         }
     }
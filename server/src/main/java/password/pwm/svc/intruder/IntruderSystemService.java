@@ -66,10 +66,10 @@ public class IntruderSystemService extends AbstractPwmService implements PwmServ
             final DataStore dataStore = IntruderDomainService.initDataStore( pwmApplication, getSessionLabel(), storageMethod );
             dataStorageMethod = dataStore.getDataStorageMethod();
 
-            recordStore = new IntruderDataStore( this, dataStore, this::status );
-
             executorService = PwmScheduler.makeBackgroundExecutor( pwmApplication, this.getClass() );
 
+            recordStore = initRecordStore( new IntruderDataStore( this, dataStore, this::status ) );
+
             scheduleCleaner();
         }
         catch ( final Exception e )
@@ -87,6 +87,10 @@ public class IntruderSystemService extends AbstractPwmService implements PwmServ
     @Override
     public void close()
     {
+        if ( recordStore instanceof IntruderRecordCache )
+        {
+            ( ( IntruderRecordCache ) recordStore ).flush();
+        }
         setStatus( STATUS.CLOSED );
     }
 
@@ -156,6 +160,25 @@ public class IntruderSystemService extends AbstractPwmService implements PwmServ
                 .collect( Collectors.toList() );
     }
 
+    private IntruderRecordStore initRecordStore( final IntruderDataStore dataStore )
+    {
+        final AppConfig config = getPwmApplication().getConfig();
+        final long maxEntries = Long.parseLong( config.readAppProperty( AppProperty.INTRUDER_CACHE_MAX_ENTRIES ) );
+        if ( maxEntries <= 0 )
+        {
+            return dataStore;
+        }
+
+        final TimeDuration lifetime = TimeDuration.of( Long.parseLong(
+                config.readAppProperty( AppProperty.INTRUDER_CACHE_LIFETIME_MS ) ), TimeDuration.Unit.MILLISECONDS );
+        final TimeDuration flushFrequency = TimeDuration.of( Long.parseLong(
+                config.readAppProperty( AppProperty.INTRUDER_CACHE_FLUSH_FREQUENCY_MS ) ), TimeDuration.Unit.MILLISECONDS );
+
+        final IntruderRecordCache recordCache = new IntruderRecordCache( dataStore, maxEntries, lifetime );
+        getPwmApplication().getPwmScheduler().scheduleFixedRateJob( recordCache::flush, executorService, flushFrequency, flushFrequency );
+        return recordCache;
+    }
+
     private void scheduleCleaner()
     {
         final AppConfig config = getPwmApplication().getConfig();
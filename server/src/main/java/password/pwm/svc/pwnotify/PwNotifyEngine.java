@@ -27,6 +27,7 @@ import password.pwm.bean.UserIdentity;
 import password.pwm.config.PwmSetting;
 import password.pwm.config.value.data.UserPermission;
 import password.pwm.error.PwmError;
+import password.pwm.error.PwmInternalException;
 import password.pwm.error.PwmOperationalException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.ldap.LdapOperationsHelper;
@@ -39,6 +40,7 @@ import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.stats.StatisticsClient;
 import password.pwm.util.PwmScheduler;
 import password.pwm.util.i18n.LocaleHelper;
+import password.pwm.util.java.ClosableIterator;
 import password.pwm.util.java.CollectionUtil;
 import password.pwm.util.java.ConditionalTaskExecutor;
 import password.pwm.util.java.JavaHelper;
@@ -52,7 +54,6 @@ import java.io.Writer;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -68,6 +69,9 @@ public class PwNotifyEngine
 
     private static final int MAX_LOG_SIZE = 1024 * 1024 * 1024;
 
+    // bounds the users buffered ahead of the workers; when full the search thread processes users itself
+    private static final int WORK_QUEUE_SIZE = 1000;
+
     private final PwNotifyService pwNotifyService;
     private final PwNotifySettings settings;
     private final PwmDomain pwmDomain;
@@ -156,29 +160,39 @@ public class PwNotifyEngine
                 return;
             }
 
-            log( "starting job, beginning ldap search" );
-            final Iterator<UserIdentity> workQueue = UserPermissionUtility.discoverMatchingUsers(
+            log( "starting job, beginning ldap search and examining users as they are found" );
+
+            final ThreadPoolExecutor threadPoolExecutor = createExecutor( pwmDomain );
+            try ( ClosableIterator<UserIdentity> workQueue = UserPermissionUtility.streamMatchingUsers(
                     pwmDomain,
                     permissionList, pwNotifyService.getSessionLabel(), settings.getMaxLdapSearchSize(),
                     settings.getSearchTimeout()
-            );
-
-            log( "ldap search complete, examining users..." );
-
-            final ThreadPoolExecutor threadPoolExecutor = createExecutor( pwmDomain );
-            while ( workQueue.hasNext() )
+            ) )
             {
-                if ( !checkIfRunningOnMaster() || pwNotifyService.status() == PwmService.STATUS.CLOSED )
+                while ( workQueue.hasNext() )
                 {
-                    final String msg = "job interrupted, server is no longer the cluster master.";
-                    log( msg );
-                    throw PwmUnrecoverableException.newException( PwmError.ERROR_SERVICE_NOT_AVAILABLE, msg );
+                    if ( !checkIfRunningOnMaster() || pwNotifyService.status() == PwmService.STATUS.CLOSED )
+                    {
+                        final String msg = "job interrupted, server is no longer the cluster master.";
+                        log( msg );
+                        throw PwmUnrecoverableException.newException( PwmError.ERROR_SERVICE_NOT_AVAILABLE, msg );
+                    }
+
+                    threadPoolExecutor.submit( new ProcessJob( workQueue.next() ) );
                 }
-
-                threadPoolExecutor.submit( new ProcessJob( workQueue.next() ) );
             }
-
-            JavaHelper.closeAndWaitExecutor( threadPoolExecutor, TimeDuration.DAY );
+            catch ( final PwmInternalException e )
+            {
+                if ( e.getCause() instanceof PwmOperationalException )
+                {
+                    throw ( PwmOperationalException ) e.getCause();
+                }
+                throw e;
+            }
+            finally
+            {
+                JavaHelper.closeAndWaitExecutor( threadPoolExecutor, TimeDuration.DAY );
+            }
 
             log( "job complete, " + examinedCount + " users evaluated in " + TimeDuration.fromCurrent( startTime ).asCompactString()
                     + ", sent " + noticeCount + " notices."
@@ -388,8 +402,9 @@ public class PwNotifyEngine
                 10,
                 1,
                 TimeUnit.MINUTES,
-                new LinkedBlockingDeque<>(),
-                threadFactory
+                new LinkedBlockingDeque<>( WORK_QUEUE_SIZE ),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy()
         );
         threadPoolExecutor.allowCoreThreadTimeOut( true );
         return threadPoolExecutor;
@@ -31,6 +31,7 @@ import password.pwm.config.value.data.UserPermission;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmException;
+import password.pwm.error.PwmInternalException;
 import password.pwm.error.PwmOperationalException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.health.HealthRecord;
@@ -62,7 +63,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -83,7 +83,7 @@ public class ReportService extends AbstractPwmService implements PwmService
     private ReportRecordLocalDBStorageService userCacheService;
     private ReportSettings settings = ReportSettings.builder().build();
 
-    private Queue<String> dnQueue;
+    private LocalDBStoredQueue dnQueue;
 
     private final AtomicReference<ReportStatusInfo> reportStatus = new AtomicReference<>( ReportStatusInfo.builder().build() );
     private final EventRateMeter processRateMeter = new EventRateMeter( TimeDuration.of( 5, TimeDuration.Unit.MINUTES ) );
@@ -137,6 +137,11 @@ public class ReportService extends AbstractPwmService implements PwmService
 
         JavaHelper.closeAndWaitExecutor( executorService, TimeDuration.SECONDS_10 );
 
+        if ( dnQueue != null )
+        {
+            dnQueue.close();
+        }
+
         if ( userCacheService != null )
         {
             userCacheService.close();
@@ -369,19 +374,28 @@ public class ReportService extends AbstractPwmService implements PwmService
 
                 final List<UserPermission> searchFilters = settings.getSearchFilter().get( pwmDomain.getDomainID() );
 
-                final Iterator<UserIdentity> searchResults = UserPermissionUtility.discoverMatchingUsers(
+                try ( ClosableIterator<UserIdentity> searchResults = UserPermissionUtility.streamMatchingUsers(
                         pwmDomain,
                         searchFilters,
                         getSessionLabel(),
                         settings.getMaxSearchSize(),
-                        settings.getSearchTimeout() );
+                        settings.getSearchTimeout() ) )
+                {
+                    writeUsersToLocalDBQueue( searchResults );
+                }
+                catch ( final PwmInternalException e )
+                {
+                    if ( e.getCause() instanceof PwmOperationalException )
+                    {
+                        throw ( PwmOperationalException ) e.getCause();
+                    }
+                    throw e;
+                }
 
                 LOGGER.trace(
                         getSessionLabel(),
                         () -> "completed ldap search process with for domain '" + pwmDomain.getDomainID() + "'",
                         () -> TimeDuration.fromCurrent( loopStartTime ) );
-
-                writeUsersToLocalDBQueue( searchResults );
             }
 
             LOGGER.trace(
@@ -128,6 +128,7 @@ public class SmsQueueService extends AbstractPwmService implements PwmService
                         Long.parseLong( pwmApplication.getConfig().readAppProperty( AppProperty.QUEUE_SMS_RETRY_TIMEOUT_MS ) ),
                         TimeDuration.Unit.MILLISECONDS )
                 )
+                .workerThreads( Integer.parseInt( pwmApplication.getConfig().readAppProperty( AppProperty.QUEUE_SMS_WORKER_THREADS ) ) )
                 .build();
 
         final LocalDBStoredQueue localDBStoredQueue = LocalDBStoredQueue.createLocalDBStoredQueue( pwmApplication, pwmApplication.getLocalDB(), LocalDB.DB.SMS_QUEUE );
@@ -180,6 +181,12 @@ public class SmsQueueService extends AbstractPwmService implements PwmService
 
             return JsonFactory.get().serializeMap( debugOutputMap );
         }
+
+        @Override
+        public String partitionKey( final SmsItemBean workItem )
+        {
+            return workItem.getTo();
+        }
     }
 
     public void addSmsToQueue( final SmsItemBean smsItem )
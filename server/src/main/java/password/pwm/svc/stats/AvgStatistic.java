@@ -31,7 +31,9 @@ public enum AvgStatistic
     AVG_AUTHENTICATION_TIME( "AvgAuthenticationTime",  "ms" ),
     AVG_PASSWORD_STRENGTH( "AvgPasswordStrength", "" ),
     AVG_LDAP_SEARCH_TIME( "AvgLdapSearchTime",  "ms" ),
-    AVG_REQUEST_PROCESS_TIME( "AvgRequestProcessTime",  "ms" ),;
+    AVG_REQUEST_PROCESS_TIME( "AvgRequestProcessTime",  "ms" ),
+    AVG_RANDOM_PASSWORD_TIME( "AvgRandomPasswordTime",  "ms" ),
+    AVG_RANDOM_PASSWORD_TRIES( "AvgRandomPasswordTries", "" ),;
 
     private final String key;
     private final String unit;
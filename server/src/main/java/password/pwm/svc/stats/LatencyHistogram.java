@@ -0,0 +1,201 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.stats;
+
+import password.pwm.util.java.JavaHelper;
+import password.pwm.util.java.StringUtil;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, log-linear histogram in the style of HdrHistogram.  Values below 32 are tracked exactly,
+ * larger values are tracked with 16 sub-buckets per power of two (roughly 6% relative precision) up to
+ * {@link #MAX_TRACKABLE_VALUE}.  Recording is a single atomic increment with no allocation, and histograms
+ * with the same layout can be merged, so the current, daily and cumulative bundles can be combined for
+ * arbitrary reporting windows.
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+
+    static final long MAX_TRACKABLE_VALUE = ( 1L << ( MAX_EXPONENT + 1 ) ) - 1;
+    static final int BUCKET_COUNT = bucketIndex( MAX_TRACKABLE_VALUE ) + 1;
+
+    private static final char ENTRY_SEPARATOR = ',';
+    private static final char VALUE_SEPARATOR = ':';
+
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKET_COUNT );
+
+    public void recordValue( final long value )
+    {
+        buckets.incrementAndGet( bucketIndex( value ) );
+    }
+
+    public void merge( final LatencyHistogram other )
+    {
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            final long otherCount = other.buckets.get( i );
+            if ( otherCount != 0 )
+            {
+                buckets.addAndGet( i, otherCount );
+            }
+        }
+    }
+
+    public long getCount()
+    {
+        long count = 0;
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            count += buckets.get( i );
+        }
+        return count;
+    }
+
+    public boolean isEmpty()
+    {
+        return getCount() == 0;
+    }
+
+    /**
+     * Returns the highest value equivalent to the recorded value at the requested percentile, or
+     * zero if nothing has been recorded.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return highest equivalent value at the percentile
+     */
+    public long getValueAtPercentile( final double percentile )
+    {
+        final long[] snapshot = snapshot();
+        long count = 0;
+        for ( final long bucketCount : snapshot )
+        {
+            count += bucketCount;
+        }
+
+        if ( count == 0 )
+        {
+            return 0;
+        }
+
+        final double boundedPercentile = Math.min( Math.max( percentile, 0 ), 100 );
+        final long targetRank = Math.max( 1, ( long ) Math.ceil( boundedPercentile / 100 * count ) );
+
+        long runningCount = 0;
+        for ( int i = 0; i < snapshot.length; i++ )
+        {
+            runningCount += snapshot[i];
+            if ( runningCount >= targetRank )
+            {
+                return bucketUpperBound( i );
+            }
+        }
+
+        return bucketUpperBound( snapshot.length - 1 );
+    }
+
+    /**
+     * Sparse text form of the non-empty buckets, as {@code index:count} pairs separated by commas.
+     *
+     * @return encoded histogram
+     */
+    String output()
+    {
+        final StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            final long bucketCount = buckets.get( i );
+            if ( bucketCount != 0 )
+            {
+                if ( sb.length() > 0 )
+                {
+                    sb.append( ENTRY_SEPARATOR );
+                }
+                sb.append( i ).append( VALUE_SEPARATOR ).append( bucketCount );
+            }
+        }
+        return sb.toString();
+    }
+
+    static LatencyHistogram input( final String inputString )
+    {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        if ( StringUtil.isEmpty( inputString ) )
+        {
+            return histogram;
+        }
+
+        for ( final String entry : inputString.split( String.valueOf( ENTRY_SEPARATOR ) ) )
+        {
+            final int separatorIndex = entry.indexOf( VALUE_SEPARATOR );
+            if ( separatorIndex > 0 )
+            {
+                final int index = ( int ) JavaHelper.silentParseLong( entry.substring( 0, separatorIndex ), -1 );
+                final long bucketCount = JavaHelper.silentParseLong( entry.substring( separatorIndex + 1 ), 0 );
+                if ( index >= 0 && index < BUCKET_COUNT && bucketCount > 0 )
+                {
+                    histogram.buckets.addAndGet( index, bucketCount );
+                }
+            }
+        }
+        return histogram;
+    }
+
+    private long[] snapshot()
+    {
+        final long[] snapshot = new long[BUCKET_COUNT];
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            snapshot[i] = buckets.get( i );
+        }
+        return snapshot;
+    }
+
+    static int bucketIndex( final long value )
+    {
+        final long boundedValue = Math.min( Math.max( value, 0 ), MAX_TRACKABLE_VALUE );
+        if ( boundedValue < SUB_BUCKET_COUNT * 2 )
+        {
+            return ( int ) boundedValue;
+        }
+
+        final int exponent = 63 - Long.numberOfLeadingZeros( boundedValue );
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int subBucket = ( int ) ( ( boundedValue >>> shift ) & ( SUB_BUCKET_COUNT - 1 ) );
+        return ( shift + 1 ) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long bucketUpperBound( final int index )
+    {
+        if ( index < SUB_BUCKET_COUNT * 2 )
+        {
+            return index;
+        }
+
+        final int shift = index / SUB_BUCKET_COUNT - 1;
+        final long subBucket = index % SUB_BUCKET_COUNT;
+        final long lowerBound = ( SUB_BUCKET_COUNT + subBucket ) << shift;
+        return lowerBound + ( 1L << shift ) - 1;
+    }
+}
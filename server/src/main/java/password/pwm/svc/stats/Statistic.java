@@ -74,6 +74,10 @@ public enum Statistic
     CAPTCHA_FAILURES( "CaptchaFailures", null ),
     CAPTCHA_PRESENTATIONS( "CaptchaPresentations", null ),
     LDAP_UNAVAILABLE_COUNT( "LdapUnavailableCount", null ),
+    LDAP_USER_ATTRIBUTE_READS( "LdapUserAttributeReads", null ),
+    LDAP_PERMISSION_LOCAL_CHECKS( "LdapPermissionLocalChecks", null ),
+    LDAP_PERMISSION_DIRECTORY_CHECKS( "LdapPermissionDirectoryChecks", null ),
+    PERMISSION_SESSION_CACHE_HITS( "PermissionSessionCacheHits", null ),
     DB_UNAVAILABLE_COUNT( "DatabaseUnavailableCount", null ),
     SETUP_RESPONSES( "SetupResponses", null ),
     SETUP_OTP_SECRET( "SetupOtpSecret", null ),
@@ -113,6 +117,8 @@ public enum Statistic
     REST_STATISTICS( "RestStatistics", null ),
     REST_VERIFYCHALLENGES( "RestVerifyChallenges", null ),
     REST_VERIFYOTP( "RestVerifyOTP", null ),
+    REST_AUTH_CACHE_HITS( "RestAuthCacheHits", null ),
+    REST_AUTH_CACHE_MISSES( "RestAuthCacheMisses", null ),
     INTRUDER_ATTEMPTS( "IntruderAttempts", null ),
     FOREIGN_SESSIONS_ACCEPTED( "ForeignSessionsAccepted", null ),
     OBSOLETE_URL_REQUESTS( "ObsoleteUrlRequests", null ),
@@ -20,24 +20,24 @@
 
 package password.pwm.svc.stats;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import password.pwm.util.java.JavaHelper;
 import password.pwm.util.json.JsonFactory;
 import password.pwm.util.java.StringUtil;
 
 import java.io.Serializable;
-import java.math.BigInteger;
 import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.LongAccumulator;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
 
 public class StatisticsBundle
 {
+    private static final String HISTOGRAM_KEY_SUFFIX = "_HISTOGRAM";
+
     private final Map<Statistic, LongAccumulator> incrementerMap = new EnumMap<>( Statistic.class );
     private final Map<AvgStatistic, AverageBean> avgMap = new EnumMap<>( AvgStatistic.class );
+    private final Map<AvgStatistic, LatencyHistogram> histogramMap = new EnumMap<>( AvgStatistic.class );
 
     StatisticsBundle( )
     {
@@ -48,6 +48,7 @@ public class StatisticsBundle
         for ( final AvgStatistic avgStatistic : AvgStatistic.values() )
         {
             avgMap.put( avgStatistic, new AverageBean() );
+            histogramMap.put( avgStatistic, new LatencyHistogram() );
         }
     }
 
@@ -68,7 +69,13 @@ public class StatisticsBundle
             final AverageBean averageBean = avgMap.get( epsStatistic );
             if ( !averageBean.isZero() )
             {
-                outputMap.put( epsStatistic.name(), JsonFactory.get().serialize( averageBean ) );
+                outputMap.put( epsStatistic.name(), JsonFactory.get().serialize( averageBean.toStoredValue() ) );
+            }
+
+            final LatencyHistogram histogram = histogramMap.get( epsStatistic );
+            if ( !histogram.isEmpty() )
+            {
+                outputMap.put( epsStatistic.name() + HISTOGRAM_KEY_SUFFIX, histogram.output() );
             }
         }
 
@@ -97,8 +104,14 @@ public class StatisticsBundle
             final String value = loadedMap.get( loopStat.name() );
             if ( StringUtil.notEmpty( value ) )
             {
-                final AverageBean avgBean = JsonFactory.get().deserialize( value, AverageBean.class );
-                bundle.avgMap.put( loopStat, avgBean );
+                final StoredAverage storedAverage = JsonFactory.get().deserialize( value, StoredAverage.class );
+                bundle.avgMap.put( loopStat, AverageBean.fromStoredValue( storedAverage ) );
+            }
+
+            final String histogramValue = loadedMap.get( loopStat.name() + HISTOGRAM_KEY_SUFFIX );
+            if ( StringUtil.notEmpty( histogramValue ) )
+            {
+                bundle.histogramMap.put( loopStat, LatencyHistogram.input( histogramValue ) );
             }
         }
 
@@ -113,6 +126,7 @@ public class StatisticsBundle
     void updateAverageValue( final AvgStatistic statistic, final long timeDuration )
     {
         avgMap.get( statistic ).appendValue( timeDuration );
+        histogramMap.get( statistic ).recordValue( timeDuration );
     }
 
     public String getStatistic( final Statistic statistic )
@@ -122,65 +136,86 @@ public class StatisticsBundle
 
     public String getAvgStatistic( final AvgStatistic statistic )
     {
-        return avgMap.get( statistic ).getAverage().toString();
+        return Long.toString( avgMap.get( statistic ).getAverage() );
     }
 
-    private static class AverageBean implements Serializable
+    public long getLatencyCount( final AvgStatistic statistic )
     {
-        private static final long serialVersionUID = 1L;
+        return histogramMap.get( statistic ).getCount();
+    }
 
-        private BigInteger total = BigInteger.ZERO;
-        private BigInteger count = BigInteger.ZERO;
+    public long getPercentile( final AvgStatistic statistic, final double percentile )
+    {
+        return histogramMap.get( statistic ).getValueAtPercentile( percentile );
+    }
 
-        @SuppressFBWarnings( "SE_TRANSIENT_FIELD_NOT_RESTORED" )
-        private final transient Lock lock = new ReentrantLock();
+    void mergeHistogramInto( final AvgStatistic statistic, final LatencyHistogram target )
+    {
+        target.merge( histogramMap.get( statistic ) );
+    }
 
-        AverageBean( )
-        {
-        }
+    /**
+     * Striped total and count; updates never lock or allocate once the adders have inflated.
+     */
+    private static class AverageBean
+    {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder count = new LongAdder();
 
-        BigInteger getAverage( )
+        long getAverage( )
         {
-            lock.lock();
-            try
+            // read count first so a concurrent update can only make the average slightly high, never divide by zero
+            final long currentCount = count.sum();
+            if ( currentCount == 0 )
             {
-                if ( BigInteger.ZERO.equals( count ) )
-                {
-                    return BigInteger.ZERO;
-                }
-                return total.divide( count );
-            }
-            finally
-            {
-                lock.unlock();
+                return 0;
             }
+            return total.sum() / currentCount;
         }
 
         void appendValue( final long value )
         {
-            lock.lock();
-            try
-            {
-                count = count.add( BigInteger.ONE );
-                total = total.add( BigInteger.valueOf( value ) );
-            }
-            finally
-            {
-                lock.unlock();
-            }
+            total.add( value );
+            count.increment();
         }
 
         boolean isZero()
         {
-            lock.lock();
-            try
-            {
-                return total.equals( BigInteger.ZERO );
-            }
-            finally
-            {
-                lock.unlock();
-            }
+            return total.sum() == 0;
+        }
+
+        StoredAverage toStoredValue()
+        {
+            return new StoredAverage( total.sum(), count.sum() );
+        }
+
+        static AverageBean fromStoredValue( final StoredAverage storedAverage )
+        {
+            final AverageBean averageBean = new AverageBean();
+            averageBean.total.add( storedAverage.total );
+            averageBean.count.add( storedAverage.count );
+            return averageBean;
+        }
+    }
+
+    /**
+     * Json form of {@link AverageBean}, field compatible with previously stored bundles.
+     */
+    private static class StoredAverage implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private long total;
+        private long count;
+
+        StoredAverage( )
+        {
+        }
+
+        StoredAverage( final long total, final long count )
+        {
+            this.total = total;
+            this.count = count;
         }
     }
 
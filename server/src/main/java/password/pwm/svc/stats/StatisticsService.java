@@ -136,6 +136,29 @@ public class StatisticsService extends AbstractPwmService implements PwmService
         return returnMap;
     }
 
+    /**
+     * Merge the daily latency histograms for the most recent {@code days} days, including today.
+     *
+     * @param statistic statistic to read
+     * @param days number of days to merge
+     * @return a new histogram holding the merged values
+     */
+    public LatencyHistogram getLatencyHistogram( final AvgStatistic statistic, final int days )
+    {
+        final LatencyHistogram returnHistogram = new LatencyHistogram();
+        DailyKey loopKey = currentDailyKey;
+        for ( int counter = days; counter > 0; counter-- )
+        {
+            final StatisticsBundle bundle = getStatBundleForKey( loopKey.toString() );
+            if ( bundle != null )
+            {
+                bundle.mergeHistogramInto( statistic, returnHistogram );
+            }
+            loopKey = loopKey.previous();
+        }
+        return returnHistogram;
+    }
+
     public StatisticsBundle getStatBundleForKey( final String key )
     {
         if ( key == null || key.length() < 1 || KEY_CUMULATIVE.equals( key ) )
@@ -52,6 +52,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BooleanSupplier;
@@ -62,6 +63,7 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
 
     private WordlistConfiguration wordlistConfiguration;
     private WordlistBucket wordlistBucket;
+    private WordVerdictCache verdictCache;
     private ExecutorService executorService;
     private volatile Set<WordType> wordTypesCache = null;
 
@@ -95,6 +97,7 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
         final WordlistType type = getWordlistType();
 
         this.wordlistConfiguration = WordlistConfiguration.fromConfiguration( pwmApplication.getConfig(), type );
+        this.verdictCache = WordVerdictCache.fromConfiguration( pwmApplication.getConfig() );
 
         if ( this.wordlistConfiguration.isTestMode() )
         {
@@ -117,7 +120,9 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
                 return STATUS.CLOSED;
             }
 
-            this.wordlistBucket = new LocalDBWordlistBucket( pwmApplication, wordlistConfiguration, type );
+            this.wordlistBucket = wordlistConfiguration.isSortedFileStorage()
+                    ? new SortedFileWordlistBucket( pwmApplication, wordlistConfiguration, type )
+                    : new LocalDBWordlistBucket( pwmApplication, wordlistConfiguration, type );
         }
 
         inhibitBackgroundImportFlag.set( false );
@@ -146,6 +151,11 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
     }
 
     boolean containsWord( final Set<WordType> wordTypes, final String word ) throws PwmUnrecoverableException
+    {
+        return verdictCache.check( word, () -> checkWord( wordTypes, word ) );
+    }
+
+    private boolean checkWord( final Set<WordType> wordTypes, final String word ) throws PwmUnrecoverableException
     {
         final Instant startTime = Instant.now();
 
@@ -216,7 +226,8 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
 
     void outputStats()
     {
-        getLogger().trace( getSessionLabel(), () -> "periodic statistics: " + StringUtil.mapToString( getStatistics().asDebugMap() ) );
+        getLogger().trace( getSessionLabel(), () -> "periodic statistics: " + StringUtil.mapToString( getStatistics().asDebugMap() )
+                + ", verdictCache: " + StringUtil.mapToString( verdictCache.debugStats() ) );
 
         {
             final TimeDuration timeDuration = TimeDuration.of(
@@ -254,6 +265,12 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
         return results;
     }
 
+    ExecutorService makeImportExecutor( final String stageName, final int threads )
+    {
+        final String threadName = PwmScheduler.makeThreadName( getPwmApplication(), this.getClass() ) + "-" + stageName + "-";
+        return Executors.newFixedThreadPool( threads, PwmScheduler.makePwmThreadFactory( threadName, true ) );
+    }
+
     String randomSeed() throws PwmUnrecoverableException
     {
         return getWordlistBucket().randomSeed();
@@ -373,6 +390,7 @@ abstract class AbstractWordlist extends AbstractPwmService implements Wordlist,
         }
 
         wordTypesCache = null;
+        verdictCache.clear();
         wordlistBucket.writeWordlistStatus( wordlistStatus );
     }
 
@@ -31,6 +31,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
 
 public abstract class AbstractWordlistBucket implements WordlistBucket
 {
@@ -144,6 +145,18 @@ public abstract class AbstractWordlistBucket implements WordlistBucket
         return containsKey( word );
     }
 
+    @Override
+    public void populationComplete( final WordlistStatus wordlistStatus, final BooleanSupplier cancelFlag )
+            throws PwmUnrecoverableException
+    {
+    }
+
+    @Override
+    public void checkPopulation( final WordlistStatus wordlistStatus, final BooleanSupplier cancelFlag )
+            throws PwmUnrecoverableException
+    {
+    }
+
     abstract void putValues( Map<String, String> values )
             throws PwmUnrecoverableException;
 
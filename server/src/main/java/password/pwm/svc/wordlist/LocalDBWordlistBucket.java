@@ -25,16 +25,34 @@ import password.pwm.PwmApplication;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.util.java.FileSystemUtility;
+import password.pwm.util.java.TimeDuration;
 import password.pwm.util.localdb.LocalDB;
 import password.pwm.util.localdb.LocalDBException;
+import password.pwm.util.logging.PwmLogger;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 
 class LocalDBWordlistBucket extends AbstractWordlistBucket implements WordlistBucket
 {
+    private static final PwmLogger LOGGER = PwmLogger.forClass( LocalDBWordlistBucket.class );
+
+    private static final int FILTER_CANCEL_CHECK_INTERVAL = 10_000;
+
     private final LocalDB.DB db;
     private final LocalDB localDB;
 
+    private volatile WordlistBloomFilter wordFilter;
+
     LocalDBWordlistBucket(
             final PwmApplication pwmApplication,
             final WordlistConfiguration wordlistConfiguration,
@@ -50,6 +68,9 @@ class LocalDBWordlistBucket extends AbstractWordlistBucket implements WordlistBu
     void putValues( final Map<String, String> values )
             throws PwmUnrecoverableException
     {
+        // words added outside a completed import invalidate the filter until it is rebuilt
+        wordFilter = null;
+
         try
         {
             localDB.putAll( db, values );
@@ -78,6 +99,12 @@ class LocalDBWordlistBucket extends AbstractWordlistBucket implements WordlistBu
     boolean containsKey( final String key )
             throws PwmUnrecoverableException
     {
+        final WordlistBloomFilter filter = wordFilter;
+        if ( filter != null && !filter.mightContain( key ) )
+        {
+            return false;
+        }
+
         try
         {
             return pwmApplication.getLocalDB().contains( db, key );
@@ -105,6 +132,9 @@ class LocalDBWordlistBucket extends AbstractWordlistBucket implements WordlistBu
     @Override
     public void clear() throws PwmUnrecoverableException
     {
+        wordFilter = null;
+        deleteFilterFile();
+
         try
         {
             localDB.truncate( db );
@@ -135,4 +165,120 @@ class LocalDBWordlistBucket extends AbstractWordlistBucket implements WordlistBu
     {
         return FileSystemUtility.diskSpaceRemaining( localDB.getFileLocation() );
     }
+
+    @Override
+    public void checkPopulation( final WordlistStatus wordlistStatus, final BooleanSupplier cancelFlag )
+            throws PwmUnrecoverableException
+    {
+        if ( !isFilterUsable( wordlistStatus ) )
+        {
+            wordFilter = null;
+            return;
+        }
+
+        final long wordCount = size();
+        final WordlistBloomFilter currentFilter = wordFilter;
+        if ( currentFilter != null
+                && currentFilter.getItemCount() == wordCount
+                && currentFilter.getConfigHash().equals( wordlistStatus.getConfigHash() ) )
+        {
+            return;
+        }
+
+        final Optional<WordlistBloomFilter> storedFilter = WordlistBloomFilter.read( filterFile().toPath(), wordlistStatus.getConfigHash(), wordCount );
+        if ( storedFilter.isPresent() )
+        {
+            wordFilter = storedFilter.get();
+            LOGGER.debug( () -> "loaded " + type + " word filter for " + wordCount + " words from " + filterFile().getAbsolutePath() );
+            return;
+        }
+
+        populationComplete( wordlistStatus, cancelFlag );
+    }
+
+    @Override
+    public void populationComplete( final WordlistStatus wordlistStatus, final BooleanSupplier cancelFlag )
+            throws PwmUnrecoverableException
+    {
+        wordFilter = null;
+
+        if ( !isFilterUsable( wordlistStatus ) )
+        {
+            return;
+        }
+
+        final Instant startTime = Instant.now();
+        final WordlistBloomFilter newFilter = WordlistBloomFilter.newFilter(
+                size(),
+                wordlistConfiguration.getFilterBitsPerWord(),
+                wordlistStatus.getConfigHash() );
+
+        long wordCount = 0;
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( db ) )
+        {
+            while ( iterator.hasNext() )
+            {
+                newFilter.put( iterator.next().getKey() );
+                wordCount++;
+
+                if ( wordCount % FILTER_CANCEL_CHECK_INTERVAL == 0 && cancelFlag.getAsBoolean() )
+                {
+                    throw new CancellationException();
+                }
+            }
+        }
+        catch ( final LocalDBException e )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_LOCALDB_UNAVAILABLE, "error while building word filter: " + e.getMessage() );
+        }
+
+        final WordlistBloomFilter completedFilter = newFilter.withItemCount( wordCount );
+        try
+        {
+            completedFilter.write( filterFile().toPath() );
+        }
+        catch ( final IOException e )
+        {
+            LOGGER.warn( () -> "unable to write word filter file " + filterFile().getAbsolutePath() + ": " + e.getMessage() );
+        }
+
+        wordFilter = WordlistBloomFilter.read( filterFile().toPath(), wordlistStatus.getConfigHash(), wordCount )
+                .orElse( completedFilter );
+
+        final long finalWordCount = wordCount;
+        LOGGER.debug( () -> "built " + type + " word filter for " + finalWordCount + " words ("
+                + completedFilter.sizeInBytes() + " bytes)", () -> TimeDuration.fromCurrent( startTime ) );
+    }
+
+    private boolean isFilterUsable( final WordlistStatus wordlistStatus )
+    {
+        return type == WordlistType.WORDLIST
+                && wordlistConfiguration.getFilterBitsPerWord() > 0
+                && localDB.getFileLocation() != null
+                && wordlistStatus.isCompleted()
+                && Objects.equals( wordlistStatus.getConfigHash(), wordlistConfiguration.configHash() );
+    }
+
+    private File filterFile()
+    {
+        return new File( localDB.getFileLocation(), db.name().toLowerCase( Locale.ROOT ) + ".filter" );
+    }
+
+    private void deleteFilterFile()
+    {
+        if ( localDB.getFileLocation() == null )
+        {
+            return;
+        }
+
+        final Path path = filterFile().toPath();
+        try
+        {
+            Files.deleteIfExists( path );
+        }
+        catch ( final IOException e )
+        {
+            LOGGER.debug( () -> "unable to delete word filter file " + path + ": " + e.getMessage() );
+        }
+    }
 }
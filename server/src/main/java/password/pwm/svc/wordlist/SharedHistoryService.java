@@ -31,7 +31,9 @@ import password.pwm.bean.SessionLabel;
 import password.pwm.config.AppConfig;
 import password.pwm.config.PwmSetting;
 import password.pwm.config.option.DataStorageMethod;
+import password.pwm.error.PwmError;
 import password.pwm.error.PwmException;
+import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.health.HealthRecord;
 import password.pwm.svc.AbstractPwmService;
 import password.pwm.svc.PwmService;
@@ -82,6 +84,7 @@ public class SharedHistoryService extends AbstractPwmService implements PwmServi
     private long oldestEntry;
 
     private Settings settings = Settings.builder().build();
+    private WordVerdictCache verdictCache;
     private final Lock addWordLock = new ReentrantLock();
 
     public SharedHistoryService( )
@@ -113,6 +116,21 @@ public class SharedHistoryService extends AbstractPwmService implements PwmServi
             return false;
         }
 
+        try
+        {
+            return verdictCache.check( testWord, () -> checkWord( testWord ) );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            LOGGER.warn( getSessionLabel(), () -> e.getMessage() );
+        }
+
+        return false;
+    }
+
+    private boolean checkWord( final String testWord )
+            throws PwmUnrecoverableException
+    {
         //final long startTime = System.currentTimeMillis();
         boolean result = false;
 
@@ -133,7 +151,8 @@ public class SharedHistoryService extends AbstractPwmService implements PwmServi
         }
         catch ( final Exception e )
         {
-            LOGGER.warn( getSessionLabel(), () -> "error checking global history list: " + e.getMessage() );
+            // not cached, so a transient error is not remembered as a miss
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, "error checking global history list: " + e.getMessage() );
         }
 
         //LOGGER.trace(pwmSession, "successfully checked word, result=" + result + ", duration=" + new TimeDuration(System.currentTimeMillis(), startTime).asCompactString());
@@ -301,6 +320,9 @@ public class SharedHistoryService extends AbstractPwmService implements PwmServi
             final boolean preExisting = localDB.contains( WORDS_DB, hashedWord );
             localDB.put( WORDS_DB, hashedWord, Long.toString( System.currentTimeMillis() ) );
 
+            // invalidate only once the word is stored, a check running in between would otherwise re-cache a stale verdict
+            verdictCache.invalidate( addWord );
+
             LOGGER.trace( () -> ( preExisting ? "updated" : "added" ) + " word"
                     + " (" + TimeDuration.compactFromCurrent( startTime ) + ")"
                     + " (" + this.size() + " total words)" );
@@ -407,6 +429,11 @@ public class SharedHistoryService extends AbstractPwmService implements PwmServi
                 }
             }
 
+            if ( removeCount > 0 )
+            {
+                verdictCache.clear();
+            }
+
             //update the oldest entry
             if ( status() == STATUS.OPEN )
             {
@@ -435,6 +462,7 @@ public class SharedHistoryService extends AbstractPwmService implements PwmServi
             throws PwmException
     {
         settings = Settings.fromConfiguration( pwmApplication );
+        verdictCache = WordVerdictCache.fromConfiguration( pwmApplication.getConfig() );
 
         final int saltLength = Integer.parseInt( pwmApplication.getConfig().readAppProperty( AppProperty.SECURITY_SHAREDHISTORY_SALT_LENGTH ) );
         this.localDB = pwmApplication.getLocalDB();
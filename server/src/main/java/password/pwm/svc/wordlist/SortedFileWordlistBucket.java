@@ -0,0 +1,409 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import lombok.Value;
+import password.pwm.PwmApplication;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBException;
+import password.pwm.util.logging.PwmLogger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Wordlist bucket that stages imported words in LocalDB and, once the import completes, compiles them into an
+ * immutable {@link SortedWordlistFile}.  After compilation the staged LocalDB words are removed and all lookups are
+ * served from the memory-mapped file.
+ */
+class SortedFileWordlistBucket extends AbstractWordlistBucket implements WordlistBucket
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( SortedFileWordlistBucket.class );
+
+    private static final int SORT_RUN_SIZE = 250_000;
+
+    private final LocalDBWordlistBucket stagingBucket;
+    private final LocalDB localDB;
+    private final LocalDB.DB db;
+
+    private volatile SortedWordlistFile sortedFile;
+
+    SortedFileWordlistBucket(
+            final PwmApplication pwmApplication,
+            final WordlistConfiguration wordlistConfiguration,
+            final WordlistType type
+    )
+    {
+        super( pwmApplication, wordlistConfiguration, type );
+        this.stagingBucket = new LocalDBWordlistBucket( pwmApplication, wordlistConfiguration, type );
+        this.localDB = pwmApplication.getLocalDB();
+        this.db = wordlistConfiguration.getDb();
+
+        final WordlistStatus wordlistStatus = readWordlistStatus();
+        if ( isCompletedForConfig( wordlistStatus ) )
+        {
+            this.sortedFile = SortedWordlistFile.open( filePath(), wordlistStatus.getConfigHash() ).orElse( null );
+        }
+    }
+
+    @Override
+    void putValues( final Map<String, String> values )
+            throws PwmUnrecoverableException
+    {
+        stagingBucket.putValues( values );
+    }
+
+    @Override
+    boolean containsKey( final String key )
+            throws PwmUnrecoverableException
+    {
+        final SortedWordlistFile currentFile = sortedFile;
+        if ( currentFile != null )
+        {
+            return currentFile.contains( key );
+        }
+
+        return stagingBucket.containsKey( key );
+    }
+
+    @Override
+    String getValue( final String key )
+            throws PwmUnrecoverableException
+    {
+        return stagingBucket.getValue( key );
+    }
+
+    @Override
+    public long size()
+            throws PwmUnrecoverableException
+    {
+        final SortedWordlistFile currentFile = sortedFile;
+        if ( currentFile != null )
+        {
+            return currentFile.size();
+        }
+
+        return stagingBucket.size();
+    }
+
+    @Override
+    public void clear()
+            throws PwmUnrecoverableException
+    {
+        sortedFile = null;
+        try
+        {
+            Files.deleteIfExists( filePath() );
+        }
+        catch ( final IOException e )
+        {
+            LOGGER.debug( () -> "unable to delete sorted wordlist file " + filePath() + ": " + e.getMessage() );
+        }
+        stagingBucket.clear();
+    }
+
+    @Override
+    public WordlistStatus readWordlistStatus()
+    {
+        return stagingBucket.readWordlistStatus();
+    }
+
+    @Override
+    public void writeWordlistStatus( final WordlistStatus wordlistStatus )
+    {
+        stagingBucket.writeWordlistStatus( wordlistStatus );
+    }
+
+    @Override
+    public long spaceRemaining()
+    {
+        return stagingBucket.spaceRemaining();
+    }
+
+    @Override
+    public void populationComplete( final WordlistStatus wordlistStatus, final BooleanSupplier cancelFlag )
+            throws PwmUnrecoverableException
+    {
+        if ( !isCompletedForConfig( wordlistStatus ) )
+        {
+            return;
+        }
+
+        final Instant startTime = Instant.now();
+        final SortedWordlistFile compiledFile = compile( wordlistStatus, cancelFlag );
+        sortedFile = compiledFile;
+        stagingBucket.clear();
+
+        LOGGER.debug( () -> "compiled " + compiledFile.size() + " words to sorted wordlist file "
+                + filePath(), () -> TimeDuration.fromCurrent( startTime ) );
+    }
+
+    @Override
+    public void checkPopulation( final WordlistStatus wordlistStatus, final BooleanSupplier cancelFlag )
+            throws PwmUnrecoverableException
+    {
+        if ( !isCompletedForConfig( wordlistStatus ) )
+        {
+            return;
+        }
+
+        final SortedWordlistFile currentFile = sortedFile;
+        if ( currentFile != null && currentFile.getConfigHash().equals( wordlistStatus.getConfigHash() ) )
+        {
+            return;
+        }
+
+        final Optional<SortedWordlistFile> storedFile = SortedWordlistFile.open( filePath(), wordlistStatus.getConfigHash() );
+        if ( storedFile.isPresent() )
+        {
+            sortedFile = storedFile.get();
+            return;
+        }
+
+        if ( stagingBucket.size() > 0 )
+        {
+            LOGGER.debug( () -> "sorted wordlist file is missing but staged words are present, will compile" );
+            populationComplete( wordlistStatus, cancelFlag );
+            return;
+        }
+
+        LOGGER.warn( () -> "sorted wordlist file " + filePath() + " is missing or invalid, wordlist will be re-imported" );
+        writeWordlistStatus( WordlistStatus.builder().build() );
+    }
+
+    private boolean isCompletedForConfig( final WordlistStatus wordlistStatus )
+    {
+        return wordlistStatus.isCompleted()
+                && Objects.equals( wordlistStatus.getConfigHash(), wordlistConfiguration.configHash() );
+    }
+
+    private Path filePath()
+    {
+        return new File( localDB.getFileLocation(), db.name().toLowerCase( Locale.ROOT ) + ".sorted" ).toPath();
+    }
+
+    private SortedWordlistFile compile( final WordlistStatus wordlistStatus, final BooleanSupplier cancelFlag )
+            throws PwmUnrecoverableException
+    {
+        final List<SortRun> sortRuns = new ArrayList<>();
+        final Path tempPath = filePath().resolveSibling( filePath().getFileName() + ".tmp" );
+        try
+        {
+            final List<byte[]> runKeys = new ArrayList<>();
+            try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( db ) )
+            {
+                while ( iterator.hasNext() )
+                {
+                    runKeys.add( SortedWordlistFile.encodeKey( iterator.next().getKey() ) );
+                    if ( runKeys.size() >= SORT_RUN_SIZE )
+                    {
+                        sortRuns.add( writeSortRun( runKeys, sortRuns.size() ) );
+                        runKeys.clear();
+                        cancelCheck( cancelFlag );
+                    }
+                }
+            }
+            if ( !runKeys.isEmpty() )
+            {
+                sortRuns.add( writeSortRun( runKeys, sortRuns.size() ) );
+            }
+
+            try ( SortedWordlistFile.Writer writer = SortedWordlistFile.newWriter( tempPath, wordlistStatus.getConfigHash() ) )
+            {
+                mergeSortRuns( sortRuns, writer, cancelFlag );
+                writer.finish();
+            }
+
+            Files.move( tempPath, filePath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch ( final LocalDBException e )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_LOCALDB_UNAVAILABLE, "error reading staged words: " + e.getMessage() );
+        }
+        catch ( final IOException e )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_WORDLIST_IMPORT_ERROR, "error writing sorted wordlist file: " + e.getMessage() );
+        }
+        finally
+        {
+            for ( final SortRun sortRun : sortRuns )
+            {
+                deleteQuietly( sortRun.getPath() );
+            }
+            deleteQuietly( tempPath );
+        }
+
+        return SortedWordlistFile.open( filePath(), wordlistStatus.getConfigHash() )
+                .orElseThrow( () -> PwmUnrecoverableException.newException( PwmError.ERROR_WORDLIST_IMPORT_ERROR,
+                        "unable to open newly compiled sorted wordlist file " + filePath() ) );
+    }
+
+    private SortRun writeSortRun( final List<byte[]> keys, final int runNumber )
+            throws IOException
+    {
+        keys.sort( SortedWordlistFile::compareKeys );
+        final Path runPath = filePath().resolveSibling( filePath().getFileName() + ".run" + runNumber + ".tmp" );
+        try ( DataOutputStream outputStream = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( runPath ) ) ) )
+        {
+            for ( final byte[] key : keys )
+            {
+                outputStream.writeShort( key.length );
+                outputStream.write( key );
+            }
+        }
+        return new SortRun( runPath, keys.size() );
+    }
+
+    private static void mergeSortRuns(
+            final List<SortRun> sortRuns,
+            final SortedWordlistFile.Writer writer,
+            final BooleanSupplier cancelFlag
+    )
+            throws IOException
+    {
+        final PriorityQueue<SortRunReader> queue = new PriorityQueue<>(
+                Math.max( 1, sortRuns.size() ),
+                Comparator.comparing( SortRunReader::getCurrentKey, SortedWordlistFile::compareKeys ) );
+
+        final List<SortRunReader> readers = new ArrayList<>();
+        try
+        {
+            for ( final SortRun sortRun : sortRuns )
+            {
+                final SortRunReader reader = new SortRunReader( sortRun );
+                readers.add( reader );
+                if ( reader.advance() )
+                {
+                    queue.add( reader );
+                }
+            }
+
+            while ( !queue.isEmpty() )
+            {
+                final SortRunReader reader = queue.poll();
+                writer.add( reader.getCurrentKey() );
+                if ( reader.advance() )
+                {
+                    queue.add( reader );
+                }
+
+                if ( writer.getEntryCount() % SORT_RUN_SIZE == 0 )
+                {
+                    cancelCheck( cancelFlag );
+                }
+            }
+        }
+        finally
+        {
+            for ( final SortRunReader reader : readers )
+            {
+                reader.close();
+            }
+        }
+    }
+
+    private static void cancelCheck( final BooleanSupplier cancelFlag )
+    {
+        if ( cancelFlag.getAsBoolean() )
+        {
+            throw new CancellationException();
+        }
+    }
+
+    private static void deleteQuietly( final Path path )
+    {
+        try
+        {
+            Files.deleteIfExists( path );
+        }
+        catch ( final IOException e )
+        {
+            LOGGER.debug( () -> "unable to delete temporary file " + path + ": " + e.getMessage() );
+        }
+    }
+
+    @Value
+    private static class SortRun
+    {
+        private final Path path;
+        private final int count;
+    }
+
+    private static class SortRunReader
+    {
+        private final DataInputStream inputStream;
+        private int remaining;
+        private byte[] currentKey;
+
+        SortRunReader( final SortRun sortRun )
+                throws IOException
+        {
+            this.inputStream = new DataInputStream( new BufferedInputStream( Files.newInputStream( sortRun.getPath() ) ) );
+            this.remaining = sortRun.getCount();
+        }
+
+        boolean advance()
+                throws IOException
+        {
+            if ( remaining == 0 )
+            {
+                return false;
+            }
+
+            currentKey = new byte[ inputStream.readUnsignedShort() ];
+            inputStream.readFully( currentKey );
+            remaining--;
+            return true;
+        }
+
+        byte[] getCurrentKey()
+        {
+            return currentKey;
+        }
+
+        void close()
+                throws IOException
+        {
+            inputStream.close();
+        }
+    }
+}
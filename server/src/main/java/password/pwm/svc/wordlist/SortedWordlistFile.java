@@ -0,0 +1,470 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import password.pwm.util.logging.PwmLogger;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Immutable, sorted, prefix-compressed word file read through memory-mapped buffers.
+ *
+ * <p>Layout: a fixed size header, then blocks of up to {@link #BLOCK_ENTRIES} keys, then an index of block offsets.
+ * The first key of each block is stored in full and the remaining keys store only the suffix that differs from the
+ * previous key.  Lookups binary search the index using the first key of each block and then scan a single block.
+ * Blocks never span a mapped segment so files larger than a single {@link java.nio.MappedByteBuffer} are supported.</p>
+ *
+ * <p>Keys are compared as unsigned bytes.  Raw words are stored as UTF-8 and hashed {@link WordType} values are
+ * stored as their binary hash rather than hex, each with a leading type byte.</p>
+ */
+class SortedWordlistFile
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( SortedWordlistFile.class );
+
+    private static final int MAGIC = 0x50575346;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 256;
+    private static final int BLOCK_ENTRIES = 64;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final ByteBuffer[] segments;
+    private final long entryCount;
+    private final long blockCount;
+    private final long indexOffset;
+    private final int maxKeyLength;
+    private final String configHash;
+
+    private SortedWordlistFile(
+            final ByteBuffer[] segments,
+            final long entryCount,
+            final long blockCount,
+            final long indexOffset,
+            final int maxKeyLength,
+            final String configHash
+    )
+    {
+        this.segments = segments;
+        this.entryCount = entryCount;
+        this.blockCount = blockCount;
+        this.indexOffset = indexOffset;
+        this.maxKeyLength = maxKeyLength;
+        this.configHash = configHash;
+    }
+
+    static byte[] encodeKey( final String storedWord )
+    {
+        for ( final WordType wordType : WordType.values() )
+        {
+            final Optional<byte[]> hashBytes = wordType.storedValueToHashBytes( storedWord );
+            if ( hashBytes.isPresent() )
+            {
+                final byte[] output = new byte[ hashBytes.get().length + 1 ];
+                output[0] = ( byte ) wordType.ordinal();
+                System.arraycopy( hashBytes.get(), 0, output, 1, hashBytes.get().length );
+                return output;
+            }
+        }
+
+        final byte[] wordBytes = storedWord.getBytes( StandardCharsets.UTF_8 );
+        final byte[] output = new byte[ wordBytes.length + 1 ];
+        output[0] = ( byte ) WordType.RAW.ordinal();
+        System.arraycopy( wordBytes, 0, output, 1, wordBytes.length );
+        return output;
+    }
+
+    static int compareKeys( final byte[] key1, final byte[] key2 )
+    {
+        return Arrays.compareUnsigned( key1, key2 );
+    }
+
+    static Writer newWriter( final Path path, final String configHash )
+            throws IOException
+    {
+        return new Writer( path, configHash );
+    }
+
+    /**
+     * Map a previously written file.  Returns empty if the file is missing, unreadable or was built for a different configuration.
+     */
+    static Optional<SortedWordlistFile> open( final Path path, final String expectedConfigHash )
+    {
+        if ( !Files.isRegularFile( path ) )
+        {
+            return Optional.empty();
+        }
+
+        try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.READ ) )
+        {
+            final long fileSize = channel.size();
+            if ( fileSize < HEADER_SIZE )
+            {
+                return Optional.empty();
+            }
+
+            final ByteBuffer header = channel.map( FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE );
+            if ( header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION )
+            {
+                LOGGER.debug( () -> "ignoring sorted wordlist file '" + path + "' with unknown format" );
+                return Optional.empty();
+            }
+
+            final long entryCount = header.getLong();
+            final long blockCount = header.getLong();
+            final long indexOffset = header.getLong();
+            final int maxKeyLength = header.getInt();
+            final int hashLength = header.getInt();
+            if ( hashLength < 0 || hashLength > header.remaining() || indexOffset + blockCount * Long.BYTES != fileSize )
+            {
+                return Optional.empty();
+            }
+            final byte[] hashBytes = new byte[ hashLength ];
+            header.get( hashBytes );
+            final String configHash = new String( hashBytes, StandardCharsets.UTF_8 );
+
+            if ( !configHash.equals( expectedConfigHash ) )
+            {
+                LOGGER.debug( () -> "ignoring stale sorted wordlist file '" + path + "'" );
+                return Optional.empty();
+            }
+
+            final int segmentCount = ( int ) ( ( fileSize + SEGMENT_SIZE - 1 ) >>> SEGMENT_SHIFT );
+            final ByteBuffer[] segments = new ByteBuffer[ segmentCount ];
+            for ( int i = 0; i < segmentCount; i++ )
+            {
+                final long segmentStart = ( long ) i << SEGMENT_SHIFT;
+                segments[i] = channel.map( FileChannel.MapMode.READ_ONLY, segmentStart, Math.min( SEGMENT_SIZE, fileSize - segmentStart ) );
+            }
+
+            return Optional.of( new SortedWordlistFile( segments, entryCount, blockCount, indexOffset, maxKeyLength, configHash ) );
+        }
+        catch ( final IOException e )
+        {
+            LOGGER.debug( () -> "unable to read sorted wordlist file '" + path + "': " + e.getMessage() );
+        }
+
+        return Optional.empty();
+    }
+
+    long size()
+    {
+        return entryCount;
+    }
+
+    String getConfigHash()
+    {
+        return configHash;
+    }
+
+    boolean contains( final String storedWord )
+    {
+        return contains( encodeKey( storedWord ) );
+    }
+
+    boolean contains( final byte[] key )
+    {
+        if ( blockCount == 0 || key.length > maxKeyLength )
+        {
+            return false;
+        }
+
+        final byte[] scratch = new byte[ maxKeyLength ];
+
+        // find the last block whose first key is <= key
+        long low = 0;
+        long high = blockCount - 1;
+        while ( low < high )
+        {
+            final long mid = ( low + high + 1 ) >>> 1;
+            final Cursor cursor = new Cursor( blockOffset( mid ) );
+            cursor.readVarInt();
+            final int firstKeyLength = cursor.readEntry( scratch, 0 );
+            final int comparison = Arrays.compareUnsigned( scratch, 0, firstKeyLength, key, 0, key.length );
+            if ( comparison == 0 )
+            {
+                return true;
+            }
+            if ( comparison < 0 )
+            {
+                low = mid;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+
+        final Cursor cursor = new Cursor( blockOffset( low ) );
+        final int entries = cursor.readVarInt();
+        int keyLength = 0;
+        for ( int i = 0; i < entries; i++ )
+        {
+            keyLength = cursor.readEntry( scratch, keyLength );
+            final int comparison = Arrays.compareUnsigned( scratch, 0, keyLength, key, 0, key.length );
+            if ( comparison == 0 )
+            {
+                return true;
+            }
+            if ( comparison > 0 )
+            {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    private long blockOffset( final long block )
+    {
+        final long position = indexOffset + block * Long.BYTES;
+        return segments[ ( int ) ( position >>> SEGMENT_SHIFT ) ].getLong( ( int ) ( position & SEGMENT_MASK ) );
+    }
+
+    private class Cursor
+    {
+        private final ByteBuffer segment;
+        private int position;
+
+        Cursor( final long offset )
+        {
+            this.segment = segments[ ( int ) ( offset >>> SEGMENT_SHIFT ) ];
+            this.position = ( int ) ( offset & SEGMENT_MASK );
+        }
+
+        int readVarInt()
+        {
+            int value = 0;
+            int shift = 0;
+            byte next;
+            do
+            {
+                next = segment.get( position++ );
+                value |= ( next & 0x7F ) << shift;
+                shift += 7;
+            }
+            while ( ( next & 0x80 ) != 0 );
+            return value;
+        }
+
+        /**
+         * Read the next prefix-compressed entry into {@code keyBuffer}, which must hold the previous key, and return the new key length.
+         */
+        int readEntry( final byte[] keyBuffer, final int previousLength )
+        {
+            final int shared = Math.min( readVarInt(), previousLength );
+            final int suffixLength = readVarInt();
+            for ( int i = 0; i < suffixLength; i++ )
+            {
+                keyBuffer[shared + i] = segment.get( position++ );
+            }
+            return shared + suffixLength;
+        }
+    }
+
+    /**
+     * Writes a new file from keys supplied in ascending order.  Duplicate keys are skipped.
+     */
+    static class Writer implements Closeable
+    {
+        private final Path path;
+        private final String configHash;
+        private final OutputStream outputStream;
+        private final ByteArrayOutputStream blockBuffer = new ByteArrayOutputStream();
+
+        private long[] blockOffsets = new long[ 1024 ];
+        private long blockCount;
+        private long position = HEADER_SIZE;
+        private long entryCount;
+        private int entriesInBlock;
+        private int maxKeyLength;
+        private byte[] previousKey;
+        private boolean finished;
+
+        private Writer( final Path path, final String configHash )
+                throws IOException
+        {
+            this.path = path;
+            this.configHash = configHash;
+            this.outputStream = new BufferedOutputStream( Files.newOutputStream( path ), 64 * 1024 );
+            outputStream.write( new byte[ HEADER_SIZE ] );
+        }
+
+        void add( final byte[] key )
+                throws IOException
+        {
+            if ( previousKey != null )
+            {
+                final int comparison = compareKeys( previousKey, key );
+                if ( comparison == 0 )
+                {
+                    return;
+                }
+                if ( comparison > 0 )
+                {
+                    throw new IllegalArgumentException( "keys must be added in ascending order" );
+                }
+            }
+
+            final int shared = entriesInBlock == 0 ? 0 : sharedPrefixLength( previousKey, key );
+            writeVarInt( blockBuffer, shared );
+            writeVarInt( blockBuffer, key.length - shared );
+            blockBuffer.write( key, shared, key.length - shared );
+
+            previousKey = key;
+            maxKeyLength = Math.max( maxKeyLength, key.length );
+            entryCount++;
+            entriesInBlock++;
+
+            if ( entriesInBlock >= BLOCK_ENTRIES )
+            {
+                flushBlock();
+            }
+        }
+
+        long getEntryCount()
+        {
+            return entryCount;
+        }
+
+        void finish()
+                throws IOException
+        {
+            flushBlock();
+
+            // align the index so no entry spans a segment
+            while ( position % Long.BYTES != 0 )
+            {
+                outputStream.write( 0 );
+                position++;
+            }
+
+            final long indexOffset = position;
+            final ByteBuffer longBuffer = ByteBuffer.allocate( Long.BYTES );
+            for ( long i = 0; i < blockCount; i++ )
+            {
+                longBuffer.clear();
+                longBuffer.putLong( blockOffsets[ ( int ) i ] );
+                outputStream.write( longBuffer.array() );
+            }
+            outputStream.close();
+
+            final byte[] hashBytes = configHash.getBytes( StandardCharsets.UTF_8 );
+            final ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+            header.putInt( MAGIC );
+            header.putInt( FORMAT_VERSION );
+            header.putLong( entryCount );
+            header.putLong( blockCount );
+            header.putLong( indexOffset );
+            header.putInt( maxKeyLength );
+            header.putInt( hashBytes.length );
+            header.put( hashBytes );
+            header.clear();
+
+            try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.WRITE ) )
+            {
+                while ( header.hasRemaining() )
+                {
+                    channel.write( header, header.position() );
+                }
+                channel.force( true );
+            }
+            finished = true;
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            if ( !finished )
+            {
+                outputStream.close();
+            }
+        }
+
+        private void flushBlock()
+                throws IOException
+        {
+            if ( entriesInBlock == 0 )
+            {
+                return;
+            }
+
+            final ByteArrayOutputStream countBytes = new ByteArrayOutputStream( 5 );
+            writeVarInt( countBytes, entriesInBlock );
+            final long blockLength = countBytes.size() + blockBuffer.size();
+
+            // blocks must be readable from a single mapped segment
+            if ( ( position & SEGMENT_MASK ) + blockLength > SEGMENT_SIZE )
+            {
+                final long padding = SEGMENT_SIZE - ( position & SEGMENT_MASK );
+                for ( long i = 0; i < padding; i++ )
+                {
+                    outputStream.write( 0 );
+                }
+                position += padding;
+            }
+
+            if ( blockCount == blockOffsets.length )
+            {
+                blockOffsets = Arrays.copyOf( blockOffsets, blockOffsets.length * 2 );
+            }
+            blockOffsets[ ( int ) blockCount++ ] = position;
+
+            countBytes.writeTo( outputStream );
+            blockBuffer.writeTo( outputStream );
+            position += blockLength;
+
+            blockBuffer.reset();
+            entriesInBlock = 0;
+        }
+
+        private static int sharedPrefixLength( final byte[] key1, final byte[] key2 )
+        {
+            final int mismatch = Arrays.mismatch( key1, key2 );
+            return mismatch < 0 ? key1.length : mismatch;
+        }
+
+        private static void writeVarInt( final OutputStream outputStream, final int input )
+                throws IOException
+        {
+            int value = input;
+            while ( ( value & ~0x7F ) != 0 )
+            {
+                outputStream.write( ( value & 0x7F ) | 0x80 );
+                value >>>= 7;
+            }
+            outputStream.write( value );
+        }
+    }
+}
@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.regex.Pattern;
 
 public enum WordType
@@ -100,6 +101,38 @@ public enum WordType
         return hash.toLowerCase() + DELIMITER + name();
     }
 
+    /**
+     * Decode a stored value produced by this (non-raw) type back to its binary hash, or empty if the value
+     * is not a stored hash of this type.
+     */
+    Optional<byte[]> storedValueToHashBytes( final String storedValue )
+    {
+        if ( this == RAW )
+        {
+            return Optional.empty();
+        }
+
+        final int hexLength = hashAlgorithm.getHexValueLength();
+        if ( storedValue.length() != hexLength + DELIMITER.length() + name().length()
+                || !storedValue.endsWith( DELIMITER + name() ) )
+        {
+            return Optional.empty();
+        }
+
+        final byte[] output = new byte[ hexLength / 2 ];
+        for ( int i = 0; i < output.length; i++ )
+        {
+            final int high = Character.digit( storedValue.charAt( i * 2 ), 16 );
+            final int low = Character.digit( storedValue.charAt( i * 2 + 1 ), 16 );
+            if ( high < 0 || low < 0 || Character.isUpperCase( storedValue.charAt( i * 2 ) ) || Character.isUpperCase( storedValue.charAt( i * 2 + 1 ) ) )
+            {
+                return Optional.empty();
+            }
+            output[i] = ( byte ) ( ( high << 4 ) | low );
+        }
+        return Optional.of( output );
+    }
+
     public static WordType determineWordType( final String input )
     {
         Objects.requireNonNull( input );
@@ -0,0 +1,142 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import password.pwm.AppProperty;
+import password.pwm.PwmConstants;
+import password.pwm.config.AppConfig;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.java.JavaHelper;
+import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.secure.PwmHashAlgorithm;
+import password.pwm.util.secure.PwmRandom;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+/**
+ * Short-lived, size-bounded cache of word check verdicts.  A single password change typically checks the same
+ * candidate several times (rule validation, strength meter and REST checks), so repeat checks are answered from
+ * here instead of being re-hashed and looked up again.
+ *
+ * <p>Cached words are keyed by a hash salted with a random per-instance value which is never persisted, so candidate
+ * passwords are not retained in the heap.</p>
+ */
+class WordVerdictCache
+{
+    private static final PwmHashAlgorithm KEY_HASH_ALGORITHM = PwmHashAlgorithm.SHA256;
+
+    private final Cache<String, Boolean> verdicts;
+    private final byte[] salt = PwmRandom.getInstance().newBytes( 32 );
+    private final StatisticCounterBundle<DebugKey> stats = new StatisticCounterBundle<>( DebugKey.class );
+
+    enum DebugKey
+    {
+        hits,
+        misses,
+    }
+
+    WordVerdictCache( final int maxEntries, final TimeDuration lifetime )
+    {
+        this.verdicts = maxEntries > 0 && lifetime.asMillis() > 0
+                ? Caffeine.newBuilder()
+                .maximumSize( maxEntries )
+                .expireAfterWrite( lifetime.asDuration() )
+                .build()
+                : null;
+    }
+
+    static WordVerdictCache fromConfiguration( final AppConfig appConfig )
+    {
+        return new WordVerdictCache(
+                Integer.parseInt( appConfig.readAppProperty( AppProperty.WORDLIST_VERDICT_CACHE_MAX_ENTRIES ) ),
+                appConfig.readDurationAppProperty( AppProperty.WORDLIST_VERDICT_CACHE_LIFETIME_MS ) );
+    }
+
+    /**
+     * Return the cached verdict for {@code word}, or run {@code wordCheck} and cache its result.
+     */
+    boolean check( final String word, final WordCheck wordCheck )
+            throws PwmUnrecoverableException
+    {
+        if ( verdicts == null )
+        {
+            return wordCheck.check();
+        }
+
+        final String key = makeKey( word );
+        final Boolean cachedVerdict = verdicts.getIfPresent( key );
+        if ( cachedVerdict != null )
+        {
+            stats.increment( DebugKey.hits );
+            return cachedVerdict;
+        }
+
+        stats.increment( DebugKey.misses );
+        final boolean verdict = wordCheck.check();
+        verdicts.put( key, verdict );
+        return verdict;
+    }
+
+    void invalidate( final String word )
+    {
+        if ( verdicts != null )
+        {
+            verdicts.invalidate( makeKey( word ) );
+        }
+    }
+
+    void clear()
+    {
+        if ( verdicts != null )
+        {
+            verdicts.invalidateAll();
+        }
+    }
+
+    Map<String, String> debugStats()
+    {
+        return stats.debugStats();
+    }
+
+    private String makeKey( final String word )
+    {
+        try
+        {
+            final MessageDigest messageDigest = MessageDigest.getInstance( KEY_HASH_ALGORITHM.getAlgName() );
+            messageDigest.update( salt );
+            return JavaHelper.binaryArrayToHex( messageDigest.digest( word.getBytes( PwmConstants.DEFAULT_CHARSET ) ) );
+        }
+        catch ( final NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( "missing hash algorithm: " + e.getMessage() );
+        }
+    }
+
+    interface WordCheck
+    {
+        boolean check() throws PwmUnrecoverableException;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import password.pwm.util.logging.PwmLogger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Probabilistic front index for a stored wordlist.  A negative answer from {@link #mightContain(String)} is
+ * definitive, so the (very common) wordlist miss can be answered without reading the backing store.
+ *
+ * <p>Filters are built on the heap during import, then persisted to a file and read back as a read-only
+ * memory-mapped buffer.  The file header records the wordlist config hash and word count it was built for so
+ * stale files are never used.</p>
+ */
+class WordlistBloomFilter
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( WordlistBloomFilter.class );
+
+    private static final int MAGIC = 0x50574246;
+    private static final int FORMAT_VERSION = 1;
+    private static final long MAX_BITS = ( Integer.MAX_VALUE - 1024L ) * Byte.SIZE;
+
+    private final ByteBuffer bits;
+    private final long numBits;
+    private final int numHashes;
+    private final long itemCount;
+    private final String configHash;
+
+    private WordlistBloomFilter(
+            final ByteBuffer bits,
+            final long numBits,
+            final int numHashes,
+            final long itemCount,
+            final String configHash
+    )
+    {
+        this.bits = bits;
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.itemCount = itemCount;
+        this.configHash = configHash;
+    }
+
+    static WordlistBloomFilter newFilter( final long expectedItems, final int bitsPerWord, final String configHash )
+    {
+        if ( bitsPerWord < 1 )
+        {
+            throw new IllegalArgumentException( "bitsPerWord must be greater than zero" );
+        }
+
+        final long requestedBits = Math.max( expectedItems, 1 ) * bitsPerWord;
+        final long numBits = Math.min( MAX_BITS, ( ( requestedBits + Byte.SIZE - 1 ) / Byte.SIZE ) * Byte.SIZE );
+        final int numHashes = Math.max( 1, ( int ) Math.round( bitsPerWord * Math.log( 2 ) ) );
+        final ByteBuffer bits = ByteBuffer.allocate( ( int ) ( numBits / Byte.SIZE ) );
+        return new WordlistBloomFilter( bits, numBits, numHashes, 0, Objects.requireNonNull( configHash ) );
+    }
+
+    /**
+     * Add a word to a heap filter created with {@link #newFilter(long, int, String)}.  Filters read from disk are read-only.
+     */
+    void put( final String word )
+    {
+        final long hash1 = hash( word );
+        final long hash2 = mix( hash1 ) | 1;
+        for ( int i = 0; i < numHashes; i++ )
+        {
+            final long bitIndex = Math.floorMod( hash1 + i * hash2, numBits );
+            final int byteIndex = ( int ) ( bitIndex >>> 3 );
+            bits.put( byteIndex, ( byte ) ( bits.get( byteIndex ) | ( 1 << ( bitIndex & 7 ) ) ) );
+        }
+    }
+
+    WordlistBloomFilter withItemCount( final long itemCount )
+    {
+        return new WordlistBloomFilter( bits, numBits, numHashes, itemCount, configHash );
+    }
+
+    boolean mightContain( final String word )
+    {
+        final long hash1 = hash( word );
+        final long hash2 = mix( hash1 ) | 1;
+        for ( int i = 0; i < numHashes; i++ )
+        {
+            final long bitIndex = Math.floorMod( hash1 + i * hash2, numBits );
+            if ( ( bits.get( ( int ) ( bitIndex >>> 3 ) ) & ( 1 << ( bitIndex & 7 ) ) ) == 0 )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getItemCount()
+    {
+        return itemCount;
+    }
+
+    String getConfigHash()
+    {
+        return configHash;
+    }
+
+    long sizeInBytes()
+    {
+        return numBits / Byte.SIZE;
+    }
+
+    /**
+     * Persist the filter to {@code path}.  The file is written to a temporary sibling and then moved into place
+     * so readers never map a partially written file.
+     */
+    void write( final Path path )
+            throws IOException
+    {
+        final byte[] hashBytes = configHash.getBytes( StandardCharsets.UTF_8 );
+        final ByteBuffer header = ByteBuffer.allocate( Integer.BYTES * 4 + Long.BYTES * 2 + hashBytes.length );
+        header.putInt( MAGIC );
+        header.putInt( FORMAT_VERSION );
+        header.putInt( numHashes );
+        header.putLong( numBits );
+        header.putLong( itemCount );
+        header.putInt( hashBytes.length );
+        header.put( hashBytes );
+        header.flip();
+
+        final Path tempPath = path.resolveSibling( path.getFileName() + ".tmp" );
+        try ( FileChannel channel = FileChannel.open( tempPath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE ) )
+        {
+            final ByteBuffer data = bits.duplicate();
+            data.clear();
+            while ( header.hasRemaining() )
+            {
+                channel.write( header );
+            }
+            while ( data.hasRemaining() )
+            {
+                channel.write( data );
+            }
+            channel.force( true );
+        }
+        Files.move( tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    /**
+     * Map a previously written filter.  Returns empty if the file is missing, unreadable or was built for a
+     * different configuration or word count.
+     */
+    static Optional<WordlistBloomFilter> read( final Path path, final String expectedConfigHash, final long expectedItemCount )
+    {
+        if ( !Files.isRegularFile( path ) )
+        {
+            return Optional.empty();
+        }
+
+        try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.READ ) )
+        {
+            final ByteBuffer mapped = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+
+            if ( mapped.remaining() < Integer.BYTES * 4 + Long.BYTES * 2
+                    || mapped.getInt() != MAGIC
+                    || mapped.getInt() != FORMAT_VERSION )
+            {
+                LOGGER.debug( () -> "ignoring wordlist filter file '" + path + "' with unknown format" );
+                return Optional.empty();
+            }
+
+            final int numHashes = mapped.getInt();
+            final long numBits = mapped.getLong();
+            final long itemCount = mapped.getLong();
+            final int hashLength = mapped.getInt();
+            if ( hashLength < 0 || hashLength > mapped.remaining() )
+            {
+                return Optional.empty();
+            }
+            final byte[] hashBytes = new byte[ hashLength ];
+            mapped.get( hashBytes );
+            final String configHash = new String( hashBytes, StandardCharsets.UTF_8 );
+
+            if ( !configHash.equals( expectedConfigHash ) || itemCount != expectedItemCount )
+            {
+                LOGGER.debug( () -> "ignoring stale wordlist filter file '" + path + "'" );
+                return Optional.empty();
+            }
+
+            if ( numHashes < 1 || numBits < Byte.SIZE || mapped.remaining() != numBits / Byte.SIZE )
+            {
+                return Optional.empty();
+            }
+
+            return Optional.of( new WordlistBloomFilter( mapped.slice(), numBits, numHashes, itemCount, configHash ) );
+        }
+        catch ( final IOException e )
+        {
+            LOGGER.debug( () -> "unable to read wordlist filter file '" + path + "': " + e.getMessage() );
+        }
+
+        return Optional.empty();
+    }
+
+    private static long hash( final String word )
+    {
+        // FNV-1a over the utf-16 chars; the finalizer below spreads the low bits used for small filters
+        long hash = 0xcbf29ce484222325L;
+        for ( int i = 0; i < word.length(); i++ )
+        {
+            hash ^= word.charAt( i );
+            hash *= 0x100000001b3L;
+        }
+        return mix( hash );
+    }
+
+    private static long mix( final long input )
+    {
+        long value = input;
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
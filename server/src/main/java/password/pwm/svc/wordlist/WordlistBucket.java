@@ -23,6 +23,7 @@ package password.pwm.svc.wordlist;
 import password.pwm.error.PwmUnrecoverableException;
 
 import java.util.Collection;
+import java.util.function.BooleanSupplier;
 
 public interface WordlistBucket
 {
@@ -43,4 +44,16 @@ public interface WordlistBucket
     void writeWordlistStatus( WordlistStatus wordlistStatus );
 
     long spaceRemaining();
+
+    /**
+     * Called once an import has stored all words, before lookups against the completed wordlist begin.
+     */
+    void populationComplete( WordlistStatus wordlistStatus, BooleanSupplier cancelFlag )
+            throws PwmUnrecoverableException;
+
+    /**
+     * Called periodically for an existing completed wordlist to verify or restore any derived storage.
+     */
+    void checkPopulation( WordlistStatus wordlistStatus, BooleanSupplier cancelFlag )
+            throws PwmUnrecoverableException;
 }
@@ -64,6 +64,8 @@ public class WordlistConfiguration implements Serializable
     private final PwmSetting wordlistFilenameSetting;
     private final boolean testMode;
     private final int warmupLookups;
+    private final int filterBitsPerWord;
+    private final boolean sortedFileStorage;
 
     @Builder.Default
     private final Collection<String> commentPrefixes = new ArrayList<>();
@@ -79,6 +81,8 @@ public class WordlistConfiguration implements Serializable
     private final int importMaxTransactions;
     private final long importMaxChars;
     private final long importMinFreeSpace;
+    private final int importBatchLines;
+    private final int importNormalizeThreads;
 
     private final TimeDuration inspectorFrequency;
 
@@ -110,6 +114,7 @@ public class WordlistConfiguration implements Serializable
                         .builtInWordlistLocationProperty( AppProperty.WORDLIST_BUILTIN_PATH )
                         .db( LocalDB.DB.WORDLIST_WORDS )
                         .wordlistFilenameSetting( PwmSetting.WORDLIST_FILENAME )
+                        .sortedFileStorage( Boolean.parseBoolean( appConfig.readAppProperty( AppProperty.WORDLIST_SORTED_FILE_ENABLE ) ) )
                         .build();
             }
 
@@ -130,6 +135,7 @@ public class WordlistConfiguration implements Serializable
                 .minWordSize( Integer.parseInt( appConfig.readAppProperty( AppProperty.WORDLIST_CHAR_LENGTH_MIN ) ) )
                 .maxWordSize( Integer.parseInt( appConfig.readAppProperty( AppProperty.WORDLIST_CHAR_LENGTH_MAX ) ) )
                 .warmupLookups( Integer.parseInt( appConfig.readAppProperty( AppProperty.WORDLIST_WARMUP_COUNT ) ) )
+                .filterBitsPerWord( Integer.parseInt( appConfig.readAppProperty( AppProperty.WORDLIST_FILTER_BITS_PER_WORD ) ) )
                 .bucketCheckLogWarningTimeout( appConfig.readDurationAppProperty( AppProperty.WORDLIST_BUCKET_CHECK_WARNING_TIMEOUT_MS ) )
                 .autoImportRecheckDuration( appConfig.readDurationAppProperty( AppProperty.WORDLIST_IMPORT_AUTO_IMPORT_RECHECK_SECONDS ) )
                 .importDurationGoal( appConfig.readDurationAppProperty( AppProperty.WORDLIST_IMPORT_DURATION_GOAL_MS ) )
@@ -140,6 +146,8 @@ public class WordlistConfiguration implements Serializable
                 .importMinFreeSpace( JavaHelper.silentParseLong( appConfig.readAppProperty( AppProperty.WORDLIST_IMPORT_MIN_FREE_SPACE ), 100_000_000 ) )
                 .importPauseDuration( appConfig.readDurationAppProperty( AppProperty.WORDLIST_IMPORT_PAUSE_DURATION_MS ) )
                 .importPauseFrequency( appConfig.readDurationAppProperty( AppProperty.WORDLIST_IMPORT_PAUSE_FREQUENCY_MS ) )
+                .importBatchLines( Integer.parseInt( appConfig.readAppProperty( AppProperty.WORDLIST_IMPORT_BATCH_LINES ) ) )
+                .importNormalizeThreads( Integer.parseInt( appConfig.readAppProperty( AppProperty.WORDLIST_IMPORT_NORMALIZE_THREADS ) ) )
                 .build();
     }
 
@@ -20,6 +20,7 @@
 
 package password.pwm.svc.wordlist;
 
+import lombok.Value;
 import org.apache.commons.io.IOUtils;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
@@ -35,18 +36,32 @@ import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BooleanSupplier;
 
 /**
+ * Imports a zipped wordlist into the wordlist bucket.  The import runs as a three stage pipeline connected by a bounded
+ * queue: the calling thread reads and batches lines, a pool of threads normalizes each batch, and a single writer thread
+ * merges normalized batches in order into sorted transactions.  After each transaction the status is checkpointed with
+ * the line and byte counts of the last written batch, so an interrupted import resumes at batch granularity.
+ *
  * @author Jason D. Rivard
  */
 class WordlistImporter implements Runnable
@@ -62,6 +77,9 @@ class WordlistImporter implements Runnable
     private final BooleanSupplier cancelFlag;
     private final StatisticAverageBundle<StatKey> importStatistics = new StatisticAverageBundle<>( StatKey.class );
     private final ConditionalTaskExecutor pauseTimer;
+    private final int batchLines;
+    private final int normalizeThreads;
+    private final BlockingQueue<Future<NormalizedBatch>> writeQueue;
 
     private long charsInBuffer;
     private ErrorInformation exitError;
@@ -71,6 +89,13 @@ class WordlistImporter implements Runnable
     private final Map<WordType, LongAdder> seenWordTypes = new EnumMap<>( WordType.class );
     private boolean completed;
 
+    private volatile long checkpointLines;
+    private volatile long checkpointBytes;
+    private long pendingCheckpointLines;
+    private long pendingCheckpointBytes;
+
+    private static final NormalizedBatch END_OF_INPUT = new NormalizedBatch( Collections.emptySet(), Collections.emptyMap(), 0, 0, 0 );
+
     private enum StatKey
     {
         charsPerTransaction( DebugKey.CharsPerTxn ),
@@ -104,6 +129,7 @@ class WordlistImporter implements Runnable
         EstimatedRemainingTime,
         WordsImported,
         DiskFreeSpace,
+        LinesCheckpoint,
         ZipFile,
         WordTypes,
         MsPerTxn,
@@ -131,6 +157,10 @@ class WordlistImporter implements Runnable
 
         final WordlistConfiguration wordlistConfiguration = rootWordlist.getConfiguration();
 
+        this.batchLines = Math.max( 1, wordlistConfiguration.getImportBatchLines() );
+        this.normalizeThreads = Math.max( 1, wordlistConfiguration.getImportNormalizeThreads() );
+        this.writeQueue = new ArrayBlockingQueue<>( normalizeThreads * 4 );
+
         this.transactionCalculator = new TransactionSizeCalculator(
                 TransactionSizeCalculator.Settings.builder()
                         .durationGoal( wordlistConfiguration.getImportDurationGoal() )
@@ -199,6 +229,9 @@ class WordlistImporter implements Runnable
         previousImportDuration = TimeDuration.of( rootWordlist.readWordlistStatus().getImportMs(), TimeDuration.Unit.MILLISECONDS );
 
         final long previousBytesRead = rootWordlist.readWordlistStatus().getBytes();
+        final long previousLinesRead = rootWordlist.readWordlistStatus().getLines();
+        checkpointBytes = previousBytesRead;
+        checkpointLines = previousLinesRead;
 
         for ( final Map.Entry<WordType, Long> entry : rootWordlist.readWordlistStatus().getWordTypes().entrySet() )
         {
@@ -213,7 +246,7 @@ class WordlistImporter implements Runnable
         }
         else if ( previousBytesRead > 0 )
         {
-            skipForward( previousBytesRead );
+            skipForward( previousBytesRead, previousLinesRead );
         }
     }
 
@@ -222,14 +255,13 @@ class WordlistImporter implements Runnable
     {
         rootWordlist.setActivity( Wordlist.Activity.Importing );
 
-        final ConditionalTaskExecutor metaUpdater = ConditionalTaskExecutor.forPeriodicTask(
-                this::writeCurrentWordlistStatus,
-                TimeDuration.SECONDS_10.asDuration() );
-
         final ConditionalTaskExecutor debugOutputter = ConditionalTaskExecutor.forPeriodicTask(
                 () -> getLogger().debug( rootWordlist.getSessionLabel(), this::makeStatString ),
                 AbstractWordlist.DEBUG_OUTPUT_FREQUENCY.asDuration() );
 
+        final ExecutorService normalizeExecutor = rootWordlist.makeImportExecutor( "normalize", normalizeThreads );
+        final ExecutorService writeExecutor = rootWordlist.makeImportExecutor( "write", 1 );
+
         try
         {
             debugOutputter.conditionallyExecuteTask();
@@ -239,89 +271,259 @@ class WordlistImporter implements Runnable
             startTime = Instant.now();
 
             getLogger().debug( rootWordlist.getSessionLabel(), () -> "beginning import: " + JsonFactory.get().serialize( rootWordlist.readWordlistStatus() ) );
-            Instant lastTxnInstant = Instant.now();
 
-            final long importMaxChars = rootWordlist.getConfiguration().getImportMaxChars();
+            final Future<Void> writerFuture = writeExecutor.submit( () ->
+            {
+                writeStage();
+                return null;
+            } );
 
-            String line;
-            do
+            readStage( normalizeExecutor, writerFuture, debugOutputter );
+            awaitWriter( writerFuture );
+
+            cancelCheck();
+            populationComplete();
+        }
+        finally
+        {
+            normalizeExecutor.shutdownNow();
+            writeExecutor.shutdownNow();
+            IOUtils.closeQuietly( zipFileReader );
+        }
+    }
+
+    /**
+     * Read stage, runs on the calling thread.  Lines are grouped into batches and handed to the normalize pool, the
+     * resulting futures are queued in order for the writer.
+     */
+    private void readStage(
+            final ExecutorService normalizeExecutor,
+            final Future<Void> writerFuture,
+            final ConditionalTaskExecutor debugOutputter
+    )
+            throws PwmUnrecoverableException
+    {
+        final WordlistStatistics statistics = rootWordlist.getStatistics();
+        List<String> lines = new ArrayList<>( batchLines );
+        Instant batchStartTime = Instant.now();
+
+        String line;
+        do
+        {
+            line = zipFileReader.nextLine();
+            if ( line != null )
+            {
+                lines.add( line );
+            }
+
+            if ( lines.size() >= batchLines || ( line == null && !lines.isEmpty() ) )
             {
-                line = zipFileReader.nextLine();
-                if ( line != null )
+                final LineBatch lineBatch = new LineBatch( lines, zipFileReader.getLineCount(), zipFileReader.getByteCount() );
+                statistics.getImportStageRates().get( WordlistStatistics.ImportStage.read ).markEvents( lines.size() );
+                statistics.getCounterStats().increment( WordlistStatistics.CounterStat.importLinesRead, lines.size() );
+                statistics.getAverageStats().update( WordlistStatistics.AverageStat.importReadBatchMS, TimeDuration.fromCurrent( batchStartTime ).asDuration() );
+
+                if ( !enqueueForWrite( normalizeExecutor.submit( () -> normalizeBatch( lineBatch ) ), writerFuture ) )
                 {
-                    addLine( line );
+                    return;
+                }
 
-                    debugOutputter.conditionallyExecuteTask();
+                lines = new ArrayList<>( batchLines );
+                batchStartTime = Instant.now();
+            }
 
-                    if (
-                            bufferedWords.size() > transactionCalculator.getTransactionSize()
-                                    || charsInBuffer > importMaxChars
-                    )
-                    {
-                        flushBuffer();
-                        metaUpdater.conditionallyExecuteTask();
-                        checkWordlistSpaceRemaining();
+            debugOutputter.conditionallyExecuteTask();
+            cancelCheck();
+        }
+        while ( line != null );
 
-                        importStatistics.update( StatKey.msPerTransaction, TimeDuration.fromCurrent( lastTxnInstant ).asMillis() );
-                        pauseTimer.conditionallyExecuteTask();
-                        lastTxnInstant = Instant.now();
-                    }
+        enqueueForWrite( CompletableFuture.completedFuture( END_OF_INPUT ), writerFuture );
+    }
 
-                    cancelCheck();
+    /**
+     * Blocks until the queue accepts the batch.  Returns false if the writer has already stopped.
+     */
+    private boolean enqueueForWrite( final Future<NormalizedBatch> batchFuture, final Future<Void> writerFuture )
+    {
+        try
+        {
+            while ( !writeQueue.offer( batchFuture, 1, TimeUnit.SECONDS ) )
+            {
+                if ( writerFuture.isDone() )
+                {
+                    return false;
                 }
+                cancelCheck();
+            }
+            return true;
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+
+    private void awaitWriter( final Future<Void> writerFuture )
+            throws PwmUnrecoverableException
+    {
+        try
+        {
+            writerFuture.get();
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+        catch ( final ExecutionException e )
+        {
+            throw unwrapStageException( e );
+        }
+    }
+
+    private static PwmUnrecoverableException unwrapStageException( final ExecutionException e )
+    {
+        final Throwable cause = e.getCause();
+        if ( cause instanceof PwmUnrecoverableException )
+        {
+            return ( PwmUnrecoverableException ) cause;
+        }
+        if ( cause instanceof CancellationException )
+        {
+            throw ( CancellationException ) cause;
+        }
+        return PwmUnrecoverableException.newException( PwmError.ERROR_WORDLIST_IMPORT_ERROR, "error during import: " + cause.getMessage() );
+    }
+
+    /**
+     * Normalize stage, runs concurrently on the normalize pool.
+     */
+    private NormalizedBatch normalizeBatch( final LineBatch lineBatch )
+    {
+        final Instant startTime = Instant.now();
+        final Set<String> words = new TreeSet<>();
+        final Map<WordType, Long> wordTypes = new EnumMap<>( WordType.class );
+        long chars = 0;
+
+        for ( final String line : lineBatch.getLines() )
+        {
+            final Collection<String> lineWords = normalizeLine( line, wordTypes );
+            for ( final String word : lineWords )
+            {
+                if ( words.add( word ) )
+                {
+                    chars += word.length();
+                }
+            }
+        }
+
+        final WordlistStatistics statistics = rootWordlist.getStatistics();
+        statistics.getImportStageRates().get( WordlistStatistics.ImportStage.normalize ).markEvents( lineBatch.getLines().size() );
+        statistics.getAverageStats().update( WordlistStatistics.AverageStat.importNormalizeBatchMS, TimeDuration.fromCurrent( startTime ).asDuration() );
+
+        return new NormalizedBatch( words, wordTypes, chars, lineBatch.getEndLine(), lineBatch.getEndBytes() );
+    }
+
+    /**
+     * Write stage, runs on the single writer thread.  Batches are taken in read order so the checkpoint always
+     * reflects a contiguous prefix of the wordlist.
+     */
+    private void writeStage()
+            throws PwmUnrecoverableException
+    {
+        final ConditionalTaskExecutor metaUpdater = ConditionalTaskExecutor.forPeriodicTask(
+                this::writeCurrentWordlistStatus,
+                TimeDuration.SECONDS_10.asDuration() );
+
+        final long importMaxChars = rootWordlist.getConfiguration().getImportMaxChars();
+        Instant lastTxnInstant = Instant.now();
+
+        while ( true )
+        {
+            final NormalizedBatch batch = takeNextBatch();
+            if ( batch == END_OF_INPUT )
+            {
+                return;
+            }
+
+            bufferedWords.addAll( batch.getWords() );
+            charsInBuffer += batch.getChars();
+            batch.getWordTypes().forEach( ( wordType, count ) -> seenWordTypes.computeIfAbsent( wordType, t -> new LongAdder() ).add( count ) );
+            pendingCheckpointLines = batch.getEndLine();
+            pendingCheckpointBytes = batch.getEndBytes();
+
+            if (
+                    bufferedWords.size() > transactionCalculator.getTransactionSize()
+                            || charsInBuffer > importMaxChars
+            )
+            {
+                flushBuffer();
+                metaUpdater.conditionallyExecuteTask();
+                checkWordlistSpaceRemaining();
+
+                importStatistics.update( StatKey.msPerTransaction, TimeDuration.fromCurrent( lastTxnInstant ).asMillis() );
+                pauseTimer.conditionallyExecuteTask();
+                lastTxnInstant = Instant.now();
             }
-            while ( line != null );
 
             cancelCheck();
-            populationComplete();
         }
-        finally
+    }
+
+    private NormalizedBatch takeNextBatch()
+            throws PwmUnrecoverableException
+    {
+        try
         {
-            IOUtils.closeQuietly( zipFileReader );
+            Future<NormalizedBatch> batchFuture = null;
+            while ( batchFuture == null )
+            {
+                batchFuture = writeQueue.poll( 1, TimeUnit.SECONDS );
+                cancelCheck();
+            }
+            return batchFuture.get();
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+        catch ( final ExecutionException e )
+        {
+            throw unwrapStageException( e );
         }
     }
 
-    private void addLine( final String input )
+    private Collection<String> normalizeLine( final String input, final Map<WordType, Long> wordTypes )
     {
         if ( StringUtil.isEmpty( input ) )
         {
-            return;
+            return Collections.emptySet();
         }
 
         if ( checkIfCommentLine( input ) )
         {
-            return;
+            return Collections.emptySet();
         }
 
         final WordType wordType = WordType.determineWordType( input );
-        seenWordTypes.computeIfAbsent( wordType, t -> new LongAdder() ).increment();
+        wordTypes.merge( wordType, 1L, Long::sum );
 
         if ( wordType == WordType.RAW )
         {
-            WordlistUtil.normalizeWordLength( input, rootWordlist.getConfiguration() ).ifPresent( word ->
+            return WordlistUtil.normalizeWordLength( input, rootWordlist.getConfiguration() ).map( word ->
             {
                 final String normalizedWord = wordType.convertInputFromWordlist( this.rootWordlist.getConfiguration(), word );
                 final Set<String> words = WordlistUtil.chunkWord( normalizedWord, rootWordlist.getConfiguration().getCheckSize() );
                 importStatistics.update( StatKey.averageWordLength, normalizedWord.length() );
                 importStatistics.update( StatKey.chunksPerWord, words.size() );
-                incrementCharBufferCounter( words );
-                bufferedWords.addAll( words );
-            } );
-        }
-        else
-        {
-            final String normalizedWord = wordType.convertInputFromWordlist( this.rootWordlist.getConfiguration(), input );
-            incrementCharBufferCounter( Collections.singleton( normalizedWord ) );
-            bufferedWords.add( normalizedWord );
+                return ( Collection<String> ) words;
+            } ).orElse( Collections.emptySet() );
         }
-    }
 
-    private void incrementCharBufferCounter( final Collection<String> words )
-    {
-        for ( final String word : words )
-        {
-            charsInBuffer += word.length();
-        }
+        final String normalizedWord = wordType.convertInputFromWordlist( this.rootWordlist.getConfiguration(), input );
+        return Collections.singleton( normalizedWord );
     }
 
     private boolean checkIfCommentLine( final String input )
@@ -351,6 +553,14 @@ class WordlistImporter implements Runnable
         final TimeDuration commitTime = TimeDuration.fromCurrent( startTime );
         transactionCalculator.recordLastTransactionDuration( commitTime );
 
+        checkpointLines = pendingCheckpointLines;
+        checkpointBytes = pendingCheckpointBytes;
+
+        final WordlistStatistics statistics = rootWordlist.getStatistics();
+        statistics.getImportStageRates().get( WordlistStatistics.ImportStage.write ).markEvents( bufferedWords.size() );
+        statistics.getCounterStats().increment( WordlistStatistics.CounterStat.importWordsWritten, bufferedWords.size() );
+        statistics.getAverageStats().update( WordlistStatistics.AverageStat.importWriteTransactionMS, commitTime.asDuration() );
+
         importStatistics.update( StatKey.wordsPerTransaction, bufferedWords.size() );
         importStatistics.update( StatKey.charsPerTransaction, charsInBuffer );
 
@@ -372,6 +582,8 @@ class WordlistImporter implements Runnable
         completed = true;
         writeCurrentWordlistStatus();
 
+        wordlistBucket.populationComplete( rootWordlist.readWordlistStatus(), cancelFlag );
+
         getLogger().debug( rootWordlist.getSessionLabel(), () -> "final post-population status: " + JsonFactory.get().serialize( rootWordlist.readWordlistStatus() ) );
     }
 
@@ -385,7 +597,7 @@ class WordlistImporter implements Runnable
         return exitError;
     }
 
-    private void skipForward( final long previousBytesRead )
+    private void skipForward( final long previousBytesRead, final long previousLinesRead )
             throws PwmUnrecoverableException
     {
         final Instant startSkipTime = Instant.now();
@@ -403,9 +615,15 @@ class WordlistImporter implements Runnable
             getLogger().debug( rootWordlist.getSessionLabel(), () -> "will skip forward " + StringUtil.formatDiskSizeforDebug( previousBytesRead )
                     + " in wordlist that has been previously imported" );
 
-            while ( bytesSkipped < previousBytesRead )
+            // checkpoints record the line count of the last written batch; statuses from older versions only have a byte count
+            while ( previousLinesRead > 0
+                    ? zipFileReader.getLineCount() < previousLinesRead
+                    : bytesSkipped < previousBytesRead )
             {
-                zipFileReader.nextLine();
+                if ( zipFileReader.nextLine() == null )
+                {
+                    break;
+                }
                 bytesSkipped = zipFileReader.getByteCount();
                 debugOutputter.conditionallyExecuteTask();
                 cancelCheck();
@@ -461,6 +679,7 @@ class WordlistImporter implements Runnable
         stats.put( DebugKey.LinesRead, MiscUtil.forDefaultLocale().format( zipFileReader.getLineCount() ) );
         stats.put( DebugKey.ChunksSaved, MiscUtil.forDefaultLocale().format( rootWordlist.size() ) );
         stats.put( DebugKey.BytesRead, StringUtil.formatDiskSizeforDebug( zipFileReader.getByteCount() ) );
+        stats.put( DebugKey.LinesCheckpoint, MiscUtil.forDefaultLocale().format( checkpointLines ) );
         stats.put( DebugKey.DiskFreeSpace, StringUtil.formatDiskSize( wordlistBucket.spaceRemaining() ) );
         stats.put( DebugKey.ImportDuration, getImportDuration().asCompactString() );
         stats.put( DebugKey.ZipFile, zipFileReader.currentZipName() );
@@ -500,7 +719,8 @@ class WordlistImporter implements Runnable
                 .sourceType( sourceType )
                 .completed( completed )
                 .wordTypes( outputWordTypeMap )
-                .bytes( zipFileReader.getByteCount() )
+                .bytes( checkpointBytes )
+                .lines( checkpointLines )
                 .importMs( getImportDuration().asMillis() )
                 .build() );
     }
@@ -526,4 +746,22 @@ class WordlistImporter implements Runnable
     {
         return TimeDuration.fromCurrent( startTime ).add( previousImportDuration );
     }
+
+    @Value
+    private static class LineBatch
+    {
+        private final List<String> lines;
+        private final long endLine;
+        private final long endBytes;
+    }
+
+    @Value
+    private static class NormalizedBatch
+    {
+        private final Set<String> words;
+        private final Map<WordType, Long> wordTypes;
+        private final long chars;
+        private final long endLine;
+        private final long endBytes;
+    }
 }
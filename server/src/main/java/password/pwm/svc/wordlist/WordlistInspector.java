@@ -95,6 +95,7 @@ class WordlistInspector implements Runnable
 
         if ( checkIfExistingOkay( existingStatus, autoImportUrlConfigured ) )
         {
+            rootWordlist.getWordlistBucket().checkPopulation( existingStatus, cancelFlag );
             return;
         }
 
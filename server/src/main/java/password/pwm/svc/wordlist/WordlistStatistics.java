@@ -21,9 +21,12 @@
 package password.pwm.svc.wordlist;
 
 import lombok.Value;
+import password.pwm.util.EventRateMeter;
 import password.pwm.util.java.StatisticAverageBundle;
 import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.TimeDuration;
 
+import java.math.RoundingMode;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
@@ -37,6 +40,7 @@ class WordlistStatistics
     private final Map<WordType, LongAdder> wordTypeHits = new EnumMap<>( WordType.class );
     private final StatisticCounterBundle<CounterStat> counterStats = new StatisticCounterBundle<>( CounterStat.class );
     private final StatisticAverageBundle<AverageStat> averageStats = new StatisticAverageBundle<>( AverageStat.class );
+    private final Map<ImportStage, EventRateMeter> importStageRates = new EnumMap<>( ImportStage.class );
 
     enum CounterStat
     {
@@ -46,6 +50,8 @@ class WordlistStatistics
         chunkChecks,
         chunkHits,
         chunkMisses,
+        importLinesRead,
+        importWordsWritten,
     }
 
     enum AverageStat
@@ -54,11 +60,22 @@ class WordlistStatistics
         wordCheckTimeMS,
         chunkCheckTimeMS,
         chunksPerWordCheck,
+        importReadBatchMS,
+        importNormalizeBatchMS,
+        importWriteTransactionMS,
+    }
+
+    enum ImportStage
+    {
+        read,
+        normalize,
+        write,
     }
 
     WordlistStatistics()
     {
         EnumSet.allOf( WordType.class ).forEach( wordType -> wordTypeHits.put( wordType, new LongAdder() ) );
+        EnumSet.allOf( ImportStage.class ).forEach( stage -> importStageRates.put( stage, new EventRateMeter( TimeDuration.MINUTE ) ) );
     }
 
     Map<String, String> asDebugMap()
@@ -68,6 +85,10 @@ class WordlistStatistics
         {
             outputMap.put( "Hits-" + entry.getKey().name(), Long.toString( entry.getValue().sum() ) );
         }
+        for ( final Map.Entry<ImportStage, EventRateMeter> entry : importStageRates.entrySet() )
+        {
+            outputMap.put( "ImportRatePerSecond-" + entry.getKey().name(), entry.getValue().readEventRate().setScale( 0, RoundingMode.HALF_UP ).toPlainString() );
+        }
         outputMap.putAll( counterStats.debugStats() );
         outputMap.putAll( averageStats.debugStats() );
         return Collections.unmodifiableMap( outputMap );
@@ -43,6 +43,7 @@ public class WordlistStatus implements Serializable
     private Instant checkDate;
     private WordlistSourceInfo remoteInfo;
     private long bytes;
+    private long lines;
     private long valueCount;
     private long importMs;
     private String configHash;
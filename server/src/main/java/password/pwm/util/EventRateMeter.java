@@ -25,16 +25,23 @@ import password.pwm.util.java.TimeDuration;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Event rate meter backed by a {@link MovingAverage}.  Marked events are accumulated in a striped
+ * counter and folded into the moving average at most once per millisecond by whichever caller
+ * wins the lock, so concurrent callers of {@link #markEvents(int)} do not block each other.
+ */
 public class EventRateMeter implements Serializable
 {
     private final TimeDuration maxDuration;
     private final Lock lock = new ReentrantLock();
+    private final LongAdder pendingEvents = new LongAdder();
 
-    private MovingAverage movingAverage;
-    private double remainder;
+    private volatile MovingAverage movingAverage;
+    private volatile long lastFoldMillis;
 
     public EventRateMeter( final TimeDuration maxDuration )
     {
@@ -52,7 +59,8 @@ public class EventRateMeter implements Serializable
         try
         {
             movingAverage = new MovingAverage( maxDuration.asMillis() );
-            remainder = 0;
+            pendingEvents.reset();
+            lastFoldMillis = 0;
         }
         finally
         {
@@ -62,25 +70,19 @@ public class EventRateMeter implements Serializable
 
     public void markEvents( final int eventCount )
     {
-        lock.lock();
-        try
+        pendingEvents.add( eventCount );
+
+        if ( System.currentTimeMillis() != lastFoldMillis && lock.tryLock() )
         {
-            final long timeSinceLastUpdate = System.currentTimeMillis() - movingAverage.getLastMillis();
-            if ( timeSinceLastUpdate != 0 )
+            try
             {
-                final double eventRate = ( eventCount + remainder ) / timeSinceLastUpdate;
-                movingAverage.update( eventRate * 1000 );
-                remainder = 0;
+                foldPendingEvents();
             }
-            else
+            finally
             {
-                remainder += eventCount;
+                lock.unlock();
             }
         }
-        finally
-        {
-            lock.unlock();
-        }
     }
 
     public BigDecimal readEventRate( )
@@ -88,6 +90,7 @@ public class EventRateMeter implements Serializable
         lock.lock();
         try
         {
+            foldPendingEvents();
             return BigDecimal.valueOf( this.movingAverage.getAverage() );
         }
         finally
@@ -96,4 +99,24 @@ public class EventRateMeter implements Serializable
         }
     }
 
+    /**
+     * Must be called while holding {@link #lock}.  Events marked within the same millisecond as the
+     * last update are left pending and carried into the next fold.
+     */
+    private void foldPendingEvents()
+    {
+        final long now = System.currentTimeMillis();
+        final long timeSinceLastUpdate = now - movingAverage.getLastMillis();
+        if ( timeSinceLastUpdate != 0 )
+        {
+            final long events = pendingEvents.sum();
+            if ( events != 0 )
+            {
+                pendingEvents.add( -events );
+                final double eventRate = ( double ) events / timeSinceLastUpdate;
+                movingAverage.update( eventRate * 1000 );
+            }
+            lastFoldMillis = now;
+        }
+    }
 }
@@ -89,7 +89,10 @@ public class IPMatcher
                     {
                         netmask[ i ] = ( byte ) 0Xff;
                     }
-                    netmask[ maskBytes ] = ( byte ) ( ( byte ) 0Xff << 8 - ( maskBits % 8 ) );
+                    if ( maskBytes < netmask.length )
+                    {
+                        netmask[ maskBytes ] = ( byte ) ( ( byte ) 0Xff << 8 - ( maskBits % 8 ) );
+                    }
                     for ( int i = maskBytes + 1; i < ( 128 / 8 ); i++ )
                     {
                         netmask[ i ] = 0;
@@ -244,25 +247,7 @@ public class IPMatcher
      */
     public boolean match( final String ipIn ) throws IPMatcherException
     {
-        byte[] candidate;
-
-        if ( ipIn.indexOf( ':' ) < 0 )
-        {
-            candidate = new byte[ 4 ];
-            ipToBytes( ipIn, candidate, true );
-            candidate = ip4ToIp6( candidate );
-        }
-        else
-        {
-            try
-            {
-                candidate = Inet6Address.getByName( ipIn ).getAddress();
-            }
-            catch ( final UnknownHostException e )
-            {
-                throw new IPMatcherException( "Malformed IPv6 address ", e );
-            }
-        }
+        final byte[] candidate = parseAddress( ipIn );
 
         for ( int i = 0; i < netmask.length; i++ )
         {
@@ -275,6 +260,45 @@ public class IPMatcher
         return true;
     }
 
+    /**
+     * Parse a full IPv4 or IPv6 address into the sixteen byte form used for matching.
+     *
+     * @param ipIn IP address as a String
+     * @return sixteen byte address, IPv4 addresses are returned in IPv4-compatible form
+     * @throws IPMatcherException if the address is malformed
+     */
+    static byte[] parseAddress( final String ipIn ) throws IPMatcherException
+    {
+        if ( ipIn.indexOf( ':' ) < 0 )
+        {
+            final byte[] candidate = new byte[ 4 ];
+            ipToBytes( ipIn, candidate, true );
+            return ip4ToIp6( candidate );
+        }
+
+        try
+        {
+            final byte[] candidate = Inet6Address.getByName( ipIn ).getAddress();
+
+            // IPv4-mapped IPv6 addresses are returned as IPv4 addresses
+            return candidate.length == 4 ? ip4ToIp6( candidate ) : candidate;
+        }
+        catch ( final UnknownHostException e )
+        {
+            throw new IPMatcherException( "Malformed IPv6 address ", e );
+        }
+    }
+
+    byte[] getNetwork()
+    {
+        return network;
+    }
+
+    byte[] getNetmask()
+    {
+        return netmask;
+    }
+
     /**
      * Convert an IPv4 address to an IPv6 IPv4-compatible address.
      *
@@ -0,0 +1,202 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util;
+
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.logging.PwmLogger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Matches addresses against a fixed set of IP range specifications.  The specifications are parsed once by
+ * {@link IPMatcher} and the resulting network prefixes are compiled into a binary trie over the sixteen byte
+ * address form, so a match costs at most one step per prefix bit regardless of the number of ranges.  Ranges
+ * using a non-contiguous netmask can not be represented as a prefix and are matched individually.
+ */
+public class IPRangeMatcher
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( IPRangeMatcher.class );
+
+    private static final int ADDRESS_BITS = 128;
+
+    private final Node root = new Node();
+    private final List<IPMatcher> nonPrefixMatchers = new ArrayList<>();
+    private final boolean configured;
+
+    private IPRangeMatcher( final Collection<String> ipSpecs )
+    {
+        this.configured = ipSpecs != null && !ipSpecs.isEmpty();
+
+        for ( final String ipSpec : ipSpecs == null ? Collections.<String>emptyList() : ipSpecs )
+        {
+            if ( StringUtil.isEmpty( ipSpec ) )
+            {
+                continue;
+            }
+
+            try
+            {
+                final IPMatcher ipMatcher = new IPMatcher( ipSpec.trim() );
+                final int prefixLength = prefixLength( ipMatcher.getNetmask() );
+                if ( prefixLength < 0 )
+                {
+                    nonPrefixMatchers.add( ipMatcher );
+                }
+                else
+                {
+                    insert( ipMatcher.getNetwork(), prefixLength );
+                }
+            }
+            catch ( final IPMatcher.IPMatcherException e )
+            {
+                LOGGER.error( () -> "error parsing address range '" + ipSpec + "', error: " + e );
+            }
+        }
+    }
+
+    /**
+     * Compile a set of IP range specifications in any of the forms accepted by {@link IPMatcher}.  Malformed
+     * specifications are logged and do not match any address.
+     *
+     * @param ipSpecs IP range specifications
+     * @return compiled matcher
+     */
+    public static IPRangeMatcher compile( final Collection<String> ipSpecs )
+    {
+        return new IPRangeMatcher( ipSpecs );
+    }
+
+    /**
+     * Indicates if any range specification was supplied, including specifications that could not be parsed.
+     *
+     * @return true if range specifications were supplied
+     */
+    public boolean isConfigured()
+    {
+        return configured;
+    }
+
+    public boolean match( final String ipIn ) throws IPMatcher.IPMatcherException
+    {
+        final byte[] candidate = IPMatcher.parseAddress( ipIn );
+
+        Node node = root;
+        for ( int bit = 0; node != null; bit++ )
+        {
+            if ( node.terminal )
+            {
+                return true;
+            }
+
+            if ( bit == ADDRESS_BITS )
+            {
+                break;
+            }
+
+            node = bitAt( candidate, bit ) ? node.one : node.zero;
+        }
+
+        for ( final IPMatcher ipMatcher : nonPrefixMatchers )
+        {
+            if ( ipMatcher.match( ipIn ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void insert( final byte[] network, final int prefixLength )
+    {
+        Node node = root;
+        for ( int bit = 0; bit < prefixLength; bit++ )
+        {
+            if ( node.terminal )
+            {
+                // already covered by a shorter prefix
+                return;
+            }
+
+            if ( bitAt( network, bit ) )
+            {
+                if ( node.one == null )
+                {
+                    node.one = new Node();
+                }
+                node = node.one;
+            }
+            else
+            {
+                if ( node.zero == null )
+                {
+                    node.zero = new Node();
+                }
+                node = node.zero;
+            }
+        }
+
+        // longer prefixes below this node are now redundant
+        node.terminal = true;
+        node.zero = null;
+        node.one = null;
+    }
+
+    /**
+     * Determine the prefix length of a netmask.
+     *
+     * @param netmask sixteen byte netmask
+     * @return number of leading one bits, or -1 if the netmask is not contiguous
+     */
+    private static int prefixLength( final byte[] netmask )
+    {
+        int prefixLength = 0;
+        while ( prefixLength < ADDRESS_BITS && bitAt( netmask, prefixLength ) )
+        {
+            prefixLength++;
+        }
+
+        for ( int bit = prefixLength; bit < ADDRESS_BITS; bit++ )
+        {
+            if ( bitAt( netmask, bit ) )
+            {
+                return -1;
+            }
+        }
+
+        return prefixLength;
+    }
+
+    private static boolean bitAt( final byte[] address, final int bit )
+    {
+        return ( address[ bit >> 3 ] & ( 0x80 >>> ( bit & 7 ) ) ) != 0;
+    }
+
+    private static class Node
+    {
+        private Node zero;
+        private Node one;
+        private boolean terminal;
+    }
+}
@@ -65,6 +65,7 @@ public class DebugItemGenerator
             SessionDataGenerator.class,
             ClusterInfoDebugGenerator.class,
             CacheServiceDebugItemGenerator.class,
+            RestEndpointDebugItemGenerator.class,
             RootFileSystemDebugItemGenerator.class,
             StatisticsDataDebugItemGenerator.class,
             StatisticsEpsDataDebugItemGenerator.class,
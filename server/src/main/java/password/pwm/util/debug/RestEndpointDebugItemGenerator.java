@@ -0,0 +1,44 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.debug;
+
+import password.pwm.PwmConstants;
+import password.pwm.util.json.JsonFactory;
+import password.pwm.util.json.JsonProvider;
+import password.pwm.ws.server.RestServlet;
+
+import java.io.OutputStream;
+
+class RestEndpointDebugItemGenerator implements AppItemGenerator
+{
+    @Override
+    public String getFilename()
+    {
+        return "rest-endpoint-statistics.json";
+    }
+
+    @Override
+    public void outputItem( final AppDebugItemInput debugItemInput, final OutputStream outputStream ) throws Exception
+    {
+        final String json = JsonFactory.get().serializeMap( RestServlet.endpointStatistics(), JsonProvider.Flag.PrettyPrint );
+        outputStream.write( json.getBytes( PwmConstants.DEFAULT_CHARSET ) );
+    }
+}
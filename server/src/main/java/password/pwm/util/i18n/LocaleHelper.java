@@ -35,7 +35,6 @@ import password.pwm.i18n.PwmDisplayBundle;
 import password.pwm.i18n.PwmLocaleBundle;
 import password.pwm.util.java.StringUtil;
 import password.pwm.util.logging.PwmLogger;
-import password.pwm.util.macro.MacroRequest;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -46,7 +45,6 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.MissingResourceException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
@@ -123,57 +121,10 @@ public class LocaleHelper
             final String[] values
     )
     {
-        String returnValue = null;
-        if ( config != null )
-        {
-            final PwmLocaleBundle pwmLocaleBundle = PwmLocaleBundle.forKey( bundleClass.getName() )
-                    .orElseThrow( () -> new IllegalStateException( "unknown locale bundle name '" + bundleClass.getName() + "'" ) );
-            final Optional<Map<Locale, String>> configuredBundle = config.readLocalizedBundle( pwmLocaleBundle, key );
-            if ( configuredBundle.isPresent() )
-            {
-                final Locale resolvedLocale = localeResolver( locale, configuredBundle.get().keySet() );
-                returnValue = configuredBundle.get().get( resolvedLocale );
-            }
-        }
-
-        if ( StringUtil.isEmpty( returnValue ) )
-        {
-            final ResourceBundle bundle = getMessageBundle( locale, bundleClass );
-            if ( bundle == null )
-            {
-                final String errorMsg = "missing bundle for " + bundleClass.getName();
-                LOGGER.warn( () -> errorMsg );
-                return errorMsg;
-            }
-            try
-            {
-                returnValue = bundle.getString( key );
-            }
-            catch ( final MissingResourceException e )
-            {
-                //final String errorMsg = "missing key '" + key + "' for " + bundleClass.getName();
-                //.warn( () -> errorMsg, e );
-                returnValue = key;
-            }
-        }
-
-        if ( values != null )
-        {
-            for ( int i = 0; i < values.length; i++ )
-            {
-                if ( values[ i ] != null )
-                {
-                    final String replaceKey = "%" + ( i + 1 ) + "%";
-                    returnValue = returnValue.replace( replaceKey, values[ i ] );
-                }
-            }
-        }
-
-        final MacroRequest macroRequest = MacroRequest.forStatic( );
-        return macroRequest.expandMacros( returnValue );
+        return LocalizedMessageTable.forBundle( config, locale, bundleClass ).getLocalizedMessage( config, key, values );
     }
 
-    private static ResourceBundle getMessageBundle( final Locale locale, final Class<? extends PwmDisplayBundle> bundleClass )
+    static ResourceBundle getMessageBundle( final Locale locale, final Class<? extends PwmDisplayBundle> bundleClass )
     {
         if ( !PwmDisplayBundle.class.isAssignableFrom( bundleClass ) )
         {
@@ -0,0 +1,280 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.i18n;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Value;
+import password.pwm.config.SettingReader;
+import password.pwm.i18n.PwmDisplayBundle;
+import password.pwm.i18n.PwmLocaleBundle;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.macro.MacroRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Localized message templates for a single configuration, locale and display bundle.  Each template is resolved
+ * against the configured bundle overrides and the resource bundle, and macro expanded, the first time its key
+ * is requested.  Later lookups are a hash probe plus a single pass over the {@code %n%} argument slots.
+ *
+ * <p>Tables are held against the identity of the configuration instance, so a configuration reload starts
+ * with new tables.</p>
+ */
+class LocalizedMessageTable
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( LocalizedMessageTable.class );
+
+    private static final Cache<SettingReader, Map<TableKey, LocalizedMessageTable>> CONFIGURED_TABLES = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
+    private static final Map<TableKey, LocalizedMessageTable> DEFAULT_TABLES = new ConcurrentHashMap<>();
+
+    private final Locale locale;
+    private final Class<? extends PwmDisplayBundle> bundleClass;
+    private final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+
+    @Value
+    private static class TableKey
+    {
+        private final Locale locale;
+        private final Class<? extends PwmDisplayBundle> bundleClass;
+    }
+
+    private LocalizedMessageTable( final Locale locale, final Class<? extends PwmDisplayBundle> bundleClass )
+    {
+        this.locale = locale;
+        this.bundleClass = bundleClass;
+    }
+
+    static LocalizedMessageTable forBundle(
+            final SettingReader config,
+            final Locale locale,
+            final Class<? extends PwmDisplayBundle> bundleClass
+    )
+    {
+        final Map<TableKey, LocalizedMessageTable> tables = config == null
+                ? DEFAULT_TABLES
+                : CONFIGURED_TABLES.get( config, k -> new ConcurrentHashMap<>() );
+
+        return tables.computeIfAbsent( new TableKey( locale, bundleClass ), k -> new LocalizedMessageTable( locale, bundleClass ) );
+    }
+
+    /**
+     * Returns the message for {@code key} with {@code values} filled into its {@code %1%}, {@code %2%} ... slots.
+     *
+     * @param config the same configuration this table was obtained for, used to resolve keys not yet in the table
+     * @param key bundle key
+     * @param values slot values, {@code null} values leave the slot text in place
+     * @return localized message
+     */
+    String getLocalizedMessage( final SettingReader config, final String key, final String[] values )
+    {
+        // config is passed in rather than held, a table referencing its own weak cache key would never be released
+        final MessageTemplate template = templates.computeIfAbsent( key, k -> MessageTemplate.parse( resolveRawMessage( config, k ) ) );
+        return template.fill( values );
+    }
+
+    private String resolveRawMessage( final SettingReader config, final String key )
+    {
+        if ( config != null )
+        {
+            final PwmLocaleBundle pwmLocaleBundle = PwmLocaleBundle.forKey( bundleClass.getName() )
+                    .orElseThrow( () -> new IllegalStateException( "unknown locale bundle name '" + bundleClass.getName() + "'" ) );
+            final Optional<Map<Locale, String>> configuredBundle = config.readLocalizedBundle( pwmLocaleBundle, key );
+            if ( configuredBundle.isPresent() )
+            {
+                final Locale resolvedLocale = LocaleHelper.localeResolver( locale, configuredBundle.get().keySet() );
+                final String configuredValue = configuredBundle.get().get( resolvedLocale );
+                if ( !StringUtil.isEmpty( configuredValue ) )
+                {
+                    return configuredValue;
+                }
+            }
+        }
+
+        final ResourceBundle bundle = LocaleHelper.getMessageBundle( locale, bundleClass );
+        if ( bundle == null )
+        {
+            final String errorMsg = "missing bundle for " + bundleClass.getName();
+            LOGGER.warn( () -> errorMsg );
+            return errorMsg;
+        }
+
+        try
+        {
+            return bundle.getString( key );
+        }
+        catch ( final MissingResourceException e )
+        {
+            return key;
+        }
+    }
+
+    /**
+     * Message text split at its argument slots.  {@code literals} always has one more element than {@code slots};
+     * the message is {@code literals[0] + slot[0] + literals[1] + ... + literals[n]}.  The literals are macro expanded
+     * once when parsed, and a fill only expands the argument values.  A message with a macro spanning a slot can not
+     * be split this way and is expanded as a whole on every fill.
+     */
+    static class MessageTemplate
+    {
+        private static final int MAX_SLOT_DIGITS = 9;
+
+        private final String[] literals;
+        private final int[] slots;
+        private final String expandedMessage;
+        private final boolean expandWhole;
+
+        private MessageTemplate( final String[] literals, final int[] slots, final String expandedMessage, final boolean expandWhole )
+        {
+            this.literals = literals;
+            this.slots = slots;
+            this.expandedMessage = expandedMessage;
+            this.expandWhole = expandWhole;
+        }
+
+        static MessageTemplate parse( final String rawMessage )
+        {
+            final List<String> literals = new ArrayList<>();
+            final List<Integer> slots = new ArrayList<>();
+
+            int literalStart = 0;
+            int position = rawMessage.indexOf( '%' );
+            while ( position >= 0 )
+            {
+                final int slotEnd = slotEnd( rawMessage, position );
+                if ( slotEnd > 0 )
+                {
+                    literals.add( rawMessage.substring( literalStart, position ) );
+                    slots.add( Integer.parseInt( rawMessage.substring( position + 1, slotEnd - 1 ) ) );
+                    literalStart = slotEnd;
+                    position = rawMessage.indexOf( '%', slotEnd );
+                }
+                else
+                {
+                    position = rawMessage.indexOf( '%', position + 1 );
+                }
+            }
+            literals.add( rawMessage.substring( literalStart ) );
+
+            final MacroRequest macroRequest = MacroRequest.forStatic();
+            final String expandedMessage = macroRequest.expandMacros( rawMessage );
+            final String[] expandedLiterals = literals.stream()
+                    .map( macroRequest::expandMacros )
+                    .toArray( String[]::new );
+            final int[] slotArray = slots.stream().mapToInt( Integer::intValue ).toArray();
+
+            final boolean expandWhole = !expandedMessage.equals( join( expandedLiterals, slotArray ) );
+            return new MessageTemplate(
+                    expandWhole ? literals.toArray( new String[0] ) : expandedLiterals,
+                    slotArray,
+                    expandedMessage,
+                    expandWhole );
+        }
+
+        private static String join( final String[] literals, final int[] slots )
+        {
+            final StringBuilder output = new StringBuilder();
+            for ( int i = 0; i < slots.length; i++ )
+            {
+                output.append( literals[ i ] ).append( '%' ).append( slots[ i ] ).append( '%' );
+            }
+            return output.append( literals[ slots.length ] ).toString();
+        }
+
+        /**
+         * Returns the index just past a {@code %n%} slot starting at {@code start}, or -1 if there is none.
+         */
+        private static int slotEnd( final String rawMessage, final int start )
+        {
+            int position = start + 1;
+            if ( position >= rawMessage.length() || rawMessage.charAt( position ) < '1' || rawMessage.charAt( position ) > '9' )
+            {
+                return -1;
+            }
+
+            while ( position < rawMessage.length() && Character.isDigit( rawMessage.charAt( position ) ) )
+            {
+                position++;
+                if ( position - start > MAX_SLOT_DIGITS )
+                {
+                    return -1;
+                }
+            }
+
+            return position < rawMessage.length() && rawMessage.charAt( position ) == '%'
+                    ? position + 1
+                    : -1;
+        }
+
+        String fill( final String[] values )
+        {
+            if ( values == null || slots.length == 0 )
+            {
+                return expandedMessage;
+            }
+
+            final StringBuilder output = new StringBuilder( expandedMessage.length() + 16 * slots.length );
+            boolean filled = false;
+            for ( int i = 0; i < slots.length; i++ )
+            {
+                output.append( literals[ i ] );
+                final int valueIndex = slots[ i ] - 1;
+                if ( valueIndex < values.length && values[ valueIndex ] != null )
+                {
+                    output.append( expandWhole ? values[ valueIndex ] : expandValue( values[ valueIndex ] ) );
+                    filled = true;
+                }
+                else
+                {
+                    output.append( '%' ).append( slots[ i ] ).append( '%' );
+                }
+            }
+            output.append( literals[ slots.length ] );
+
+            if ( !filled )
+            {
+                return expandedMessage;
+            }
+
+            return expandWhole
+                    ? MacroRequest.forStatic().expandMacros( output.toString() )
+                    : output.toString();
+        }
+
+        private static String expandValue( final String value )
+        {
+            return value.indexOf( '@' ) < 0
+                    ? value
+                    : MacroRequest.forStatic().expandMacros( value );
+        }
+    }
+}
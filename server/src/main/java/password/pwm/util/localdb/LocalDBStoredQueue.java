@@ -20,12 +20,19 @@
 
 package password.pwm.util.localdb;
 
+import lombok.Builder;
+import lombok.Value;
+import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
+import password.pwm.config.AppConfig;
+import password.pwm.util.PwmScheduler;
 import password.pwm.util.java.CollectionUtil;
 import password.pwm.util.java.ConditionalTaskExecutor;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
 
+import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -39,6 +46,8 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -51,6 +60,11 @@ import java.util.function.Supplier;
 /**
  * A LIFO {@link Queue} implementation backed by a localDB instance.  {@code this} instances are internally
  * synchronized.
+ *
+ * <p>When created with a {@link Settings#getBatchSize()} greater than zero, additions and removals are staged in
+ * memory and written to the LocalDB as a single group commit once the batch size is reached or the
+ * {@link Settings#getDurabilityWindow()} elapses.  If the process terminates without {@link #close()} being called,
+ * at most one window of additions may be lost and at most one window of removals may be repeated.</p>
  */
 public class LocalDBStoredQueue implements Queue<String>, Deque<String>
 {
@@ -63,15 +77,29 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
     private static final String VALUE_VERSION = "7a";
 
     private final InternalQueue internalQueue;
+    private final ScheduledExecutorService flushService;
 
     private LocalDBStoredQueue(
             final LocalDB localDB,
             final LocalDB.DB db,
-            final boolean developerDebug
+            final boolean developerDebug,
+            final Settings settings,
+            final String instanceID
     )
             throws LocalDBException
     {
-        this.internalQueue = new InternalQueue( localDB, db, developerDebug );
+        this.internalQueue = new InternalQueue( localDB, db, developerDebug, settings );
+
+        if ( settings.isBatchEnabled() )
+        {
+            final long windowMs = settings.getDurabilityWindow().asMillis();
+            this.flushService = PwmScheduler.makeSingleThreadExecutorService( instanceID, LocalDBStoredQueue.class );
+            this.flushService.scheduleWithFixedDelay( this::periodicFlush, windowMs, windowMs, TimeUnit.MILLISECONDS );
+        }
+        else
+        {
+            this.flushService = null;
+        }
     }
 
     public static LocalDBStoredQueue createLocalDBStoredQueue(
@@ -83,16 +111,20 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
     {
 
         boolean developerDebug = false;
+        Settings settings = Settings.builder().build();
+        String instanceID = null;
         try
         {
             developerDebug = pwmApplication.getConfig().isDevDebugMode();
+            settings = Settings.fromAppConfig( pwmApplication.getConfig() );
+            instanceID = pwmApplication.getInstanceID();
         }
         catch ( final Exception e )
         {
             LOGGER.debug( () -> "can't read app property for developerDebug mode: " + e.getMessage() );
         }
 
-        return new LocalDBStoredQueue( pwmDB, db, developerDebug );
+        return new LocalDBStoredQueue( pwmDB, db, developerDebug, settings, instanceID );
     }
 
     public static LocalDBStoredQueue createLocalDBStoredQueue(
@@ -103,7 +135,67 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             throws LocalDBException
     {
 
-        return new LocalDBStoredQueue( pwmDB, db, debugEnabled );
+        return new LocalDBStoredQueue( pwmDB, db, debugEnabled, Settings.builder().build(), null );
+    }
+
+    public static LocalDBStoredQueue createLocalDBStoredQueue(
+            final LocalDB pwmDB,
+            final LocalDB.DB db,
+            final boolean debugEnabled,
+            final Settings settings
+    )
+            throws LocalDBException
+    {
+
+        return new LocalDBStoredQueue( pwmDB, db, debugEnabled, settings, null );
+    }
+
+    /**
+     * Write any staged additions and removals to the LocalDB.  Has no effect unless batching is enabled.
+     */
+    public void flush()
+    {
+        try
+        {
+            internalQueue.flush();
+        }
+        catch ( final LocalDBException e )
+        {
+            throw new IllegalStateException( "unexpected localDB error while flushing queue: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Flush any staged operations and stop the periodic flush task.  The queue remains usable after close, but
+     * subsequent operations are written through to the LocalDB immediately.
+     */
+    public void close()
+    {
+        if ( flushService != null )
+        {
+            flushService.shutdown();
+        }
+
+        try
+        {
+            internalQueue.disableBatching();
+        }
+        catch ( final LocalDBException e )
+        {
+            LOGGER.error( () -> "error flushing queue for db " + internalQueue.db + " during close: " + e.getMessage() );
+        }
+    }
+
+    private void periodicFlush()
+    {
+        try
+        {
+            internalQueue.flush();
+        }
+        catch ( final Throwable t )
+        {
+            LOGGER.error( () -> "error during periodic flush of queue for db " + internalQueue.db + ": " + t.getMessage(), t );
+        }
     }
 
     public void removeLast( final int removalCount )
@@ -420,6 +512,27 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
         }
     }
 
+    /**
+     * Read up to {@code count} values beginning {@code offset} values behind the head of the queue, without removing
+     * them.  Unlike {@link #iterator()} this neither flushes staged operations nor reads the values ahead of
+     * {@code offset}, so a caller that tracks how far it has read can continue from there at constant cost.
+     *
+     * @param offset number of values at the head of the queue to skip
+     * @param count maximum number of values to return
+     * @return values in head to tail order, empty if the queue holds {@code offset} values or fewer
+     */
+    public List<String> peekFirst( final long offset, final int count )
+    {
+        try
+        {
+            return internalQueue.getFirst( offset, count );
+        }
+        catch ( final LocalDBException e )
+        {
+            throw new IllegalStateException( "unexpected localDB error while reading queue: " + e.getMessage(), e );
+        }
+    }
+
     @Override
     public String peekLast( )
     {
@@ -472,6 +585,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
     {
         try
         {
+            internalQueue.flush();
             return new InnerIterator( internalQueue, false );
         }
         catch ( final LocalDBException e )
@@ -485,6 +599,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
     {
         try
         {
+            internalQueue.flush();
             return new InnerIterator( internalQueue, true );
         }
         catch ( final LocalDBException e )
@@ -663,6 +778,18 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             return new Position( previous );
         }
 
+        public Position next( final long count )
+        {
+            final long range = MAXIMUM_POSITION - MINIMUM_POSITION + 1;
+            final long offset = Math.floorMod( bigInt - MINIMUM_POSITION + count, range );
+            return new Position( MINIMUM_POSITION + offset );
+        }
+
+        public Position previous( final long count )
+        {
+            return next( -count );
+        }
+
         public long distanceToHead( final Position head )
         {
             final int compareToValue = Long.compare( head.bigInt, this.bigInt );
@@ -731,7 +858,21 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
 
         private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
-        private InternalQueue( final LocalDB localDB, final LocalDB.DB db, final boolean developerDebug )
+        private final int batchSize;
+        private volatile boolean batchEnabled;
+
+        // staged values not yet written to the localDB, ordered from head to tail.
+        private final Deque<String> headBuffer = new ArrayDeque<>();
+        private final Deque<String> tailBuffer = new ArrayDeque<>();
+
+        // count of stored values already returned to the caller but not yet removed from the localDB.
+        private long pendingHeadRemovals;
+        private long pendingTailRemovals;
+
+        // count of values stored in the localDB between the head and tail positions, maintained as the positions move.
+        private long storedSize;
+
+        private InternalQueue( final LocalDB localDB, final LocalDB.DB db, final boolean developerDebug, final Settings settings )
                 throws LocalDBException
         {
             lock.writeLock().lock();
@@ -755,6 +896,8 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
                 this.developerDebug = developerDebug;
                 this.localDB = localDB;
                 this.db = db;
+                this.batchSize = settings.getBatchSize();
+                this.batchEnabled = settings.isBatchEnabled();
                 init();
             }
             finally
@@ -776,6 +919,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
 
             headPosition = headPositionStr.isPresent() && headPositionStr.get().length() > 0 ? new Position( headPositionStr.get() ) : new Position( "0" );
             tailPosition = tailPositionStr.isPresent() && tailPositionStr.get().length() > 0 ? new Position( tailPositionStr.get() ) : new Position( "0" );
+            storedSize = readStoredSize();
 
             {
                 final long finalSize = this.size();
@@ -783,6 +927,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
 
             repair();
+            storedSize = readStoredSize();
 
             debugOutput( "post init()" );
         }
@@ -805,9 +950,14 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             try
             {
                 localDB.truncate( db );
+                headBuffer.clear();
+                tailBuffer.clear();
+                pendingHeadRemovals = 0;
+                pendingTailRemovals = 0;
 
                 headPosition = new Position( "0" );
                 tailPosition = new Position( "0" );
+                storedSize = 0;
                 final Map<String, String> keyValueMap = new HashMap<>();
                 keyValueMap.put( KEY_HEAD_POSITION, headPosition.toString() );
                 keyValueMap.put( KEY_TAIL_POSITION, tailPosition.toString() );
@@ -838,6 +988,22 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
 
         private long internalSize( )
                 throws LocalDBException
+        {
+            return storedSize() - pendingHeadRemovals - pendingTailRemovals + headBuffer.size() + tailBuffer.size();
+        }
+
+        private long storedSize( )
+        {
+            return storedSize;
+        }
+
+        /**
+         * Determine the stored size from the head and tail positions.  When both positions are equal the queue holds
+         * either zero or one value, which can only be told apart by reading the localDB, so this is only called when
+         * the positions are loaded or repaired rather than on every operation.
+         */
+        private long readStoredSize( )
+                throws LocalDBException
         {
             if ( headPosition.equals( tailPosition ) && localDB.get( db, headPosition.toString() ).isEmpty() )
             {
@@ -846,6 +1012,12 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             return tailPosition.distanceToHead( headPosition ) + 1;
         }
 
+        private long storedRemaining( )
+                throws LocalDBException
+        {
+            return storedSize() - pendingHeadRemovals - pendingTailRemovals;
+        }
+
         List<String> removeFirst( final int removalCount, final boolean returnValues ) throws LocalDBException
         {
             lock.writeLock().lock();
@@ -886,6 +1058,11 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
                 return Collections.emptyList();
             }
 
+            if ( batchEnabled )
+            {
+                return removeBatched( removalCount, returnValues, forward );
+            }
+
             final List<String> removalKeys = new ArrayList<>( removalCount );
             final List<String> removedValues = new ArrayList<>( removalCount );
             Position loopPosition = forward ? headPosition : tailPosition;
@@ -912,6 +1089,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
             localDB.removeAll( db, removalKeys );
             localDB.put( db, forward ? KEY_HEAD_POSITION : KEY_TAIL_POSITION, loopPosition.key() );
+            storedSize = Math.max( 0, storedSize - removalCount );
 
             if ( forward )
             {
@@ -925,6 +1103,58 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             return Collections.unmodifiableList( removedValues );
         }
 
+        private List<String> removeBatched( final int removalCount, final boolean returnValues, final boolean forward )
+                throws LocalDBException
+        {
+            final long effectiveCount = Math.min( removalCount, internalSize() );
+            final List<String> removedValues = new ArrayList<>( returnValues ? ( int ) effectiveCount : 0 );
+            for ( long i = 0; i < effectiveCount; i++ )
+            {
+                final String value = pollBuffered( forward, returnValues );
+                if ( returnValues && value != null )
+                {
+                    removedValues.add( value );
+                }
+            }
+
+            flushIfBatchFull();
+            return Collections.unmodifiableList( removedValues );
+        }
+
+        /**
+         * Remove a single value from the logical queue, which is made up of the head buffer, the stored values not yet
+         * pending removal, and the tail buffer.  Stored values are only marked for removal; the actual delete happens
+         * at the next flush.
+         */
+        private String pollBuffered( final boolean forward, final boolean readValue )
+                throws LocalDBException
+        {
+            final Deque<String> nearBuffer = forward ? headBuffer : tailBuffer;
+            if ( !nearBuffer.isEmpty() )
+            {
+                return forward ? nearBuffer.pollFirst() : nearBuffer.pollLast();
+            }
+
+            if ( storedRemaining() > 0 )
+            {
+                final Position position;
+                if ( forward )
+                {
+                    position = headPosition.previous( pendingHeadRemovals );
+                    pendingHeadRemovals++;
+                }
+                else
+                {
+                    position = tailPosition.next( pendingTailRemovals );
+                    pendingTailRemovals++;
+                }
+                return readValue ? localDB.get( db, position.key() ).orElse( null ) : null;
+            }
+
+            final Deque<String> farBuffer = forward ? tailBuffer : headBuffer;
+            return forward ? farBuffer.pollFirst() : farBuffer.pollLast();
+        }
+
         void addFirst( final Collection<String> values )
                 throws LocalDBException
         {
@@ -944,6 +1174,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
         String[] toArray()
                 throws LocalDBException
         {
+            flush();
             lock.readLock().lock();
             try
             {
@@ -992,6 +1223,23 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
                 throw new IllegalStateException( "queue overflow" );
             }
 
+            if ( batchEnabled )
+            {
+                for ( final String value : values )
+                {
+                    if ( forward )
+                    {
+                        headBuffer.addFirst( value );
+                    }
+                    else
+                    {
+                        tailBuffer.addLast( value );
+                    }
+                }
+                flushIfBatchFull();
+                return;
+            }
+
             final Iterator<String> valueIterator = values.iterator();
 
             final Map<String, String> keyValueMap = new HashMap<>( values.size() );
@@ -1010,6 +1258,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
 
             keyValueMap.put( forward ? KEY_HEAD_POSITION : KEY_TAIL_POSITION, loopPosition.key() );
             localDB.putAll( db, keyValueMap );
+            storedSize += values.size();
 
             if ( forward )
             {
@@ -1021,6 +1270,124 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
         }
 
+        private int pendingOperations()
+        {
+            return headBuffer.size() + tailBuffer.size() + ( int ) Math.min( Integer.MAX_VALUE, pendingHeadRemovals + pendingTailRemovals );
+        }
+
+        private void flushIfBatchFull()
+                throws LocalDBException
+        {
+            if ( pendingOperations() >= batchSize )
+            {
+                flushImpl();
+            }
+        }
+
+        void flush()
+                throws LocalDBException
+        {
+            lock.writeLock().lock();
+            try
+            {
+                flushImpl();
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void disableBatching()
+                throws LocalDBException
+        {
+            lock.writeLock().lock();
+            try
+            {
+                flushImpl();
+                batchEnabled = false;
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Write all staged operations using one {@link LocalDB#removeAll(LocalDB.DB, Collection)} and one
+         * {@link LocalDB#putAll(LocalDB.DB, Map)} call.  Must be called while holding the write lock.
+         */
+        private void flushImpl()
+                throws LocalDBException
+        {
+            if ( pendingOperations() == 0 )
+            {
+                return;
+            }
+
+            final Instant startTime = Instant.now();
+            final int operationCount = pendingOperations();
+            debugOutput( "pre flush()" );
+
+            final List<String> removalKeys = new ArrayList<>();
+            for ( long i = 0; i < pendingHeadRemovals; i++ )
+            {
+                removalKeys.add( headPosition.previous( i ).key() );
+            }
+            for ( long i = 0; i < pendingTailRemovals; i++ )
+            {
+                removalKeys.add( tailPosition.next( i ).key() );
+            }
+
+            final long storedRemaining = storedRemaining();
+            boolean empty = storedRemaining <= 0;
+            Position newHead = empty ? tailPosition : headPosition.previous( pendingHeadRemovals );
+            Position newTail = empty ? tailPosition : tailPosition.next( pendingTailRemovals );
+
+            final Map<String, String> keyValueMap = new HashMap<>( headBuffer.size() + tailBuffer.size() + 2 );
+
+            // head buffer is ordered head to tail, so the eldest staged head value is written first.
+            for ( final Iterator<String> iterator = headBuffer.descendingIterator(); iterator.hasNext(); )
+            {
+                if ( !empty )
+                {
+                    newHead = newHead.next();
+                }
+                keyValueMap.put( newHead.key(), iterator.next() );
+                empty = false;
+            }
+
+            for ( final String value : tailBuffer )
+            {
+                if ( !empty )
+                {
+                    newTail = newTail.previous();
+                }
+                keyValueMap.put( newTail.key(), value );
+                empty = false;
+            }
+
+            keyValueMap.put( KEY_HEAD_POSITION, newHead.key() );
+            keyValueMap.put( KEY_TAIL_POSITION, newTail.key() );
+
+            if ( !removalKeys.isEmpty() )
+            {
+                localDB.removeAll( db, removalKeys );
+            }
+            localDB.putAll( db, keyValueMap );
+
+            headPosition = newHead;
+            tailPosition = newTail;
+            storedSize = Math.max( 0, storedRemaining ) + headBuffer.size() + tailBuffer.size();
+            headBuffer.clear();
+            tailBuffer.clear();
+            pendingHeadRemovals = 0;
+            pendingTailRemovals = 0;
+
+            debugOutput( "post flush()" );
+            LOGGER.trace( () -> "flushed " + operationCount + " staged operations to db " + db, () -> TimeDuration.fromCurrent( startTime ) );
+        }
+
 
 
         List<String> getFirst( final int count )
@@ -1030,7 +1397,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             try
             {
                 debugOutput( "pre getFirst()" );
-                final List<String> returnList = getImpl( count, true );
+                final List<String> returnList = getImpl( 0, count, true );
                 debugOutput( "post getFirst()" );
                 return returnList;
             }
@@ -1040,6 +1407,20 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
         }
 
+        List<String> getFirst( final long offset, final int count )
+                throws LocalDBException
+        {
+            lock.readLock().lock();
+            try
+            {
+                return getImpl( offset, count, true );
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+        }
+
         List<String> getLast( final int count )
                 throws LocalDBException
         {
@@ -1047,7 +1428,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             try
             {
                 debugOutput( "pre getLast()" );
-                final List<String> returnList = getImpl( count, false );
+                final List<String> returnList = getImpl( 0, count, false );
                 debugOutput( "post getLast()" );
                 return returnList;
             }
@@ -1057,27 +1438,71 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
         }
 
-        private List<String> getImpl( final long count, final boolean forward )
+        private List<String> getImpl( final long offset, final long count, final boolean forward )
                 throws LocalDBException
         {
             long getCount = count;
-            if ( getCount < 1 )
+            if ( getCount < 1 || offset < 0 )
             {
                 return Collections.emptyList();
             }
 
-            if ( getCount > internalSize() )
+            if ( getCount > internalSize() - offset )
             {
-                getCount = internalSize();
+                getCount = internalSize() - offset;
+            }
+
+            if ( getCount < 1 )
+            {
+                return Collections.emptyList();
             }
 
             final List<String> returnList = new ArrayList<>();
+            long skipRemaining = offset;
+
+            final Deque<String> nearBuffer = forward ? headBuffer : tailBuffer;
+            final Iterator<String> nearIterator = forward ? nearBuffer.iterator() : nearBuffer.descendingIterator();
+            while ( returnList.size() < getCount && nearIterator.hasNext() )
+            {
+                final String value = nearIterator.next();
+                if ( skipRemaining > 0 )
+                {
+                    skipRemaining--;
+                }
+                else
+                {
+                    returnList.add( value );
+                }
+            }
 
-            Position nextPosition = forward ? headPosition : tailPosition;
-            while ( returnList.size() < getCount )
+            // stored values are addressed by position, so skipped values are never read.
+            long storedRemaining = storedRemaining();
+            final long storedSkip = Math.min( skipRemaining, Math.max( 0, storedRemaining ) );
+            skipRemaining -= storedSkip;
+            storedRemaining -= storedSkip;
+            Position nextPosition = forward
+                    ? headPosition.previous( pendingHeadRemovals + storedSkip )
+                    : tailPosition.next( pendingTailRemovals + storedSkip );
+            while ( returnList.size() < getCount && storedRemaining > 0 )
             {
                 returnList.add( localDB.get( db, nextPosition.key() ).orElseThrow() );
                 nextPosition = forward ? nextPosition.previous() : nextPosition.next();
+                storedRemaining--;
+            }
+
+            final Deque<String> farBuffer = forward ? tailBuffer : headBuffer;
+            final Iterator<String> farIterator = forward ? farBuffer.iterator() : farBuffer.descendingIterator();
+            while ( returnList.size() < getCount && farIterator.hasNext() )
+            {
+                final String value = farIterator.next();
+                if ( skipRemaining > 0 )
+                {
+                    skipRemaining--;
+                }
+                else
+                {
+                    returnList.add( value );
+                }
             }
 
             return Collections.unmodifiableList( returnList );
@@ -1161,7 +1586,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
                         TimeDuration.SECONDS_10.asDuration() );
 
                 // trim the top.
-                while ( !headPosition.equals( tailPosition ) && localDB.get( db, headPosition.key() ).isPresent() )
+                while ( !headPosition.equals( tailPosition ) && localDB.get( db, headPosition.key() ).isEmpty() )
                 {
                     examinedRecords.incrementAndGet();
                     conditionalTaskExecutor.conditionallyExecuteTask();
@@ -1171,7 +1596,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
                 localDB.put( db, KEY_HEAD_POSITION, headPosition.key() );
 
                 // trim the bottom.
-                while ( !headPosition.equals( tailPosition ) && localDB.get( db, tailPosition.toString() ).isPresent() )
+                while ( !headPosition.equals( tailPosition ) && localDB.get( db, tailPosition.toString() ).isEmpty() )
                 {
                     examinedRecords.incrementAndGet();
                     conditionalTaskExecutor.conditionallyExecuteTask();
@@ -1205,4 +1630,34 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
         }
     }
+
+    /**
+     * Batching behavior for a {@link LocalDBStoredQueue}.  A {@code batchSize} of zero disables batching so every
+     * operation is written to the LocalDB immediately.
+     */
+    @Value
+    @Builder
+    public static class Settings
+    {
+        @Builder.Default
+        private int batchSize = 0;
+
+        @Builder.Default
+        private TimeDuration durabilityWindow = TimeDuration.SECOND;
+
+        boolean isBatchEnabled()
+        {
+            return batchSize > 0;
+        }
+
+        static Settings fromAppConfig( final AppConfig appConfig )
+        {
+            return Settings.builder()
+                    .batchSize( Integer.parseInt( appConfig.readAppProperty( AppProperty.LOCALDB_QUEUE_BATCH_SIZE ) ) )
+                    .durabilityWindow( TimeDuration.of(
+                            Long.parseLong( appConfig.readAppProperty( AppProperty.LOCALDB_QUEUE_DURABILITY_WINDOW_MS ) ),
+                            TimeDuration.Unit.MILLISECONDS ) )
+                    .build();
+        }
+    }
 }
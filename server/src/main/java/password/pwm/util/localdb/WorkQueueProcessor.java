@@ -41,10 +41,13 @@ import password.pwm.util.logging.PwmLogger;
 import java.io.Serializable;
 import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
@@ -59,19 +62,28 @@ import java.util.function.Supplier;
 
 /**
  * A work item queue manager.   Items submitted to the queue will eventually be worked on by the client side @code {@link ItemProcessor}.
+ *
+ * <p>Queued items are routed to one of {@link Settings#getWorkerThreads()} partitions using
+ * {@link ItemProcessor#partitionKey(Serializable)}.  Items sharing a partition key are processed in FIFO order by the
+ * same worker, while items in other partitions are processed in parallel.  Items are only removed from the
+ * backing queue once they and every item ahead of them have completed, so a restart may repeat items that completed
+ * behind an unfinished item but will not lose any.  Items of a partition waiting to retry do not count against the
+ * active dispatch window, so other partitions continue to drain while it waits, but the total number of items read
+ * ahead of the queue head is capped so that a long retry neither buffers the queue in memory nor leaves more than a
+ * bounded number of completed items to be repeated.</p>
  */
 public final class WorkQueueProcessor<W extends Serializable>
 {
     private static final TimeDuration SUBMIT_QUEUE_FULL_RETRY_CYCLE_INTERVAL = TimeDuration.of( 100, TimeDuration.Unit.MILLISECONDS );
     private static final TimeDuration CLOSE_RETRY_CYCLE_INTERVAL = TimeDuration.of( 5, TimeDuration.Unit.MILLISECONDS );
 
-    private final Deque<String> queue;
+    private final LocalDBStoredQueue queue;
     private final Settings settings;
     private final ItemProcessor<W> itemProcessor;
 
     private final PwmLogger logger;
 
-    private volatile WorkerThread workerThread;
+    private volatile List<WorkerThread> workerThreads;
 
     private final AtomicLoopIntIncrementer idGenerator = new AtomicLoopIntIncrementer();
     private final Lock submitLock = new ReentrantLock();
@@ -84,12 +96,20 @@ public final class WorkQueueProcessor<W extends Serializable>
 
     private final StatisticCounterBundle<WorkQueueStat> workQueueStats = new StatisticCounterBundle<>( WorkQueueStat.class );
 
+    // items read from the head of the queue and handed to a partition, in queue order.
+    private final Deque<DispatchedItem<W>> dispatchWindow = new ArrayDeque<>();
+    private final Lock dispatchLock = new ReentrantLock();
+    private final int maxDispatchWindow;
+    private final int maxWindowSize;
+
     enum WorkQueueStat
     {
         preQueueSubmit,
         preQueueBypass,
         preQueueFallback,
         queueProcessItems,
+        queueRetryItems,
+        queueSuccessItems,
     }
 
     public enum ProcessResult
@@ -102,7 +122,7 @@ public final class WorkQueueProcessor<W extends Serializable>
 
     public WorkQueueProcessor(
             final PwmApplication pwmApplication,
-            final Deque<String> queue,
+            final LocalDBStoredQueue queue,
             final Settings settings,
             final ItemProcessor<W> itemProcessor,
             final Class sourceClass
@@ -117,12 +137,24 @@ public final class WorkQueueProcessor<W extends Serializable>
         {
             logger.debug( () -> "opening with " + queue.size() + " items in work queue" );
         }
-        logger.trace( () -> "initializing worker thread with settings " + JsonFactory.get().serialize( settings ) );
+        logger.trace( () -> "initializing worker threads with settings " + JsonFactory.get().serialize( settings ) );
+
+        final int workerCount = Math.max( 1, settings.getWorkerThreads() );
+        this.maxDispatchWindow = workerCount * Math.max( 1, settings.getPartitionDepth() );
 
-        this.workerThread = new WorkerThread();
-        workerThread.setDaemon( true );
-        workerThread.setName( PwmScheduler.makeThreadName( pwmApplication, sourceClass ) + "-worker-" );
-        workerThread.start();
+        // retrying partitions may hold up to one further window of items, including completed items behind them.
+        this.maxWindowSize = maxDispatchWindow * 2;
+
+        final List<WorkerThread> workers = new ArrayList<>( workerCount );
+        for ( int i = 0; i < workerCount; i++ )
+        {
+            final WorkerThread workerThread = new WorkerThread( i );
+            workerThread.setDaemon( true );
+            workerThread.setName( PwmScheduler.makeThreadName( pwmApplication, sourceClass ) + "-worker-" + i );
+            workers.add( workerThread );
+        }
+        this.workerThreads = Collections.unmodifiableList( workers );
+        workers.forEach( Thread::start );
 
         if ( settings.getPreThreads() > 0 )
         {
@@ -142,7 +174,7 @@ public final class WorkQueueProcessor<W extends Serializable>
 
     public void close( )
     {
-        if ( workerThread == null )
+        if ( workerThreads == null )
         {
             return;
         }
@@ -152,19 +184,23 @@ public final class WorkQueueProcessor<W extends Serializable>
             executorService.shutdown();
         }
 
-        final WorkerThread localWorkerThread = workerThread;
-        workerThread = null;
+        final List<WorkerThread> localWorkerThreads = workerThreads;
+        workerThreads = null;
 
         final Instant startTime = Instant.now();
         logger.debug( () -> "attempting to flush queue prior to shutdown, items in queue=" + queueSize() );
 
-        localWorkerThread.flushQueueAndClose();
+        localWorkerThreads.forEach( WorkerThread::setShutdownFlag );
+        localWorkerThreads.forEach( WorkerThread::flushQueueAndClose );
 
-        if ( localWorkerThread.isRunning() )
+        if ( localWorkerThreads.stream().anyMatch( WorkerThread::isRunning ) )
         {
-            settings.getMaxShutdownWaitTime().pause( CLOSE_RETRY_CYCLE_INTERVAL, () -> !localWorkerThread.isRunning() );
+            settings.getMaxShutdownWaitTime().pause( CLOSE_RETRY_CYCLE_INTERVAL,
+                    () -> localWorkerThreads.stream().noneMatch( WorkerThread::isRunning ) );
         }
 
+        queue.close();
+
         final TimeDuration timeDuration = TimeDuration.fromCurrent( startTime );
         final String msg = "shutting down with " + queue.size() + " items remaining in work queue (" + timeDuration.asCompactString() + ")";
         if ( !queue.isEmpty() )
@@ -245,7 +281,7 @@ public final class WorkQueueProcessor<W extends Serializable>
     private void submitToQueue( final ItemWrapper<W> itemWrapper )
             throws PwmOperationalException
     {
-        if ( workerThread == null )
+        if ( workerThreads == null )
         {
             final String errorMsg = this.getClass().getName() + " has been closed, unable to submit new item";
             throw new PwmOperationalException( new ErrorInformation( PwmError.ERROR_INTERNAL, errorMsg ) );
@@ -274,7 +310,7 @@ public final class WorkQueueProcessor<W extends Serializable>
         }
 
         eldestItem = itemWrapper.getDate();
-        workerThread.notifyWorkPending();
+        notifyAllWorkers();
 
         if ( attempts > 1 )
         {
@@ -321,14 +357,138 @@ public final class WorkQueueProcessor<W extends Serializable>
         return traceMsg;
     }
 
+    private void notifyAllWorkers()
+    {
+        final List<WorkerThread> localWorkerThreads = workerThreads;
+        if ( localWorkerThreads != null )
+        {
+            localWorkerThreads.forEach( WorkerThread::notifyWorkPending );
+        }
+    }
+
+    private int partitionForItem( final ItemWrapper<W> itemWrapper, final int partitionCount )
+    {
+        if ( partitionCount <= 1 )
+        {
+            return 0;
+        }
+
+        String partitionKey = null;
+        try
+        {
+            partitionKey = itemProcessor.partitionKey( itemWrapper.getWorkItem() );
+        }
+        catch ( final Throwable e )
+        {
+            logger.trace( () -> "unable to determine partition key for item, will use item id: " + e.getMessage() );
+        }
+
+        final String effectiveKey = partitionKey == null ? itemWrapper.getId() : partitionKey;
+        return Math.floorMod( effectiveKey == null ? 0 : effectiveKey.hashCode(), partitionCount );
+    }
+
+    /**
+     * Read items beyond the current dispatch window and route each to its partition.  The window always holds the
+     * items at the head of the queue in queue order, so its size is the read position of the next unread item.
+     * Must be called while holding {@link #dispatchLock}.
+     */
+    private void fillDispatchWindow( final List<WorkerThread> workers )
+    {
+        final int freeSlots = Math.min(
+                maxDispatchWindow - activeDispatchCount( workers ),
+                maxWindowSize - dispatchWindow.size() );
+        if ( freeSlots <= 0 )
+        {
+            return;
+        }
+
+        boolean[] notifyPartitions = null;
+        for ( final String nextStrValue : queue.peekFirst( dispatchWindow.size(), freeSlots ) )
+        {
+            DispatchedItem<W> dispatchedItem;
+            try
+            {
+                final ItemWrapper<W> itemWrapper = JsonFactory.get().deserialize( nextStrValue, ItemWrapper.class );
+                final int partition = partitionForItem( itemWrapper, workers.size() );
+                dispatchedItem = new DispatchedItem<>( itemWrapper, partition );
+                workers.get( partition ).partitionQueue.addLast( dispatchedItem );
+                notifyPartitions = notifyPartitions == null ? new boolean[ workers.size() ] : notifyPartitions;
+                notifyPartitions[partition] = true;
+            }
+            catch ( final Throwable e )
+            {
+                logger.warn( () -> "discarding stored record due to parsing error: " + e.getMessage() + ", record=" + nextStrValue );
+                dispatchedItem = new DispatchedItem<>( null, -1 );
+                dispatchedItem.completed = true;
+            }
+            dispatchWindow.addLast( dispatchedItem );
+        }
+
+        if ( notifyPartitions != null )
+        {
+            for ( int i = 0; i < notifyPartitions.length; i++ )
+            {
+                if ( notifyPartitions[i] )
+                {
+                    workers.get( i ).notifyWorkPending();
+                }
+            }
+        }
+
+        removeCompletedFromQueueHead();
+    }
+
+    /**
+     * Count the window items that hold a dispatch slot.  Completed items, and items of a partition waiting to retry,
+     * give up their slot so that a stalled partition does not prevent other partitions from reading further into the
+     * queue, up to {@link #maxWindowSize}.  Must be called while holding {@link #dispatchLock}.
+     */
+    private int activeDispatchCount( final List<WorkerThread> workers )
+    {
+        int activeCount = 0;
+        for ( final DispatchedItem<W> dispatchedItem : dispatchWindow )
+        {
+            if ( !dispatchedItem.completed && !workers.get( dispatchedItem.partition ).isRetryPending() )
+            {
+                activeCount++;
+            }
+        }
+        return activeCount;
+    }
+
+    /**
+     * Remove completed items from the head of the queue.  Items completed out of order remain in the queue until
+     * every item ahead of them has completed.  Must be called while holding {@link #dispatchLock}.
+     */
+    private int removeCompletedFromQueueHead()
+    {
+        int removedCount = 0;
+        while ( !dispatchWindow.isEmpty() && dispatchWindow.peekFirst().completed )
+        {
+            dispatchWindow.pollFirst();
+            queue.removeFirst();
+            removedCount++;
+        }
+        return removedCount;
+    }
+
     private class WorkerThread extends Thread
     {
+        private final int partition;
+        private final Deque<DispatchedItem<W>> partitionQueue = new ArrayDeque<>();
+        private final StatisticCounterBundle<WorkQueueStat> partitionStats = new StatisticCounterBundle<>( WorkQueueStat.class );
+        private final EventRateMeter partitionSendRate = new EventRateMeter( TimeDuration.MINUTE );
 
         private final AtomicBoolean running = new AtomicBoolean( false );
         private final AtomicBoolean shutdownFlag = new AtomicBoolean( false );
         private final AtomicBoolean notifyWorkFlag = new AtomicBoolean( true );
 
-        private Instant retryWakeupTime;
+        private volatile Instant retryWakeupTime;
+
+        WorkerThread( final int partition )
+        {
+            this.partition = partition;
+        }
 
         @Override
         public void run( )
@@ -347,16 +507,17 @@ public final class WorkQueueProcessor<W extends Serializable>
                 logger.error( () -> "unexpected error processing work item queue: " + JavaHelper.readHostileExceptionMessage( t ), t );
             }
 
-            logger.trace( () -> "worker thread beginning shutdown..." );
+            logger.trace( () -> "worker thread " + partition + " beginning shutdown..." );
 
-            if ( !queue.isEmpty() )
+            if ( partitionDepth() > 0 )
             {
-                logger.trace( () -> "processing remaining " + queue.size() + " items" );
+                logger.trace( () -> "processing remaining " + partitionDepth() + " items in partition " + partition );
 
                 try
                 {
                     final Instant shutdownStartTime = Instant.now();
-                    while ( retryWakeupTime == null && !queue.isEmpty() && TimeDuration.fromCurrent( shutdownStartTime ).isLongerThan( settings.getMaxShutdownWaitTime() ) )
+                    while ( retryWakeupTime == null && partitionDepth() > 0
+                            && !TimeDuration.fromCurrent( shutdownStartTime ).isLongerThan( settings.getMaxShutdownWaitTime() ) )
                     {
                         processNextItem();
                     }
@@ -371,6 +532,11 @@ public final class WorkQueueProcessor<W extends Serializable>
             running.set( false );
         }
 
+        void setShutdownFlag()
+        {
+            shutdownFlag.set( true );
+        }
+
         void flushQueueAndClose( )
         {
             shutdownFlag.set( true );
@@ -383,7 +549,7 @@ public final class WorkQueueProcessor<W extends Serializable>
                 logger.trace( () -> "running = " + running.get() );
                 final TimeDuration maxWaitTime = TimeDuration.of( 10, TimeDuration.Unit.SECONDS );
                 final Instant startTime = Instant.now();
-                maxWaitTime.of( 10, TimeDuration.Unit.SECONDS ).pause( CLOSE_RETRY_CYCLE_INTERVAL, () -> !running.get() );
+                maxWaitTime.pause( CLOSE_RETRY_CYCLE_INTERVAL, () -> !running.get() );
                 final TimeDuration waitTime = TimeDuration.fromCurrent( startTime );
                 logger.trace( () -> "waited " + waitTime.asCompactString() + " workQueueSize=" + queue.size() + " running=" + running.get() );
             }
@@ -409,9 +575,12 @@ public final class WorkQueueProcessor<W extends Serializable>
                 }
                 else
                 {
-                    if ( queue.isEmpty() && !notifyWorkFlag.get() )
+                    if ( partitionDepth() == 0 && !notifyWorkFlag.get() )
                     {
-                        eldestItem = null;
+                        if ( queue.isEmpty() )
+                        {
+                            eldestItem = null;
+                        }
                         LockSupport.park( this );
                     }
                 }
@@ -425,30 +594,59 @@ public final class WorkQueueProcessor<W extends Serializable>
             return running.get();
         }
 
-        void processNextItem( )
+        boolean isRetryPending()
         {
-            final Instant processStartTime = Instant.now();
-            final String nextStrValue = queue.peekFirst();
-            if ( nextStrValue == null )
+            return retryWakeupTime != null;
+        }
+
+        int partitionDepth()
+        {
+            dispatchLock.lock();
+            try
             {
-                return;
+                return partitionQueue.size();
+            }
+            finally
+            {
+                dispatchLock.unlock();
             }
+        }
 
-            final ItemWrapper<W> itemWrapper;
+        private DispatchedItem<W> nextPartitionItem()
+        {
+            dispatchLock.lock();
             try
             {
-                itemWrapper = JsonFactory.get().deserialize( nextStrValue, ItemWrapper.class );
-                if ( TimeDuration.fromCurrent( itemWrapper.getDate() ).isLongerThan( settings.getRetryDiscardAge() ) )
+                if ( partitionQueue.isEmpty() )
                 {
-                    removeQueueTop();
-                    logger.warn( () -> "discarding queued item due to age, item=" + makeDebugText( itemWrapper ) );
-                    return;
+                    final List<WorkerThread> localWorkerThreads = workerThreads;
+                    if ( localWorkerThreads != null )
+                    {
+                        fillDispatchWindow( localWorkerThreads );
+                    }
                 }
+                return partitionQueue.peekFirst();
             }
-            catch ( final Throwable e )
+            finally
+            {
+                dispatchLock.unlock();
+            }
+        }
+
+        void processNextItem( )
+        {
+            final Instant processStartTime = Instant.now();
+            final DispatchedItem<W> dispatchedItem = nextPartitionItem();
+            if ( dispatchedItem == null )
             {
-                removeQueueTop();
-                logger.warn( () -> "discarding stored record due to parsing error: " + e.getMessage() + ", record=" + nextStrValue );
+                return;
+            }
+
+            final ItemWrapper<W> itemWrapper = dispatchedItem.itemWrapper;
+            if ( TimeDuration.fromCurrent( itemWrapper.getDate() ).isLongerThan( settings.getRetryDiscardAge() ) )
+            {
+                completeItem( dispatchedItem );
+                logger.warn( () -> "discarding queued item due to age, item=" + makeDebugText( itemWrapper ) );
                 return;
             }
 
@@ -456,10 +654,11 @@ public final class WorkQueueProcessor<W extends Serializable>
             try
             {
                 workQueueStats.increment( WorkQueueStat.queueProcessItems );
+                partitionStats.increment( WorkQueueStat.queueProcessItems );
                 processResult = itemProcessor.process( itemWrapper.getWorkItem() );
                 if ( processResult == null )
                 {
-                    removeQueueTop();
+                    completeItem( dispatchedItem );
                     logger.warn( () -> "itemProcessor.process() returned null, removing; item=" + makeDebugText( itemWrapper ) );
                 }
                 else
@@ -468,21 +667,31 @@ public final class WorkQueueProcessor<W extends Serializable>
                     {
                         case FAILED:
                         {
-                            removeQueueTop();
+                            completeItem( dispatchedItem );
                             logger.error( () -> "discarding item after process failure, item=" + makeDebugText( itemWrapper ) );
                         }
                         break;
 
                         case RETRY:
                         {
+                            workQueueStats.increment( WorkQueueStat.queueRetryItems );
+                            partitionStats.increment( WorkQueueStat.queueRetryItems );
                             retryWakeupTime = Instant.ofEpochMilli( System.currentTimeMillis() + settings.getRetryInterval().asMillis() );
-                            logger.debug( () -> "will retry item after failure, item=" + makeDebugText( itemWrapper ) );
+                            logger.debug( () -> "will retry item in partition " + partition + " after failure, item=" + makeDebugText( itemWrapper ) );
+
+                            // this partition's items no longer hold dispatch window slots, let other partitions read ahead
+                            if ( workerThreads != null && workerThreads.size() > 1 )
+                            {
+                                notifyAllWorkers();
+                            }
                         }
                         break;
 
                         case SUCCESS:
                         {
-                            removeQueueTop();
+                            completeItem( dispatchedItem );
+                            partitionStats.increment( WorkQueueStat.queueSuccessItems );
+                            partitionSendRate.markEvents( 1 );
                             logAndStatUpdateForSuccess( itemWrapper, () -> TimeDuration.fromCurrent( processStartTime ) );
                         }
                         break;
@@ -500,17 +709,58 @@ public final class WorkQueueProcessor<W extends Serializable>
             {
                 if ( !shutdownFlag.get() )
                 {
-                    removeQueueTop();
+                    completeItem( dispatchedItem );
                     logger.error( () -> "unexpected error while processing work queue: " + e.getMessage() );
                 }
             }
 
         }
 
-        private void removeQueueTop( )
+        private void completeItem( final DispatchedItem<W> dispatchedItem )
         {
-            queue.removeFirst();
+            final int removedCount;
+            dispatchLock.lock();
+            try
+            {
+                partitionQueue.remove( dispatchedItem );
+                dispatchedItem.completed = true;
+                removedCount = removeCompletedFromQueueHead();
+            }
+            finally
+            {
+                dispatchLock.unlock();
+            }
             retryWakeupTime = null;
+
+            // room in the dispatch window may allow other idle partitions to make progress
+            if ( removedCount > 0 && workerThreads != null && workerThreads.size() > 1 )
+            {
+                notifyAllWorkers();
+            }
+        }
+
+        Map<String, String> debugInfo()
+        {
+            final Map<String, String> output = new HashMap<>();
+            final String prefix = "partition" + partition + ".";
+            output.put( prefix + "depth", String.valueOf( partitionDepth() ) );
+            output.put( prefix + "sendRate", partitionSendRate.readEventRate().setScale( 2, RoundingMode.DOWN ) + "/s" );
+            output.put( prefix + "retryPending", String.valueOf( isRetryPending() ) );
+            partitionStats.debugStats().forEach( ( key, value ) -> output.put( prefix + key, value ) );
+            return output;
+        }
+    }
+
+    private static class DispatchedItem<W extends Serializable>
+    {
+        private final ItemWrapper<W> itemWrapper;
+        private final int partition;
+        private boolean completed;
+
+        DispatchedItem( final ItemWrapper<W> itemWrapper, final int partition )
+        {
+            this.itemWrapper = itemWrapper;
+            this.partition = partition;
         }
     }
 
@@ -578,6 +828,17 @@ public final class WorkQueueProcessor<W extends Serializable>
         ProcessResult process( W workItem );
 
         String convertToDebugString( W workItem );
+
+        /**
+         * Items returning the same partition key are processed in submission order by a single worker.  Items
+         * returning {@code null} may be processed by any worker.
+         * @param workItem item to be processed
+         * @return key used to route the item to a worker partition
+         */
+        default String partitionKey( final W workItem )
+        {
+            return null;
+        }
     }
 
     @Value
@@ -590,6 +851,12 @@ public final class WorkQueueProcessor<W extends Serializable>
         @Builder.Default
         private int preThreads = 0;
 
+        @Builder.Default
+        private int workerThreads = 1;
+
+        @Builder.Default
+        private int partitionDepth = 10;
+
         @Builder.Default
         private TimeDuration maxSubmitWaitTime = TimeDuration.of( 5, TimeDuration.Unit.SECONDS );
 
@@ -622,9 +889,14 @@ public final class WorkQueueProcessor<W extends Serializable>
         {
             output.put( "preQueueThreads", String.valueOf( executorService.getActiveCount() ) );
         }
-        if ( workerThread != null )
+        final List<WorkerThread> localWorkerThreads = workerThreads;
+        if ( localWorkerThreads != null )
         {
-            output.put( "postQueueThreads", workerThread.isRunning() ? "1" : "0" );
+            output.put( "postQueueThreads", String.valueOf( localWorkerThreads.stream().filter( WorkerThread::isRunning ).count() ) );
+            if ( localWorkerThreads.size() > 1 )
+            {
+                localWorkerThreads.forEach( workerThread -> output.putAll( workerThread.debugInfo() ) );
+            }
         }
         output.putAll( workQueueStats.debugStats() );
         return Collections.unmodifiableMap( output );
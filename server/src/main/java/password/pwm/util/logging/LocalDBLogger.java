@@ -253,6 +253,7 @@ public class LocalDBLogger extends AbstractPwmService implements PwmService
             }
             writerService.execute( new FlushTask() );
             JavaHelper.closeAndWaitExecutor( writerService, TimeDuration.SECONDS_10 );
+            localDBListQueue.close();
         }
         setStatus( STATUS.CLOSED );
 
@@ -20,6 +20,7 @@
 
 package password.pwm.util.macro;
 
+import lombok.EqualsAndHashCode;
 import password.pwm.PwmApplication;
 import password.pwm.PwmConstants;
 import password.pwm.PwmDomain;
@@ -37,13 +38,20 @@ import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
- * External macro @External1:&gt;value&lt;@ where 1 is incremental configuration item.
+ * External macro @External1:&gt;value&lt;@ where 1 is incremental configuration item.  Instances with the same
+ * iteration and url are equal.
  */
+@EqualsAndHashCode( callSuper = false, onlyExplicitlyIncluded = true )
 class ExternalRestMacro extends AbstractMacro
 {
     private static final PwmLogger LOGGER = PwmLogger.forClass( ExternalRestMacro.class );
 
     private final Pattern pattern;
+
+    @EqualsAndHashCode.Include
+    private final int iteration;
+
+    @EqualsAndHashCode.Include
     private final String url;
 
     ExternalRestMacro(
@@ -52,6 +60,7 @@ class ExternalRestMacro extends AbstractMacro
     )
     {
         this.pattern = Pattern.compile( "@External" + iteration + ":.*@" );
+        this.iteration = iteration;
         this.url = url;
     }
 
@@ -20,14 +20,18 @@
 
 package password.pwm.util.macro;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Value;
 import password.pwm.PwmApplication;
 import password.pwm.PwmApplicationMode;
 import password.pwm.PwmConstants;
 import password.pwm.PwmDomain;
 import password.pwm.bean.DomainID;
 import password.pwm.bean.SessionLabel;
+import password.pwm.config.DomainConfig;
 import password.pwm.config.PwmSetting;
 import password.pwm.util.java.StatisticCounterBundle;
 import password.pwm.util.java.StringUtil;
@@ -53,6 +57,16 @@ public class MacroMachine
 
     private static final Map<Pattern, Macro> BUILTIN_MACROS = makeImplementations();
 
+    private static final int TEMPLATE_CACHE_MAX_ENTRIES = 1000;
+
+    private static final Cache<TemplateKey, MacroTemplate> TEMPLATE_CACHE = Caffeine.newBuilder()
+            .maximumSize( TEMPLATE_CACHE_MAX_ENTRIES )
+            .build();
+
+    private static final Cache<DomainConfig, Map<Pattern, Macro>> EXTERNAL_MACROS = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
     private static final StatisticCounterBundle<DebugItem> STATISTIC_COUNTER_BUNDLE = new StatisticCounterBundle<>( DebugItem.class );
 
     enum DebugItem
@@ -60,6 +74,7 @@ public class MacroMachine
         Matches,
         Replacements,
         ExternalInvokes,
+        TemplateCompiles,
     }
 
     private static Map<Pattern, Macro> makeImplementations( )
@@ -90,12 +105,10 @@ public class MacroMachine
 
     }
 
-    private static Map<Pattern, Macro> makeExternalImplementations( final PwmDomain pwmDomain )
+    private static Map<Pattern, Macro> makeExternalImplementations( final DomainConfig domainConfig )
     {
         final LinkedHashMap<Pattern, Macro> map = new LinkedHashMap<>();
-        final List<String> externalMethods = ( pwmDomain == null )
-                ? Collections.emptyList()
-                : pwmDomain.getConfig().readSettingAsStringArray( PwmSetting.EXTERNAL_MACROS_REST_URLS );
+        final List<String> externalMethods = domainConfig.readSettingAsStringArray( PwmSetting.EXTERNAL_MACROS_REST_URLS );
 
         int iteration = 0;
         for ( final String url : externalMethods )
@@ -105,9 +118,17 @@ public class MacroMachine
             final Pattern pattern = macroImplementation.getRegExPattern();
             map.put( pattern, macroImplementation );
         }
-        return map;
+        return Collections.unmodifiableMap( map );
     }
 
+    private static Map<Pattern, Macro> externalImplementations( final PwmDomain pwmDomain )
+    {
+        if ( pwmDomain == null )
+        {
+            return Collections.emptyMap();
+        }
+        return EXTERNAL_MACROS.get( pwmDomain.getConfig(), MacroMachine::makeExternalImplementations );
+    }
 
     public static String expandMacros(
             final MacroRequest macroRequest,
@@ -119,11 +140,16 @@ public class MacroMachine
             return "";
         }
 
-        final Set<Macro.Scope> scopes = effectiveScopesForRequest( macroRequest );
+        // every macro pattern starts with a delimiter, so there is nothing to parse or cache
+        if ( input.indexOf( '@' ) < 0 )
+        {
+            return input;
+        }
 
-        final Map<Pattern, Macro> macroImplementations = new LinkedHashMap<>( BUILTIN_MACROS );
+        final Set<Macro.Scope> scopes = effectiveScopesForRequest( macroRequest );
 
         //First the User macros
+        Map<Pattern, Macro> externalMacros = Collections.emptyMap();
         if ( scopes.contains( Macro.Scope.User ) )
         {
             if ( macroRequest.getPwmApplication() != null
@@ -132,19 +158,85 @@ public class MacroMachine
             {
                 final DomainID domainID = macroRequest.getUserInfo().getUserIdentity().getDomainID();
                 final PwmDomain pwmDomain = macroRequest.getPwmApplication().domains().get( domainID );
-                macroImplementations.putAll( makeExternalImplementations( pwmDomain ) );
+                externalMacros = externalImplementations( pwmDomain );
             }
         }
 
-        final ReplaceWorkData workData = new ReplaceWorkData( input, input, macroRequest );
+        final Map<Pattern, Macro> finalExternalMacros = externalMacros;
+        final TemplateKey templateKey = new TemplateKey( input, scopes, List.copyOf( externalMacros.values() ) );
+        final MacroTemplate template = TEMPLATE_CACHE.get( templateKey, key ->
+        {
+            STATISTIC_COUNTER_BUNDLE.increment( DebugItem.TemplateCompiles );
+            return MacroTemplate.compile( input, applicableMacros( scopes, finalExternalMacros ) );
+        } );
+
+        final StringBuilder output = new StringBuilder( input.length() );
+        for ( final MacroTemplate.Segment segment : template.getSegments() )
+        {
+            if ( segment.getMacro() == null )
+            {
+                output.append( segment.getText() );
+            }
+            else
+            {
+                STATISTIC_COUNTER_BUNDLE.increment( DebugItem.Matches );
+                final String replaceStr = replaceValue( segment.getMacro(), segment.getText(), macroRequest );
+                output.append( replaceStr == null ? segment.getText() : replaceStr );
+            }
+        }
 
-        macroImplementations.entrySet().stream()
-                .filter( entry -> scopes.contains( entry.getValue().getScope() ) )
-                .forEachOrdered( entry -> doRequest( workData,  entry.getKey(), entry.getValue() ) );
+        if ( template.getPostMacros().isEmpty() )
+        {
+            return output.toString();
+        }
 
+        final String expanded = output.toString();
+        final ReplaceWorkData workData = new ReplaceWorkData( expanded, expanded, macroRequest );
+        template.getPostMacros().forEach( macro -> doRequest( workData, macro.getRegExPattern(), macro ) );
         return workData.getWorkingString();
     }
 
+    /**
+     * Test if {@code input} only references macros of {@link Macro.Scope#Static} scope, in which case its expanded
+     * value never changes and may be computed once.  System macros such as {@code @CurrentTime@} or {@code @UUID@}
+     * have a different value for each expansion, and are only expanded while the application is running.
+     *
+     * @param input value that may contain macros
+     * @return true if the expanded value of {@code input} is always the same
+     */
+    public static boolean isStaticExpansion( final String input )
+    {
+        if ( StringUtil.isEmpty( input ) || input.indexOf( '@' ) < 0 )
+        {
+            return true;
+        }
+
+        return BUILTIN_MACROS.values().stream()
+                .filter( macro -> macro.getScope() != Macro.Scope.Static )
+                .noneMatch( macro -> macro.getRegExPattern().matcher( input ).find() );
+    }
+
+    private static List<Macro> applicableMacros( final Set<Macro.Scope> scopes, final Map<Pattern, Macro> externalMacros )
+    {
+        final Map<Pattern, Macro> macroImplementations = new LinkedHashMap<>( BUILTIN_MACROS );
+        macroImplementations.putAll( externalMacros );
+        return macroImplementations.values().stream()
+                .filter( macro -> scopes.contains( macro.getScope() ) )
+                .collect( Collectors.toUnmodifiableList() );
+    }
+
+    /**
+     * External macros are compared by value (see {@link ExternalRestMacro}), so a rebuilt external macro map with
+     * the same configuration still finds the templates compiled against the previous map.
+     */
+    @Value
+    private static class TemplateKey
+    {
+        private final String input;
+        private final Set<Macro.Scope> scopes;
+        private final List<Macro> externalMacros;
+    }
+
     @Data
     @AllArgsConstructor
     private static class ReplaceWorkData
@@ -190,13 +282,24 @@ public class MacroMachine
             final Matcher matcher,
             final MacroRequest macroRequestInfo
     )
+    {
+        final String replaceStr = replaceValue( macroImplementation, matcher.group(), macroRequestInfo );
+        if ( replaceStr == null )
+        {
+            return input;
+        }
+        return new StringBuilder( input ).replace( matcher.start(), matcher.end(), replaceStr ).toString();
+    }
+
+    private static String replaceValue(
+            final Macro macroImplementation,
+            final String matchedStr,
+            final MacroRequest macroRequestInfo
+    )
     {
         final SessionLabel sessionLabel = macroRequestInfo.getSessionLabel();
         final PwmApplication pwmApplication = macroRequestInfo.getPwmApplication();
         final Instant startTime = Instant.now();
-        final String matchedStr = matcher.group();
-        final int startPos = matcher.start();
-        final int endPos = matcher.end();
 
         String replaceStr = "";
         try
@@ -222,7 +325,7 @@ public class MacroMachine
 
         if ( replaceStr == null )
         {
-            return input;
+            return null;
         }
 
         final MacroReplacer macroReplacer = macroRequestInfo.getMacroReplacer();
@@ -251,7 +354,7 @@ public class MacroMachine
                         () -> TimeDuration.fromCurrent( startTime ) );
             }
         }
-        return new StringBuilder( input ).replace( startPos, endPos, replaceStr ).toString();
+        return replaceStr;
     }
 
     private static Set<Macro.Scope> effectiveScopesForRequest( final MacroRequest macroRequestInfo )
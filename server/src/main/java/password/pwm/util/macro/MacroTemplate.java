@@ -0,0 +1,126 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.macro;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+
+/**
+ * Macro input string pre-parsed into literal segments and macro invocations, so that expansion is a single
+ * append pass instead of a regex re-scan of the whole working string for every match.
+ *
+ * <p>The input is read left to right.  At each position the macros are tried in application order and the first
+ * one matching at that position is used, so where matches of different macros overlap, the leftmost match wins.
+ * Macro output is never parsed again, with the exception of post-sequence macros (such as
+ * {@code @Encode:...:[[...]]@}) which wrap the output of other macros and so are applied to the assembled
+ * result.</p>
+ */
+@Value
+class MacroTemplate
+{
+    private static final char MACRO_DELIMITER = '@';
+
+    private final List<Segment> segments;
+    private final List<Macro> postMacros;
+
+    @Value
+    static class Segment
+    {
+        /**
+         * Literal text, or for macro segments the matched macro text.
+         */
+        private final String text;
+
+        /**
+         * Macro to invoke, or {@code null} for a literal segment.
+         */
+        private final Macro macro;
+    }
+
+    /**
+     * Parse {@code input} against {@code macros}, which must already be in application order and filtered to
+     * the effective scopes.  Every macro pattern starts with the macro delimiter.
+     */
+    static MacroTemplate compile( final String input, final List<Macro> macros )
+    {
+        final List<Macro> segmentMacros = new ArrayList<>( macros.size() );
+        final List<Macro> postMacros = new ArrayList<>();
+        final List<Matcher> matchers = new ArrayList<>( macros.size() );
+
+        for ( final Macro macro : macros )
+        {
+            final Matcher matcher = macro.getRegExPattern().matcher( input );
+            if ( macro.getSequence() == Macro.Sequence.post )
+            {
+                if ( matcher.find() )
+                {
+                    postMacros.add( macro );
+                }
+            }
+            else
+            {
+                segmentMacros.add( macro );
+                matchers.add( matcher.useTransparentBounds( true ).useAnchoringBounds( false ) );
+            }
+        }
+
+        final List<Segment> segments = new ArrayList<>();
+        int literalStart = 0;
+        int position = input.indexOf( MACRO_DELIMITER );
+        while ( position >= 0 )
+        {
+            int matchEnd = -1;
+            for ( int i = 0; i < matchers.size() && matchEnd < 0; i++ )
+            {
+                final Matcher matcher = matchers.get( i ).region( position, input.length() );
+                if ( matcher.lookingAt() && matcher.end() > position )
+                {
+                    if ( position > literalStart )
+                    {
+                        segments.add( new Segment( input.substring( literalStart, position ), null ) );
+                    }
+                    segments.add( new Segment( input.substring( position, matcher.end() ), segmentMacros.get( i ) ) );
+                    matchEnd = matcher.end();
+                }
+            }
+
+            if ( matchEnd >= 0 )
+            {
+                literalStart = matchEnd;
+                position = input.indexOf( MACRO_DELIMITER, matchEnd );
+            }
+            else
+            {
+                position = input.indexOf( MACRO_DELIMITER, position + 1 );
+            }
+        }
+        if ( literalStart < input.length() )
+        {
+            segments.add( new Segment( input.substring( literalStart ), null ) );
+        }
+
+        return new MacroTemplate( Collections.unmodifiableList( segments ), Collections.unmodifiableList( postMacros ) );
+    }
+}
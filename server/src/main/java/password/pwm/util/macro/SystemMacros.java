@@ -272,7 +272,7 @@ public class SystemMacros
             int length = 1;
             if ( parameters.size() > 0 && !parameters.get( 0 ).isEmpty() )
             {
-                final int maxLengthPermitted = Integer.parseInt( request.getPwmApplication().getConfig().readAppProperty( AppProperty.MACRO_RANDOM_CHAR_MAX_LENGTH ) );
+                final int maxLengthPermitted = request.getPwmApplication().getConfig().readIntAppProperty( AppProperty.MACRO_RANDOM_CHAR_MAX_LENGTH );
                 try
                 {
                     length = Integer.parseInt( parameters.get( 0 ) );
@@ -148,6 +148,10 @@ public class ActionExecutor
         {
             throw PwmUnrecoverableException.fromChaiException( e );
         }
+        finally
+        {
+            pwmDomain.getLdapFilterEvaluator().invalidate( settings.getUserIdentity() );
+        }
     }
 
     private void executeWebserviceAction(
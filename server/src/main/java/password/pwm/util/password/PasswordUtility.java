@@ -475,6 +475,9 @@ public class PasswordUtility
             throw PwmUnrecoverableException.fromChaiException( e );
         }
 
+        pwmDomain.getRestCredentialCache().invalidate( userIdentity );
+        pwmDomain.getLdapFilterEvaluator().invalidate( userIdentity );
+
         // add the old password to the global history list (if the old password is known)
         if ( oldPassword != null && pwmDomain.getConfig().readSettingAsBoolean( PwmSetting.PASSWORD_SHAREDHISTORY_ENABLE ) )
         {
@@ -1053,6 +1056,24 @@ public class PasswordUtility
             final PasswordData confirmPassword
     )
             throws PwmUnrecoverableException, ChaiUnavailableException
+    {
+        return checkEnteredPassword( pwmRequestContext, user, userInfo, loginInfoBean, password, confirmPassword, null );
+    }
+
+    /**
+     * Check an entered password, re-using {@code ruleValidator} when checking several passwords against the same
+     * user's policy.  If {@code ruleValidator} is null, one is created for the user's policy when needed.
+     */
+    public static PasswordCheckInfo checkEnteredPassword(
+            final PwmRequestContext pwmRequestContext,
+            final ChaiUser user,
+            final UserInfo userInfo,
+            final LoginInfoBean loginInfoBean,
+            final PasswordData password,
+            final PasswordData confirmPassword,
+            final PwmPasswordRuleValidator ruleValidator
+    )
+            throws PwmUnrecoverableException, ChaiUnavailableException
     {
         Objects.requireNonNull( userInfo );
 
@@ -1111,7 +1132,9 @@ public class PasswordUtility
                 }
                 if ( !pass )
                 {
-                    final PwmPasswordRuleValidator pwmPasswordRuleValidator = PwmPasswordRuleValidator.create( sessionLabel, pwmDomain, userInfo.getPasswordPolicy(), locale );
+                    final PwmPasswordRuleValidator pwmPasswordRuleValidator = ruleValidator != null
+                            ? ruleValidator
+                            : PwmPasswordRuleValidator.create( sessionLabel, pwmDomain, userInfo.getPasswordPolicy(), locale );
                     final PasswordData oldPassword = loginInfoBean == null ? null : loginInfoBean.getUserCurrentPassword();
                     pwmPasswordRuleValidator.testPassword( password, oldPassword, userInfo, user );
                     pass = true;
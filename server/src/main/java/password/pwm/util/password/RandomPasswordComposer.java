@@ -0,0 +1,389 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.password;
+
+import password.pwm.config.profile.PwmPasswordPolicy;
+import password.pwm.config.profile.PwmPasswordRule;
+import password.pwm.util.secure.PwmRandom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+
+/**
+ * Builds random passwords that satisfy the length, character class, position, repeat, consecutive and
+ * unique character rules of a policy by construction, so that a candidate normally passes the
+ * {@link PwmPasswordRuleValidator} on the first try.  Rules that can not be reasoned about locally
+ * (wordlist, regex, strength, disallowed values) are still left to the validator.
+ */
+class RandomPasswordComposer
+{
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    enum CharClass
+    {
+        UPPER( 2, true ),
+        LOWER( 4, true ),
+        NUMERIC( 1, false ),
+        SPECIAL( 1, false ),;
+
+        private final int fillWeight;
+        private final boolean alpha;
+
+        CharClass( final int fillWeight, final boolean alpha )
+        {
+            this.fillWeight = fillWeight;
+            this.alpha = alpha;
+        }
+    }
+
+    private final PwmRandom pwmRandom;
+    private final Map<CharClass, String> charPools = new EnumMap<>( CharClass.class );
+    private final Map<CharClass, Integer> classMinimums = new EnumMap<>( CharClass.class );
+    private final Map<CharClass, Integer> classMaximums = new EnumMap<>( CharClass.class );
+
+    private final int minimumLength;
+    private final int maximumLength;
+    private final int minimumAlpha;
+    private final int maximumAlpha;
+    private final int minimumNonAlpha;
+    private final int maximumNonAlpha;
+    private final int maximumRepeat;
+    private final int maximumSequentialRepeat;
+    private final int maximumConsecutive;
+    private final int minimumUnique;
+    private final boolean allowFirstNumeric;
+    private final boolean allowLastNumeric;
+    private final boolean allowFirstSpecial;
+    private final boolean allowLastSpecial;
+
+    RandomPasswordComposer(
+            final PwmRandom pwmRandom,
+            final RandomPasswordGenerator.SeedMachine seedMachine,
+            final PwmPasswordPolicy passwordPolicy
+    )
+    {
+        this.pwmRandom = pwmRandom;
+
+        final PasswordRuleReaderHelper ruleHelper = passwordPolicy.getRuleHelper();
+        final boolean allowNumeric = ruleHelper.readBooleanValue( PwmPasswordRule.AllowNumeric );
+        final boolean allowSpecial = ruleHelper.readBooleanValue( PwmPasswordRule.AllowSpecial );
+        final boolean allowNonAlpha = ruleHelper.readBooleanValue( PwmPasswordRule.AllowNonAlpha );
+
+        charPools.put( CharClass.UPPER, seedMachine.getUpperChars() );
+        charPools.put( CharClass.LOWER, seedMachine.getLowerChars() );
+        charPools.put( CharClass.NUMERIC, seedMachine.getNumChars() );
+        charPools.put( CharClass.SPECIAL, seedMachine.getSpecialChars() );
+
+        classMinimums.put( CharClass.UPPER, ruleHelper.readIntValue( PwmPasswordRule.MinimumUpperCase ) );
+        classMinimums.put( CharClass.LOWER, ruleHelper.readIntValue( PwmPasswordRule.MinimumLowerCase ) );
+        classMinimums.put( CharClass.NUMERIC, allowNumeric ? ruleHelper.readIntValue( PwmPasswordRule.MinimumNumeric ) : 0 );
+        classMinimums.put( CharClass.SPECIAL, allowSpecial ? ruleHelper.readIntValue( PwmPasswordRule.MinimumSpecial ) : 0 );
+
+        classMaximums.put( CharClass.UPPER, readMaximum( ruleHelper, PwmPasswordRule.MaximumUpperCase, true ) );
+        classMaximums.put( CharClass.LOWER, readMaximum( ruleHelper, PwmPasswordRule.MaximumLowerCase, true ) );
+        classMaximums.put( CharClass.NUMERIC, readMaximum( ruleHelper, PwmPasswordRule.MaximumNumeric, allowNumeric && allowNonAlpha ) );
+        classMaximums.put( CharClass.SPECIAL, readMaximum( ruleHelper, PwmPasswordRule.MaximumSpecial, allowSpecial && allowNonAlpha ) );
+        for ( final CharClass charClass : CharClass.values() )
+        {
+            if ( charPools.get( charClass ).isEmpty() )
+            {
+                classMaximums.put( charClass, 0 );
+            }
+        }
+
+        minimumLength = ruleHelper.readIntValue( PwmPasswordRule.MinimumLength );
+        maximumLength = readMaximum( ruleHelper, PwmPasswordRule.MaximumLength, true );
+        minimumAlpha = ruleHelper.readIntValue( PwmPasswordRule.MinimumAlpha );
+        maximumAlpha = readMaximum( ruleHelper, PwmPasswordRule.MaximumAlpha, true );
+        minimumNonAlpha = allowNonAlpha ? ruleHelper.readIntValue( PwmPasswordRule.MinimumNonAlpha ) : 0;
+        maximumNonAlpha = readMaximum( ruleHelper, PwmPasswordRule.MaximumNonAlpha, allowNonAlpha );
+        maximumRepeat = ruleHelper.readIntValue( PwmPasswordRule.MaximumRepeat );
+        maximumSequentialRepeat = ruleHelper.readIntValue( PwmPasswordRule.MaximumSequentialRepeat );
+        maximumConsecutive = ruleHelper.readIntValue( PwmPasswordRule.MaximumConsecutive );
+        minimumUnique = ruleHelper.readIntValue( PwmPasswordRule.MinimumUnique );
+        allowFirstNumeric = !allowNumeric || ruleHelper.readBooleanValue( PwmPasswordRule.AllowFirstCharNumeric );
+        allowLastNumeric = !allowNumeric || ruleHelper.readBooleanValue( PwmPasswordRule.AllowLastCharNumeric );
+        allowFirstSpecial = !allowSpecial || ruleHelper.readBooleanValue( PwmPasswordRule.AllowFirstCharSpecial );
+        allowLastSpecial = !allowSpecial || ruleHelper.readBooleanValue( PwmPasswordRule.AllowLastCharSpecial );
+    }
+
+    /**
+     * Compose a new password of at least {@code desiredLength} characters.
+     *
+     * @param desiredLength the preferred length, adjusted to the policy minimum and maximum length.
+     * @return a password meeting the structural rules of the policy, or empty if the rules can not be met
+     *         using the available seed characters.
+     */
+    Optional<String> compose( final int desiredLength )
+    {
+        final Optional<Map<CharClass, Integer>> classCounts = allocateClassCounts( desiredLength );
+        if ( classCounts.isEmpty() )
+        {
+            return Optional.empty();
+        }
+
+        final Optional<List<CharClass>> slots = arrangeSlots( classCounts.get() );
+        if ( slots.isEmpty() )
+        {
+            return Optional.empty();
+        }
+
+        return fillSlots( slots.get() );
+    }
+
+    private Optional<Map<CharClass, Integer>> allocateClassCounts( final int desiredLength )
+    {
+        final Map<CharClass, Integer> counts = new EnumMap<>( classMinimums );
+        for ( final CharClass charClass : CharClass.values() )
+        {
+            if ( counts.get( charClass ) > classMaximums.get( charClass ) )
+            {
+                return Optional.empty();
+            }
+        }
+
+        while ( groupCount( counts, true ) < minimumAlpha )
+        {
+            if ( !addToRandomClass( counts, Arrays.asList( CharClass.UPPER, CharClass.LOWER ) ) )
+            {
+                return Optional.empty();
+            }
+        }
+
+        while ( groupCount( counts, false ) < minimumNonAlpha )
+        {
+            if ( !addToRandomClass( counts, Arrays.asList( CharClass.NUMERIC, CharClass.SPECIAL ) ) )
+            {
+                return Optional.empty();
+            }
+        }
+
+        int length = Math.min( Math.max( desiredLength, minimumLength ), maximumLength );
+        final int requiredLength = totalCount( counts );
+        if ( requiredLength > maximumLength )
+        {
+            return Optional.empty();
+        }
+        length = Math.max( length, requiredLength );
+
+        // include one of every permitted class where there is room, which keeps the strength rating up
+        for ( final CharClass charClass : CharClass.values() )
+        {
+            if ( counts.get( charClass ) == 0 && totalCount( counts ) < length && canAdd( counts, charClass ) )
+            {
+                counts.put( charClass, 1 );
+            }
+        }
+
+        while ( totalCount( counts ) < length )
+        {
+            if ( !addToRandomClass( counts, Arrays.asList( CharClass.values() ) ) )
+            {
+                break;
+            }
+        }
+
+        return totalCount( counts ) >= minimumLength && totalCount( counts ) > 0
+                ? Optional.of( counts )
+                : Optional.empty();
+    }
+
+    private boolean addToRandomClass( final Map<CharClass, Integer> counts, final List<CharClass> candidates )
+    {
+        final List<CharClass> weighted = new ArrayList<>();
+        for ( final CharClass charClass : candidates )
+        {
+            if ( canAdd( counts, charClass ) )
+            {
+                for ( int i = 0; i < charClass.fillWeight; i++ )
+                {
+                    weighted.add( charClass );
+                }
+            }
+        }
+
+        if ( weighted.isEmpty() )
+        {
+            return false;
+        }
+
+        final CharClass selected = weighted.get( pwmRandom.nextInt( weighted.size() ) );
+        counts.put( selected, counts.get( selected ) + 1 );
+        return true;
+    }
+
+    private boolean canAdd( final Map<CharClass, Integer> counts, final CharClass charClass )
+    {
+        final int groupMaximum = charClass.alpha ? maximumAlpha : maximumNonAlpha;
+        return counts.get( charClass ) < classMaximums.get( charClass )
+                && groupCount( counts, charClass.alpha ) < groupMaximum
+                && totalCount( counts ) < maximumLength;
+    }
+
+    private Optional<List<CharClass>> arrangeSlots( final Map<CharClass, Integer> counts )
+    {
+        final List<CharClass> slots = new ArrayList<>();
+        for ( final Map.Entry<CharClass, Integer> entry : counts.entrySet() )
+        {
+            slots.addAll( Collections.nCopies( entry.getValue(), entry.getKey() ) );
+        }
+        Collections.shuffle( slots, pwmRandom );
+
+        final int last = slots.size() - 1;
+        if ( !allowedFirst( slots.get( 0 ) ) )
+        {
+            final int swapIndex = findSlot( slots, 1, last, i -> allowedFirst( slots.get( i ) )
+                    && ( i != last || allowedLast( slots.get( 0 ) ) ) );
+            if ( swapIndex < 0 )
+            {
+                return Optional.empty();
+            }
+            Collections.swap( slots, 0, swapIndex );
+        }
+
+        if ( !allowedLast( slots.get( last ) ) )
+        {
+            if ( last == 0 )
+            {
+                return Optional.empty();
+            }
+            final int swapIndex = findSlot( slots, 1, last - 1, i -> allowedLast( slots.get( i ) ) );
+            if ( swapIndex < 0 )
+            {
+                return Optional.empty();
+            }
+            Collections.swap( slots, last, swapIndex );
+        }
+
+        return Optional.of( slots );
+    }
+
+    private static int findSlot( final List<CharClass> slots, final int from, final int to, final IntPredicate slotTester )
+    {
+        for ( int i = from; i <= to && i < slots.size(); i++ )
+        {
+            if ( slotTester.test( i ) )
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean allowedFirst( final CharClass charClass )
+    {
+        return !( charClass == CharClass.NUMERIC && !allowFirstNumeric )
+                && !( charClass == CharClass.SPECIAL && !allowFirstSpecial );
+    }
+
+    private boolean allowedLast( final CharClass charClass )
+    {
+        return !( charClass == CharClass.NUMERIC && !allowLastNumeric )
+                && !( charClass == CharClass.SPECIAL && !allowLastSpecial );
+    }
+
+    private Optional<String> fillSlots( final List<CharClass> slots )
+    {
+        final StringBuilder password = new StringBuilder( slots.size() );
+        final Map<Character, Integer> occurrences = new HashMap<>();
+        final StringBuilder candidates = new StringBuilder();
+
+        int sequentialRepeatRun = 0;
+        int consecutiveRun = 0;
+        char previous = 0;
+
+        for ( int position = 0; position < slots.size(); position++ )
+        {
+            final int remainingSlots = slots.size() - position;
+            final boolean requireUnique = minimumUnique - occurrences.size() >= remainingSlots;
+
+            candidates.setLength( 0 );
+            for ( final char loopChar : charPools.get( slots.get( position ) ).toCharArray() )
+            {
+                final char normalized = Character.toLowerCase( loopChar );
+                final int seenCount = occurrences.getOrDefault( normalized, 0 );
+                final boolean permitted = !( requireUnique && seenCount > 0 )
+                        && !( maximumRepeat > 0 && seenCount >= maximumRepeat )
+                        && !( maximumSequentialRepeat > 0 && position > 0 && normalized == previous && sequentialRepeatRun >= maximumSequentialRepeat )
+                        && !( maximumConsecutive > 1 && position > 0 && normalized == previous + 1 && consecutiveRun + 1 >= maximumConsecutive );
+                if ( permitted )
+                {
+                    candidates.append( loopChar );
+                }
+            }
+
+            if ( candidates.length() == 0 )
+            {
+                return Optional.empty();
+            }
+
+            final char selected = pwmRandom.nextChar( candidates.toString() );
+            final char normalized = Character.toLowerCase( selected );
+            sequentialRepeatRun = position > 0 && normalized == previous ? sequentialRepeatRun + 1 : 1;
+            consecutiveRun = position > 0 && normalized == previous + 1 ? consecutiveRun + 1 : 1;
+            occurrences.merge( normalized, 1, Integer::sum );
+            previous = normalized;
+            password.append( selected );
+        }
+
+        return Optional.of( password.toString() );
+    }
+
+    private static int groupCount( final Map<CharClass, Integer> counts, final boolean alpha )
+    {
+        int total = 0;
+        for ( final Map.Entry<CharClass, Integer> entry : counts.entrySet() )
+        {
+            if ( entry.getKey().alpha == alpha )
+            {
+                total += entry.getValue();
+            }
+        }
+        return total;
+    }
+
+    private static int totalCount( final Map<CharClass, Integer> counts )
+    {
+        int total = 0;
+        for ( final int value : counts.values() )
+        {
+            total += value;
+        }
+        return total;
+    }
+
+    private static int readMaximum( final PasswordRuleReaderHelper ruleHelper, final PwmPasswordRule rule, final boolean allowed )
+    {
+        if ( !allowed )
+        {
+            return 0;
+        }
+        final int value = ruleHelper.readIntValue( rule );
+        return value > 0 ? value : UNBOUNDED;
+    }
+}
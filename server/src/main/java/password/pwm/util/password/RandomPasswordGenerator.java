@@ -34,6 +34,7 @@ import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.svc.PwmService;
+import password.pwm.svc.stats.AvgStatistic;
 import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.stats.StatisticsClient;
 import password.pwm.svc.wordlist.SeedlistService;
@@ -53,6 +54,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -130,8 +132,11 @@ public class RandomPasswordGenerator
         final PwmPasswordPolicy randomGenPolicy = makeRandomGenPwdPolicy( effectiveConfig, pwmDomain );
 
         // read a rule validator
-        // modify until it passes all the rules
-        final MutatorResult mutatorResult = passwordMutator( sessionLabel, pwmDomain, seedMachine, effectiveConfig, randomGenPolicy );
+        final PwmPasswordRuleValidator pwmPasswordRuleValidator = PwmPasswordRuleValidator.create(
+                sessionLabel, pwmDomain, randomGenPolicy, PwmPasswordRuleValidator.Flag.FailFast );
+
+        // compose a password that meets the structural rules, and only modify it if it still fails validation
+        final MutatorResult mutatorResult = composePassword( pwmDomain, seedMachine, effectiveConfig, randomGenPolicy, pwmPasswordRuleValidator );
 
         // report outcome
 
@@ -144,8 +149,8 @@ public class RandomPasswordGenerator
         {
             if ( LOGGER.isEnabled( PwmLogLevel.ERROR ) )
             {
-                final PwmPasswordRuleValidator pwmPasswordRuleValidator = PwmPasswordRuleValidator.create( sessionLabel, pwmDomain, randomGenPolicy );
-                final int errors = pwmPasswordRuleValidator.internalPwmPolicyValidator( mutatorResult.getPassword(), null, null ).size();
+                final PwmPasswordRuleValidator fullRuleValidator = PwmPasswordRuleValidator.create( sessionLabel, pwmDomain, randomGenPolicy );
+                final int errors = fullRuleValidator.internalPwmPolicyValidator( mutatorResult.getPassword(), null, null ).size();
                 final int judgeLevel = PasswordUtility.judgePasswordStrength( pwmDomain.getConfig(), mutatorResult.getPassword() );
                 LOGGER.error( sessionLabel, () -> "failed random password generation after "
                                 + mutatorResult.getTryCount() + " tries. " + "(errors=" + errors + ", judgeLevel=" + judgeLevel,
@@ -154,6 +159,8 @@ public class RandomPasswordGenerator
         }
 
         StatisticsClient.incrementStat( pwmDomain, Statistic.GENERATED_PASSWORDS );
+        StatisticsClient.updateAverageValue( pwmDomain.getPwmApplication(), AvgStatistic.AVG_RANDOM_PASSWORD_TRIES, mutatorResult.getTryCount() );
+        StatisticsClient.updateAverageValue( pwmDomain.getPwmApplication(), AvgStatistic.AVG_RANDOM_PASSWORD_TIME, TimeDuration.fromCurrent( startTime ).asMillis() );
 
         LOGGER.trace( sessionLabel, () -> "real-time random password generator called"
                 + " (" + TimeDuration.compactFromCurrent( startTime ) + ")" );
@@ -226,13 +233,48 @@ public class RandomPasswordGenerator
 
     }
 
-    private static MutatorResult passwordMutator(
-            final SessionLabel sessionLabel,
+    private static MutatorResult composePassword(
             final PwmDomain pwmDomain,
             final SeedMachine seedMachine,
             final RandomGeneratorConfig effectiveConfig,
-            final PwmPasswordPolicy randomGenPolicy
+            final PwmPasswordPolicy randomGenPolicy,
+            final PwmPasswordRuleValidator pwmPasswordRuleValidator
+    )
+            throws PwmUnrecoverableException
+    {
+        final PwmRandom pwmRandom = pwmDomain.getSecureService().pwmRandom();
+
+        if ( !pwmDomain.getConfig().getAppConfig().readBooleanAppProperty( AppProperty.PASSWORD_RANDOMGEN_COMPOSE_ENABLE ) )
+        {
+            final String initialPassword = generateNewPassword( pwmRandom, seedMachine, effectiveConfig.getMinimumLength() );
+            return passwordMutator( pwmDomain, seedMachine, effectiveConfig, pwmPasswordRuleValidator, initialPassword, 0 );
+        }
+
+        final RandomPasswordComposer composer = new RandomPasswordComposer( pwmRandom, seedMachine, randomGenPolicy );
+        final Optional<String> composedPassword = composer.compose( effectiveConfig.getMinimumLength() );
+        if ( composedPassword.isPresent() )
+        {
+            final List<ErrorInformation> errors = pwmPasswordRuleValidator.internalPwmPolicyValidator( composedPassword.get(), null, null );
+            if ( errors.isEmpty() && !checkPasswordAgainstDisallowedHttpValues( pwmDomain.getConfig(), composedPassword.get() ) )
+            {
+                return new MutatorResult( composedPassword.get(), true, 1 );
+            }
+
+            // rules not covered by the composer (wordlist, regex, strength) failed, so patch the composed value
+            return passwordMutator( pwmDomain, seedMachine, effectiveConfig, pwmPasswordRuleValidator, composedPassword.get(), 1 );
+        }
 
+        final String initialPassword = generateNewPassword( pwmRandom, seedMachine, effectiveConfig.getMinimumLength() );
+        return passwordMutator( pwmDomain, seedMachine, effectiveConfig, pwmPasswordRuleValidator, initialPassword, 0 );
+    }
+
+    private static MutatorResult passwordMutator(
+            final PwmDomain pwmDomain,
+            final SeedMachine seedMachine,
+            final RandomGeneratorConfig effectiveConfig,
+            final PwmPasswordRuleValidator pwmPasswordRuleValidator,
+            final String initialPassword,
+            final int initialTryCount
     )
             throws PwmUnrecoverableException
     {
@@ -242,13 +284,9 @@ public class RandomPasswordGenerator
         final PwmRandom pwmRandom = pwmDomain.getSecureService().pwmRandom();
 
         final StringBuilder password = new StringBuilder();
-        password.append( generateNewPassword( pwmRandom, seedMachine, effectiveConfig.getMinimumLength() ) );
-
-
-        final PwmPasswordRuleValidator pwmPasswordRuleValidator = PwmPasswordRuleValidator.create(
-                sessionLabel, pwmDomain, randomGenPolicy, PwmPasswordRuleValidator.Flag.FailFast );
+        password.append( initialPassword );
 
-        int tryCount = 0;
+        int tryCount = initialTryCount;
         boolean validPassword = false;
         while ( !validPassword && tryCount < maxTryCount )
         {
@@ -0,0 +1,214 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.secure;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.lang.ref.WeakReference;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Per-thread cache of {@link Cipher}, {@link Mac} and {@link MessageDigest} instances used by {@link SecureEngine}.
+ *
+ * <p>JCE instances are not thread safe and relatively expensive to look up, so each thread keeps its own set.  Ciphers and
+ * macs remember the key (and mode) they were last initialized with, so repeated operations with the same
+ * {@link PwmSecurityKey} skip re-initialization and reuse the existing key schedule.  An instance is discarded
+ * whenever an operation on it fails, so a cipher left in an unknown state is never reused.</p>
+ *
+ * <p>The thread local only holds a weak reference; the instances are strongly held by a registry keyed by thread.
+ * {@link #clearAll()} empties that registry when the application closes, so container threads do not keep keys from a
+ * replaced configuration or pin the web application's class loader after a redeploy.</p>
+ */
+final class CryptoPrimitiveCache
+{
+    private static final ThreadLocal<WeakReference<CryptoPrimitiveCache>> THREAD_CACHE = new ThreadLocal<>();
+    private static final Map<Thread, CryptoPrimitiveCache> INSTANCES = Collections.synchronizedMap( new WeakHashMap<>() );
+
+    private final Map<String, CachedCipher> ciphers = new HashMap<>();
+    private final Map<HmacAlgorithm, CachedMac> macs = new EnumMap<>( HmacAlgorithm.class );
+    private final Map<PwmHashAlgorithm, MessageDigest> messageDigests = new EnumMap<>( PwmHashAlgorithm.class );
+
+    private volatile boolean discarded;
+
+    private CryptoPrimitiveCache()
+    {
+    }
+
+    static CryptoPrimitiveCache forCurrentThread()
+    {
+        final WeakReference<CryptoPrimitiveCache> reference = THREAD_CACHE.get();
+        final CryptoPrimitiveCache existing = reference == null ? null : reference.get();
+        if ( existing != null && !existing.discarded )
+        {
+            return existing;
+        }
+
+        final CryptoPrimitiveCache cryptoPrimitiveCache = new CryptoPrimitiveCache();
+        INSTANCES.put( Thread.currentThread(), cryptoPrimitiveCache );
+        THREAD_CACHE.set( new WeakReference<>( cryptoPrimitiveCache ) );
+        return cryptoPrimitiveCache;
+    }
+
+    /**
+     * Discard the cached instances of every thread.  Threads that perform another operation afterwards start with a
+     * new, empty cache.
+     */
+    static void clearAll()
+    {
+        synchronized ( INSTANCES )
+        {
+            INSTANCES.values().forEach( cryptoPrimitiveCache -> cryptoPrimitiveCache.discarded = true );
+            INSTANCES.clear();
+        }
+    }
+
+    static int instanceCount()
+    {
+        return INSTANCES.size();
+    }
+
+    /**
+     * Perform a complete cipher operation.  When {@code parameterSpec} is null the cipher is only initialized if the
+     * key or mode differs from the previous operation on this thread, otherwise it is always initialized with the
+     * supplied parameters (for example a fresh GCM nonce).
+     */
+    byte[] cipherDoFinal(
+            final String algName,
+            final int mode,
+            final SecretKey secretKey,
+            final AlgorithmParameterSpec parameterSpec,
+            final byte[] input
+    )
+            throws GeneralSecurityException
+    {
+        CachedCipher cachedCipher = ciphers.get( algName );
+        if ( cachedCipher == null )
+        {
+            cachedCipher = new CachedCipher( Cipher.getInstance( algName ) );
+            ciphers.put( algName, cachedCipher );
+        }
+
+        try
+        {
+            if ( parameterSpec != null )
+            {
+                cachedCipher.cipher.init( mode, secretKey, parameterSpec );
+                cachedCipher.initializedKey = null;
+            }
+            else if ( cachedCipher.initializedKey != secretKey || cachedCipher.initializedMode != mode )
+            {
+                cachedCipher.cipher.init( mode, secretKey );
+                cachedCipher.initializedKey = secretKey;
+                cachedCipher.initializedMode = mode;
+            }
+
+            return cachedCipher.cipher.doFinal( input );
+        }
+        catch ( final GeneralSecurityException | RuntimeException e )
+        {
+            ciphers.remove( algName );
+            throw e;
+        }
+    }
+
+    byte[] macDoFinal(
+            final HmacAlgorithm hmacAlgorithm,
+            final SecretKey secretKey,
+            final byte[] input
+    )
+            throws GeneralSecurityException
+    {
+        CachedMac cachedMac = macs.get( hmacAlgorithm );
+        if ( cachedMac == null )
+        {
+            cachedMac = new CachedMac( Mac.getInstance( hmacAlgorithm.getAlgorithmName() ) );
+            macs.put( hmacAlgorithm, cachedMac );
+        }
+
+        try
+        {
+            if ( cachedMac.initializedKey != secretKey )
+            {
+                cachedMac.mac.init( secretKey );
+                cachedMac.initializedKey = secretKey;
+            }
+
+            return cachedMac.mac.doFinal( input );
+        }
+        catch ( final GeneralSecurityException | RuntimeException e )
+        {
+            macs.remove( hmacAlgorithm );
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a reset {@link MessageDigest} for the current thread.  The caller must complete the digest before
+     * requesting another digest of the same algorithm on this thread.
+     */
+    MessageDigest messageDigest( final PwmHashAlgorithm hashAlgorithm )
+            throws NoSuchAlgorithmException
+    {
+        MessageDigest messageDigest = messageDigests.get( hashAlgorithm );
+        if ( messageDigest == null )
+        {
+            messageDigest = MessageDigest.getInstance( hashAlgorithm.getAlgName() );
+            messageDigests.put( hashAlgorithm, messageDigest );
+        }
+        else
+        {
+            messageDigest.reset();
+        }
+        return messageDigest;
+    }
+
+    private static class CachedCipher
+    {
+        private final Cipher cipher;
+        private SecretKey initializedKey;
+        private int initializedMode;
+
+        CachedCipher( final Cipher cipher )
+        {
+            this.cipher = cipher;
+        }
+    }
+
+    private static class CachedMac
+    {
+        private final Mac mac;
+        private SecretKey initializedKey;
+
+        CachedMac( final Mac mac )
+        {
+            this.mac = mac;
+        }
+    }
+}
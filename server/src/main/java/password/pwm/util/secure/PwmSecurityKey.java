@@ -31,8 +31,8 @@ import javax.crypto.spec.SecretKeySpec;
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PwmSecurityKey
 {
@@ -45,7 +45,7 @@ public class PwmSecurityKey
     }
 
     private final byte[] keyData;
-    private final Map<Type, SecretKey> keyCache = new EnumMap<>( Type.class );
+    private final Map<Type, SecretKey> keyCache = new ConcurrentHashMap<>();
 
     public PwmSecurityKey( final byte[] keyData )
     {
@@ -74,9 +74,10 @@ public class PwmSecurityKey
         final SecretKey theKey = keyCache.get( keyType );
         if ( theKey == null )
         {
+            // keep a single instance per type so cached ciphers and macs can recognize an already initialized key
             final SecretKey newKey = getKeyImpl( keyType );
-            keyCache.put( keyType, newKey );
-            return newKey;
+            final SecretKey existingKey = keyCache.putIfAbsent( keyType, newKey );
+            return existingKey == null ? newKey : existingKey;
         }
         return theKey;
     }
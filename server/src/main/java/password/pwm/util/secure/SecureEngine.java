@@ -20,18 +20,15 @@
 
 package password.pwm.util.secure;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import password.pwm.PwmConstants;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.StringUtil;
-import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
 
 import javax.crypto.Cipher;
-import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import java.io.BufferedInputStream;
@@ -39,19 +36,15 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Writer;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.time.Instant;
 import java.util.Arrays;
 import java.util.Objects;
-import java.util.Random;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -76,6 +69,14 @@ public class SecureEngine
         URL_SAFE,
     }
 
+    /**
+     * Discard the per-thread cipher, mac and digest instances, including any keys they were initialized with.
+     */
+    public static void clearCachedPrimitives()
+    {
+        CryptoPrimitiveCache.clearAll();
+    }
+
     public static String encryptToString(
             final String value,
             final PwmSecurityKey key,
@@ -118,21 +119,19 @@ public class SecureEngine
 
             final SecretKey aesKey = key.getKey( blockAlgorithm.getBlockKey() );
             final byte[] nonce;
-            final Cipher cipher;
+            final GCMParameterSpec spec;
             if ( blockAlgorithm == PwmBlockAlgorithm.AES128_GCM )
             {
                 nonce = AES_GCM_NONCE_GENERATOR.nextValue();
-                final GCMParameterSpec spec = new GCMParameterSpec( GCM_TAG_LENGTH * 8, nonce );
-                cipher = Cipher.getInstance( blockAlgorithm.getAlgName() );
-                cipher.init( Cipher.ENCRYPT_MODE, aesKey, spec );
+                spec = new GCMParameterSpec( GCM_TAG_LENGTH * 8, nonce );
             }
             else
             {
-                cipher = Cipher.getInstance( blockAlgorithm.getAlgName() );
-                cipher.init( Cipher.ENCRYPT_MODE, aesKey, cipher.getParameters() );
                 nonce = null;
+                spec = null;
             }
-            final byte[] encryptedBytes = cipher.doFinal( value.getBytes( PwmConstants.DEFAULT_CHARSET ) );
+            final byte[] encryptedBytes = CryptoPrimitiveCache.forCurrentThread().cipherDoFinal(
+                    blockAlgorithm.getAlgName(), Cipher.ENCRYPT_MODE, aesKey, spec, value.getBytes( PwmConstants.DEFAULT_CHARSET ) );
 
             final byte[] output;
             if ( blockAlgorithm.getHmacAlgorithm() != null )
@@ -230,7 +229,7 @@ public class SecureEngine
                 }
                 workingValue = inputPayload;
             }
-            final Cipher cipher;
+            final GCMParameterSpec spec;
             if ( blockAlgorithm == PwmBlockAlgorithm.AES128_GCM )
             {
                 final int nonceLength = workingValue[ 0 ];
@@ -241,16 +240,14 @@ public class SecureEngine
                 }
                 final byte[] nonce = Arrays.copyOfRange( workingValue, 0, nonceLength );
                 workingValue = Arrays.copyOfRange( workingValue, nonceLength, workingValue.length );
-                final GCMParameterSpec spec = new GCMParameterSpec( GCM_TAG_LENGTH * 8, nonce );
-                cipher = Cipher.getInstance( blockAlgorithm.getAlgName() );
-                cipher.init( Cipher.DECRYPT_MODE, aesKey, spec );
+                spec = new GCMParameterSpec( GCM_TAG_LENGTH * 8, nonce );
             }
             else
             {
-                cipher = Cipher.getInstance( blockAlgorithm.getAlgName() );
-                cipher.init( Cipher.DECRYPT_MODE, aesKey );
+                spec = null;
             }
-            final byte[] decrypted = cipher.doFinal( workingValue );
+            final byte[] decrypted = CryptoPrimitiveCache.forCurrentThread().cipherDoFinal(
+                    blockAlgorithm.getAlgName(), Cipher.DECRYPT_MODE, aesKey, spec, workingValue );
             return new String( decrypted, PwmConstants.DEFAULT_CHARSET );
         }
         catch ( final GeneralSecurityException e )
@@ -282,7 +279,7 @@ public class SecureEngine
     {
         try
         {
-            final MessageDigest messageDigest = MessageDigest.getInstance( hashAlgorithm.getAlgName() );
+            final MessageDigest messageDigest = CryptoPrimitiveCache.forCurrentThread().messageDigest( hashAlgorithm );
             final int bufferSize = (int) Math.min( file.length(), HASH_FILE_BUFFER_SIZE );
             final FileChannel fileChannel = FileChannel.open( file.toPath() );
             final ByteBuffer byteBuffer = ByteBuffer.allocateDirect( bufferSize );
@@ -360,11 +357,8 @@ public class SecureEngine
     {
         try
         {
-
-            final Mac mac = Mac.getInstance( hmacAlgorithm.getAlgorithmName() );
             final SecretKey secretKey = pwmSecurityKey.getKey( hmacAlgorithm.getKeyType() );
-            mac.init( secretKey );
-            return mac.doFinal( input );
+            return CryptoPrimitiveCache.forCurrentThread().macDoFinal( hmacAlgorithm, secretKey, input );
         }
         catch ( final GeneralSecurityException e )
         {
@@ -387,7 +381,7 @@ public class SecureEngine
         final MessageDigest messageDigest;
         try
         {
-            messageDigest = MessageDigest.getInstance( algorithm.getAlgName() );
+            messageDigest = CryptoPrimitiveCache.forCurrentThread().messageDigest( algorithm );
         }
         catch ( final NoSuchAlgorithmException e )
         {
@@ -441,76 +435,32 @@ public class SecureEngine
 
     static class NonceGenerator
     {
-        private final byte[] value;
-
-        private final int fixedComponentLength;
-        private final Lock lock = new ReentrantLock();
+        private final byte[] fixedComponent;
+        private final int counterComponentLength;
+        private final AtomicLong counter;
 
         NonceGenerator( final int fixedComponentLength, final int counterComponentLength )
         {
-            this.fixedComponentLength = fixedComponentLength;
-            value = new byte[ fixedComponentLength + counterComponentLength ];
-            PwmRandom.getInstance().nextBytes( value );
-        }
-
-        public synchronized byte[] nextValue( )
-        {
-            lock.lock();
-            try
-            {
-                increment( value.length - 1 );
-                return Arrays.copyOf( value, value.length );
-            }
-            finally
+            if ( counterComponentLength > Long.BYTES )
             {
-                lock.unlock();
+                throw new IllegalArgumentException( "counter component length can not exceed " + Long.BYTES + " bytes" );
             }
-        }
 
-        private void increment( final int index )
-        {
-            if ( value[ index ] == Byte.MAX_VALUE )
-            {
-                value[ index ] = 0;
-                if ( index > fixedComponentLength )
-                {
-                    increment( index - 1 );
-                }
-            }
-            else
-            {
-                value[ index ]++;
-            }
+            final byte[] seed = PwmRandom.getInstance().newBytes( fixedComponentLength + Long.BYTES );
+            this.fixedComponent = Arrays.copyOf( seed, fixedComponentLength );
+            this.counterComponentLength = counterComponentLength;
+            this.counter = new AtomicLong( ByteBuffer.wrap( seed, fixedComponentLength, Long.BYTES ).getLong() );
         }
-    }
 
-    @SuppressFBWarnings( "DMI_RANDOM_USED_ONLY_ONCE" )
-    public static void benchmark( final Writer outputData ) throws PwmUnrecoverableException, IOException
-    {
-        final int testIterations = 10 * 1000;
-        final Random random = new Random();
-        final byte[] noise = new byte[ 1024 * 10 ];
-        final PwmSecurityKey key = new PwmSecurityKey( PwmRandom.getInstance().newBytes( 1024 ) );
-        for ( int i = 0; i < 10; i++ )
+        public byte[] nextValue( )
         {
-            for ( final PwmBlockAlgorithm alg : PwmBlockAlgorithm.values() )
+            final long counterValue = counter.incrementAndGet();
+            final byte[] value = Arrays.copyOf( fixedComponent, fixedComponent.length + counterComponentLength );
+            for ( int i = 0; i < counterComponentLength; i++ )
             {
-                final Instant startTime = Instant.now();
-                for ( int j = 0; j < testIterations; j++ )
-                {
-                    random.nextBytes( noise );
-                    SecureEngine.encryptToString(
-                            JavaHelper.binaryArrayToHex( noise ),
-                            key,
-                            alg
-                    );
-                }
-                final TimeDuration executionDuration = TimeDuration.fromCurrent( startTime );
-                outputData.write( "processed " + testIterations + " iterations using "
-                        + alg.toString() + " (" + alg.getLabel() + ") in "
-                        + executionDuration.asMillis() + "ms" );
-                outputData.write( "\n" );
+                value[ value.length - 1 - i ] = ( byte ) ( counterValue >>> ( Byte.SIZE * i ) );
             }
+            return value;
         }
     }
 }
@@ -20,6 +20,7 @@
 
 package password.pwm.ws.server;
 
+import com.novell.ldapchai.exception.ChaiUnavailableException;
 import com.novell.ldapchai.provider.ChaiProvider;
 import password.pwm.PwmDomain;
 import password.pwm.bean.SessionLabel;
@@ -33,10 +34,14 @@ import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmOperationalException;
 import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.ldap.LdapOperationsHelper;
 import password.pwm.ldap.auth.AuthenticationResult;
+import password.pwm.ldap.auth.AuthenticationUtility;
 import password.pwm.ldap.auth.SimpleLdapAuthenticator;
 import password.pwm.ldap.permission.UserPermissionUtility;
 import password.pwm.ldap.search.UserSearchEngine;
+import password.pwm.svc.intruder.IntruderRecordType;
+import password.pwm.svc.intruder.IntruderServiceClient;
 import password.pwm.util.BasicAuthInfo;
 import password.pwm.util.java.CollectionUtil;
 import password.pwm.util.logging.PwmLogger;
@@ -217,8 +222,50 @@ public class RestAuthenticationProcessor
         final BasicAuthInfo basicAuthInfo = BasicAuthInfo.parseAuthHeader( pwmDomain, httpServletRequest )
                 .orElseThrow();
 
-        final AuthenticationResult authenticationResult = SimpleLdapAuthenticator.authenticateUser( pwmDomain, sessionLabel, userIdentity, basicAuthInfo.getPassword() );
-        return authenticationResult.getUserProvider();
+        final RestCredentialCache restCredentialCache = pwmDomain.getRestCredentialCache();
+        if ( restCredentialCache.isVerified( userIdentity, basicAuthInfo.getPassword() ) )
+        {
+            LOGGER.trace( sessionLabel, () -> "using recently verified credentials for " + userIdentity.toDisplayString() );
+            try
+            {
+                // intruder lockouts still apply to credentials verified before the lockout
+                IntruderServiceClient.checkUserIdentity( pwmDomain, userIdentity );
+                pwmDomain.getIntruderService().check( IntruderRecordType.ADDRESS, sessionLabel.getSourceAddress() );
+
+                // the account may have been disabled on another node or directly in the directory since it was verified
+                AuthenticationUtility.checkIfUserEligibleToAuthentication( sessionLabel, pwmDomain, userIdentity );
+
+                // the provider binds on first use
+                return LdapOperationsHelper.createChaiProvider(
+                        pwmDomain,
+                        sessionLabel,
+                        userIdentity.getLdapProfile( pwmDomain.getPwmApplication().getConfig() ),
+                        pwmDomain.getConfig(),
+                        userIdentity.getUserDN(),
+                        basicAuthInfo.getPassword()
+                );
+            }
+            catch ( final ChaiUnavailableException e )
+            {
+                throw PwmUnrecoverableException.fromChaiException( e );
+            }
+            catch ( final PwmUnrecoverableException e )
+            {
+                restCredentialCache.invalidate( userIdentity );
+                throw e;
+            }
+        }
 
+        try
+        {
+            final AuthenticationResult authenticationResult = SimpleLdapAuthenticator.authenticateUser( pwmDomain, sessionLabel, userIdentity, basicAuthInfo.getPassword() );
+            restCredentialCache.markVerified( userIdentity, basicAuthInfo.getPassword() );
+            return authenticationResult.getUserProvider();
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            restCredentialCache.invalidate( userIdentity );
+            throw e;
+        }
     }
 }
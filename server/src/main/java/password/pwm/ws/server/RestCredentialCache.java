@@ -0,0 +1,134 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ws.server;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import password.pwm.AppProperty;
+import password.pwm.PwmDomain;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.AppConfig;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.svc.stats.Statistic;
+import password.pwm.svc.stats.StatisticsClient;
+import password.pwm.util.PasswordData;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.secure.PwmRandom;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * Short-lived cache of recently verified REST basic-auth credentials, so that integrations repeatedly calling with
+ * the same service account do not cause an LDAP bind per request.
+ *
+ * <p>Only a salted PBKDF2 hash of the user identity and password is retained, and the salt is random per instance
+ * and never persisted.  Entries for a user are dropped when their password is changed, when they are marked by
+ * the intruder service, or when a bind with their credentials fails.</p>
+ *
+ * <p>Entries are only dropped on this node.  A password changed through another node or directly in the directory
+ * is still accepted here until the entry expires ({@link AppProperty#WS_REST_SERVER_AUTH_CACHE_LIFETIME_MS}), so the
+ * lifetime should be kept short.  Disabled and expired accounts are rejected on every cache hit by the caller.</p>
+ */
+public class RestCredentialCache
+{
+    private static final String KEY_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int KEY_LENGTH_BITS = 256;
+
+    private final PwmDomain pwmDomain;
+    private final Cache<UserIdentity, byte[]> verifiedCredentials;
+    private final int hashIterations;
+    private final byte[] salt = PwmRandom.getInstance().newBytes( 32 );
+
+    public RestCredentialCache( final PwmDomain pwmDomain )
+    {
+        this.pwmDomain = pwmDomain;
+
+        final AppConfig appConfig = pwmDomain.getPwmApplication().getConfig();
+        final int maxEntries = appConfig.readIntAppProperty( AppProperty.WS_REST_SERVER_AUTH_CACHE_MAX_ENTRIES );
+        final TimeDuration lifetime = appConfig.readDurationAppProperty( AppProperty.WS_REST_SERVER_AUTH_CACHE_LIFETIME_MS );
+        this.hashIterations = appConfig.readIntAppProperty( AppProperty.WS_REST_SERVER_AUTH_CACHE_HASH_ITERATIONS );
+
+        this.verifiedCredentials = maxEntries > 0 && lifetime.asMillis() > 0
+                ? Caffeine.newBuilder()
+                .maximumSize( maxEntries )
+                .expireAfterWrite( lifetime.asDuration() )
+                .build()
+                : null;
+    }
+
+    /**
+     * Test if {@code password} was recently verified for {@code userIdentity}.  Hits and misses are recorded
+     * as {@link Statistic#REST_AUTH_CACHE_HITS} and {@link Statistic#REST_AUTH_CACHE_MISSES}.
+     */
+    boolean isVerified( final UserIdentity userIdentity, final PasswordData password )
+            throws PwmUnrecoverableException
+    {
+        if ( verifiedCredentials == null )
+        {
+            return false;
+        }
+
+        final byte[] cachedHash = verifiedCredentials.getIfPresent( userIdentity );
+        final boolean verified = cachedHash != null && MessageDigest.isEqual( cachedHash, hash( userIdentity, password ) );
+        StatisticsClient.incrementStat( pwmDomain, verified ? Statistic.REST_AUTH_CACHE_HITS : Statistic.REST_AUTH_CACHE_MISSES );
+        return verified;
+    }
+
+    void markVerified( final UserIdentity userIdentity, final PasswordData password )
+            throws PwmUnrecoverableException
+    {
+        if ( verifiedCredentials != null )
+        {
+            verifiedCredentials.put( userIdentity, hash( userIdentity, password ) );
+        }
+    }
+
+    public void invalidate( final UserIdentity userIdentity )
+    {
+        if ( verifiedCredentials != null && userIdentity != null )
+        {
+            verifiedCredentials.invalidate( userIdentity );
+        }
+    }
+
+    private byte[] hash( final UserIdentity userIdentity, final PasswordData password )
+            throws PwmUnrecoverableException
+    {
+        final String input = userIdentity.toDelimitedKey() + '\n' + password.getStringValue();
+
+        final PBEKeySpec keySpec = new PBEKeySpec( input.toCharArray(), salt, hashIterations, KEY_LENGTH_BITS );
+        try
+        {
+            return SecretKeyFactory.getInstance( KEY_ALGORITHM ).generateSecret( keySpec ).getEncoded();
+        }
+        catch ( final GeneralSecurityException e )
+        {
+            throw new IllegalStateException( "unable to compute credential hash: " + e.getMessage(), e );
+        }
+        finally
+        {
+            keySpec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ws.server;
+
+import lombok.Value;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.http.HttpContentType;
+import password.pwm.http.HttpHeader;
+import password.pwm.http.HttpMethod;
+import password.pwm.util.java.JavaHelper;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-servlet-class dispatch table of {@link RestMethodHandler} methods.  Handler methods are discovered and bound
+ * to {@link MethodHandle}s once per servlet class, and the handler (or error) for each combination of HTTP method,
+ * content type and accept type is resolved once and then reused.
+ */
+class RestMethodDispatcher
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( RestMethodDispatcher.class );
+
+    private static final MethodType HANDLER_TYPE = MethodType.methodType( RestResultBean.class, RestServlet.class, RestRequest.class );
+
+    private static final ClassValue<RestMethodDispatcher> DISPATCHERS = new ClassValue<>()
+    {
+        @Override
+        protected RestMethodDispatcher computeValue( final Class<?> type )
+        {
+            return new RestMethodDispatcher( type );
+        }
+    };
+
+    private final List<Handler> handlers;
+    private final Map<DispatchKey, Resolution> resolutions = new ConcurrentHashMap<>();
+
+    private RestMethodDispatcher( final Class<?> servletClass )
+    {
+        final List<Handler> list = new ArrayList<>();
+        for ( final Method method : JavaHelper.getAllMethodsForClass( servletClass ) )
+        {
+            final RestMethodHandler annotation = method.getAnnotation( RestMethodHandler.class );
+            if ( annotation != null )
+            {
+                list.add( new Handler( servletClass.getSimpleName() + "." + method.getName(), annotation, bindHandle( method ) ) );
+            }
+        }
+        this.handlers = Collections.unmodifiableList( list );
+    }
+
+    static RestMethodDispatcher forClass( final Class<? extends RestServlet> servletClass )
+    {
+        return DISPATCHERS.get( servletClass );
+    }
+
+    private static MethodHandle bindHandle( final Method method )
+    {
+        try
+        {
+            return MethodHandles.lookup().unreflect( method ).asType( HANDLER_TYPE );
+        }
+        catch ( final IllegalAccessException e )
+        {
+            throw new IllegalStateException( "unable to access rest handler method " + method + ": " + e.getMessage(), e );
+        }
+    }
+
+    RestResultBean invoke( final RestServlet restServlet, final RestRequest restRequest )
+            throws PwmUnrecoverableException
+    {
+        final DispatchKey dispatchKey = new DispatchKey(
+                restRequest.getMethod(),
+                restRequest.readContentType().orElse( null ),
+                restRequest.readAcceptType().orElse( null ) );
+
+        final Resolution resolution = resolutions.computeIfAbsent( dispatchKey, this::resolve );
+        if ( resolution.getHandler() == null )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_REST_INVOCATION_ERROR, resolution.getErrorMsg() );
+        }
+
+        return resolution.getHandler().invoke( restServlet, restRequest );
+    }
+
+    Resolution resolve( final DispatchKey dispatchKey )
+    {
+        final HttpMethod reqMethod = dispatchKey.getMethod();
+        final Optional<HttpContentType> reqContent = Optional.ofNullable( dispatchKey.getContentType() );
+        final Optional<HttpContentType> reqAccept = Optional.ofNullable( dispatchKey.getAcceptType() );
+
+        final boolean careAboutContentType = reqMethod.isHasBody();
+
+        boolean anyMethodMatch = false;
+        boolean anyContentMatch = false;
+        boolean anyAcceptMatch = false;
+
+        for ( final Handler handler : handlers )
+        {
+            final RestMethodHandler annotation = handler.getAnnotation();
+
+            final boolean methodMatch = annotation.method().length == 0
+                    || Arrays.asList( annotation.method() ).contains( reqMethod );
+
+            final boolean contentMatch = reqContent.isPresent()
+                    && ( !careAboutContentType
+                    || annotation.consumes().length == 0
+                    || Arrays.asList( annotation.consumes() ).contains( reqContent.get() ) );
+
+            final boolean acceptMatch = reqAccept.isPresent()
+                    && ( annotation.produces().length == 0
+                    || Arrays.asList( annotation.produces() ).contains( reqAccept.get() ) );
+
+            anyMethodMatch |= methodMatch;
+            anyContentMatch |= contentMatch;
+            anyAcceptMatch |= acceptMatch;
+
+            if ( methodMatch && contentMatch && acceptMatch )
+            {
+                return new Resolution( handler, null );
+            }
+        }
+
+        final String errorMsg;
+        if ( !anyMethodMatch )
+        {
+            errorMsg = "HTTP method unavailable";
+        }
+        else if ( reqAccept.isEmpty() && !anyAcceptMatch )
+        {
+            errorMsg = HttpHeader.Accept.getHttpName() + " header is required";
+        }
+        else if ( reqContent.isEmpty() && !anyContentMatch )
+        {
+            errorMsg = HttpHeader.ContentType.getHttpName() + " header is required";
+        }
+        else if ( !anyAcceptMatch )
+        {
+            errorMsg = HttpHeader.Accept.getHttpName() + " value is not accepted for this service";
+        }
+        else if ( !anyContentMatch )
+        {
+            errorMsg = HttpHeader.ContentType.getHttpName() + " value is not accepted for this service";
+        }
+        else
+        {
+            errorMsg = "incorrect method, Content-Type header, or Accept header.";
+        }
+
+        return new Resolution( null, errorMsg );
+    }
+
+    /**
+     * Invocation count, error count and average latency for every handler method dispatched so far, keyed by
+     * {@code ServletClass.methodName}.  Latency of a streamed result includes the time spent writing the stream.
+     */
+    static Map<String, Map<String, String>> endpointStatistics()
+    {
+        final Map<String, Map<String, String>> output = new TreeMap<>();
+        EndpointStats.STATS.forEach( ( name, stats ) -> output.put( name, stats.debugStats() ) );
+        return Collections.unmodifiableMap( output );
+    }
+
+    @Value
+    static class DispatchKey
+    {
+        private final HttpMethod method;
+        private final HttpContentType contentType;
+        private final HttpContentType acceptType;
+    }
+
+    @Value
+    static class Resolution
+    {
+        private final Handler handler;
+        private final String errorMsg;
+    }
+
+    @Value
+    static class Handler
+    {
+        private final String name;
+        private final RestMethodHandler annotation;
+        private final MethodHandle methodHandle;
+
+        RestResultBean invoke( final RestServlet restServlet, final RestRequest restRequest )
+                throws PwmUnrecoverableException
+        {
+            final Instant startTime = Instant.now();
+            boolean success = false;
+            try
+            {
+                final RestResultBean restResultBean = ( RestResultBean ) methodHandle.invokeExact( restServlet, restRequest );
+                success = true;
+                return restResultBean.getDataStream() == null
+                        ? restResultBean
+                        : timedStream( restResultBean );
+            }
+            catch ( final PwmUnrecoverableException e )
+            {
+                throw e;
+            }
+            catch ( final Throwable e )
+            {
+                LOGGER.error( restRequest.getSessionLabel(), () -> "internal error executing rest request: " + e.getMessage(), e );
+                throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, e.getMessage() );
+            }
+            finally
+            {
+                EndpointStats.forName( name ).record( TimeDuration.fromCurrent( startTime ), success );
+            }
+        }
+
+        /**
+         * Streamed items are produced after the handler method returns, while the response is written, so that
+         * time is added to this handler's latency when the stream completes.
+         */
+        @SuppressWarnings( "unchecked" )
+        private RestResultBean timedStream( final RestResultBean restResultBean )
+        {
+            final RestResultStream<Object> dataStream = restResultBean.getDataStream();
+            final RestResultStream<Object> timedStream = itemConsumer ->
+            {
+                final Instant startTime = Instant.now();
+                boolean success = false;
+                try
+                {
+                    dataStream.produce( itemConsumer );
+                    success = true;
+                }
+                finally
+                {
+                    EndpointStats.forName( name ).recordStream( TimeDuration.fromCurrent( startTime ), success );
+                }
+            };
+            return restResultBean.toBuilder().dataStream( timedStream ).build();
+        }
+    }
+
+    private static class EndpointStats
+    {
+        private static final Map<String, EndpointStats> STATS = new ConcurrentHashMap<>();
+
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+
+        static EndpointStats forName( final String name )
+        {
+            return STATS.computeIfAbsent( name, k -> new EndpointStats() );
+        }
+
+        void record( final TimeDuration duration, final boolean success )
+        {
+            invocations.increment();
+            if ( !success )
+            {
+                errors.increment();
+            }
+            totalMillis.add( duration.asMillis() );
+        }
+
+        void recordStream( final TimeDuration duration, final boolean success )
+        {
+            if ( !success )
+            {
+                errors.increment();
+            }
+            totalMillis.add( duration.asMillis() );
+        }
+
+        Map<String, String> debugStats()
+        {
+            final Map<String, String> map = new LinkedHashMap<>();
+            final long count = invocations.sum();
+            map.put( "invocations", Long.toString( count ) );
+            map.put( "errors", Long.toString( errors.sum() ) );
+            map.put( "averageLatencyMs", Long.toString( count == 0 ? 0 : totalMillis.sum() / count ) );
+            return Collections.unmodifiableMap( map );
+        }
+    }
+}
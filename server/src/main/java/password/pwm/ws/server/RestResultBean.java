@@ -27,15 +27,20 @@ import lombok.Value;
 import password.pwm.PwmDomain;
 import password.pwm.config.DomainConfig;
 import password.pwm.error.ErrorInformation;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.http.PwmRequest;
 import password.pwm.i18n.Config;
 import password.pwm.i18n.Message;
 import password.pwm.util.json.JsonFactory;
 import password.pwm.util.json.JsonProvider;
+import password.pwm.util.logging.PwmLogger;
 
+import java.io.PrintWriter;
 import java.io.Serializable;
 import java.lang.reflect.Type;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Value
 @Builder( toBuilder =  true, access = AccessLevel.PACKAGE )
@@ -43,6 +48,8 @@ public class RestResultBean<T> implements Serializable
 {
     private static final long serialVersionUID = 1L;
 
+    private static final PwmLogger LOGGER = PwmLogger.forClass( RestResultBean.class );
+
     private final T data;
     private final boolean error;
     private final int errorCode;
@@ -53,6 +60,9 @@ public class RestResultBean<T> implements Serializable
     @SuppressFBWarnings( "SE_TRANSIENT_FIELD_NOT_RESTORED" )
     private final transient Class<T> classOfT;
 
+    @SuppressFBWarnings( "SE_TRANSIENT_FIELD_NOT_RESTORED" )
+    private final transient RestResultStream<T> dataStream;
+
     public static <T> RestResultBean<T> withData( final T data, final Class<T> classOfT )
     {
         return RestResultBean.<T>builder()
@@ -61,6 +71,19 @@ public class RestResultBean<T> implements Serializable
                 .build();
     }
 
+    /**
+     * Result whose {@code data} is a JSON array of items of type {@code classOfT}, each written to the response
+     * as it is produced.  If {@code dataStream} fails part way through, the items already written are kept and the
+     * result is marked as an error.
+     */
+    public static <T> RestResultBean<T> withDataStream( final RestResultStream<T> dataStream, final Class<T> classOfT )
+    {
+        return RestResultBean.<T>builder()
+                .dataStream( dataStream )
+                .classOfT( classOfT )
+                .build();
+    }
+
     public static <T> RestResultBean<T> fromError(
             final ErrorInformation errorInformation,
             final PwmDomain pwmDomain,
@@ -250,4 +273,69 @@ public class RestResultBean<T> implements Serializable
                 ? JsonFactory.get().serialize( this, RestResultBean.class, innerType, JsonProvider.Flag.PrettyPrint ) + "\n"
                 : JsonFactory.get().serialize( this, RestResultBean.class, innerType );
     }
+
+    /**
+     * Write the result of {@code dataStream} to {@code writer} as each item is produced.  An error message is
+     * localized using {@code locale} and {@code config}.
+     */
+    void writeStreamedJson( final PrintWriter writer, final Locale locale, final DomainConfig config, final boolean prettyPrintJson )
+    {
+        final String separator = prettyPrintJson ? "\n" : "";
+        final String indent = prettyPrintJson ? "  " : "";
+        final String valueSeparator = prettyPrintJson ? ": " : ":";
+
+        writer.write( "{" + separator + indent + "\"data\"" + valueSeparator + "[" );
+        writer.flush();
+
+        final AtomicBoolean firstItem = new AtomicBoolean( true );
+        ErrorInformation errorInformation = null;
+        try
+        {
+            dataStream.produce( item ->
+            {
+                if ( !firstItem.getAndSet( false ) )
+                {
+                    writer.write( ',' );
+                }
+                writer.write( separator );
+                writer.write( serializeStreamItem( item, prettyPrintJson, indent + indent ) );
+                writer.flush();
+            } );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            errorInformation = e.getErrorInformation();
+        }
+        catch ( final Exception e )
+        {
+            LOGGER.error( () -> "unexpected error writing streamed rest result: " + e.getMessage(), e );
+            errorInformation = new ErrorInformation( PwmError.ERROR_INTERNAL, e.getMessage() );
+        }
+
+        if ( !firstItem.get() )
+        {
+            writer.write( separator + indent );
+        }
+        writer.write( "]," + separator + indent + "\"error\"" + valueSeparator + ( errorInformation != null ) );
+        writer.write( "," + separator + indent + "\"errorCode\"" + valueSeparator
+                + ( errorInformation == null ? 0 : errorInformation.getError().getErrorCode() ) );
+        if ( errorInformation != null )
+        {
+            final String errorMessage = errorInformation.toUserStr( locale, config );
+            writer.write( "," + separator + indent + "\"errorMessage\"" + valueSeparator
+                    + JsonFactory.get().serialize( errorMessage, String.class ) );
+        }
+        writer.write( separator + "}" + separator );
+    }
+
+    private String serializeStreamItem( final T item, final boolean prettyPrintJson, final String indent )
+    {
+        if ( !prettyPrintJson )
+        {
+            return JsonFactory.get().serialize( item, classOfT );
+        }
+
+        final String json = JsonFactory.get().serialize( item, classOfT, JsonProvider.Flag.PrettyPrint );
+        return indent + json.replace( "\n", "\n" + indent );
+    }
 }
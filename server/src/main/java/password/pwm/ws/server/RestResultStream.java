@@ -0,0 +1,35 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ws.server;
+
+import password.pwm.error.PwmUnrecoverableException;
+
+import java.util.function.Consumer;
+
+/**
+ * Producer of REST result items that are written to the response as each one completes, instead of after the
+ * complete result has been assembled.  See {@link RestResultBean#withDataStream(RestResultStream, Class)}.
+ */
+@FunctionalInterface
+public interface RestResultStream<T>
+{
+    void produce( Consumer<T> itemConsumer ) throws PwmUnrecoverableException;
+}
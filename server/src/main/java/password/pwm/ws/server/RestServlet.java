@@ -23,7 +23,6 @@ package password.pwm.ws.server;
 import com.novell.ldapchai.ChaiUser;
 import com.novell.ldapchai.exception.ChaiUnavailableException;
 import com.novell.ldapchai.provider.ChaiProvider;
-import lombok.Data;
 import lombok.Value;
 import password.pwm.PwmApplication;
 import password.pwm.PwmApplicationMode;
@@ -32,6 +31,7 @@ import password.pwm.PwmDomain;
 import password.pwm.bean.DomainID;
 import password.pwm.bean.SessionLabel;
 import password.pwm.bean.UserIdentity;
+import password.pwm.config.DomainConfig;
 import password.pwm.config.PwmSetting;
 import password.pwm.config.option.WebServiceUsage;
 import password.pwm.error.ErrorInformation;
@@ -40,12 +40,10 @@ import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.http.ContextManager;
 import password.pwm.http.HttpContentType;
 import password.pwm.http.HttpHeader;
-import password.pwm.http.HttpMethod;
 import password.pwm.http.PwmHttpRequestWrapper;
 import password.pwm.http.filter.RequestInitializationFilter;
 import password.pwm.util.i18n.LocaleHelper;
 import password.pwm.util.java.AtomicLoopIntIncrementer;
-import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.StringUtil;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.json.JsonFactory;
@@ -58,13 +56,11 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.time.Instant;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 public abstract class RestServlet extends HttpServlet
@@ -150,7 +146,7 @@ public abstract class RestServlet extends HttpServlet
 
         final RestResultBean restResultBean = executeRequest( req, resp, locale, pwmApplication, pwmDomain, sessionLabel );
 
-        outputRestResultBean( restResultBean, req, resp );
+        outputRestResultBean( restResultBean, req, resp, locale, pwmDomain.getConfig() );
         final boolean success = restResultBean != null && !restResultBean.isError();
         LOGGER.trace( sessionLabel, () -> "completed rest invocation, success=" + success, () -> TimeDuration.fromCurrent( startTime ) );
     }
@@ -237,132 +233,17 @@ public abstract class RestServlet extends HttpServlet
     }
 
     private RestResultBean invokeWebService( final RestRequest restRequest )
-            throws IOException, PwmUnrecoverableException
-    {
-        final Method interestedMethod = discoverMethodForAction( this.getClass(), restRequest );
-
-        if ( interestedMethod != null )
-        {
-            try
-            {
-                return ( RestResultBean ) interestedMethod.invoke( this, restRequest );
-            }
-            catch ( final InvocationTargetException e )
-            {
-                final Throwable rootException = e.getTargetException();
-                if ( rootException instanceof PwmUnrecoverableException )
-                {
-                    throw ( PwmUnrecoverableException ) rootException;
-                }
-                LOGGER.error( restRequest.getSessionLabel(), () -> "internal error executing rest request: " + e.getMessage(), e );
-                throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, e.getMessage() );
-            }
-            catch ( final IllegalAccessException e )
-            {
-                LOGGER.error( restRequest.getSessionLabel(), () -> "internal error executing rest request: " + e.getMessage(), e );
-                throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, e.getMessage() );
-            }
-        }
-        return null;
-    }
-
-    @Data
-    private static class MethodMatcher
+            throws PwmUnrecoverableException
     {
-        boolean methodMatch;
-        boolean contentMatch;
-        boolean acceptMatch;
+        return RestMethodDispatcher.forClass( this.getClass() ).invoke( this, restRequest );
     }
 
-    private Method discoverMethodForAction( final Class clazz, final RestRequest restRequest )
-            throws PwmUnrecoverableException, IOException
+    /**
+     * Invocation and latency statistics for each REST handler method, keyed by {@code ServletClass.methodName}.
+     */
+    public static Map<String, Map<String, String>> endpointStatistics()
     {
-        final HttpMethod reqMethod = restRequest.getMethod();
-        final Optional<HttpContentType> reqContent = restRequest.readContentType();
-        final Optional<HttpContentType> reqAccept = restRequest.readAcceptType();
-
-        final boolean careAboutContentType = reqMethod.isHasBody();
-
-        final MethodMatcher anyMatch = new MethodMatcher();
-
-        final Collection<Method> methods = JavaHelper.getAllMethodsForClass( clazz );
-        for ( final Method method : methods )
-        {
-            final RestMethodHandler annotation = method.getAnnotation( RestMethodHandler.class );
-            final MethodMatcher loopMatch = new MethodMatcher();
-
-            if ( annotation != null )
-            {
-                if (
-                        annotation.method().length == 0
-                                || Arrays.asList( annotation.method() ).contains( reqMethod )
-                )
-                {
-                    loopMatch.setMethodMatch( true );
-                    anyMatch.setMethodMatch( true );
-                }
-
-                if ( reqContent.isPresent() )
-                {
-                    if (
-                            !careAboutContentType
-                                    || annotation.consumes().length == 0
-                                    || Arrays.asList( annotation.consumes() ).contains( reqContent.get() ) )
-                    {
-                        loopMatch.setContentMatch( true );
-                        anyMatch.setContentMatch( true );
-                    }
-                }
-
-                if ( reqAccept.isPresent() )
-                {
-                    if (
-                            annotation.produces().length == 0
-                                    || Arrays.asList( annotation.produces() ).contains( reqAccept.get() )
-                    )
-                    {
-                        loopMatch.setAcceptMatch( true );
-                        anyMatch.setAcceptMatch( true );
-                    }
-                }
-
-                if (
-                        loopMatch.isMethodMatch()
-                                && loopMatch.isContentMatch()
-                                && loopMatch.isAcceptMatch() )
-                {
-                    return method;
-                }
-            }
-        }
-
-        final String errorMsg;
-        if ( !anyMatch.isMethodMatch() )
-        {
-            errorMsg = "HTTP method unavailable";
-        }
-        else if ( reqAccept.isEmpty() && !anyMatch.isAcceptMatch() )
-        {
-            errorMsg = HttpHeader.Accept.getHttpName() + " header is required";
-        }
-        else if ( reqContent.isEmpty() && !anyMatch.isContentMatch() )
-        {
-            errorMsg = HttpHeader.ContentType.getHttpName() + " header is required";
-        }
-        else if ( !anyMatch.isAcceptMatch() )
-        {
-            errorMsg = HttpHeader.Accept.getHttpName() + " value is not accepted for this service";
-        }
-        else if ( !anyMatch.isContentMatch() )
-        {
-            errorMsg = HttpHeader.ContentType.getHttpName() + " value is not accepted for this service";
-        }
-        else
-        {
-            errorMsg = "incorrect method, Content-Type header, or Accept header.";
-        }
-
-        throw PwmUnrecoverableException.newException( PwmError.ERROR_REST_INVOCATION_ERROR, errorMsg );
+        return RestMethodDispatcher.endpointStatistics();
     }
 
     private void preCheck( final RestRequest restRequest )
@@ -423,6 +304,18 @@ public abstract class RestServlet extends HttpServlet
             final HttpServletResponse resp
     )
             throws IOException
+    {
+        outputRestResultBean( restResultBean, request, resp, PwmConstants.DEFAULT_LOCALE, null );
+    }
+
+    private void outputRestResultBean(
+            final RestResultBean restResultBean,
+            final HttpServletRequest request,
+            final HttpServletResponse resp,
+            final Locale locale,
+            final DomainConfig domainConfig
+    )
+            throws IOException
     {
         resp.setHeader( HttpHeader.Server.getHttpName(), PwmConstants.PWM_APP_NAME );
 
@@ -438,7 +331,14 @@ public abstract class RestServlet extends HttpServlet
                     final boolean jsonPretty = Boolean.parseBoolean( request.getParameter( PwmConstants.PARAM_FORMAT_JSON_PRETTY ) );
                     try ( PrintWriter pw = resp.getWriter() )
                     {
-                        pw.write( restResultBean.toJson( jsonPretty ) );
+                        if ( restResultBean.getDataStream() != null )
+                        {
+                            restResultBean.writeStreamedJson( pw, locale, domainConfig, jsonPretty );
+                        }
+                        else
+                        {
+                            pw.write( restResultBean.toJson( jsonPretty ) );
+                        }
                     }
                 }
                 break;
@@ -21,6 +21,7 @@
 package password.pwm.ws.server;
 
 import com.google.gson.stream.MalformedJsonException;
+import password.pwm.AppProperty;
 import password.pwm.PwmDomain;
 import password.pwm.bean.UserIdentity;
 import password.pwm.config.profile.LdapProfile;
@@ -189,4 +190,15 @@ public class RestUtility
 
         return Optional.of( paramValue );
     }
+
+    public static void checkBatchSize( final RestRequest restRequest, final int batchSize )
+            throws PwmUnrecoverableException
+    {
+        final int maxItems = restRequest.getDomain().getConfig().readIntAppProperty( AppProperty.WS_REST_SERVER_BATCH_MAX_ITEMS );
+        if ( batchSize < 1 || batchSize > maxItems )
+        {
+            final String errorMsg = "batch size must be between 1 and " + maxItems + ", requested size is " + batchSize;
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_REST_INVOCATION_ERROR, errorMsg );
+        }
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ws.server.rest;
+
+import com.novell.ldapchai.ChaiUser;
+import com.novell.ldapchai.exception.ChaiUnavailableException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import password.pwm.PwmConstants;
+import password.pwm.config.option.WebServiceUsage;
+import password.pwm.error.ErrorInformation;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmException;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.http.HttpContentType;
+import password.pwm.http.HttpMethod;
+import password.pwm.ldap.UserInfo;
+import password.pwm.ldap.UserInfoFactory;
+import password.pwm.svc.stats.Statistic;
+import password.pwm.svc.stats.StatisticsClient;
+import password.pwm.util.PasswordData;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.password.PasswordUtility;
+import password.pwm.util.password.PwmPasswordRuleValidator;
+import password.pwm.ws.server.RestMethodHandler;
+import password.pwm.ws.server.RestRequest;
+import password.pwm.ws.server.RestResultBean;
+import password.pwm.ws.server.RestServlet;
+import password.pwm.ws.server.RestUtility;
+import password.pwm.ws.server.RestWebServer;
+
+import javax.servlet.annotation.WebServlet;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Batch variant of {@link RestCheckPasswordServer}.  The target user, their password policy and the rule validator
+ * are resolved once for the batch, and a result for each candidate is streamed back in input order as it is checked.
+ */
+@WebServlet(
+        urlPatterns = {
+                PwmConstants.URL_PREFIX_PUBLIC + PwmConstants.URL_PREFIX_REST + "/checkpassword/batch"
+        }
+)
+@RestWebServer( webService = WebServiceUsage.CheckPassword )
+public class RestCheckPasswordBatchServer extends RestServlet
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( RestCheckPasswordBatchServer.class );
+
+    private static final String FIELD_PASSWORDS = "passwords";
+
+    @Getter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class JsonInput implements Serializable
+    {
+        public String username;
+        public List<String> passwords;
+    }
+
+    @Override
+    public void preCheckRequest( final RestRequest request ) throws PwmUnrecoverableException
+    {
+    }
+
+    @RestMethodHandler( method = HttpMethod.POST, consumes = HttpContentType.json, produces = HttpContentType.json )
+    public RestResultBean doPasswordRuleCheckBatchJsonPost( final RestRequest restRequest )
+            throws PwmUnrecoverableException
+    {
+        final JsonInput jsonInput = RestUtility.deserializeJsonBody( restRequest, JsonInput.class );
+
+        if ( jsonInput.getPasswords() == null || jsonInput.getPasswords().isEmpty() )
+        {
+            final String errorMessage = "missing field '" + FIELD_PASSWORDS + "'";
+            final ErrorInformation errorInformation = new ErrorInformation( PwmError.ERROR_FIELD_REQUIRED, errorMessage, new String[]
+                    {
+                            FIELD_PASSWORDS,
+                    }
+            );
+            return RestResultBean.fromError( restRequest, errorInformation );
+        }
+
+        RestUtility.checkBatchSize( restRequest, jsonInput.getPasswords().size() );
+
+        final TargetUserIdentity targetUserIdentity;
+        final UserInfo userInfo;
+        final ChaiUser chaiUser;
+        final PwmPasswordRuleValidator ruleValidator;
+        try
+        {
+            targetUserIdentity = RestUtility.resolveRequestedUsername( restRequest, jsonInput.getUsername() );
+            userInfo = UserInfoFactory.newUserInfo(
+                    restRequest.getPwmApplication(),
+                    restRequest.getSessionLabel(),
+                    restRequest.getLocale(),
+                    targetUserIdentity.getUserIdentity(),
+                    targetUserIdentity.getChaiProvider()
+            );
+            chaiUser = targetUserIdentity.getChaiUser();
+            ruleValidator = PwmPasswordRuleValidator.create(
+                    restRequest.getSessionLabel(),
+                    restRequest.getDomain(),
+                    userInfo.getPasswordPolicy(),
+                    restRequest.getLocale() );
+        }
+        catch ( final PwmException e )
+        {
+            LOGGER.debug( restRequest.getSessionLabel(), () -> "REST /checkpassword/batch error during execution: " + e.getMessage() );
+            return RestResultBean.fromError( restRequest, e.getErrorInformation() );
+        }
+
+        final List<String> passwords = jsonInput.getPasswords();
+        return RestResultBean.withDataStream( output ->
+        {
+            final Instant startTime = Instant.now();
+            for ( final String password : passwords )
+            {
+                final PasswordData passwordData = StringUtil.isEmpty( password ) ? null : new PasswordData( password );
+                try
+                {
+                    final PasswordUtility.PasswordCheckInfo passwordCheckInfo = PasswordUtility.checkEnteredPassword(
+                            restRequest.getPwmRestRequest(),
+                            chaiUser,
+                            userInfo,
+                            null,
+                            passwordData,
+                            passwordData,
+                            ruleValidator
+                    );
+                    StatisticsClient.incrementStat( restRequest.getPwmApplication(), Statistic.REST_CHECKPASSWORD );
+                    output.accept( RestCheckPasswordServer.JsonOutput.fromPasswordCheckInfo( passwordCheckInfo ) );
+                }
+                catch ( final ChaiUnavailableException e )
+                {
+                    throw PwmUnrecoverableException.fromChaiException( e );
+                }
+            }
+            LOGGER.trace( restRequest.getSessionLabel(), () -> "REST /checkpassword/batch checked " + passwords.size() + " passwords",
+                    () -> TimeDuration.fromCurrent( startTime ) );
+        }, RestCheckPasswordServer.JsonOutput.class );
+    }
+}
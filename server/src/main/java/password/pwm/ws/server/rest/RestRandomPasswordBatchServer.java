@@ -0,0 +1,110 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ws.server.rest;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import password.pwm.PwmConstants;
+import password.pwm.config.option.WebServiceUsage;
+import password.pwm.config.profile.PwmPasswordPolicy;
+import password.pwm.error.PwmException;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.http.HttpContentType;
+import password.pwm.http.HttpMethod;
+import password.pwm.svc.stats.Statistic;
+import password.pwm.svc.stats.StatisticsClient;
+import password.pwm.util.PasswordData;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.password.RandomPasswordGenerator;
+import password.pwm.ws.server.RestMethodHandler;
+import password.pwm.ws.server.RestRequest;
+import password.pwm.ws.server.RestResultBean;
+import password.pwm.ws.server.RestServlet;
+import password.pwm.ws.server.RestUtility;
+import password.pwm.ws.server.RestWebServer;
+
+import javax.servlet.annotation.WebServlet;
+import java.time.Instant;
+
+/**
+ * Batch variant of {@link RestRandomPasswordServer}.  The password policy and generator configuration are resolved
+ * once for the batch, and each generated password is streamed back as it is created.
+ */
+@WebServlet(
+        urlPatterns = {
+                PwmConstants.URL_PREFIX_PUBLIC + PwmConstants.URL_PREFIX_REST + "/randompassword/batch",
+        }
+)
+@RestWebServer( webService = WebServiceUsage.RandomPassword )
+public class RestRandomPasswordBatchServer extends RestServlet
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( RestRandomPasswordBatchServer.class );
+
+    @Data
+    @EqualsAndHashCode( callSuper = true )
+    public static class JsonInput extends RestRandomPasswordServer.JsonInput
+    {
+        private int count;
+    }
+
+    @Override
+    public void preCheckRequest( final RestRequest request ) throws PwmUnrecoverableException
+    {
+    }
+
+    @RestMethodHandler( method = HttpMethod.POST, consumes = HttpContentType.json, produces = HttpContentType.json )
+    public RestResultBean doPostRandomPasswordBatchJson( final RestRequest restRequest )
+            throws PwmUnrecoverableException
+    {
+        final JsonInput jsonInput = RestUtility.deserializeJsonBody( restRequest, JsonInput.class );
+
+        RestUtility.checkBatchSize( restRequest, jsonInput.getCount() );
+
+        final RandomPasswordGenerator.RandomGeneratorConfig randomConfig;
+        try
+        {
+            final PwmPasswordPolicy pwmPasswordPolicy = RestRandomPasswordServer.readPasswordPolicy( restRequest, jsonInput );
+            randomConfig = RestRandomPasswordServer.jsonInputToRandomConfig( jsonInput, pwmPasswordPolicy );
+        }
+        catch ( final PwmException e )
+        {
+            LOGGER.error( restRequest.getSessionLabel(), () -> "error executing rest-json random password batch request: " + e.getMessage(), e );
+            return RestResultBean.fromError( restRequest, e.getErrorInformation() );
+        }
+
+        final int count = jsonInput.getCount();
+        return RestResultBean.withDataStream( output ->
+        {
+            final Instant startTime = Instant.now();
+            for ( int i = 0; i < count; i++ )
+            {
+                final PasswordData randomPassword = RandomPasswordGenerator.createRandomPassword( restRequest.getSessionLabel(), randomConfig, restRequest.getDomain() );
+                final RestRandomPasswordServer.JsonOutput jsonOutput = new RestRandomPasswordServer.JsonOutput();
+                jsonOutput.setPassword( randomPassword.getStringValue() );
+                StatisticsClient.incrementStat( restRequest.getDomain(), Statistic.REST_RANDOMPASSWORD );
+                output.accept( jsonOutput );
+            }
+            LOGGER.trace( restRequest.getSessionLabel(), () -> "REST /randompassword/batch generated " + count + " passwords",
+                    () -> TimeDuration.fromCurrent( startTime ) );
+        }, RestRandomPasswordServer.JsonOutput.class );
+    }
+}
@@ -195,22 +195,7 @@ public class RestRandomPasswordServer extends RestServlet
     )
             throws PwmUnrecoverableException
     {
-        final PwmPasswordPolicy pwmPasswordPolicy;
-
-        if ( jsonInput.isNoUser() || StringUtil.isEmpty( jsonInput.getUsername() ) )
-        {
-            pwmPasswordPolicy = PwmPasswordPolicy.defaultPolicy();
-        }
-        else
-        {
-            final TargetUserIdentity targetUserIdentity = RestUtility.resolveRequestedUsername( restRequest, jsonInput.getUsername() );
-            pwmPasswordPolicy = PasswordUtility.readPasswordPolicyForUser(
-                    restRequest.getDomain(),
-                    restRequest.getSessionLabel(),
-                    targetUserIdentity.getUserIdentity(),
-                    targetUserIdentity.getChaiUser() );
-        }
-
+        final PwmPasswordPolicy pwmPasswordPolicy = readPasswordPolicy( restRequest, jsonInput );
         final RandomPasswordGenerator.RandomGeneratorConfig randomConfig = jsonInputToRandomConfig( jsonInput, pwmPasswordPolicy );
         final PasswordData randomPassword = RandomPasswordGenerator.createRandomPassword( restRequest.getSessionLabel(), randomConfig, restRequest.getDomain() );
         final JsonOutput outputMap = new JsonOutput();
@@ -221,6 +206,25 @@ public class RestRandomPasswordServer extends RestServlet
         return outputMap;
     }
 
+    static PwmPasswordPolicy readPasswordPolicy(
+            final RestRequest restRequest,
+            final JsonInput jsonInput
+    )
+            throws PwmUnrecoverableException
+    {
+        if ( jsonInput.isNoUser() || StringUtil.isEmpty( jsonInput.getUsername() ) )
+        {
+            return PwmPasswordPolicy.defaultPolicy();
+        }
+
+        final TargetUserIdentity targetUserIdentity = RestUtility.resolveRequestedUsername( restRequest, jsonInput.getUsername() );
+        return PasswordUtility.readPasswordPolicyForUser(
+                restRequest.getDomain(),
+                restRequest.getSessionLabel(),
+                targetUserIdentity.getUserIdentity(),
+                targetUserIdentity.getChaiUser() );
+    }
+
     public static RandomPasswordGenerator.RandomGeneratorConfig jsonInputToRandomConfig(
             final JsonInput jsonInput,
             final PwmPasswordPolicy pwmPasswordPolicy
@@ -35,6 +35,7 @@ import password.pwm.http.PwmHttpRequestWrapper;
 import password.pwm.svc.stats.AvgStatistic;
 import password.pwm.svc.stats.DailyKey;
 import password.pwm.svc.stats.EpsStatistic;
+import password.pwm.svc.stats.LatencyHistogram;
 import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.stats.StatisticType;
 import password.pwm.svc.stats.StatisticsBundle;
@@ -89,6 +90,9 @@ public class RestStatisticsServer extends RestServlet
         public List<StatValue> current;
         public List<StatValue> cumulative;
         public List<HistoryData> history;
+        public List<LatencyValue> latencyCurrent;
+        public List<LatencyValue> latencyCumulative;
+        public List<LatencyValue> latencyHistory;
     }
 
     @Builder
@@ -110,6 +114,16 @@ public class RestStatisticsServer extends RestServlet
         private String value;
     }
 
+    @Value
+    public static class LatencyValue implements Serializable
+    {
+        private String name;
+        private long count;
+        private long p50;
+        private long p95;
+        private long p99;
+    }
+
     @Value
     public static class StatLabelData implements Serializable
     {
@@ -167,6 +181,9 @@ public class RestStatisticsServer extends RestServlet
                     .current( makeStatInfos( statisticsManager, StatisticsService.KEY_CURRENT ) )
                     .eventRates( makeEpsStatInfos( statisticsManager ) )
                     .history( makeHistoryStatInfos( statisticsManager, days ) )
+                    .latencyCurrent( makeLatencyInfos( statisticsManager.getStatBundleForKey( StatisticsService.KEY_CURRENT ) ) )
+                    .latencyCumulative( makeLatencyInfos( statisticsManager.getStatBundleForKey( StatisticsService.KEY_CUMULATIVE ) ) )
+                    .latencyHistory( makeLatencyHistoryInfos( statisticsManager, days ) )
                     .labels( makeLabels( locale ) )
                     .build();
             return RestResultBean.withData( jsonOutput, JsonOutput.class );
@@ -183,6 +200,42 @@ public class RestStatisticsServer extends RestServlet
             return List.copyOf( new TreeMap<>( output ).values() );
         }
 
+        private static List<LatencyValue> makeLatencyInfos( final StatisticsBundle bundle )
+        {
+            if ( bundle == null )
+            {
+                return Collections.emptyList();
+            }
+
+            final List<LatencyValue> output = new ArrayList<>( AvgStatistic.values().length );
+            for ( final AvgStatistic statistic : AvgStatistic.values() )
+            {
+                output.add( new LatencyValue(
+                        statistic.name(),
+                        bundle.getLatencyCount( statistic ),
+                        bundle.getPercentile( statistic, 50 ),
+                        bundle.getPercentile( statistic, 95 ),
+                        bundle.getPercentile( statistic, 99 ) ) );
+            }
+            return Collections.unmodifiableList( output );
+        }
+
+        private static List<LatencyValue> makeLatencyHistoryInfos( final StatisticsService statisticsManager, final int days )
+        {
+            final List<LatencyValue> output = new ArrayList<>( AvgStatistic.values().length );
+            for ( final AvgStatistic statistic : AvgStatistic.values() )
+            {
+                final LatencyHistogram histogram = statisticsManager.getLatencyHistogram( statistic, days );
+                output.add( new LatencyValue(
+                        statistic.name(),
+                        histogram.getCount(),
+                        histogram.getValueAtPercentile( 50 ),
+                        histogram.getValueAtPercentile( 95 ),
+                        histogram.getValueAtPercentile( 99 ) ) );
+            }
+            return Collections.unmodifiableList( output );
+        }
+
         private static List<HistoryData> makeHistoryStatInfos(
                 final StatisticsService statisticsManager,
                 final int days
@@ -63,6 +63,18 @@ public class PwmSettingXmlTest
         }
     }
 
+    @Test
+    public void testIndexedElementMatchesXpath()
+    {
+        for ( final PwmSetting pwmSetting : PwmSetting.values() )
+        {
+            final XmlElement indexedElement = PwmSettingXml.readSettingXml( pwmSetting );
+            final XmlElement xpathElement = xmlDocument.evaluateXpathToElement( "/settings/setting[@key=\"" + pwmSetting.getKey() + "\"]" ).orElseThrow();
+            Assert.assertEquals( xpathElement.getAttribute( "key" ), indexedElement.getAttribute( "key" ) );
+            Assert.assertEquals( xpathElement.getChildren().size(), indexedElement.getChildren().size() );
+        }
+    }
+
     @Test
     public void testXmlElementIsInSettings()
     {
@@ -0,0 +1,106 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.config;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import password.pwm.AppProperty;
+import password.pwm.bean.DomainID;
+import password.pwm.config.stored.StoredConfigKey;
+import password.pwm.config.stored.StoredConfiguration;
+import password.pwm.config.stored.StoredConfigurationFactory;
+import password.pwm.config.stored.StoredConfigurationUtil;
+import password.pwm.config.value.ValueTypeConverter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares setting and app property reads through {@link AppConfig} with converting the stored value on every read.
+ */
+@State( Scope.Benchmark )
+public class SettingReaderBenchmarkExtendedTest
+{
+    private StoredConfiguration storedConfiguration;
+    private AppConfig appConfig;
+    private StoredConfigKey knownLocalesKey;
+
+    @Test
+    public void
+    launchBenchmark()
+            throws Exception
+    {
+        final Options opt = new OptionsBuilder()
+                .include( this.getClass().getName() + ".*" )
+                .mode ( Mode.AverageTime )
+                .timeUnit( TimeUnit.NANOSECONDS )
+                .warmupTime( TimeValue.seconds( 10 ) )
+                .measurementIterations( 10 )
+                .threads( 1 )
+                .forks( 1 )
+                .shouldFailOnError( true )
+                .shouldDoGC( true )
+                .build();
+
+        new Runner( opt ).run();
+    }
+
+    @Setup
+    public void setup()
+            throws Exception
+    {
+        storedConfiguration = StoredConfigurationFactory.newConfig();
+        appConfig = new AppConfig( storedConfiguration );
+        knownLocalesKey = StoredConfigKey.forSetting( PwmSetting.KNOWN_LOCALES, null, DomainID.systemId() );
+    }
+
+    @Benchmark
+    public void convertingSettingRead( final Blackhole blackhole )
+    {
+        blackhole.consume( ValueTypeConverter.valueToStringArray( StoredConfigurationUtil.getValueOrDefault( storedConfiguration, knownLocalesKey ) ) );
+    }
+
+    @Benchmark
+    public void cachedSettingRead( final Blackhole blackhole )
+    {
+        blackhole.consume( appConfig.readSettingAsStringArray( PwmSetting.KNOWN_LOCALES ) );
+    }
+
+    @Benchmark
+    public void parsingAppPropertyRead( final Blackhole blackhole )
+    {
+        blackhole.consume( Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) ) );
+    }
+
+    @Benchmark
+    public void cachedAppPropertyRead( final Blackhole blackhole )
+    {
+        blackhole.consume( appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.config;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.AppProperty;
+import password.pwm.bean.DomainID;
+import password.pwm.config.option.IntruderStorageMethod;
+import password.pwm.config.stored.StoredConfigKey;
+import password.pwm.config.stored.StoredConfiguration;
+import password.pwm.config.stored.StoredConfigurationFactory;
+import password.pwm.config.stored.StoredConfigurationUtil;
+import password.pwm.config.value.ValueTypeConverter;
+import password.pwm.util.java.TimeDuration;
+
+import java.util.List;
+
+public class StoredSettingReaderTest
+{
+    @Test
+    public void cachedValuesTest() throws Exception
+    {
+        final StoredConfiguration storedConfiguration = StoredConfigurationFactory.newConfig();
+        final StoredSettingReader settingReader = new StoredSettingReader( storedConfiguration, null, DomainID.systemId() );
+
+        final List<String> expected = ValueTypeConverter.valueToStringArray( StoredConfigurationUtil.getValueOrDefault(
+                storedConfiguration, StoredConfigKey.forSetting( PwmSetting.KNOWN_LOCALES, null, DomainID.systemId() ) ) );
+
+        final List<String> firstRead = settingReader.readSettingAsStringArray( PwmSetting.KNOWN_LOCALES );
+        Assert.assertEquals( expected, firstRead );
+        Assert.assertSame( firstRead, settingReader.readSettingAsStringArray( PwmSetting.KNOWN_LOCALES ) );
+
+        final IntruderStorageMethod storageMethod = settingReader.readSettingAsEnum( PwmSetting.INTRUDER_STORAGE_METHOD, IntruderStorageMethod.class );
+        Assert.assertEquals( storageMethod, settingReader.readSettingAsEnum( PwmSetting.INTRUDER_STORAGE_METHOD, IntruderStorageMethod.class ) );
+    }
+
+    @Test
+    public void scopeCheckNotCachedTest() throws Exception
+    {
+        final StoredConfiguration storedConfiguration = StoredConfigurationFactory.newConfig();
+        final StoredSettingReader settingReader = new StoredSettingReader( storedConfiguration, null, DomainID.systemId() );
+
+        for ( int i = 0; i < 2; i++ )
+        {
+            Assert.assertThrows( IllegalStateException.class, () -> settingReader.readSettingAsBoolean( PwmSetting.DISPLAY_HOME_BUTTON ) );
+        }
+    }
+
+    @Test
+    public void appPropertyTest()
+    {
+        final AppConfig appConfig = AppConfig.defaultConfig();
+
+        Assert.assertEquals( AppProperty.HTTP_PARAM_MAX_READ_LENGTH.getDefaultValue(), appConfig.readAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        Assert.assertEquals( Integer.parseInt( AppProperty.HTTP_PARAM_MAX_READ_LENGTH.getDefaultValue() ),
+                appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        Assert.assertEquals( Long.parseLong( AppProperty.HTTP_PARAM_MAX_READ_LENGTH.getDefaultValue() ),
+                appConfig.readLongAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+        Assert.assertEquals( Integer.parseInt( AppProperty.HTTP_PARAM_MAX_READ_LENGTH.getDefaultValue() ),
+                appConfig.readIntAppProperty( AppProperty.HTTP_PARAM_MAX_READ_LENGTH ) );
+
+        Assert.assertEquals( TimeDuration.of( Long.parseLong( AppProperty.INTRUDER_CLEANUP_FREQUENCY_MS.getDefaultValue() ), TimeDuration.Unit.MILLISECONDS ),
+                appConfig.readDurationAppProperty( AppProperty.INTRUDER_CLEANUP_FREQUENCY_MS ) );
+    }
+}
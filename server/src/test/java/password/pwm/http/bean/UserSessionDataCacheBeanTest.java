@@ -0,0 +1,115 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.Permission;
+import password.pwm.bean.DomainID;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.value.data.UserPermission;
+import password.pwm.ldap.permission.UserPermissionType;
+import password.pwm.util.java.TimeDuration;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+public class UserSessionDataCacheBeanTest
+{
+    private static final UserIdentity USER = UserIdentity.create( "cn=user,o=org", "default", DomainID.create( "default" ) );
+    private static final UserIdentity OTHER_USER = UserIdentity.create( "cn=other,o=org", "default", DomainID.create( "default" ) );
+
+    private static final List<UserPermission> PERMISSIONS = Collections.singletonList( UserPermission.builder()
+            .type( UserPermissionType.ldapQuery )
+            .ldapQuery( "(objectClass=person)" )
+            .build() );
+
+    @Test
+    public void testPermissionDecisions()
+    {
+        final UserSessionDataCacheBean cacheBean = new UserSessionDataCacheBean();
+        final Instant configEpoch = Instant.now();
+
+        final UserSessionDataCacheBean.PermissionDecisionKey userKey = new UserSessionDataCacheBean.PermissionDecisionKey( USER, configEpoch, PERMISSIONS );
+        final UserSessionDataCacheBean.PermissionDecisionKey otherUserKey = new UserSessionDataCacheBean.PermissionDecisionKey( OTHER_USER, configEpoch, PERMISSIONS );
+
+        Assert.assertEquals( Optional.empty(), cacheBean.readPermissionDecision( userKey ) );
+
+        cacheBean.writePermissionDecision( userKey, true, 100, null );
+        cacheBean.writePermissionDecision( otherUserKey, false, 100, TimeDuration.MINUTE );
+        cacheBean.setPermission( Permission.PWMADMIN, Permission.PermissionStatus.GRANTED );
+
+        Assert.assertEquals( Optional.of( true ), cacheBean.readPermissionDecision(
+                new UserSessionDataCacheBean.PermissionDecisionKey( USER, configEpoch, PERMISSIONS ) ) );
+        Assert.assertEquals( Optional.of( false ), cacheBean.readPermissionDecision( otherUserKey ) );
+
+        // a decision made against a different configuration is not reused
+        Assert.assertEquals( Optional.empty(), cacheBean.readPermissionDecision(
+                new UserSessionDataCacheBean.PermissionDecisionKey( USER, configEpoch.plusSeconds( 1 ), PERMISSIONS ) ) );
+
+        cacheBean.clearPermissionDecisions( USER );
+        Assert.assertEquals( Optional.empty(), cacheBean.readPermissionDecision( userKey ) );
+        Assert.assertEquals( Optional.of( false ), cacheBean.readPermissionDecision( otherUserKey ) );
+        Assert.assertEquals( Permission.PermissionStatus.UNCHECKED, cacheBean.getPermission( Permission.PWMADMIN ) );
+    }
+
+    @Test
+    public void testPermissionDecisionsBounded()
+    {
+        final UserSessionDataCacheBean cacheBean = new UserSessionDataCacheBean();
+        final Instant configEpoch = Instant.now();
+
+        final UserSessionDataCacheBean.PermissionDecisionKey userKey = new UserSessionDataCacheBean.PermissionDecisionKey( USER, configEpoch, PERMISSIONS );
+        final UserSessionDataCacheBean.PermissionDecisionKey otherUserKey = new UserSessionDataCacheBean.PermissionDecisionKey( OTHER_USER, configEpoch, PERMISSIONS );
+
+        final UserSessionDataCacheBean.PermissionDecisionKey thirdUserKey = new UserSessionDataCacheBean.PermissionDecisionKey(
+                UserIdentity.create( "cn=third,o=org", "default", DomainID.create( "default" ) ), configEpoch, PERMISSIONS );
+
+        cacheBean.writePermissionDecision( userKey, true, 2, null );
+        cacheBean.writePermissionDecision( otherUserKey, true, 2, null );
+
+        // reading the first decision makes the second one the least recently used
+        Assert.assertEquals( Optional.of( true ), cacheBean.readPermissionDecision( userKey ) );
+        cacheBean.writePermissionDecision( thirdUserKey, true, 2, null );
+
+        Assert.assertEquals( Optional.of( true ), cacheBean.readPermissionDecision( userKey ) );
+        Assert.assertEquals( Optional.empty(), cacheBean.readPermissionDecision( otherUserKey ) );
+        Assert.assertEquals( Optional.of( true ), cacheBean.readPermissionDecision( thirdUserKey ) );
+    }
+
+    @Test
+    public void testPermissionDecisionLifetime()
+    {
+        final UserSessionDataCacheBean cacheBean = new UserSessionDataCacheBean();
+        final Instant configEpoch = Instant.now();
+
+        final UserSessionDataCacheBean.PermissionDecisionKey userKey = new UserSessionDataCacheBean.PermissionDecisionKey( USER, configEpoch, PERMISSIONS );
+        final UserSessionDataCacheBean.PermissionDecisionKey otherUserKey = new UserSessionDataCacheBean.PermissionDecisionKey( OTHER_USER, configEpoch, PERMISSIONS );
+
+        cacheBean.writePermissionDecision( userKey, true, 100, null );
+        cacheBean.writePermissionDecision( otherUserKey, true, 100, TimeDuration.ZERO );
+
+        Assert.assertEquals( Optional.of( true ), cacheBean.readPermissionDecision( userKey ) );
+        Assert.assertEquals( Optional.empty(), cacheBean.readPermissionDecision( otherUserKey ) );
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.filter;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import password.pwm.AppProperty;
+import password.pwm.PwmApplication;
+import password.pwm.bean.DomainID;
+import password.pwm.config.AppConfig;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.stored.StoredConfigKey;
+import password.pwm.config.stored.StoredConfigurationFactory;
+import password.pwm.config.stored.StoredConfigurationModifier;
+import password.pwm.config.value.StringArrayValue;
+import password.pwm.util.localdb.TestHelper;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares adding the response headers from the compiled header set with compiling the header set for
+ * every response, as was previously done by the request initialization filter.  The X-Noise header is random
+ * per response and dominates the cost when enabled, so it is measured separately, as is a Server header using
+ * a macro that is expanded per response.
+ *
+ * <p>The benchmark calls {@link RequestInitializationFilter#addStaticResponseHeaders} rather than the filter's
+ * {@code doFilter}, which resolves the application from the servlet context and creates a session and request
+ * before adding headers, and so needs a servlet container.  The headers are the only part of the filter
+ * changed by the compiled header set.</p>
+ */
+@State( Scope.Benchmark )
+public class StaticResponseHeadersBenchmarkExtendedTest
+{
+    @Param( { "true", "false" } )
+    private String sendXNoise;
+
+    @Param( { "@PwmAppName@", "@PwmAppName@ @UUID@" } )
+    private String serverHeader;
+
+    private PwmApplication pwmApplication;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+
+    @Test
+    public void
+    launchBenchmark()
+            throws Exception
+    {
+        final Options opt = new OptionsBuilder()
+                .include( this.getClass().getName() + ".*" )
+                .mode ( Mode.AverageTime )
+                .timeUnit( TimeUnit.NANOSECONDS )
+                .warmupTime( TimeValue.seconds( 10 ) )
+                .measurementIterations( 10 )
+                .threads( 1 )
+                .forks( 1 )
+                .shouldFailOnError( true )
+                .shouldDoGC( true )
+                .build();
+
+        new Runner( opt ).run();
+    }
+
+    @Setup
+    public void setup()
+            throws Exception
+    {
+        final StoredConfigurationModifier modifier = StoredConfigurationModifier.newModifier( StoredConfigurationFactory.newConfig() );
+        modifier.writeSetting(
+                StoredConfigKey.forSetting( PwmSetting.APP_PROPERTY_OVERRIDES, null, DomainID.systemId() ),
+                new StringArrayValue( List.of(
+                        AppProperty.HTTP_HEADER_SEND_XNOISE.name() + "=" + sendXNoise,
+                        AppProperty.HTTP_HEADER_SERVER.name() + "=" + serverHeader ) ),
+                null );
+        final AppConfig appConfig = new AppConfig( modifier.newStoredConfiguration() );
+
+        pwmApplication = TestHelper.makeTestPwmApplication( Files.createTempDirectory( "pwm-benchmark" ).toFile(), appConfig );
+        request = noOpProxy( HttpServletRequest.class );
+        response = noOpProxy( HttpServletResponse.class );
+    }
+
+    @Benchmark
+    public void compiledHeaders()
+            throws Exception
+    {
+        RequestInitializationFilter.addStaticResponseHeaders( pwmApplication, request, response );
+    }
+
+    @Benchmark
+    public void perResponseHeaders()
+            throws Exception
+    {
+        StaticResponseHeaders.compile( pwmApplication ).apply( request, response );
+    }
+
+    /**
+     * Mock frameworks cost far more per call than the header code being measured, so the servlet objects
+     * are plain proxies that ignore every call.
+     */
+    private static <T> T noOpProxy( final Class<T> servletClass )
+    {
+        return servletClass.cast( Proxy.newProxyInstance(
+                servletClass.getClassLoader(),
+                new Class<?>[] {servletClass},
+                ( proxy, method, args ) -> null ) );
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.filter;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import password.pwm.AppProperty;
+import password.pwm.PwmApplication;
+import password.pwm.PwmConstants;
+import password.pwm.bean.DomainID;
+import password.pwm.config.AppConfig;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.stored.StoredConfigKey;
+import password.pwm.config.stored.StoredConfigurationFactory;
+import password.pwm.config.stored.StoredConfigurationModifier;
+import password.pwm.config.value.StringArrayValue;
+import password.pwm.http.HttpHeader;
+import password.pwm.util.localdb.TestHelper;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class StaticResponseHeadersTest
+{
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    @Test
+    public void testStaticHeaders() throws Exception
+    {
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( testFolder.newFolder() );
+
+        final StaticResponseHeaders staticResponseHeaders = StaticResponseHeaders.forApplication( pwmApplication );
+        Assert.assertSame( staticResponseHeaders, StaticResponseHeaders.forApplication( pwmApplication ) );
+
+        final Map<String, String> headers = staticResponseHeaders.getStaticHeaders().stream()
+                .collect( Collectors.toMap( Map.Entry::getKey, Map.Entry::getValue ) );
+        Assert.assertEquals( "nosniff", headers.get( HttpHeader.XContentTypeOptions.getHttpName() ) );
+        Assert.assertEquals( pwmApplication.getInstanceID(), headers.get( HttpHeader.XInstance.getHttpName() ) );
+        Assert.assertTrue( headers.containsKey( HttpHeader.Server.getHttpName() ) );
+        Assert.assertFalse( headers.get( HttpHeader.Server.getHttpName() ).contains( "@" ) );
+        Assert.assertFalse( headers.containsKey( HttpHeader.XNoise.getHttpName() ) );
+        Assert.assertFalse( headers.containsKey( HttpHeader.XAmb.getHttpName() ) );
+
+        final HttpServletRequest request = Mockito.mock( HttpServletRequest.class );
+        final HttpServletResponse response = Mockito.mock( HttpServletResponse.class );
+        RequestInitializationFilter.addStaticResponseHeaders( pwmApplication, request, response );
+
+        Mockito.verify( response ).setHeader( HttpHeader.XContentTypeOptions.getHttpName(), "nosniff" );
+        Mockito.verify( response ).setHeader( Mockito.eq( HttpHeader.XNoise.getHttpName() ), Mockito.anyString() );
+        Mockito.verify( response ).setHeader( Mockito.eq( HttpHeader.XAmb.getHttpName() ), Mockito.anyString() );
+        Mockito.verify( response, Mockito.never() ).setHeader( Mockito.eq( HttpHeader.XDomain.getHttpName() ), Mockito.anyString() );
+    }
+
+    @Test
+    public void testDynamicServerHeader() throws Exception
+    {
+        final StoredConfigurationModifier modifier = StoredConfigurationModifier.newModifier( StoredConfigurationFactory.newConfig() );
+        modifier.writeSetting(
+                StoredConfigKey.forSetting( PwmSetting.APP_PROPERTY_OVERRIDES, null, DomainID.systemId() ),
+                new StringArrayValue( Collections.singletonList( AppProperty.HTTP_HEADER_SERVER.name() + "=@PwmAppName@ @UUID@" ) ),
+                null );
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( testFolder.newFolder(), new AppConfig( modifier.newStoredConfiguration() ) );
+
+        // a header using per-expansion macros is not part of the compiled header set, but is still sent
+        final StaticResponseHeaders staticResponseHeaders = StaticResponseHeaders.compile( pwmApplication );
+        Assert.assertTrue( staticResponseHeaders.getStaticHeaders().stream()
+                .noneMatch( header -> HttpHeader.Server.getHttpName().equals( header.getKey() ) ) );
+
+        final HttpServletRequest request = Mockito.mock( HttpServletRequest.class );
+        final HttpServletResponse response = Mockito.mock( HttpServletResponse.class );
+        staticResponseHeaders.apply( request, response );
+
+        Mockito.verify( response ).setHeader( Mockito.eq( HttpHeader.Server.getHttpName() ), Mockito.startsWith( PwmConstants.PWM_APP_NAME ) );
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.util.java.TimeDuration;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class UserInfoPrefetchPlanTest
+{
+    private static final Set<String> CONFIGURED = Set.of( "cn", "mail" );
+
+    private final AtomicLong clock = new AtomicLong( 1_000_000 );
+
+    private UserInfoPrefetchPlan makePlan( final int maxLearned )
+    {
+        return new UserInfoPrefetchPlan( CONFIGURED, maxLearned, TimeDuration.MINUTE, clock::get );
+    }
+
+    @Test
+    public void testLearnedAttributesApplied()
+    {
+        final UserInfoPrefetchPlan plan = makePlan( 10 );
+        Assert.assertEquals( CONFIGURED, plan.attributes() );
+
+        plan.learn( List.of( "cn", "title" ), List.of( "cn", "title" ) );
+        Assert.assertEquals( Set.of( "cn", "mail", "title" ), plan.attributes() );
+    }
+
+    @Test
+    public void testLeastRecentlyUsedReplacedWhenFull()
+    {
+        final UserInfoPrefetchPlan plan = makePlan( 2 );
+        plan.learn( List.of( "title" ), List.of( "title" ) );
+        clock.addAndGet( 10 );
+        plan.learn( List.of( "ou" ), List.of( "ou" ) );
+        clock.addAndGet( 10 );
+
+        // title is requested again, so ou is now the least recently used
+        plan.learn( List.of( "title" ), List.of() );
+        clock.addAndGet( 10 );
+        plan.learn( List.of( "l" ), List.of( "l" ) );
+
+        Assert.assertEquals( Set.of( "cn", "mail", "title", "l" ), plan.attributes() );
+    }
+
+    @Test
+    public void testUnusedAttributesExpire()
+    {
+        final UserInfoPrefetchPlan plan = makePlan( 10 );
+        plan.learn( List.of( "title", "ou" ), List.of( "title", "ou" ) );
+
+        clock.addAndGet( TimeDuration.SECONDS_30.asMillis() );
+        plan.learn( List.of( "title" ), List.of() );
+
+        clock.addAndGet( TimeDuration.SECONDS_30.asMillis() + 1 );
+        Assert.assertEquals( Set.of( "cn", "mail", "title" ), plan.attributes() );
+
+        clock.addAndGet( TimeDuration.MINUTE.asMillis() );
+        Assert.assertEquals( CONFIGURED, plan.attributes() );
+    }
+
+    @Test
+    public void testLearningDisabled()
+    {
+        final UserInfoPrefetchPlan plan = makePlan( 0 );
+        plan.learn( List.of( "title" ), List.of( "title" ) );
+        Assert.assertEquals( CONFIGURED, plan.attributes() );
+    }
+}
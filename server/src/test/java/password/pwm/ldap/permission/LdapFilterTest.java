@@ -0,0 +1,128 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap.permission;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class LdapFilterTest
+{
+    private static final Map<String, List<String>> VALUES = Map.of(
+            "objectclass", List.of( "top", "person", "inetOrgPerson" ),
+            "cn", List.of( "Jane  Doe" ),
+            "departmentnumber", List.of( "42" ),
+            "title", List.of( "Senior (Lead) Engineer" ),
+            "groupmembership", List.of( "CN=Admins, OU=Groups,O=Example" ),
+            "mail", Collections.emptyList(),
+            "employeenumber", List.of( "E100" ),
+            "uidnumber", List.of( "1000" ) );
+
+    private static final Map<String, LdapFilter.MatchingRule> MATCHING_RULES = Map.of(
+            "objectclass", LdapFilter.MatchingRule.CASE_IGNORE,
+            "cn", LdapFilter.MatchingRule.CASE_IGNORE,
+            "title", LdapFilter.MatchingRule.CASE_IGNORE,
+            "mail", LdapFilter.MatchingRule.CASE_IGNORE,
+            "departmentnumber", LdapFilter.MatchingRule.INTEGER,
+            "uidnumber", LdapFilter.MatchingRule.INTEGER,
+            "groupmembership", LdapFilter.MatchingRule.DISTINGUISHED_NAME );
+
+    @Test
+    public void testEvaluation()
+    {
+        assertResult( LdapFilter.Result.TRUE, "(objectClass=inetorgperson)" );
+        assertResult( LdapFilter.Result.TRUE, "objectClass=person" );
+        assertResult( LdapFilter.Result.TRUE, "(cn=jane doe)" );
+        assertResult( LdapFilter.Result.FALSE, "(cn=john doe)" );
+        assertResult( LdapFilter.Result.TRUE, "(cn=J*e*OE)" );
+        assertResult( LdapFilter.Result.FALSE, "(cn=*smith)" );
+        assertResult( LdapFilter.Result.TRUE, "(title=*\\28lead\\29*)" );
+        assertResult( LdapFilter.Result.TRUE, "(groupMembership=cn=admins,ou=groups,o=example)" );
+        assertResult( LdapFilter.Result.FALSE, "(groupMembership=cn=users,ou=groups,o=example)" );
+        assertResult( LdapFilter.Result.TRUE, "(departmentNumber>=40)" );
+        assertResult( LdapFilter.Result.FALSE, "(departmentNumber<=40)" );
+        assertResult( LdapFilter.Result.TRUE, "(uidNumber=01000)" );
+        assertResult( LdapFilter.Result.FALSE, "(uidNumber=1001)" );
+        assertResult( LdapFilter.Result.TRUE, "(&(objectClass=person)(|(cn=nobody)(departmentNumber=42)))" );
+        assertResult( LdapFilter.Result.FALSE, "(&(objectClass=person)(!(cn=jane doe)))" );
+    }
+
+    @Test
+    public void testDirectoryOnlyConstructs()
+    {
+        Assert.assertFalse( LdapFilter.parse( "(cn:caseExactMatch:=Jane Doe)" ).orElseThrow().isLocallyEvaluable() );
+        Assert.assertFalse( LdapFilter.parse( "(cn~=jane)" ).orElseThrow().isLocallyEvaluable() );
+        Assert.assertFalse( LdapFilter.parse( "(cn;lang-en=jane)" ).orElseThrow().isLocallyEvaluable() );
+        assertResult( LdapFilter.Result.UNKNOWN, "(title>=a)" );
+        assertResult( LdapFilter.Result.UNKNOWN, "(groupMembership=cn=admins*)" );
+        assertResult( LdapFilter.Result.TRUE, "(|(cn=jane doe)(title>=a))" );
+    }
+
+    @Test
+    public void testAttributesNotReturned()
+    {
+        // an attribute that was not returned may just not be readable, so even a negation is left to the directory
+        assertResult( LdapFilter.Result.UNKNOWN, "(mail=*)" );
+        assertResult( LdapFilter.Result.UNKNOWN, "(!(mail=*))" );
+        assertResult( LdapFilter.Result.UNKNOWN, "(!(mail=jane@example.com))" );
+        assertResult( LdapFilter.Result.UNKNOWN, "(!(telephoneNumber=555*))" );
+        assertResult( LdapFilter.Result.FALSE, "(&(cn=john doe)(!(mail=*)))" );
+    }
+
+    @Test
+    public void testUnknownMatchingRules()
+    {
+        assertResult( LdapFilter.Result.UNKNOWN, "(employeeNumber=e100)" );
+        assertResult( LdapFilter.Result.UNKNOWN, "(!(employeeNumber=E100))" );
+        assertResult( LdapFilter.Result.UNKNOWN, "(employeeNumber=E*)" );
+        assertResult( LdapFilter.Result.UNKNOWN, "(uidNumber=1*)" );
+        assertResult( LdapFilter.Result.UNKNOWN, "(cn>=jane)" );
+        assertResult( LdapFilter.Result.TRUE, "(employeeNumber=*)" );
+    }
+
+    @Test
+    public void testInvalidFilters()
+    {
+        Assert.assertTrue( LdapFilter.parse( "(cn=jane" ).isEmpty() );
+        Assert.assertTrue( LdapFilter.parse( "(&(cn=jane)" ).isEmpty() );
+        Assert.assertTrue( LdapFilter.parse( "(=jane)" ).isEmpty() );
+        Assert.assertTrue( LdapFilter.parse( "(cn=jane\\2)" ).isEmpty() );
+        Assert.assertTrue( LdapFilter.parse( "(cn=a)(cn=b)" ).isEmpty() );
+    }
+
+    @Test
+    public void testAttributeNames()
+    {
+        Assert.assertEquals(
+                Set.of( "objectclass", "cn", "departmentnumber" ),
+                LdapFilter.parse( "(&(objectClass=person)(|(CN=x)(departmentNumber>=1)))" ).orElseThrow().getAttributeNames() );
+    }
+
+    private static void assertResult( final LdapFilter.Result expected, final String filter )
+    {
+        final LdapFilter ldapFilter = LdapFilter.parse( filter ).orElseThrow();
+        Assert.assertEquals( filter, expected, ldapFilter.evaluate( VALUES, MATCHING_RULES ) );
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap.permission;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.bean.DomainID;
+import password.pwm.bean.SessionLabel;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.value.data.UserPermission;
+import password.pwm.error.PwmOperationalException;
+import password.pwm.ldap.search.NamingAttributeShard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class UserPermissionMatchIteratorTest
+{
+    private static final UserPermission PERMISSION_A = makePermission( "(group=a)" );
+    private static final UserPermission PERMISSION_B = makePermission( "(group=b)" );
+
+    private static UserPermission makePermission( final String ldapQuery )
+    {
+        return UserPermission.builder()
+                .type( UserPermissionType.ldapQuery )
+                .ldapProfileID( "default" )
+                .ldapQuery( ldapQuery )
+                .build();
+    }
+
+    private static UserIdentity user( final String name )
+    {
+        return UserIdentity.create( "cn=" + name + ",o=org", "default", DomainID.create( "default" ) );
+    }
+
+    @Test
+    public void testDuplicatesAcrossPermissionsRemoved() throws PwmOperationalException
+    {
+        final FakeUserSearcher searcher = new FakeUserSearcher();
+        searcher.addUser( PERMISSION_A, "alice" );
+        searcher.addUser( PERMISSION_A, "bob" );
+        searcher.addUser( PERMISSION_B, "bob" );
+        searcher.addUser( PERMISSION_B, "carol" );
+
+        final List<UserIdentity> results = readAll( makeIterator( searcher, List.of( PERMISSION_A, PERMISSION_B ), 100, 100 ) );
+
+        Assert.assertEquals( 3, results.size() );
+        Assert.assertEquals( Set.of( user( "alice" ), user( "bob" ), user( "carol" ) ), new HashSet<>( results ) );
+    }
+
+    @Test
+    public void testOversizedSearchSplitIntoShards() throws PwmOperationalException
+    {
+        final FakeUserSearcher searcher = new FakeUserSearcher();
+        final Set<UserIdentity> expected = new HashSet<>();
+        for ( int i = 0; i < 50; i++ )
+        {
+            searcher.addUser( PERMISSION_A, "user" + i );
+            expected.add( user( "user" + i ) );
+        }
+        searcher.addUser( PERMISSION_A, "admin" );
+        searcher.addUser( PERMISSION_A, "_service" );
+        expected.add( user( "admin" ) );
+        expected.add( user( "_service" ) );
+
+        final List<UserIdentity> results = readAll( makeIterator( searcher, List.of( PERMISSION_A ), 1000, 10 ) );
+
+        Assert.assertEquals( expected.size(), results.size() );
+        Assert.assertEquals( expected, new HashSet<>( results ) );
+        Assert.assertTrue( searcher.searchCount > 1 );
+        Assert.assertTrue( searcher.maxSearchLimit <= 1000 );
+        for ( final NamingAttributeShard shard : searcher.searchedShards )
+        {
+            Assert.assertTrue( shard.depth() <= UserPermissionMatchIterator.MAX_SHARD_DEPTH );
+        }
+    }
+
+    @Test
+    public void testMultiValuedNamingAttributeReturnedOnce() throws PwmOperationalException
+    {
+        final FakeUserSearcher searcher = new FakeUserSearcher();
+        for ( int i = 0; i < 5; i++ )
+        {
+            searcher.addUser( PERMISSION_A, "user" + i );
+        }
+        searcher.addUser( PERMISSION_A, user( "multi" ), "alpha", "beta" );
+
+        final List<UserIdentity> results = readAll( makeIterator( searcher, List.of( PERMISSION_A ), 1000, 3 ) );
+
+        Assert.assertEquals( 6, results.size() );
+        Assert.assertEquals( 6, new HashSet<>( results ).size() );
+    }
+
+    @Test
+    public void testUsersWithoutNamingAttributeReturned() throws PwmOperationalException
+    {
+        final FakeUserSearcher searcher = new FakeUserSearcher();
+        final Set<UserIdentity> expected = new HashSet<>();
+        for ( int i = 0; i < 20; i++ )
+        {
+            searcher.addUser( PERMISSION_A, "user" + i );
+            expected.add( user( "user" + i ) );
+        }
+        searcher.addUser( PERMISSION_A, user( "unnamed1" ) );
+        searcher.addUser( PERMISSION_A, user( "unnamed2" ) );
+        expected.add( user( "unnamed1" ) );
+        expected.add( user( "unnamed2" ) );
+
+        final List<UserIdentity> results = readAll( makeIterator( searcher, List.of( PERMISSION_A ), 1000, 10 ) );
+
+        Assert.assertEquals( expected, new HashSet<>( results ) );
+        Assert.assertEquals( expected.size(), results.size() );
+        Assert.assertTrue( searcher.searchedShards.stream().anyMatch( shard -> shard.getType() == NamingAttributeShard.ShardType.ABSENT ) );
+    }
+
+    @Test
+    public void testUnshardableNamingAttributeUsesSingleSearch() throws PwmOperationalException
+    {
+        final FakeUserSearcher searcher = new FakeUserSearcher();
+        searcher.shardable = false;
+        for ( int i = 0; i < 50; i++ )
+        {
+            searcher.addUser( PERMISSION_A, "user" + i );
+        }
+
+        final List<UserIdentity> results = readAll( makeIterator( searcher, List.of( PERMISSION_A ), 1000, 10 ) );
+
+        Assert.assertEquals( 50, results.size() );
+        Assert.assertEquals( 1, searcher.searchCount );
+        Assert.assertEquals( NamingAttributeShard.root(), searcher.searchedShards.get( 0 ) );
+    }
+
+    @Test
+    public void testMaxResultSize() throws PwmOperationalException
+    {
+        final FakeUserSearcher searcher = new FakeUserSearcher();
+        for ( int i = 0; i < 50; i++ )
+        {
+            searcher.addUser( PERMISSION_A, "user" + i );
+            searcher.addUser( PERMISSION_B, "other" + i );
+        }
+
+        final List<UserIdentity> results = readAll( makeIterator( searcher, List.of( PERMISSION_A, PERMISSION_B ), 60, 10 ) );
+
+        Assert.assertEquals( 60, results.size() );
+        Assert.assertEquals( 60, new HashSet<>( results ).size() );
+    }
+
+    @Test
+    public void testEarlyClose() throws PwmOperationalException
+    {
+        final FakeUserSearcher searcher = new FakeUserSearcher();
+        searcher.addUser( PERMISSION_A, "alice" );
+        searcher.addUser( PERMISSION_A, "bob" );
+        searcher.addUser( PERMISSION_B, "carol" );
+
+        final UserPermissionMatchIterator iterator = makeIterator( searcher, List.of( PERMISSION_A, PERMISSION_B ), 100, 100 );
+        Assert.assertTrue( iterator.hasNext() );
+        iterator.next();
+        iterator.close();
+
+        Assert.assertFalse( iterator.hasNext() );
+        Assert.assertEquals( 1, searcher.searchCount );
+
+        // closing twice is harmless
+        iterator.close();
+    }
+
+    private static UserPermissionMatchIterator makeIterator(
+            final FakeUserSearcher searcher,
+            final List<UserPermission> permissions,
+            final int maxResultSize,
+            final int pageSize
+    )
+            throws PwmOperationalException
+    {
+        return new UserPermissionMatchIterator( searcher, permissions, SessionLabel.TEST_SESSION_LABEL, maxResultSize, pageSize, null );
+    }
+
+    private static List<UserIdentity> readAll( final UserPermissionMatchIterator iterator )
+    {
+        final List<UserIdentity> results = new ArrayList<>();
+        try ( iterator )
+        {
+            iterator.forEachRemaining( results::add );
+        }
+        return results;
+    }
+
+    /**
+     * Matches users against a shard the way a directory would, by their naming attribute values.  Users added
+     * without a name have no naming attribute value.
+     */
+    private static class FakeUserSearcher implements UserPermissionMatchIterator.UserSearcher
+    {
+        private final Map<UserPermission, Map<UserIdentity, List<String>>> users = new HashMap<>();
+        private final List<NamingAttributeShard> searchedShards = new ArrayList<>();
+        private int searchCount;
+        private int maxSearchLimit;
+        private boolean shardable = true;
+
+        void addUser( final UserPermission permission, final String name )
+        {
+            addUser( permission, user( name ), name );
+        }
+
+        void addUser( final UserPermission permission, final UserIdentity userIdentity, final String... names )
+        {
+            users.computeIfAbsent( permission, k -> new HashMap<>() ).put( userIdentity, List.of( names ) );
+        }
+
+        @Override
+        public Collection<UserIdentity> search( final UserPermission userPermission, final NamingAttributeShard shard, final int maxResults )
+        {
+            searchCount++;
+            searchedShards.add( shard );
+            maxSearchLimit = Math.max( maxSearchLimit, maxResults );
+
+            final Set<UserIdentity> results = new LinkedHashSet<>();
+            for ( final Map.Entry<UserIdentity, List<String>> entry : users.getOrDefault( userPermission, Map.of() ).entrySet() )
+            {
+                if ( results.size() < maxResults && matches( shard, entry.getValue() ) )
+                {
+                    results.add( entry.getKey() );
+                }
+            }
+            return results;
+        }
+
+        @Override
+        public boolean isWithinConfiguredUserContexts( final UserIdentity userIdentity )
+        {
+            return true;
+        }
+
+        @Override
+        public boolean isShardable( final UserPermission userPermission )
+        {
+            return shardable;
+        }
+
+        private static boolean matches( final NamingAttributeShard shard, final List<String> names )
+        {
+            if ( NamingAttributeShard.root().equals( shard ) )
+            {
+                return true;
+            }
+            if ( shard.getType() == NamingAttributeShard.ShardType.ABSENT )
+            {
+                return names.isEmpty();
+            }
+            return names.stream().anyMatch( name -> matches( shard, name ) );
+        }
+
+        private static boolean matches( final NamingAttributeShard shard, final String name )
+        {
+            if ( !name.startsWith( shard.getPrefix() ) )
+            {
+                return false;
+            }
+
+            if ( shard.getType() == NamingAttributeShard.ShardType.PREFIX )
+            {
+                return true;
+            }
+
+            return new NamingAttributeShard( shard.getPrefix(), NamingAttributeShard.ShardType.PREFIX ).split().stream()
+                    .filter( NamingAttributeShard::isSplittable )
+                    .noneMatch( child -> name.startsWith( child.getPrefix() ) );
+        }
+    }
+}
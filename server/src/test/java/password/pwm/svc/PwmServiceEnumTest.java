@@ -0,0 +1,57 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.config.PwmSettingScope;
+
+public class PwmServiceEnumTest
+{
+    @Test
+    public void dependenciesDeclaredEarlierTest()
+    {
+        for ( final PwmServiceEnum pwmServiceEnum : PwmServiceEnum.values() )
+        {
+            for ( final PwmServiceEnum dependency : pwmServiceEnum.getDependencies() )
+            {
+                Assert.assertTrue( pwmServiceEnum + " depends on later declared " + dependency,
+                        dependency.ordinal() < pwmServiceEnum.ordinal() );
+            }
+        }
+    }
+
+    @Test
+    public void dependencyScopeTest()
+    {
+        for ( final PwmServiceEnum pwmServiceEnum : PwmServiceEnum.values() )
+        {
+            for ( final PwmServiceEnum dependency : pwmServiceEnum.getDependencies() )
+            {
+                if ( pwmServiceEnum.getPwmSettingScope() == PwmSettingScope.SYSTEM )
+                {
+                    Assert.assertEquals( pwmServiceEnum + " depends on domain service " + dependency,
+                            PwmSettingScope.SYSTEM, dependency.getPwmSettingScope() );
+                }
+            }
+        }
+    }
+}
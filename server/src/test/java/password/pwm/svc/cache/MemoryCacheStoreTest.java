@@ -0,0 +1,195 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.java.TimeDuration;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MemoryCacheStoreTest
+{
+    private static final int THREADS = 8;
+
+    @Test
+    public void testConcurrentMissesCoalesce() throws Exception
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100, 0 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "coalesce" );
+        final Instant expiration = Instant.now().plus( TimeDuration.MINUTE.asDuration() );
+        final AtomicInteger loaderCalls = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch( 1 );
+
+        final CacheLoader<String> slowLoader = () ->
+        {
+            loaderCalls.incrementAndGet();
+            TimeDuration.of( 200, TimeDuration.Unit.MILLISECONDS ).pause();
+            return "loaded-value";
+        };
+
+        final ExecutorService executorService = Executors.newFixedThreadPool( THREADS );
+        try
+        {
+            final List<Future<String>> results = new ArrayList<>();
+            for ( int i = 0; i < THREADS; i++ )
+            {
+                results.add( executorService.submit( () ->
+                {
+                    startLatch.await();
+                    return cacheStore.readAndStore( cacheKey, expiration, false, String.class, slowLoader );
+                } ) );
+            }
+            startLatch.countDown();
+
+            for ( final Future<String> result : results )
+            {
+                Assert.assertEquals( "loaded-value", result.get() );
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+
+        Assert.assertEquals( 1, loaderCalls.get() );
+        final long coalesced = cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.coalescedLoadCount );
+        final long hits = cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.hitCount );
+        Assert.assertEquals( THREADS - 1, coalesced + hits );
+    }
+
+    @Test
+    public void testLoaderErrorPropagatesAndIsNotCached() throws Exception
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100, 0 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "error" );
+        final Instant expiration = Instant.now().plus( TimeDuration.MINUTE.asDuration() );
+
+        try
+        {
+            cacheStore.readAndStore( cacheKey, expiration, false, String.class, () ->
+            {
+                throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, "test" );
+            } );
+            Assert.fail( "expected exception" );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            // expected
+        }
+
+        Assert.assertEquals( "second", cacheStore.readAndStore( cacheKey, expiration, false, String.class, () -> "second" ) );
+    }
+
+    @Test
+    public void testImmutableValueStoredByReference() throws Exception
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100, 0 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "immutable" );
+        final String value = new String( "immutable-value".toCharArray() );
+        cacheStore.store( cacheKey, Instant.now().plus( TimeDuration.MINUTE.asDuration() ), true, value );
+
+        Assert.assertSame( value, cacheStore.read( cacheKey, String.class ) );
+        Assert.assertNull( cacheStore.read( cacheKey, Integer.class ) );
+    }
+
+    @Test
+    public void testValueCopiedWithoutImmutablePolicy() throws Exception
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100, 0 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "copied" );
+        final String value = new String( "copied-value".toCharArray() );
+        cacheStore.store( cacheKey, Instant.now().plus( TimeDuration.MINUTE.asDuration() ), false, value );
+
+        final String readValue = cacheStore.read( cacheKey, String.class );
+        Assert.assertEquals( value, readValue );
+        Assert.assertNotSame( value, readValue );
+    }
+
+    @Test
+    public void testLoaderErrorReleasesWaiters() throws Exception
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100, 0 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "loader-error" );
+        final Instant expiration = Instant.now().plus( TimeDuration.MINUTE.asDuration() );
+        final CountDownLatch loaderStarted = new CountDownLatch( 1 );
+
+        final CacheLoader<String> failingLoader = () ->
+        {
+            loaderStarted.countDown();
+            TimeDuration.of( 200, TimeDuration.Unit.MILLISECONDS ).pause();
+            throw new StackOverflowError( "test" );
+        };
+
+        final ExecutorService executorService = Executors.newFixedThreadPool( 2 );
+        try
+        {
+            final Future<String> loadingCall = executorService.submit( () -> cacheStore.readAndStore( cacheKey, expiration, false, String.class, failingLoader ) );
+            loaderStarted.await();
+            final Future<String> waitingCall = executorService.submit( () -> cacheStore.readAndStore( cacheKey, expiration, false, String.class, failingLoader ) );
+
+            for ( final Future<String> call : List.of( loadingCall, waitingCall ) )
+            {
+                try
+                {
+                    call.get( 10, TimeUnit.SECONDS );
+                    Assert.fail( "expected exception" );
+                }
+                catch ( final ExecutionException e )
+                {
+                    // expected, the waiting call receives the loader error or runs the loader itself
+                }
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testRefreshAhead() throws Exception
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100, 100 );
+        final CacheKey cacheKey = CacheKey.newKey( MemoryCacheStoreTest.class, null, "refresh" );
+        final Instant expiration = Instant.now().plus( TimeDuration.MINUTE.asDuration() );
+        final AtomicInteger loaderCalls = new AtomicInteger();
+        final CacheLoader<Integer> loader = loaderCalls::incrementAndGet;
+
+        Assert.assertEquals( Integer.valueOf( 1 ), cacheStore.readAndStore( cacheKey, expiration, false, Integer.class, loader ) );
+
+        // with a 100% refresh window every hit refreshes the entry
+        TimeDuration.of( 20, TimeDuration.Unit.MILLISECONDS ).pause();
+        Assert.assertEquals( Integer.valueOf( 2 ), cacheStore.readAndStore( cacheKey, expiration, false, Integer.class, loader ) );
+        Assert.assertEquals( 1, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.refreshAheadCount ) );
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.intruder;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.bean.DomainID;
+import password.pwm.util.java.ClosableIterator;
+import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.TimeDuration;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+public class IntruderRecordCacheTest
+{
+    private static final String KEY = "key1";
+
+    @Test
+    public void concurrentUpdatesTest() throws Exception
+    {
+        final MapRecordStore backingStore = new MapRecordStore();
+        final IntruderRecordCache recordCache = new IntruderRecordCache( backingStore, 1000, TimeDuration.MINUTE );
+
+        final int threads = 8;
+        final int updatesPerThread = 500;
+        final ExecutorService executorService = Executors.newFixedThreadPool( threads );
+        for ( int t = 0; t < threads; t++ )
+        {
+            executorService.submit( () ->
+            {
+                for ( int i = 0; i < updatesPerThread; i++ )
+                {
+                    recordCache.update( KEY, MapRecordStore::incrementRecord );
+                }
+                return null;
+            } );
+        }
+        executorService.shutdown();
+        Assert.assertTrue( executorService.awaitTermination( 1, TimeUnit.MINUTES ) );
+
+        Assert.assertEquals( threads * updatesPerThread, recordCache.read( KEY ).orElseThrow().getAttemptCount() );
+    }
+
+    @Test
+    public void writeBehindTest() throws Exception
+    {
+        final MapRecordStore backingStore = new MapRecordStore();
+        final IntruderRecordCache recordCache = new IntruderRecordCache( backingStore, 1000, TimeDuration.MINUTE );
+
+        recordCache.update( KEY, MapRecordStore::incrementRecord );
+        recordCache.update( KEY, MapRecordStore::incrementRecord );
+        Assert.assertTrue( backingStore.records.isEmpty() );
+
+        recordCache.flush();
+        Assert.assertEquals( 2, backingStore.records.get( KEY ).getAttemptCount() );
+        Assert.assertEquals( 1, backingStore.getStats().get( IntruderRecordStore.DebugKeys.writeBehindRecords ) );
+
+        // unchanged records are not written again
+        recordCache.flush();
+        Assert.assertEquals( 1, backingStore.getStats().get( IntruderRecordStore.DebugKeys.writeBehindRecords ) );
+    }
+
+    @Test
+    public void readThroughTest() throws Exception
+    {
+        final MapRecordStore backingStore = new MapRecordStore();
+        backingStore.write( KEY, new IntruderRecord( DomainID.DOMAIN_ID_DEFAULT, IntruderRecordType.USERNAME, "subject" ) );
+        final IntruderRecordCache recordCache = new IntruderRecordCache( backingStore, 1000, TimeDuration.MINUTE );
+
+        Assert.assertTrue( recordCache.read( KEY ).isPresent() );
+        Assert.assertTrue( recordCache.read( "key2" ).isEmpty() );
+        Assert.assertTrue( recordCache.read( "key2" ).isEmpty() );
+        Assert.assertEquals( 2, backingStore.getStats().get( IntruderRecordStore.DebugKeys.reads ) );
+
+        // returned records are copies, modifying them does not change the cached record
+        recordCache.read( KEY ).orElseThrow().incrementAttemptCount();
+        Assert.assertEquals( 0, recordCache.read( KEY ).orElseThrow().getAttemptCount() );
+    }
+
+    @Test
+    public void sharedStoreTest() throws Exception
+    {
+        final MapRecordStore sharedStore = new MapRecordStore();
+        final IntruderRecordCache node1 = new IntruderRecordCache( sharedStore, 1000, TimeDuration.MINUTE );
+        final IntruderRecordCache node2 = new IntruderRecordCache( sharedStore, 1000, TimeDuration.MINUTE );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            node1.update( KEY, MapRecordStore::incrementRecord );
+            node2.update( KEY, MapRecordStore::incrementRecord );
+        }
+        node1.flush();
+        node2.flush();
+
+        // attempts from both nodes are kept, neither flush overwrites the other
+        Assert.assertEquals( 6, sharedStore.records.get( KEY ).getAttemptCount() );
+
+        // node 2 saw the attempts of node 1 when it flushed, node 1 only refreshes once it has attempts of its own to flush
+        Assert.assertEquals( 6, node2.read( KEY ).orElseThrow().getAttemptCount() );
+        node2.update( KEY, MapRecordStore::incrementRecord );
+        node2.flush();
+        node1.flush();
+        Assert.assertEquals( 3, node1.read( KEY ).orElseThrow().getAttemptCount() );
+        node1.update( KEY, MapRecordStore::incrementRecord );
+        node1.flush();
+        Assert.assertEquals( 8, sharedStore.records.get( KEY ).getAttemptCount() );
+        Assert.assertEquals( 8, node1.read( KEY ).orElseThrow().getAttemptCount() );
+
+        // a cleared record replaces the stored record rather than being merged
+        node1.update( KEY, existingRecord ->
+        {
+            final IntruderRecord record = existingRecord.orElseThrow();
+            record.clearAttemptCount();
+            return Optional.of( record );
+        } );
+        node1.flush();
+        Assert.assertEquals( 0, sharedStore.records.get( KEY ).getAttemptCount() );
+    }
+
+    @Test
+    public void evictionFlushTest() throws Exception
+    {
+        final MapRecordStore backingStore = new MapRecordStore();
+        final IntruderRecordCache recordCache = new IntruderRecordCache( backingStore, 1, TimeDuration.MINUTE );
+
+        recordCache.update( KEY, MapRecordStore::incrementRecord );
+        recordCache.update( "key2", MapRecordStore::incrementRecord );
+        recordCache.update( "key3", MapRecordStore::incrementRecord );
+
+        // only one record fits in the cache, the evicted records are written without waiting for a flush
+        TimeDuration.SECONDS_10.pause( TimeDuration.MILLISECONDS_3, () -> backingStore.records.size() >= 2 );
+        Assert.assertTrue( backingStore.records.size() >= 2 );
+
+        // evicted records are read back from the store, the remaining record is written by the next flush
+        recordCache.flush();
+        Assert.assertEquals( 3, backingStore.records.size() );
+        for ( final String key : new String[] {KEY, "key2", "key3"} )
+        {
+            Assert.assertEquals( 1, recordCache.read( key ).orElseThrow().getAttemptCount() );
+            Assert.assertEquals( 1, backingStore.records.get( key ).getAttemptCount() );
+        }
+    }
+
+    private static class MapRecordStore implements IntruderRecordStore
+    {
+        private final Map<String, IntruderRecord> records = new ConcurrentHashMap<>();
+        private final StatisticCounterBundle<DebugKeys> stats = new StatisticCounterBundle<>( DebugKeys.class );
+
+        static Optional<IntruderRecord> incrementRecord( final Optional<IntruderRecord> existingRecord )
+        {
+            final IntruderRecord record = existingRecord.orElseGet(
+                    () -> new IntruderRecord( DomainID.DOMAIN_ID_DEFAULT, IntruderRecordType.USERNAME, "subject" ) );
+            record.incrementAttemptCount();
+            return Optional.of( record );
+        }
+
+        @Override
+        public StatisticCounterBundle<DebugKeys> getStats()
+        {
+            return stats;
+        }
+
+        @Override
+        public Optional<IntruderRecord> read( final String key )
+        {
+            stats.increment( DebugKeys.reads );
+            return Optional.ofNullable( records.get( key ) );
+        }
+
+        @Override
+        public void write( final String key, final IntruderRecord record )
+        {
+            records.put( key, record );
+        }
+
+        @Override
+        public synchronized Optional<IntruderRecord> update( final String key, final Function<Optional<IntruderRecord>, Optional<IntruderRecord>> updateFunction )
+        {
+            final Optional<IntruderRecord> existingRecord = Optional.ofNullable( records.get( key ) ).map( IntruderRecord::copy );
+            final Optional<IntruderRecord> newRecord = updateFunction.apply( existingRecord );
+            newRecord.ifPresent( record -> records.put( key, record ) );
+            return newRecord.isPresent() ? newRecord : existingRecord;
+        }
+
+        @Override
+        public ClosableIterator<IntruderRecord> iterator()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void cleanup( final TimeDuration maxRecordAge )
+        {
+        }
+    }
+}
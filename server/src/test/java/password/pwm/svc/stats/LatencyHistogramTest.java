@@ -0,0 +1,112 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.stats;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void testBucketBoundaries()
+    {
+        long previousUpperBound = -1;
+        for ( int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++ )
+        {
+            final long upperBound = LatencyHistogram.bucketUpperBound( i );
+            Assert.assertEquals( i, LatencyHistogram.bucketIndex( upperBound ) );
+            Assert.assertEquals( i, LatencyHistogram.bucketIndex( previousUpperBound + 1 ) );
+            previousUpperBound = upperBound;
+        }
+        Assert.assertEquals( LatencyHistogram.MAX_TRACKABLE_VALUE, previousUpperBound );
+        Assert.assertEquals( 0, LatencyHistogram.bucketIndex( -5 ) );
+        Assert.assertEquals( LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex( Long.MAX_VALUE ) );
+    }
+
+    @Test
+    public void testPercentiles()
+    {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals( 0, histogram.getValueAtPercentile( 50 ) );
+
+        for ( int i = 1; i <= 1000; i++ )
+        {
+            histogram.recordValue( i );
+        }
+
+        Assert.assertEquals( 1000, histogram.getCount() );
+        assertWithinPrecision( 500, histogram.getValueAtPercentile( 50 ) );
+        assertWithinPrecision( 950, histogram.getValueAtPercentile( 95 ) );
+        assertWithinPrecision( 990, histogram.getValueAtPercentile( 99 ) );
+        assertWithinPrecision( 1000, histogram.getValueAtPercentile( 100 ) );
+        Assert.assertEquals( 1, histogram.getValueAtPercentile( 0 ) );
+    }
+
+    @Test
+    public void testMergeAndRoundTrip()
+    {
+        final LatencyHistogram first = new LatencyHistogram();
+        final LatencyHistogram second = new LatencyHistogram();
+        for ( int i = 0; i < 90; i++ )
+        {
+            first.recordValue( 10 );
+        }
+        for ( int i = 0; i < 10; i++ )
+        {
+            second.recordValue( 5000 );
+        }
+
+        final LatencyHistogram merged = new LatencyHistogram();
+        merged.merge( first );
+        merged.merge( second );
+        Assert.assertEquals( 100, merged.getCount() );
+        Assert.assertEquals( 10, merged.getValueAtPercentile( 90 ) );
+        assertWithinPrecision( 5000, merged.getValueAtPercentile( 95 ) );
+
+        final LatencyHistogram restored = LatencyHistogram.input( merged.output() );
+        Assert.assertEquals( merged.output(), restored.output() );
+        Assert.assertEquals( merged.getValueAtPercentile( 99 ), restored.getValueAtPercentile( 99 ) );
+
+        Assert.assertTrue( LatencyHistogram.input( "garbage,3:x,:4,99999:1" ).isEmpty() );
+    }
+
+    @Test
+    public void testBundleRoundTrip()
+    {
+        final StatisticsBundle bundle = new StatisticsBundle();
+        bundle.updateAverageValue( AvgStatistic.AVG_AUTHENTICATION_TIME, 100 );
+        bundle.updateAverageValue( AvgStatistic.AVG_AUTHENTICATION_TIME, 300 );
+
+        final StatisticsBundle restored = StatisticsBundle.input( bundle.output() );
+        Assert.assertEquals( "200", restored.getAvgStatistic( AvgStatistic.AVG_AUTHENTICATION_TIME ) );
+        Assert.assertEquals( 2, restored.getLatencyCount( AvgStatistic.AVG_AUTHENTICATION_TIME ) );
+        assertWithinPrecision( 300, restored.getPercentile( AvgStatistic.AVG_AUTHENTICATION_TIME, 99 ) );
+
+        final StatisticsBundle legacy = StatisticsBundle.input( "{\"AVG_LDAP_SEARCH_TIME\":\"{\\\"total\\\":90,\\\"count\\\":3}\"}" );
+        Assert.assertEquals( "30", legacy.getAvgStatistic( AvgStatistic.AVG_LDAP_SEARCH_TIME ) );
+        Assert.assertEquals( 0, legacy.getLatencyCount( AvgStatistic.AVG_LDAP_SEARCH_TIME ) );
+    }
+
+    private static void assertWithinPrecision( final long expected, final long actual )
+    {
+        Assert.assertTrue( "expected ~" + expected + " but was " + actual, actual >= expected && actual <= expected * 1.07 );
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class SortedWordlistFileTest
+{
+    private static final String CONFIG_HASH = "abc123";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testContains() throws Exception
+    {
+        final List<String> words = new ArrayList<>();
+        for ( int i = 0; i < 5_000; i++ )
+        {
+            words.add( "word" + i );
+        }
+        words.add( "5baa61e4c9b93f3f0682250b6cf8331b7ee68fd8:SHA1" );
+        words.add( "5f4dcc3b5aa765d61d8327deb882cf99:MD5" );
+        words.add( "pässwörd" );
+
+        final SortedWordlistFile sortedFile = writeFile( words );
+        Assert.assertEquals( words.size(), sortedFile.size() );
+
+        for ( final String word : words )
+        {
+            Assert.assertTrue( word, sortedFile.contains( word ) );
+        }
+
+        Assert.assertFalse( sortedFile.contains( "word" ) );
+        Assert.assertFalse( sortedFile.contains( "word5000" ) );
+        Assert.assertFalse( sortedFile.contains( "aaa" ) );
+        Assert.assertFalse( sortedFile.contains( "zzz" ) );
+        Assert.assertFalse( sortedFile.contains( "5baa61e4c9b93f3f0682250b6cf8331b7ee68fd9:SHA1" ) );
+    }
+
+    @Test
+    public void testHashStoredAsBinary()
+    {
+        final byte[] hashKey = SortedWordlistFile.encodeKey( "5baa61e4c9b93f3f0682250b6cf8331b7ee68fd8:SHA1" );
+        Assert.assertEquals( 21, hashKey.length );
+        Assert.assertEquals( WordType.SHA1.ordinal(), hashKey[0] );
+
+        // upper case hex is not a value produced by WordType, so it is treated as a raw word
+        final byte[] rawKey = SortedWordlistFile.encodeKey( "5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD8:SHA1" );
+        Assert.assertEquals( WordType.RAW.ordinal(), rawKey[0] );
+    }
+
+    @Test
+    public void testEmptyAndStale() throws Exception
+    {
+        final SortedWordlistFile emptyFile = writeFile( new ArrayList<>() );
+        Assert.assertEquals( 0, emptyFile.size() );
+        Assert.assertFalse( emptyFile.contains( "word" ) );
+
+        final Path path = temporaryFolder.getRoot().toPath().resolve( "test.sorted" );
+        Assert.assertFalse( SortedWordlistFile.open( path, "other-hash" ).isPresent() );
+        Assert.assertFalse( SortedWordlistFile.open( path.resolveSibling( "missing.sorted" ), CONFIG_HASH ).isPresent() );
+    }
+
+    private SortedWordlistFile writeFile( final List<String> words ) throws Exception
+    {
+        final List<byte[]> keys = new ArrayList<>();
+        words.forEach( word -> keys.add( SortedWordlistFile.encodeKey( word ) ) );
+        keys.sort( SortedWordlistFile::compareKeys );
+
+        final Path path = temporaryFolder.getRoot().toPath().resolve( "test.sorted" );
+        try ( SortedWordlistFile.Writer writer = SortedWordlistFile.newWriter( path, CONFIG_HASH ) )
+        {
+            for ( final byte[] key : keys )
+            {
+                writer.add( key );
+            }
+            writer.finish();
+        }
+
+        final Optional<SortedWordlistFile> sortedFile = SortedWordlistFile.open( path, CONFIG_HASH );
+        Assert.assertTrue( sortedFile.isPresent() );
+        return sortedFile.get();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.util.java.TimeDuration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WordVerdictCacheTest
+{
+    @Test
+    public void testRepeatCheckIsCached() throws Exception
+    {
+        final WordVerdictCache verdictCache = new WordVerdictCache( 10, TimeDuration.MINUTE );
+        final AtomicInteger checkCount = new AtomicInteger();
+
+        Assert.assertTrue( verdictCache.check( "password", () -> checkCount.incrementAndGet() > 0 ) );
+        Assert.assertTrue( verdictCache.check( "password", () -> checkCount.incrementAndGet() > 0 ) );
+        Assert.assertEquals( 1, checkCount.get() );
+
+        Assert.assertFalse( verdictCache.check( "other", () -> checkCount.incrementAndGet() < 0 ) );
+        Assert.assertEquals( 2, checkCount.get() );
+
+        verdictCache.invalidate( "password" );
+        Assert.assertTrue( verdictCache.check( "password", () -> checkCount.incrementAndGet() > 0 ) );
+        Assert.assertEquals( 3, checkCount.get() );
+
+        verdictCache.clear();
+        Assert.assertFalse( verdictCache.check( "other", () -> checkCount.incrementAndGet() < 0 ) );
+        Assert.assertEquals( 4, checkCount.get() );
+    }
+
+    @Test
+    public void testDisabled() throws Exception
+    {
+        final WordVerdictCache verdictCache = new WordVerdictCache( 0, TimeDuration.MINUTE );
+        final AtomicInteger checkCount = new AtomicInteger();
+
+        verdictCache.check( "password", () -> checkCount.incrementAndGet() > 0 );
+        verdictCache.check( "password", () -> checkCount.incrementAndGet() > 0 );
+        Assert.assertEquals( 2, checkCount.get() );
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+public class WordlistBloomFilterTest
+{
+    private static final String CONFIG_HASH = "abc123";
+    private static final int WORD_COUNT = 10_000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testNoFalseNegatives()
+    {
+        final WordlistBloomFilter filter = makeFilter();
+        for ( int i = 0; i < WORD_COUNT; i++ )
+        {
+            Assert.assertTrue( filter.mightContain( "word" + i ) );
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRate()
+    {
+        final WordlistBloomFilter filter = makeFilter();
+        int falsePositives = 0;
+        for ( int i = 0; i < WORD_COUNT; i++ )
+        {
+            if ( filter.mightContain( "absent" + i ) )
+            {
+                falsePositives++;
+            }
+        }
+
+        // 10 bits per word should be close to a 1% false positive rate
+        Assert.assertTrue( "false positives: " + falsePositives, falsePositives < WORD_COUNT / 20 );
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception
+    {
+        final WordlistBloomFilter filter = makeFilter();
+        final Path path = temporaryFolder.newFolder().toPath().resolve( "test.filter" );
+        filter.write( path );
+
+        final Optional<WordlistBloomFilter> readFilter = WordlistBloomFilter.read( path, CONFIG_HASH, WORD_COUNT );
+        Assert.assertTrue( readFilter.isPresent() );
+        for ( int i = 0; i < WORD_COUNT; i++ )
+        {
+            Assert.assertTrue( readFilter.get().mightContain( "word" + i ) );
+        }
+
+        Assert.assertFalse( WordlistBloomFilter.read( path, "other-hash", WORD_COUNT ).isPresent() );
+        Assert.assertFalse( WordlistBloomFilter.read( path, CONFIG_HASH, WORD_COUNT + 1 ).isPresent() );
+        Assert.assertFalse( WordlistBloomFilter.read( path.resolveSibling( "missing.filter" ), CONFIG_HASH, WORD_COUNT ).isPresent() );
+    }
+
+    private static WordlistBloomFilter makeFilter()
+    {
+        final WordlistBloomFilter filter = WordlistBloomFilter.newFilter( WORD_COUNT, 10, CONFIG_HASH );
+        for ( int i = 0; i < WORD_COUNT; i++ )
+        {
+            filter.put( "word" + i );
+        }
+        return filter.withItemCount( WORD_COUNT );
+    }
+}
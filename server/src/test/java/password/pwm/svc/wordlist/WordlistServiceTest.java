@@ -144,6 +144,26 @@ public class WordlistServiceTest
         Assert.assertTrue( wordlistService.containsWord( "ABCde" ) );
     }
 
+    @Test
+    public void testSmallBatchParallelImport()
+            throws Exception
+    {
+        final AppConfig appConfig = Mockito.spy( new AppConfig( StoredConfigurationFactory.newConfig() ) );
+        Mockito.when( appConfig.readAppProperty( AppProperty.WORDLIST_IMPORT_BATCH_LINES ) ).thenReturn( "2" );
+        Mockito.when( appConfig.readAppProperty( AppProperty.WORDLIST_IMPORT_NORMALIZE_THREADS ) ).thenReturn( "4" );
+        final WordlistService wordlistService = makeWordlistService( appConfig );
+
+        Assert.assertTrue( wordlistService.containsWord( "password-test" ) );
+        Assert.assertTrue( wordlistService.containsWord( "0123456789" ) );
+        Assert.assertTrue( wordlistService.containsWord( "sha512-Password-Test-Reverse" ) );
+        Assert.assertFalse( wordlistService.containsWord( "password-false-test" ) );
+        Assert.assertFalse( wordlistService.containsWord( "!#comment!" ) );
+
+        final WordlistStatus wordlistStatus = wordlistService.readWordlistStatus();
+        Assert.assertTrue( wordlistStatus.isCompleted() );
+        Assert.assertTrue( wordlistStatus.getLines() > 0 );
+    }
+
     private WordlistService makeWordlistService( final AppConfig inputDomainConfig )
             throws Exception
     {
@@ -0,0 +1,98 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+public class IPRangeMatcherTest
+{
+    private static final List<String> RANGES = List.of(
+            "10.0.0.0/8",
+            "192.168.1",
+            "172.16.5.4",
+            "192.0.2.0/255.255.255.0",
+            "10.20.0.0/16",
+            "2001:db8::/32",
+            "fe80::1" );
+
+    @Test
+    public void testMatch() throws Exception
+    {
+        final IPRangeMatcher matcher = IPRangeMatcher.compile( RANGES );
+        Assert.assertTrue( matcher.isConfigured() );
+
+        Assert.assertTrue( matcher.match( "10.1.2.3" ) );
+        Assert.assertTrue( matcher.match( "10.20.30.40" ) );
+        Assert.assertTrue( matcher.match( "192.168.1.200" ) );
+        Assert.assertTrue( matcher.match( "172.16.5.4" ) );
+        Assert.assertTrue( matcher.match( "192.0.2.99" ) );
+        Assert.assertTrue( matcher.match( "2001:db8:1234::1" ) );
+        Assert.assertTrue( matcher.match( "fe80::1" ) );
+        Assert.assertTrue( matcher.match( "::ffff:10.9.8.7" ) );
+
+        Assert.assertFalse( matcher.match( "11.0.0.1" ) );
+        Assert.assertFalse( matcher.match( "192.168.2.1" ) );
+        Assert.assertFalse( matcher.match( "172.16.5.5" ) );
+        Assert.assertFalse( matcher.match( "2001:db9::1" ) );
+        Assert.assertFalse( matcher.match( "fe80::2" ) );
+    }
+
+    @Test
+    public void testMatchesIPMatcher() throws Exception
+    {
+        final List<String> ranges = List.of( "10.0.0.0/8", "192.168.1", "192.0.2.0/255.0.255.0", "2001:db8::/32", "::1/128" );
+        final List<String> addresses = List.of( "10.1.2.3", "11.1.2.3", "192.168.1.1", "192.168.2.1", "192.7.2.1", "192.7.3.1",
+                "2001:db8::5", "2001:db9::5", "::1", "::2" );
+
+        final IPRangeMatcher matcher = IPRangeMatcher.compile( ranges );
+        for ( final String address : addresses )
+        {
+            boolean expected = false;
+            for ( final String range : ranges )
+            {
+                expected |= new IPMatcher( range ).match( address );
+            }
+            Assert.assertEquals( address, expected, matcher.match( address ) );
+        }
+    }
+
+    @Test
+    public void testUnconfigured() throws Exception
+    {
+        final IPRangeMatcher emptyMatcher = IPRangeMatcher.compile( Collections.emptyList() );
+        Assert.assertFalse( emptyMatcher.isConfigured() );
+        Assert.assertFalse( emptyMatcher.match( "10.1.2.3" ) );
+
+        final IPRangeMatcher invalidMatcher = IPRangeMatcher.compile( List.of( "not-an-address/99" ) );
+        Assert.assertTrue( invalidMatcher.isConfigured() );
+        Assert.assertFalse( invalidMatcher.match( "10.1.2.3" ) );
+    }
+
+    @Test( expected = IPMatcher.IPMatcherException.class )
+    public void testMalformedAddress() throws Exception
+    {
+        IPRangeMatcher.compile( RANGES ).match( "10.1.2" );
+    }
+}
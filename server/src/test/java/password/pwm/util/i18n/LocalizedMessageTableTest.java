@@ -0,0 +1,75 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.i18n;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.PwmConstants;
+import password.pwm.i18n.Display;
+
+public class LocalizedMessageTableTest
+{
+    @Test
+    public void testArgumentSlots()
+    {
+        final LocalizedMessageTable.MessageTemplate template = LocalizedMessageTable.MessageTemplate.parse( "%1% of %2%, %%1% and %10% %0% %3" );
+
+        Assert.assertEquals( "a of b, %a and %10% %0% %3", template.fill( new String[] {"a", "b"} ) );
+        Assert.assertEquals( "a of %2%, %a and %10% %0% %3", template.fill( new String[] {"a", null} ) );
+        Assert.assertEquals( "%1% of %2%, %%1% and %10% %0% %3", template.fill( null ) );
+        Assert.assertEquals( "no slots", LocalizedMessageTable.MessageTemplate.parse( "no slots" ).fill( new String[] {"a"} ) );
+    }
+
+    @Test
+    public void testMacroExpansion()
+    {
+        final LocalizedMessageTable.MessageTemplate template = LocalizedMessageTable.MessageTemplate.parse( "@PwmAppName@ %1%" );
+
+        Assert.assertEquals( PwmConstants.PWM_APP_NAME + " %1%", template.fill( null ) );
+        Assert.assertEquals( PwmConstants.PWM_APP_NAME + " " + PwmConstants.PWM_APP_NAME, template.fill( new String[] {"@PwmAppName@"} ) );
+        Assert.assertEquals( PwmConstants.PWM_APP_NAME + " plain", template.fill( new String[] {"plain"} ) );
+    }
+
+    @Test
+    public void testMacroSpanningSlot()
+    {
+        final LocalizedMessageTable.MessageTemplate template = LocalizedMessageTable.MessageTemplate.parse( "@PwmAppName@ @Encode:base64:[[%1%]]@" );
+
+        Assert.assertEquals( PwmConstants.PWM_APP_NAME + " YWJj", template.fill( new String[] {"abc"} ) );
+    }
+
+    @Test
+    public void testLocalizedMessage()
+    {
+        Assert.assertEquals(
+                "Returned 3 results in 1 second.",
+                LocaleHelper.getLocalizedMessage( PwmConstants.DEFAULT_LOCALE, Display.Display_SearchResultsInfo, null, new String[] {"3", "1 second"} ) );
+        Assert.assertEquals(
+                "Returned 3 results in %2%.",
+                LocaleHelper.getLocalizedMessage( PwmConstants.DEFAULT_LOCALE, Display.Display_SearchResultsInfo, null, new String[] {"3"} ) );
+        Assert.assertEquals(
+                "Unknown_Key",
+                LocaleHelper.getLocalizedMessage( PwmConstants.DEFAULT_LOCALE, "Unknown_Key", null, Display.class ) );
+        Assert.assertSame(
+                LocalizedMessageTable.forBundle( null, PwmConstants.DEFAULT_LOCALE, Display.class ),
+                LocalizedMessageTable.forBundle( null, PwmConstants.DEFAULT_LOCALE, Display.class ) );
+    }
+}
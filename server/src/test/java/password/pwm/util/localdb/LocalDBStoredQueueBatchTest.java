@@ -0,0 +1,198 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.localdb;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.util.java.TimeDuration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LocalDBStoredQueueBatchTest
+{
+    private static final int BATCH_SIZE = 10;
+    private static final int MAX_PROBLEM_SIZE = 100;
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private LocalDB localDB;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        final File localDbTestFolder = testFolder.newFolder( "test-stored-queue-batch-test" );
+        localDB = LocalDBFactory.getInstance( localDbTestFolder, false, null, null );
+    }
+
+    private LocalDBStoredQueue makeBatchedQueue() throws LocalDBException
+    {
+        final LocalDBStoredQueue.Settings settings = LocalDBStoredQueue.Settings.builder()
+                .batchSize( BATCH_SIZE )
+                .durabilityWindow( TimeDuration.HOUR )
+                .build();
+        return LocalDBStoredQueue.createLocalDBStoredQueue( localDB, LocalDB.DB.TEMP, false, settings );
+    }
+
+    @Test
+    public void testBatchedOrdering() throws LocalDBException
+    {
+        final LocalDBStoredQueue queue = makeBatchedQueue();
+
+        for ( int i = 0; i < MAX_PROBLEM_SIZE; i++ )
+        {
+            queue.addFirst( String.valueOf( i ) );
+            Assert.assertEquals( i + 1, queue.size() );
+        }
+
+        Assert.assertEquals( String.valueOf( MAX_PROBLEM_SIZE - 1 ), queue.peekFirst() );
+        Assert.assertEquals( "0", queue.peekLast() );
+
+        for ( int i = 0; i < MAX_PROBLEM_SIZE; i++ )
+        {
+            Assert.assertEquals( String.valueOf( i ), queue.removeLast() );
+        }
+
+        Assert.assertTrue( queue.isEmpty() );
+        Assert.assertNull( queue.pollFirst() );
+    }
+
+    @Test
+    public void testBatchedMixedEnds() throws LocalDBException
+    {
+        final LocalDBStoredQueue queue = makeBatchedQueue();
+
+        for ( int i = 0; i < 25; i++ )
+        {
+            queue.addLast( "L" + i );
+            queue.addFirst( "F" + i );
+        }
+
+        final List<String> fromIterator = new ArrayList<>();
+        queue.iterator().forEachRemaining( fromIterator::add );
+        Assert.assertEquals( 50, fromIterator.size() );
+        Assert.assertEquals( "F24", fromIterator.get( 0 ) );
+        Assert.assertEquals( "L24", fromIterator.get( 49 ) );
+
+        Assert.assertEquals( "F24", queue.pollFirst() );
+        Assert.assertEquals( "L24", queue.pollLast() );
+        queue.removeFirst( 24 );
+        Assert.assertEquals( "L0", queue.peekFirst() );
+        Assert.assertEquals( 24, queue.size() );
+    }
+
+    @Test
+    public void testPeekFirstAtOffset() throws LocalDBException
+    {
+        final LocalDBStoredQueue queue = makeBatchedQueue();
+        for ( int i = 0; i < BATCH_SIZE + 5; i++ )
+        {
+            queue.addLast( String.valueOf( i ) );
+        }
+        for ( int i = 0; i < 3; i++ )
+        {
+            queue.removeFirst();
+        }
+        queue.addFirst( "x" );
+
+        // logical queue is x, 3 .. 14, spread over the head buffer, stored values and tail buffer
+        Assert.assertEquals( List.of( "x", "3" ), queue.peekFirst( 0, 2 ) );
+        Assert.assertEquals( List.of( "3", "4" ), queue.peekFirst( 1, 2 ) );
+        Assert.assertEquals( List.of( "7", "8", "9", "10", "11" ), queue.peekFirst( 5, 5 ) );
+        Assert.assertEquals( List.of( "13", "14" ), queue.peekFirst( 11, 5 ) );
+        Assert.assertTrue( queue.peekFirst( 13, 1 ).isEmpty() );
+        Assert.assertEquals( 13, queue.size() );
+    }
+
+    @Test
+    public void testCloseFlushesStagedOperations() throws LocalDBException
+    {
+        final LocalDBStoredQueue queue = makeBatchedQueue();
+        for ( int i = 0; i < BATCH_SIZE / 2; i++ )
+        {
+            queue.addFirst( String.valueOf( i ) );
+        }
+        queue.close();
+
+        final LocalDBStoredQueue reopened = makeBatchedQueue();
+        Assert.assertEquals( BATCH_SIZE / 2, reopened.size() );
+        Assert.assertEquals( "0", reopened.peekLast() );
+    }
+
+    @Test
+    public void testCrashRecoveryLosesAtMostOneWindowOfAdditions() throws LocalDBException
+    {
+        final int itemCount = BATCH_SIZE * 2 + BATCH_SIZE / 2;
+
+        final LocalDBStoredQueue crashedQueue = makeBatchedQueue();
+        for ( int i = 0; i < itemCount; i++ )
+        {
+            crashedQueue.addFirst( String.valueOf( i ) );
+        }
+
+        // crashed queue is abandoned without being closed or flushed
+        final LocalDBStoredQueue recoveredQueue = makeBatchedQueue();
+        final int recoveredSize = recoveredQueue.size();
+        Assert.assertTrue( recoveredSize <= itemCount );
+        Assert.assertTrue( recoveredSize >= itemCount - BATCH_SIZE );
+
+        // recovered items are a gap-free prefix of what was submitted
+        for ( int i = 0; i < recoveredSize; i++ )
+        {
+            Assert.assertEquals( String.valueOf( i ), recoveredQueue.removeLast() );
+        }
+        Assert.assertTrue( recoveredQueue.isEmpty() );
+    }
+
+    @Test
+    public void testCrashRecoveryRepeatsAtMostOneWindowOfRemovals() throws LocalDBException
+    {
+        final int itemCount = BATCH_SIZE * 3;
+        final int removalCount = BATCH_SIZE + BATCH_SIZE / 2;
+
+        final LocalDBStoredQueue crashedQueue = makeBatchedQueue();
+        for ( int i = 0; i < itemCount; i++ )
+        {
+            crashedQueue.addFirst( String.valueOf( i ) );
+        }
+        crashedQueue.flush();
+
+        for ( int i = 0; i < removalCount; i++ )
+        {
+            Assert.assertEquals( String.valueOf( i ), crashedQueue.removeLast() );
+        }
+
+        // crashed queue is abandoned without being closed or flushed
+        final LocalDBStoredQueue recoveredQueue = makeBatchedQueue();
+        final int recoveredSize = recoveredQueue.size();
+        Assert.assertTrue( recoveredSize >= itemCount - removalCount );
+        Assert.assertTrue( recoveredSize <= itemCount - removalCount + BATCH_SIZE );
+
+        final int firstRecovered = Integer.parseInt( recoveredQueue.peekLast() );
+        Assert.assertEquals( itemCount - recoveredSize, firstRecovered );
+        Assert.assertEquals( String.valueOf( itemCount - 1 ), recoveredQueue.peekFirst() );
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.localdb;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.error.PwmOperationalException;
+import password.pwm.util.java.TimeDuration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WorkQueueProcessorTest
+{
+    private static final int ITEM_COUNT = 60;
+    private static final String[] KEYS = {"alpha", "beta", "gamma"};
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private LocalDBStoredQueue queue;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        final File localDbTestFolder = testFolder.newFolder( "test-work-queue-processor" );
+        final LocalDB localDB = LocalDBFactory.getInstance( localDbTestFolder, false, null, null );
+        queue = LocalDBStoredQueue.createLocalDBStoredQueue( localDB, LocalDB.DB.TEMP, false );
+    }
+
+    @Test
+    public void testPartitionedFifoOrder() throws PwmOperationalException
+    {
+        final Map<String, List<Integer>> processedByKey = new ConcurrentHashMap<>();
+        final AtomicInteger processedCount = new AtomicInteger();
+
+        final WorkQueueProcessor.ItemProcessor<String> itemProcessor = new TestItemProcessor()
+        {
+            @Override
+            public WorkQueueProcessor.ProcessResult process( final String workItem )
+            {
+                final String[] parts = workItem.split( ":" );
+                processedByKey.computeIfAbsent( parts[0], k -> Collections.synchronizedList( new ArrayList<>() ) )
+                        .add( Integer.parseInt( parts[1] ) );
+                processedCount.incrementAndGet();
+                return WorkQueueProcessor.ProcessResult.SUCCESS;
+            }
+        };
+
+        final WorkQueueProcessor<String> workQueueProcessor = makeProcessor( itemProcessor, 4 );
+        for ( int i = 0; i < ITEM_COUNT; i++ )
+        {
+            workQueueProcessor.submit( KEYS[i % KEYS.length] + ":" + i );
+        }
+
+        TimeDuration.SECONDS_10.pause( TimeDuration.MILLISECONDS_3, () -> processedCount.get() >= ITEM_COUNT && queue.isEmpty() );
+        workQueueProcessor.close();
+
+        Assert.assertEquals( ITEM_COUNT, processedCount.get() );
+        Assert.assertTrue( queue.isEmpty() );
+        for ( final List<Integer> values : processedByKey.values() )
+        {
+            final List<Integer> sorted = new ArrayList<>( values );
+            Collections.sort( sorted );
+            Assert.assertEquals( sorted, values );
+        }
+    }
+
+    @Test
+    public void testRetryDoesNotBlockOtherPartitions() throws PwmOperationalException
+    {
+        final AtomicInteger processedCount = new AtomicInteger();
+
+        final WorkQueueProcessor.ItemProcessor<String> itemProcessor = new TestItemProcessor()
+        {
+            @Override
+            public WorkQueueProcessor.ProcessResult process( final String workItem )
+            {
+                if ( workItem.startsWith( "stuck" ) )
+                {
+                    return WorkQueueProcessor.ProcessResult.RETRY;
+                }
+                processedCount.incrementAndGet();
+                return WorkQueueProcessor.ProcessResult.SUCCESS;
+            }
+
+            @Override
+            public String partitionKey( final String workItem )
+            {
+                // keys "a" and "b" hash to different partitions
+                return workItem.startsWith( "stuck" ) ? "a" : "b";
+            }
+        };
+
+        final WorkQueueProcessor<String> workQueueProcessor = makeProcessor( itemProcessor, 2 );
+        workQueueProcessor.submit( "stuck:0" );
+        for ( int i = 0; i < 5; i++ )
+        {
+            workQueueProcessor.submit( "free:" + i );
+        }
+
+        TimeDuration.SECONDS_10.pause( TimeDuration.MILLISECONDS_3, () -> processedCount.get() >= 5 );
+        Assert.assertEquals( 5, processedCount.get() );
+
+        // the stuck item is still at the head of the stored queue, so completed items behind it are retained
+        Assert.assertEquals( 6, queue.size() );
+        workQueueProcessor.close();
+    }
+
+    @Test
+    public void testFailingPartitionReleasesDispatchWindow() throws PwmOperationalException
+    {
+        final int freeItemCount = 40;
+        final AtomicInteger processedCount = new AtomicInteger();
+
+        final WorkQueueProcessor.ItemProcessor<String> itemProcessor = new TestItemProcessor()
+        {
+            @Override
+            public WorkQueueProcessor.ProcessResult process( final String workItem )
+            {
+                if ( workItem.startsWith( "stuck" ) )
+                {
+                    return WorkQueueProcessor.ProcessResult.RETRY;
+                }
+                processedCount.incrementAndGet();
+                return WorkQueueProcessor.ProcessResult.SUCCESS;
+            }
+
+            @Override
+            public String partitionKey( final String workItem )
+            {
+                return workItem.startsWith( "stuck" ) ? "a" : "b";
+            }
+        };
+
+        // a dispatch window of four items, filled by the failing partition before the other partition's items
+        final WorkQueueProcessor<String> workQueueProcessor = makeProcessor( itemProcessor, 2, 2 );
+        for ( int i = 0; i < 4; i++ )
+        {
+            workQueueProcessor.submit( "stuck:" + i );
+        }
+        for ( int i = 0; i < freeItemCount; i++ )
+        {
+            workQueueProcessor.submit( "free:" + i );
+        }
+
+        // the retrying items release their slots, but reading stops once the total window of eight items is full
+        TimeDuration.SECONDS_10.pause( TimeDuration.MILLISECONDS_3, () -> processedCount.get() >= 4 );
+        TimeDuration.of( 250, TimeDuration.Unit.MILLISECONDS ).pause();
+        Assert.assertEquals( 4, processedCount.get() );
+        Assert.assertEquals( 4 + freeItemCount, queue.size() );
+        workQueueProcessor.close();
+    }
+
+    private WorkQueueProcessor<String> makeProcessor( final WorkQueueProcessor.ItemProcessor<String> itemProcessor, final int workerThreads )
+    {
+        return makeProcessor( itemProcessor, workerThreads, 10 );
+    }
+
+    private WorkQueueProcessor<String> makeProcessor(
+            final WorkQueueProcessor.ItemProcessor<String> itemProcessor,
+            final int workerThreads,
+            final int partitionDepth
+    )
+    {
+        final WorkQueueProcessor.Settings settings = WorkQueueProcessor.Settings.builder()
+                .workerThreads( workerThreads )
+                .partitionDepth( partitionDepth )
+                .retryInterval( TimeDuration.HOUR )
+                .maxShutdownWaitTime( TimeDuration.SECOND )
+                .build();
+        return new WorkQueueProcessor<>( null, queue, settings, itemProcessor, WorkQueueProcessorTest.class );
+    }
+
+    private abstract static class TestItemProcessor implements WorkQueueProcessor.ItemProcessor<String>
+    {
+        @Override
+        public String convertToDebugString( final String workItem )
+        {
+            return workItem;
+        }
+
+        @Override
+        public String partitionKey( final String workItem )
+        {
+            return workItem.split( ":" )[0];
+        }
+    }
+}
@@ -26,8 +26,10 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import password.pwm.PwmConstants;
+import password.pwm.bean.LoginInfoBean;
 import password.pwm.config.PwmSetting;
 import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.PasswordData;
 import password.pwm.util.SampleDataGenerator;
 
 import java.time.Duration;
@@ -120,6 +122,69 @@ public class MacroTest
         Assert.assertEquals( goal, expanded );
     }
 
+    @Test
+    public void testRepeatedTemplateExpansion() throws Exception
+    {
+        final String input = "@User:ID@ / @PwmAppName@ / @Encode:base64:[[@User:ID@]]@ / @User:ID@ @";
+        final String goal = "FLast / " + PwmConstants.PWM_APP_NAME + " / Rkxhc3Q= / FLast @";
+
+        // second expansion is served from the compiled template
+        Assert.assertEquals( goal, macroRequest.expandMacros( input ) );
+        Assert.assertEquals( goal, macroRequest.expandMacros( input ) );
+
+        Assert.assertEquals( "no macros here", macroRequest.expandMacros( "no macros here" ) );
+    }
+
+    @Test
+    public void testMacroOutputNotExpanded() throws Exception
+    {
+        final LoginInfoBean loginInfoBean = new LoginInfoBean();
+        loginInfoBean.setAuthenticated( true );
+        loginInfoBean.setUserIdentity( macroRequest.getUserInfo().getUserIdentity() );
+        loginInfoBean.setUserCurrentPassword( PasswordData.forStringValue( "@PwmAppName@" ) );
+        final MacroRequest passwordMacroRequest = MacroRequest.builder()
+                .userInfo( macroRequest.getUserInfo() )
+                .loginInfoBean( loginInfoBean )
+                .build();
+
+        // a macro value that looks like a macro is inserted as is, on first and repeated expansion
+        final String input = "pw @User:Password@ app @PwmAppName@";
+        final String goal = "pw @PwmAppName@ app " + PwmConstants.PWM_APP_NAME;
+        Assert.assertEquals( goal, passwordMacroRequest.expandMacros( input ) );
+        Assert.assertEquals( goal, passwordMacroRequest.expandMacros( input ) );
+    }
+
+    @Test
+    public void testOverlappingMacros() throws Exception
+    {
+        // the trailing delimiter of the first macro is also the leading delimiter of the second, the leftmost match wins
+        final String input = "@LDAP:givenName@User:ID@";
+        final String goal = "FirstUser:ID@";
+        Assert.assertEquals( goal, macroRequest.expandMacros( input ) );
+        Assert.assertEquals( goal, macroRequest.expandMacros( input ) );
+
+        Assert.assertEquals( "FLast@FLast", macroRequest.expandMacros( "@User:ID@@@User:ID@" ) );
+    }
+
+    @Test
+    public void testExternalMacroEquality()
+    {
+        Assert.assertEquals( new ExternalRestMacro( 1, "https://example.com/macro" ), new ExternalRestMacro( 1, "https://example.com/macro" ) );
+        Assert.assertNotEquals( new ExternalRestMacro( 1, "https://example.com/macro" ), new ExternalRestMacro( 2, "https://example.com/macro" ) );
+        Assert.assertNotEquals( new ExternalRestMacro( 1, "https://example.com/macro" ), new ExternalRestMacro( 1, "https://example.com/other" ) );
+    }
+
+    @Test
+    public void testStaticExpansion()
+    {
+        Assert.assertTrue( MacroMachine.isStaticExpansion( "no macros here" ) );
+        Assert.assertTrue( MacroMachine.isStaticExpansion( "@PwmAppName@ user@example.com" ) );
+        Assert.assertFalse( MacroMachine.isStaticExpansion( "@PwmAppName@ @CurrentTime@" ) );
+        Assert.assertFalse( MacroMachine.isStaticExpansion( "@CurrentTime:yyyy@" ) );
+        Assert.assertFalse( MacroMachine.isStaticExpansion( "@UUID@" ) );
+        Assert.assertFalse( MacroMachine.isStaticExpansion( "@User:ID@" ) );
+    }
+
     @Test
     public void testTargetUserIDMacro() throws Exception
     {
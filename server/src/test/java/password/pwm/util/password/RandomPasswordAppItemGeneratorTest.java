@@ -73,4 +73,44 @@ public class RandomPasswordAppItemGeneratorTest
             seenValues.add( passwordString );
         }
     }
+
+    @Test
+    public void generateStrictPolicyPasswordsTest()
+            throws PwmUnrecoverableException, IOException
+    {
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( temporaryFolder.newFolder() );
+        final PwmDomain pwmDomain = pwmApplication.domains().get( DomainID.DOMAIN_ID_DEFAULT );
+        final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
+        policyMap.put( PwmPasswordRule.MinimumLength.getKey(), "12" );
+        policyMap.put( PwmPasswordRule.MaximumLength.getKey(), "14" );
+        policyMap.put( PwmPasswordRule.AllowNumeric.getKey(), "true" );
+        policyMap.put( PwmPasswordRule.MinimumNumeric.getKey(), "2" );
+        policyMap.put( PwmPasswordRule.MaximumNumeric.getKey(), "3" );
+        policyMap.put( PwmPasswordRule.AllowFirstCharNumeric.getKey(), "false" );
+        policyMap.put( PwmPasswordRule.AllowLastCharNumeric.getKey(), "false" );
+        policyMap.put( PwmPasswordRule.AllowSpecial.getKey(), "true" );
+        policyMap.put( PwmPasswordRule.MinimumSpecial.getKey(), "2" );
+        policyMap.put( PwmPasswordRule.MaximumSpecial.getKey(), "2" );
+        policyMap.put( PwmPasswordRule.AllowFirstCharSpecial.getKey(), "false" );
+        policyMap.put( PwmPasswordRule.AllowLastCharSpecial.getKey(), "false" );
+        policyMap.put( PwmPasswordRule.MinimumUpperCase.getKey(), "3" );
+        policyMap.put( PwmPasswordRule.MinimumLowerCase.getKey(), "3" );
+        policyMap.put( PwmPasswordRule.MinimumUnique.getKey(), "12" );
+        policyMap.put( PwmPasswordRule.MaximumRepeat.getKey(), "1" );
+        policyMap.put( PwmPasswordRule.MaximumConsecutive.getKey(), "2" );
+        final PwmPasswordPolicy pwmPasswordPolicy = PwmPasswordPolicy.createPwmPasswordPolicy( PwmPasswordPolicy.defaultPolicy().getDomainID(), policyMap );
+
+        final PwmPasswordRuleValidator validator = PwmPasswordRuleValidator.create( null, pwmDomain, pwmPasswordPolicy );
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            final PasswordData passwordData = RandomPasswordGenerator.createRandomPassword(
+                    null,
+                    pwmPasswordPolicy,
+                    pwmDomain );
+
+            final String passwordString = passwordData.getStringValue();
+            Assert.assertTrue( passwordString, validator.internalPwmPolicyValidator( passwordString, null, null ).isEmpty() );
+        }
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.password;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import password.pwm.AppProperty;
+import password.pwm.PwmApplication;
+import password.pwm.PwmDomain;
+import password.pwm.bean.DomainID;
+import password.pwm.config.AppConfig;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.profile.PwmPasswordPolicy;
+import password.pwm.config.profile.PwmPasswordRule;
+import password.pwm.config.stored.StoredConfigKey;
+import password.pwm.config.stored.StoredConfigurationFactory;
+import password.pwm.config.stored.StoredConfigurationModifier;
+import password.pwm.config.value.StringArrayValue;
+import password.pwm.util.localdb.TestHelper;
+
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares random password generation using the policy composer with the legacy generate-and-mutate loop
+ * across increasingly restrictive password policies.
+ */
+@State( Scope.Benchmark )
+public class RandomPasswordGeneratorBenchmarkExtendedTest
+{
+    @Param( { "default", "strict", "unique" } )
+    private String policyProfile;
+
+    @Param( { "true", "false" } )
+    private String composeEnabled;
+
+    private PwmDomain pwmDomain;
+    private PwmPasswordPolicy passwordPolicy;
+
+    @Test
+    public void
+    launchBenchmark()
+            throws Exception
+    {
+        final Options opt = new OptionsBuilder()
+                .include( this.getClass().getName() + ".*" )
+                .mode ( Mode.AverageTime )
+                .timeUnit( TimeUnit.MICROSECONDS )
+                .warmupTime( TimeValue.seconds( 10 ) )
+                .measurementIterations( 10 )
+                .threads( 1 )
+                .forks( 1 )
+                .shouldFailOnError( true )
+                .shouldDoGC( true )
+                .build();
+
+        new Runner( opt ).run();
+    }
+
+    @Setup
+    public void setup()
+            throws Exception
+    {
+        final StoredConfigurationModifier modifier = StoredConfigurationModifier.newModifier( StoredConfigurationFactory.newConfig() );
+        modifier.writeSetting(
+                StoredConfigKey.forSetting( PwmSetting.APP_PROPERTY_OVERRIDES, null, DomainID.systemId() ),
+                new StringArrayValue( Collections.singletonList( AppProperty.PASSWORD_RANDOMGEN_COMPOSE_ENABLE.getKey() + "=" + composeEnabled ) ),
+                null );
+        final AppConfig appConfig = new AppConfig( modifier.newStoredConfiguration() );
+
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( Files.createTempDirectory( "pwm-benchmark" ).toFile(), appConfig );
+        pwmDomain = pwmApplication.domains().get( DomainID.DOMAIN_ID_DEFAULT );
+        passwordPolicy = makePolicy( policyProfile );
+    }
+
+    @Benchmark
+    public void createRandomPassword( final Blackhole blackhole )
+            throws Exception
+    {
+        blackhole.consume( RandomPasswordGenerator.createRandomPassword( null, passwordPolicy, pwmDomain ) );
+    }
+
+    private static PwmPasswordPolicy makePolicy( final String profile )
+    {
+        final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
+        policyMap.put( PwmPasswordRule.AllowNumeric.getKey(), "true" );
+
+        if ( "strict".equals( profile ) || "unique".equals( profile ) )
+        {
+            policyMap.put( PwmPasswordRule.MinimumLength.getKey(), "12" );
+            policyMap.put( PwmPasswordRule.MaximumLength.getKey(), "14" );
+            policyMap.put( PwmPasswordRule.MinimumNumeric.getKey(), "2" );
+            policyMap.put( PwmPasswordRule.MaximumNumeric.getKey(), "3" );
+            policyMap.put( PwmPasswordRule.AllowFirstCharNumeric.getKey(), "false" );
+            policyMap.put( PwmPasswordRule.AllowLastCharNumeric.getKey(), "false" );
+            policyMap.put( PwmPasswordRule.AllowSpecial.getKey(), "true" );
+            policyMap.put( PwmPasswordRule.MinimumSpecial.getKey(), "2" );
+            policyMap.put( PwmPasswordRule.MaximumSpecial.getKey(), "2" );
+            policyMap.put( PwmPasswordRule.AllowFirstCharSpecial.getKey(), "false" );
+            policyMap.put( PwmPasswordRule.AllowLastCharSpecial.getKey(), "false" );
+            policyMap.put( PwmPasswordRule.MinimumUpperCase.getKey(), "3" );
+            policyMap.put( PwmPasswordRule.MinimumLowerCase.getKey(), "3" );
+        }
+
+        if ( "unique".equals( profile ) )
+        {
+            policyMap.put( PwmPasswordRule.MinimumUnique.getKey(), "12" );
+            policyMap.put( PwmPasswordRule.MaximumRepeat.getKey(), "1" );
+            policyMap.put( PwmPasswordRule.MaximumSequentialRepeat.getKey(), "1" );
+            policyMap.put( PwmPasswordRule.MaximumConsecutive.getKey(), "2" );
+        }
+
+        return PwmPasswordPolicy.createPwmPasswordPolicy( PwmPasswordPolicy.defaultPolicy().getDomainID(), policyMap );
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.secure;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import password.pwm.util.java.JavaHelper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SecureEngine} encryption, decryption, hmac and hash operations for every {@link PwmBlockAlgorithm}.
+ */
+@State( Scope.Benchmark )
+public class SecureEngineBenchmarkExtendedTest
+{
+    private static final SecureEngine.NonceGenerator NONCE_GENERATOR = new SecureEngine.NonceGenerator( 8, 8 );
+
+    @Param
+    private PwmBlockAlgorithm blockAlgorithm;
+
+    @Param( { "64", "4096" } )
+    private int payloadSize;
+
+    private PwmSecurityKey securityKey;
+    private String payload;
+    private byte[] payloadBytes;
+    private String encryptedPayload;
+
+    @Test
+    public void
+    launchBenchmark()
+            throws Exception
+    {
+        final Options opt = new OptionsBuilder()
+                .include( this.getClass().getName() + ".*" )
+                .mode ( Mode.AverageTime )
+                .timeUnit( TimeUnit.MICROSECONDS )
+                .warmupTime( TimeValue.seconds( 10 ) )
+                .measurementIterations( 10 )
+                .threads( 4 )
+                .forks( 1 )
+                .shouldFailOnError( true )
+                .shouldDoGC( true )
+                .build();
+
+        new Runner( opt ).run();
+    }
+
+    @Setup
+    public void setup()
+            throws Exception
+    {
+        securityKey = new PwmSecurityKey( PwmRandom.getInstance().newBytes( 1024 ) );
+        payloadBytes = PwmRandom.getInstance().newBytes( payloadSize / 2 );
+        payload = JavaHelper.binaryArrayToHex( payloadBytes );
+        encryptedPayload = SecureEngine.encryptToString( payload, securityKey, blockAlgorithm );
+    }
+
+    @Benchmark
+    public void encrypt( final Blackhole blackhole )
+            throws Exception
+    {
+        blackhole.consume( SecureEngine.encryptToString( payload, securityKey, blockAlgorithm ) );
+    }
+
+    @Benchmark
+    public void decrypt( final Blackhole blackhole )
+            throws Exception
+    {
+        blackhole.consume( SecureEngine.decryptStringValue( encryptedPayload, securityKey, blockAlgorithm ) );
+    }
+
+    @Benchmark
+    public void hmac( final Blackhole blackhole )
+            throws Exception
+    {
+        blackhole.consume( SecureEngine.computeHmacToBytes( HmacAlgorithm.HMAC_SHA_256, securityKey, payloadBytes ) );
+    }
+
+    @Benchmark
+    public void hash( final Blackhole blackhole )
+            throws Exception
+    {
+        blackhole.consume( SecureEngine.hash( payloadBytes, PwmHashAlgorithm.SHA256 ) );
+    }
+
+    @Benchmark
+    public void nonce( final Blackhole blackhole )
+    {
+        blackhole.consume( NONCE_GENERATOR.nextValue() );
+    }
+}
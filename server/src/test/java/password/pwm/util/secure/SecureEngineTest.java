@@ -0,0 +1,143 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.secure;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.error.PwmUnrecoverableException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SecureEngineTest
+{
+    @Test
+    public void concurrentRoundTripTest()
+            throws Exception
+    {
+        final PwmSecurityKey key = new PwmSecurityKey( PwmRandom.getInstance().newBytes( 64 ) );
+        final PwmSecurityKey otherKey = new PwmSecurityKey( PwmRandom.getInstance().newBytes( 64 ) );
+
+        final ExecutorService executorService = Executors.newFixedThreadPool( 4 );
+        try
+        {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for ( int thread = 0; thread < 4; thread++ )
+            {
+                final Callable<Void> callable = () ->
+                {
+                    for ( int i = 0; i < 100; i++ )
+                    {
+                        for ( final PwmBlockAlgorithm blockAlgorithm : PwmBlockAlgorithm.values() )
+                        {
+                            final PwmSecurityKey loopKey = i % 2 == 0 ? key : otherKey;
+                            final String value = "value-" + i + "-" + blockAlgorithm;
+                            final String encrypted = SecureEngine.encryptToString( value, loopKey, blockAlgorithm );
+                            Assert.assertEquals( value, SecureEngine.decryptStringValue( encrypted, loopKey, blockAlgorithm ) );
+                        }
+                    }
+                    return null;
+                };
+                futures.add( executorService.submit( callable ) );
+            }
+
+            for ( final Future<Void> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void decryptWithWrongKeyTest()
+            throws Exception
+    {
+        final PwmSecurityKey key = new PwmSecurityKey( PwmRandom.getInstance().newBytes( 64 ) );
+        final PwmSecurityKey otherKey = new PwmSecurityKey( PwmRandom.getInstance().newBytes( 64 ) );
+
+        for ( final PwmBlockAlgorithm blockAlgorithm : Arrays.asList( PwmBlockAlgorithm.AES128_HMAC256, PwmBlockAlgorithm.AES128_GCM ) )
+        {
+            final String encrypted = SecureEngine.encryptToString( "value", key, blockAlgorithm );
+            try
+            {
+                SecureEngine.decryptStringValue( encrypted, otherKey, blockAlgorithm );
+                Assert.fail( "decryption with wrong key succeeded for " + blockAlgorithm );
+            }
+            catch ( final PwmUnrecoverableException e )
+            {
+                // expected
+            }
+
+            // a failed operation must not leave the cached cipher unusable
+            Assert.assertEquals( "value", SecureEngine.decryptStringValue( encrypted, key, blockAlgorithm ) );
+        }
+    }
+
+    @Test
+    public void clearCachedPrimitivesTest()
+            throws Exception
+    {
+        final PwmSecurityKey key = new PwmSecurityKey( PwmRandom.getInstance().newBytes( 64 ) );
+        final String encrypted = SecureEngine.encryptToString( "value", key, PwmBlockAlgorithm.AES128_GCM );
+        final CryptoPrimitiveCache before = CryptoPrimitiveCache.forCurrentThread();
+        Assert.assertTrue( CryptoPrimitiveCache.instanceCount() > 0 );
+
+        SecureEngine.clearCachedPrimitives();
+        Assert.assertEquals( 0, CryptoPrimitiveCache.instanceCount() );
+
+        // the thread gets a new cache and operations continue to work
+        Assert.assertEquals( "value", SecureEngine.decryptStringValue( encrypted, key, PwmBlockAlgorithm.AES128_GCM ) );
+        Assert.assertNotSame( before, CryptoPrimitiveCache.forCurrentThread() );
+    }
+
+    @Test
+    public void nonceGeneratorTest()
+    {
+        final SecureEngine.NonceGenerator nonceGenerator = new SecureEngine.NonceGenerator( 8, 8 );
+        final Set<String> seenValues = new HashSet<>();
+        byte[] firstValue = null;
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            final byte[] value = nonceGenerator.nextValue();
+            Assert.assertEquals( 16, value.length );
+            if ( firstValue == null )
+            {
+                firstValue = value;
+            }
+            for ( int j = 0; j < 8; j++ )
+            {
+                Assert.assertEquals( firstValue[ j ], value[ j ] );
+            }
+            Assert.assertTrue( seenValues.add( Arrays.toString( value ) ) );
+        }
+    }
+}
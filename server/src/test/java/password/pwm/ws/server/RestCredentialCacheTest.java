@@ -0,0 +1,65 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ws.server;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.PwmApplication;
+import password.pwm.bean.DomainID;
+import password.pwm.bean.UserIdentity;
+import password.pwm.util.PasswordData;
+import password.pwm.util.localdb.TestHelper;
+
+public class RestCredentialCacheTest
+{
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private RestCredentialCache restCredentialCache;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( testFolder.newFolder() );
+        restCredentialCache = new RestCredentialCache( pwmApplication.domains().get( DomainID.create( "default" ) ) );
+    }
+
+    @Test
+    public void testVerifiedCredentials() throws Exception
+    {
+        final UserIdentity user = UserIdentity.create( "cn=service,o=org", "default", DomainID.create( "default" ) );
+        final UserIdentity otherUser = UserIdentity.create( "cn=other,o=org", "default", DomainID.create( "default" ) );
+        final PasswordData password = new PasswordData( "password1" );
+
+        Assert.assertFalse( restCredentialCache.isVerified( user, password ) );
+
+        restCredentialCache.markVerified( user, password );
+        Assert.assertTrue( restCredentialCache.isVerified( user, password ) );
+        Assert.assertFalse( restCredentialCache.isVerified( user, new PasswordData( "password2" ) ) );
+        Assert.assertFalse( restCredentialCache.isVerified( otherUser, password ) );
+
+        restCredentialCache.invalidate( user );
+        Assert.assertFalse( restCredentialCache.isVerified( user, password ) );
+    }
+}
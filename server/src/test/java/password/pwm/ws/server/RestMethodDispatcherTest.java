@@ -0,0 +1,92 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ws.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.config.option.WebServiceUsage;
+import password.pwm.http.HttpContentType;
+import password.pwm.http.HttpMethod;
+
+public class RestMethodDispatcherTest
+{
+    @Test
+    public void testHandlerResolution()
+    {
+        final RestMethodDispatcher dispatcher = RestMethodDispatcher.forClass( TestRestServer.class );
+
+        Assert.assertSame( dispatcher, RestMethodDispatcher.forClass( TestRestServer.class ) );
+
+        {
+            final RestMethodDispatcher.Resolution resolution = dispatcher.resolve(
+                    new RestMethodDispatcher.DispatchKey( HttpMethod.GET, HttpContentType.json, HttpContentType.json ) );
+            Assert.assertEquals( "TestRestServer.doJsonGet", resolution.getHandler().getName() );
+        }
+
+        {
+            final RestMethodDispatcher.Resolution resolution = dispatcher.resolve(
+                    new RestMethodDispatcher.DispatchKey( HttpMethod.POST, HttpContentType.form, HttpContentType.json ) );
+            Assert.assertEquals( "TestRestServer.doFormPost", resolution.getHandler().getName() );
+        }
+
+        {
+            final RestMethodDispatcher.Resolution resolution = dispatcher.resolve(
+                    new RestMethodDispatcher.DispatchKey( HttpMethod.DELETE, null, HttpContentType.json ) );
+            Assert.assertNull( resolution.getHandler() );
+            Assert.assertEquals( "HTTP method unavailable", resolution.getErrorMsg() );
+        }
+
+        {
+            final RestMethodDispatcher.Resolution resolution = dispatcher.resolve(
+                    new RestMethodDispatcher.DispatchKey( HttpMethod.GET, null, null ) );
+            Assert.assertNull( resolution.getHandler() );
+            Assert.assertEquals( "Accept header is required", resolution.getErrorMsg() );
+        }
+
+        {
+            final RestMethodDispatcher.Resolution resolution = dispatcher.resolve(
+                    new RestMethodDispatcher.DispatchKey( HttpMethod.POST, HttpContentType.xml, HttpContentType.json ) );
+            Assert.assertNull( resolution.getHandler() );
+            Assert.assertEquals( "incorrect method, Content-Type header, or Accept header.", resolution.getErrorMsg() );
+        }
+    }
+
+    @RestWebServer( webService = WebServiceUsage.Health )
+    public static class TestRestServer extends RestServlet
+    {
+        @Override
+        public void preCheckRequest( final RestRequest request )
+        {
+        }
+
+        @RestMethodHandler( method = HttpMethod.GET, produces = HttpContentType.json )
+        public RestResultBean doJsonGet( final RestRequest restRequest )
+        {
+            return RestResultBean.withData( "get", String.class );
+        }
+
+        @RestMethodHandler( method = HttpMethod.POST, consumes = HttpContentType.form, produces = HttpContentType.json )
+        public RestResultBean doFormPost( final RestRequest restRequest )
+        {
+            return RestResultBean.withData( "post", String.class );
+        }
+    }
+}
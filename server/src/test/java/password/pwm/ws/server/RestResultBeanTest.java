@@ -0,0 +1,99 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2021 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ws.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.PwmConstants;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.json.JsonFactory;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+public class RestResultBeanTest
+{
+    @Test
+    public void testStreamedJson()
+    {
+        final RestResultBean<String> restResultBean = RestResultBean.withDataStream( output ->
+        {
+            output.accept( "one" );
+            output.accept( "two" );
+        }, String.class );
+
+        final Map<String, Object> json = writeStreamed( restResultBean );
+        Assert.assertEquals( List.of( "one", "two" ), json.get( "data" ) );
+        Assert.assertEquals( Boolean.FALSE, json.get( "error" ) );
+    }
+
+    @Test
+    public void testStreamedJsonError()
+    {
+        final RestResultBean<String> restResultBean = RestResultBean.withDataStream( output ->
+        {
+            output.accept( "one" );
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, "stream failure" );
+        }, String.class );
+
+        final Map<String, Object> json = writeStreamed( restResultBean );
+        Assert.assertEquals( List.of( "one" ), json.get( "data" ) );
+        Assert.assertEquals( Boolean.TRUE, json.get( "error" ) );
+        Assert.assertEquals( PwmError.ERROR_INTERNAL.getErrorCode(), ( ( Number ) json.get( "errorCode" ) ).intValue() );
+    }
+
+    @Test
+    public void testStreamedJsonPrettyPrint()
+    {
+        final RestResultBean<Map> restResultBean = RestResultBean.withDataStream( output ->
+        {
+            output.accept( Map.of( "key", "one" ) );
+            output.accept( Map.of( "key", "two" ) );
+        }, Map.class );
+
+        final String output = writeStreamedOutput( restResultBean, true );
+        Assert.assertTrue( output.contains( "\n" ) );
+
+        final Map<String, Object> json = JsonFactory.get().deserializeMap( output, String.class, Object.class );
+        Assert.assertEquals( List.of( Map.of( "key", "one" ), Map.of( "key", "two" ) ), json.get( "data" ) );
+        Assert.assertEquals( Boolean.FALSE, json.get( "error" ) );
+    }
+
+    private static Map<String, Object> writeStreamed( final RestResultBean<?> restResultBean )
+    {
+        final String output = writeStreamedOutput( restResultBean, false );
+        Assert.assertFalse( output.contains( "\n" ) );
+        return JsonFactory.get().deserializeMap( output, String.class, Object.class );
+    }
+
+    private static String writeStreamedOutput( final RestResultBean<?> restResultBean, final boolean prettyPrint )
+    {
+        final StringWriter stringWriter = new StringWriter();
+        try ( PrintWriter printWriter = new PrintWriter( stringWriter ) )
+        {
+            restResultBean.writeStreamedJson( printWriter, PwmConstants.DEFAULT_LOCALE, null, prettyPrint );
+        }
+        return stringWriter.toString();
+    }
+}
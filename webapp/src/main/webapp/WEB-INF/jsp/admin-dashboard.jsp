@@ -127,6 +127,43 @@
                     <% } %>
                     <% } %>
                 </table>
+                <table class="nomargin">
+                    <tr>
+                        <td>
+                        </td>
+                        <td style="text-align: center; font-weight: bold;">
+                            <pwm:display key="Field_Latency_Count" bundle="Admin"/>
+                        </td>
+                        <td style="text-align: center; font-weight: bold;">
+                            <pwm:display key="Field_Latency_P50" bundle="Admin"/>
+                        </td>
+                        <td style="text-align: center; font-weight: bold;">
+                            <pwm:display key="Field_Latency_P95" bundle="Admin"/>
+                        </td>
+                        <td style="text-align: center; font-weight: bold;">
+                            <pwm:display key="Field_Latency_P99" bundle="Admin"/>
+                        </td>
+                    </tr>
+                    <% for (final AppDashboardData.LatencyData latencyData : appDashboardData.getLatencyData()) { %>
+                    <tr id="latency-<%=latencyData.getName()%>">
+                        <td class="key">
+                            <%= latencyData.getLabel() %>
+                        </td>
+                        <td style="text-align: center">
+                            <%= latencyData.getCount() %>
+                        </td>
+                        <td style="text-align: center">
+                            <%= latencyData.getP50() %>
+                        </td>
+                        <td style="text-align: center">
+                            <%= latencyData.getP95() %>
+                        </td>
+                        <td style="text-align: center">
+                            <%= latencyData.getP99() %>
+                        </td>
+                    </tr>
+                    <% } %>
+                </table>
                 <div class="tab-container" style="margin-top: 15px;">
                     <input name="status_tabs" type="radio" id="tab-1.1" checked="checked" class="input"/>
                     <label for="tab-1.1" class="label">Last Minute</label>
@@ -278,6 +315,9 @@
                             <td style="font-weight:bold;">
                                 Storage
                             </td>
+                            <td style="font-weight:bold;">
+                                Startup
+                            </td>
                             <td style="font-weight:bold;">
                                 Health
                             </td>
@@ -305,6 +345,9 @@
                                 <br/>
                                 <% } %>
                             </td>
+                            <td>
+                                <%= loopService.getInitDuration() == null ? "" : loopService.getInitDuration() %>
+                            </td>
                             <td>
                                 <% if (!CollectionUtil.isEmpty(loopService.getHealth())) { %>
                                 <% for (final HealthRecord loopRecord : loopService.getHealth()) { %>